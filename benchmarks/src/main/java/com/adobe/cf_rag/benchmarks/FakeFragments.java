@@ -0,0 +1,179 @@
+package com.adobe.cf_rag.benchmarks;
+
+import com.adobe.cq.dam.cfm.ContentElement;
+import com.adobe.cq.dam.cfm.ContentFragment;
+import com.adobe.cq.dam.cfm.ContentVariation;
+import com.adobe.cq.dam.cfm.FragmentData;
+import com.adobe.cq.dam.cfm.VariationDef;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * In-memory Content Fragments built from dynamic proxies, so the serializer can be measured
+ * without an AEM repository. Only the methods the serializer calls are implemented.
+ */
+public final class FakeFragments {
+
+    private static final String[] WORDS = {
+            "content", "fragment", "experience", "manager", "delivery", "headless", "model", "variation",
+            "asset", "channel", "campaign", "product", "author", "publish", "structured", "reuse"
+    };
+
+    private FakeFragments() {
+    }
+
+    /**
+     * A short product teaser: a handful of plain text fields and a tag list.
+     */
+    public static ContentFragment teaser(int seed) {
+        Random random = new Random(seed);
+        Map<String, Object> elements = new LinkedHashMap<>();
+        elements.put("headline", sentence(random, 8));
+        elements.put("subline", sentence(random, 16));
+        elements.put("ctaLabel", sentence(random, 2));
+        elements.put("ctaLink", "/content/site/en/products/" + WORDS[random.nextInt(WORDS.length)]);
+        elements.put("tags", tags(random, 5));
+        elements.put("priority", random.nextInt(10));
+        elements.put("featured", random.nextBoolean());
+        return fragment("teaser-" + seed, elements, Collections.emptyMap());
+    }
+
+    /**
+     * A long-form article: rich text body of several kilobytes, multi-valued fields and two
+     * variations that override some of the elements.
+     */
+    public static ContentFragment article(int seed) {
+        Random random = new Random(seed);
+        Map<String, Object> elements = new LinkedHashMap<>();
+        elements.put("title", sentence(random, 10));
+        elements.put("lead", sentence(random, 40));
+        elements.put("body", richText(random, 12, 80));
+        elements.put("author", sentence(random, 2));
+        elements.put("publishDate", "2024-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10) + "T09:30:00.000Z");
+        elements.put("tags", tags(random, 12));
+        elements.put("relatedArticles", new String[]{
+                "/content/dam/site/articles/a-" + random.nextInt(1000),
+                "/content/dam/site/articles/a-" + random.nextInt(1000),
+                "/content/dam/site/articles/a-" + random.nextInt(1000)});
+        elements.put("readingTime", 3 + random.nextInt(12));
+        elements.put("rating", random.nextDouble() * 5);
+
+        Map<String, Map<String, Object>> variations = new LinkedHashMap<>();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("body", richText(random, 2, 40));
+        variations.put("summary", summary);
+        Map<String, Object> social = new LinkedHashMap<>();
+        social.put("title", sentence(random, 6));
+        social.put("lead", sentence(random, 12));
+        variations.put("social", social);
+        return fragment("article-" + seed, elements, variations);
+    }
+
+    private static ContentFragment fragment(String name, Map<String, Object> master,
+                                            Map<String, Map<String, Object>> variations) {
+        List<ContentElement> elements = new ArrayList<>();
+        for (Map.Entry<String, Object> element : master.entrySet()) {
+            Map<String, FragmentData> overrides = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, Object>> variation : variations.entrySet()) {
+                if (variation.getValue().containsKey(element.getKey())) {
+                    overrides.put(variation.getKey(), data(variation.getValue().get(element.getKey())));
+                }
+            }
+            elements.add(element(element.getKey(), data(element.getValue()), overrides));
+        }
+        List<VariationDef> variationDefs = new ArrayList<>();
+        for (String variationName : variations.keySet()) {
+            variationDefs.add(proxy(VariationDef.class, (method, args) ->
+                    "getName".equals(method) ? variationName : null));
+        }
+        String title = String.valueOf(master.getOrDefault("title", master.get("headline")));
+        return proxy(ContentFragment.class, (method, args) -> {
+            switch (method) {
+                case "getTitle":
+                    return title;
+                case "getName":
+                    return name;
+                case "getElements":
+                    return elements.iterator();
+                case "listAllVariations":
+                    return variationDefs.iterator();
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static ContentElement element(String name, FragmentData value, Map<String, FragmentData> variations) {
+        return proxy(ContentElement.class, (method, args) -> {
+            switch (method) {
+                case "getName":
+                    return name;
+                case "getValue":
+                    return value;
+                case "getVariation":
+                    FragmentData data = variations.get((String) args[0]);
+                    return data != null ? proxy(ContentVariation.class, (m, a) -> "getValue".equals(m) ? data : null) : null;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static FragmentData data(Object value) {
+        return proxy(FragmentData.class, (method, args) -> "getValue".equals(method) ? value : null);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(FakeFragments.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                        default:
+                            return handler.invoke(method.getName(), args);
+                    }
+                }));
+    }
+
+    static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String richText(Random random, int paragraphs, int wordsPerParagraph) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++) {
+            sb.append("<p>").append(sentence(random, wordsPerParagraph)).append(" &amp; \"quoted\" text.</p>\n");
+        }
+        return sb.toString();
+    }
+
+    private static String[] tags(Random random, int count) {
+        String[] tags = new String[count];
+        for (int i = 0; i < count; i++) {
+            tags[i] = "site:topics/" + WORDS[random.nextInt(WORDS.length)];
+        }
+        return tags;
+    }
+}
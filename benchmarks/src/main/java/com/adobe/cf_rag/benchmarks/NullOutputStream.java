@@ -0,0 +1,29 @@
+package com.adobe.cf_rag.benchmarks;
+
+import java.io.OutputStream;
+
+/**
+ * Discards everything written to it, counting the bytes so the work cannot be optimized away.
+ */
+public final class NullOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        count += len;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void reset() {
+        count = 0;
+    }
+}
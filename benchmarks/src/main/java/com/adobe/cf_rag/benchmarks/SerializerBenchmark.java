@@ -0,0 +1,61 @@
+package com.adobe.cf_rag.benchmarks;
+
+import com.adobe.cf_rag.export.ContentFragmentSerializer;
+import com.adobe.cq.dam.cfm.ContentFragment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of one fragment variation, both into a String (buildJsonContent) and
+ * streamed into an output stream as the export pipeline does (snapshot + writeTo).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({"teaser", "article"})
+    public String shape;
+
+    @Param({"master", "summary"})
+    public String variation;
+
+    private ContentFragmentSerializer serializer;
+    private ContentFragment fragment;
+    private NullOutputStream out;
+
+    @Setup
+    public void setUp() {
+        serializer = new ContentFragmentSerializer(new ObjectMapper());
+        fragment = "article".equals(shape) ? FakeFragments.article(42) : FakeFragments.teaser(42);
+        out = new NullOutputStream();
+    }
+
+    @Benchmark
+    public String buildJsonContent() {
+        return serializer.buildJsonContent(fragment, variation);
+    }
+
+    @Benchmark
+    public long streamSnapshot() throws IOException {
+        out.reset();
+        serializer.snapshot(fragment, variation).writeTo(out);
+        return out.getCount();
+    }
+}
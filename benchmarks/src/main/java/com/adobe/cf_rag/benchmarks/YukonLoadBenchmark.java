@@ -0,0 +1,142 @@
+package com.adobe.cf_rag.benchmarks;
+
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+import com.adobe.cf_rag.docstore.api.model.Document;
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
+import com.adobe.cf_rag.docstore.api.model.SearchResult;
+import com.adobe.cf_rag.docstore.api.model.UploadResult;
+import com.adobe.cf_rag.docstore.yukon.YukonConfig;
+import com.adobe.cf_rag.docstore.yukon.YukonDocumentStoreService;
+import com.adobe.cf_rag.fakeyukon.FakeYukonServer;
+import com.adobe.cf_rag.fakeyukon.LatencyDistribution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load against {@link FakeYukonServer}: the real service, transport and token
+ * handling over loopback HTTP, with production-like latency and optional fault injection.
+ * Reports throughput and the latency distribution (p50 to p99.99) under 16 concurrent callers.
+ * Questions and queries are unique, so every call reaches the server. Run with
+ * {@code -p hedge=false,true} to compare the inference tail latency with hedging.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(16)
+@Fork(1)
+public class YukonLoadBenchmark {
+
+    private static final String LIST_COLLECTION = "load-list";
+    private static final String UPLOAD_COLLECTION = "load-upload";
+    private static final int UPLOAD_BATCH = 10;
+
+    @Param({"lognormal:200:2000"})
+    public String inferenceLatency;
+
+    @Param({"50"})
+    public int tokensPerSecond;
+
+    @Param({"0", "0.05"})
+    public double inference429;
+
+    @Param({"0"})
+    public double inferenceStall;
+
+    @Param({"2000"})
+    public int listedDocuments;
+
+    @Param({"false"})
+    public boolean hedge;
+
+    private final AtomicLong questions = new AtomicLong();
+    private FakeYukonServer server;
+    private YukonDocumentStoreService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = FakeYukonServer.builder()
+                .port(0)
+                .tokensPerSecond(tokensPerSecond)
+                .build();
+        server.profile(FakeYukonServer.Endpoint.INFERENCE)
+                .latency(LatencyDistribution.parse(inferenceLatency))
+                .rate429(inference429)
+                .stallRate(inferenceStall)
+                .stallMillis(5000);
+        server.profile(FakeYukonServer.Endpoint.LIST).latency(LatencyDistribution.uniform(20, 80));
+        server.profile(FakeYukonServer.Endpoint.UPLOAD).latency(LatencyDistribution.lognormal(100, 800));
+        server.start();
+        server.preload(LIST_COLLECTION, listedDocuments);
+        server.preload(UPLOAD_COLLECTION, 0);
+
+        service = new YukonDocumentStoreService(YukonConfig.builder()
+                .imsHost(server.getBaseUrl())
+                .yukonBaseUrl(server.getBaseUrl())
+                .clientId("load")
+                .clientSecret("load")
+                .authorizationCode("load")
+                .indexRefreshInterval(0)
+                .hedgeEnabled(hedge)
+                .build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+        System.out.println("\nFake server: " + server.getInjected429Count() + " injected 429s, "
+                + server.getInjected5xxCount() + " injected 5xx, " + server.getStallCount() + " stalls, "
+                + server.getRequestCount(FakeYukonServer.Endpoint.TOKEN) + " token exchanges");
+        if (hedge) {
+            System.out.println("Hedging: ask " + service.getAskHedger() + ", search " + service.getSearchHedger());
+        }
+        server.close();
+    }
+
+    @Benchmark
+    public InferenceResult askQuestion() throws DocumentStoreException {
+        String question = "What does fragment " + questions.incrementAndGet() + " describe?";
+        return service.askQuestion(LIST_COLLECTION, question, null, true);
+    }
+
+    @Benchmark
+    public SearchResult searchDocuments() throws DocumentStoreException {
+        return service.searchDocuments(LIST_COLLECTION, "fragments about topic " + questions.incrementAndGet(), 10);
+    }
+
+    @Benchmark
+    public ListDocumentsResult listDocuments() throws DocumentStoreException {
+        return service.listDocuments(LIST_COLLECTION);
+    }
+
+    @Benchmark
+    public List<UploadResult> uploadDocuments() throws DocumentStoreException {
+        List<Document> batch = new ArrayList<>(UPLOAD_BATCH);
+        for (int i = 0; i < UPLOAD_BATCH; i++) {
+            long n = questions.incrementAndGet();
+            batch.add(new Document(null, "content_dam_site_en_load_doc-" + n + "__master.json",
+                    "{\"title\":\"Load document " + n + "\"}"));
+        }
+        return service.uploadDocuments(UPLOAD_COLLECTION, batch);
+    }
+}
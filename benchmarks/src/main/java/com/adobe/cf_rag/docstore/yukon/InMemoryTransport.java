@@ -0,0 +1,73 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Transport that answers every request from memory: IMS token exchanges with a fixed token,
+ * inference calls with a recorded SSE transcript. Lives in the Yukon package because
+ * responses are created through the package-private {@link YukonResponse} constructor.
+ */
+public class InMemoryTransport implements YukonTransport {
+
+    private static final byte[] TOKEN_RESPONSE =
+            "{\"access_token\":\"benchmark-token\",\"expires_in\":86400}".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] inferenceTranscript;
+    private final TransportMetrics metrics = new TransportMetrics();
+
+    public InMemoryTransport(byte[] inferenceTranscript) {
+        this.inferenceTranscript = inferenceTranscript;
+    }
+
+    /**
+     * Loads a recorded transcript from the benchmark resources, e.g. "answer-long.sse".
+     */
+    public static byte[] transcript(String name) {
+        try (InputStream in = InMemoryTransport.class.getResourceAsStream("/sse/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No transcript " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns a response replaying the given bytes, without going through a transport.
+     */
+    public static YukonResponse response(int status, byte[] body) {
+        return new YukonResponse(status, name -> null, new ByteArrayInputStream(body), () -> { }, () -> { });
+    }
+
+    @Override
+    public YukonResponse execute(YukonRequest request) throws IOException {
+        if (request.getBody() != null) {
+            request.getBody().writeTo(new ByteArrayOutputStream());
+        }
+        if (request.getUrl().contains("/ims/token")) {
+            return response(200, TOKEN_RESPONSE);
+        }
+        return response(200, inferenceTranscript);
+    }
+
+    @Override
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,76 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.benchmarks.FakeFragments;
+import com.adobe.cf_rag.benchmarks.NullOutputStream;
+import com.adobe.cf_rag.docstore.api.model.Document;
+import com.adobe.cf_rag.export.ContentFragmentSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a multipart upload body for a batch of streamed fragment documents, as the
+ * export uploaders do for every batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultipartBenchmark {
+
+    @Param({"1", "20"})
+    public int batchSize;
+
+    private YukonDocumentStoreService service;
+    private List<Document> documents;
+    private NullOutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new YukonDocumentStoreService(YukonConfig.builder()
+                .clientId("benchmark")
+                .clientSecret("benchmark")
+                .authorizationCode("benchmark")
+                .indexRefreshInterval(0)
+                .build(), new InMemoryTransport(new byte[0]));
+
+        ContentFragmentSerializer serializer = new ContentFragmentSerializer(new ObjectMapper());
+        documents = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String path = "/content/dam/site/en/articles/article-" + i;
+            documents.add(new Document(null, serializer.buildFileName(path, "master"),
+                    serializer.snapshot(FakeFragments.article(i), "master")));
+        }
+        out = new NullOutputStream();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public long writeMultipartBody() throws IOException {
+        out.reset();
+        service.writeMultipartBody(out, "----DocStoreBoundarybenchmark", documents);
+        return out.getCount();
+    }
+}
@@ -0,0 +1,119 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.docstore.api.model.SearchResult;
+import com.adobe.cf_rag.docstore.index.CollectionIndex;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of recorded Yukon inference streams: raw SSE framing and JSON parsing, the full
+ * answer and search paths on top of it, and the per-event source and file name extraction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YukonParsingBenchmark {
+
+    private static final String COLLECTION_ID = "benchmark-collection";
+
+    @Param({"answer-short.sse", "answer-long.sse"})
+    public String transcript;
+
+    private byte[] transcriptBytes;
+    private YukonDocumentStoreService service;
+    private InferenceEvent sourceEvent;
+    private CollectionIndex index;
+    private String[] fileNames;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        transcriptBytes = InMemoryTransport.transcript(transcript);
+        service = new YukonDocumentStoreService(YukonConfig.builder()
+                .clientId("benchmark")
+                .clientSecret("benchmark")
+                .authorizationCode("benchmark")
+                .indexRefreshInterval(0)
+                .build(), new InMemoryTransport(transcriptBytes));
+
+        byte[] firstEvent = new String(transcriptBytes, StandardCharsets.UTF_8).split("\n", 2)[0]
+                .substring("data: ".length()).getBytes(StandardCharsets.UTF_8);
+        // the parser reuses its event, so keep a copy of the first one
+        sourceEvent = new InferenceEvent();
+        List<String> names = new ArrayList<>();
+        try (InferenceEventParser parser = new InferenceEventParser(new JsonFactory())) {
+            parser.parse(firstEvent, firstEvent.length, event -> {
+                for (int i = 0; i < event.getSourceCount(); i++) {
+                    sourceEvent.addSource(event.getSourceDocumentId(i), event.getSourceDocumentName(i));
+                    names.add(event.getSourceDocumentName(i));
+                }
+                return true;
+            });
+        }
+        index = new CollectionIndex();
+        fileNames = names.toArray(new String[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public int processSseStream() throws IOException {
+        int[] events = new int[1];
+        service.processSseStream(InMemoryTransport.response(200, transcriptBytes), event -> {
+            events[0]++;
+            return false;
+        });
+        return events[0];
+    }
+
+    @Benchmark
+    public InferenceResult askQuestion() throws IOException {
+        return service.doAskQuestion("benchmark-token", COLLECTION_ID, "What is a content fragment?", null, null);
+    }
+
+    @Benchmark
+    public SearchResult searchDocuments() throws IOException {
+        return service.doSearchDocuments("benchmark-token", COLLECTION_ID, "content fragment", 10);
+    }
+
+    @Benchmark
+    public Map<String, SearchResult.DocumentInfo> extractSourceDocuments() {
+        Map<String, SearchResult.DocumentInfo> documents = new LinkedHashMap<>();
+        service.extractSourceDocuments(sourceEvent, index, documents, 10);
+        return documents;
+    }
+
+    @Benchmark
+    public void extractJcrPathFromFileName(Blackhole blackhole) {
+        for (String fileName : fileNames) {
+            blackhole.consume(service.extractJcrPathFromFileName(fileName));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.adobe.cf_rag.fakeyukon;
+
+/**
+ * Latency and fault settings of one fake endpoint. Settings may be changed while the server
+ * runs, e.g. to switch on throttling in the middle of a load test.
+ */
+public final class EndpointProfile {
+
+    private volatile LatencyDistribution latency = LatencyDistribution.NONE;
+    private volatile double rate429;
+    private volatile double rate5xx;
+    private volatile double stallRate;
+    private volatile long stallMillis = 30000;
+    private volatile int retryAfterSeconds = 1;
+
+    EndpointProfile() {
+    }
+
+    public LatencyDistribution getLatency() {
+        return latency;
+    }
+
+    /**
+     * Delay added before the endpoint answers.
+     */
+    public EndpointProfile latency(LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public double getRate429() {
+        return rate429;
+    }
+
+    /**
+     * Fraction of requests answered with 429 and a Retry-After header.
+     */
+    public EndpointProfile rate429(double rate429) {
+        this.rate429 = checkRate(rate429);
+        return this;
+    }
+
+    public double getRate5xx() {
+        return rate5xx;
+    }
+
+    /**
+     * Fraction of requests answered with 500, 502 or 503.
+     */
+    public EndpointProfile rate5xx(double rate5xx) {
+        this.rate5xx = checkRate(rate5xx);
+        return this;
+    }
+
+    public double getStallRate() {
+        return stallRate;
+    }
+
+    /**
+     * Fraction of requests that hang for {@link #getStallMillis()}. Plain endpoints stall
+     * before sending headers; the answer stream stalls part way through the answer.
+     */
+    public EndpointProfile stallRate(double stallRate) {
+        this.stallRate = checkRate(stallRate);
+        return this;
+    }
+
+    public long getStallMillis() {
+        return stallMillis;
+    }
+
+    public EndpointProfile stallMillis(long stallMillis) {
+        this.stallMillis = stallMillis;
+        return this;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public EndpointProfile retryAfterSeconds(int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("Rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+
+    @Override
+    public String toString() {
+        return "latency=" + latency + ", 429=" + rate429 + ", 5xx=" + rate5xx
+                + ", stall=" + stallRate + "/" + stallMillis + "ms";
+    }
+}
@@ -0,0 +1,632 @@
+package com.adobe.cf_rag.fakeyukon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for IMS and Yukon, for load tests that must not touch the real services.
+ * Implements the token exchange, collection creation, multipart upload, paginated document
+ * listing and the SSE question-answer stream, with per-endpoint latency, 429/5xx injection
+ * and stalled connections (see {@link EndpointProfile}). Answers are streamed at a fixed
+ * token rate. Point both {@code imsHost} and {@code yukonBaseUrl} at {@link #getBaseUrl()}.
+ *
+ * <p>Access tokens are checked: requests with an unknown or expired token get a 401, and
+ * {@link #revokeTokens()} forces every client through a new exchange.</p>
+ */
+public final class FakeYukonServer implements AutoCloseable {
+
+    /**
+     * The endpoints that can be tuned individually.
+     */
+    public enum Endpoint {
+        TOKEN, COLLECTION, UPLOAD, LIST, INFERENCE;
+
+        static Endpoint fromKey(String key) {
+            return valueOf(key.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final Pattern UPLOAD_PATH = Pattern.compile("/api/v2/collection/([^/]+)/upload");
+    private static final Pattern LIST_PATH = Pattern.compile("/api/v2/collection/([^/]+)/document");
+    private static final Pattern FILE_NAME = Pattern.compile("filename=\"([^\"]*)\"");
+    private static final int[] SERVER_ERRORS = {500, 502, 503};
+    private static final String[] WORDS = {
+            "content", "fragment", "experience", "manager", "delivery", "headless", "model", "variation",
+            "asset", "channel", "campaign", "product", "author", "publish", "structured", "reuse"
+    };
+
+    private final int port;
+    private final long tokenLifetimeSeconds;
+    private final int tokensPerSecond;
+    private final int answerTokens;
+    private final int sourceDocuments;
+
+    private final Map<Endpoint, EndpointProfile> profiles = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> requestCounts = new EnumMap<>(Endpoint.class);
+    private final LongAdder injected429 = new LongAdder();
+    private final LongAdder injected5xx = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+    private final LongAdder rejectedTokens = new LongAdder();
+
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private final Map<String, FakeCollection> collections = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    private FakeYukonServer(Builder builder) {
+        this.port = builder.port;
+        this.tokenLifetimeSeconds = builder.tokenLifetimeSeconds;
+        this.tokensPerSecond = builder.tokensPerSecond;
+        this.answerTokens = builder.answerTokens;
+        this.sourceDocuments = builder.sourceDocuments;
+        for (Endpoint endpoint : Endpoint.values()) {
+            profiles.put(endpoint, new EndpointProfile());
+            requestCounts.put(endpoint, new LongAdder());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Starts listening on the loopback interface. Every exchange gets its own thread, so
+     * stalled and slow streams never hold up other requests.
+     */
+    public FakeYukonServer start() throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-yukon-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        return this;
+    }
+
+    /**
+     * Returns the URL to use as both IMS host and Yukon base URL.
+     */
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the live settings of an endpoint.
+     */
+    public EndpointProfile profile(Endpoint endpoint) {
+        return profiles.get(endpoint);
+    }
+
+    /**
+     * Creates the collection if needed and adds {@code count} synthetic documents to it.
+     */
+    public void preload(String collectionId, int count) {
+        FakeCollection collection = collections.computeIfAbsent(collectionId, id -> new FakeCollection(id));
+        for (int i = 0; i < count; i++) {
+            collection.add(UUID.randomUUID().toString(),
+                    "content_dam_site_en_articles_" + WORDS[i % WORDS.length] + "-" + i + "__master.json");
+        }
+    }
+
+    /**
+     * Invalidates every issued token; the next Yukon call of each client gets a 401.
+     */
+    public void revokeTokens() {
+        tokens.clear();
+    }
+
+    public long getRequestCount(Endpoint endpoint) {
+        return requestCounts.get(endpoint).sum();
+    }
+
+    public long getInjected429Count() {
+        return injected429.sum();
+    }
+
+    public long getInjected5xxCount() {
+        return injected5xx.sum();
+    }
+
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    public long getRejectedTokenCount() {
+        return rejectedTokens.sum();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    // ========== Request Handling ==========
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            byte[] body = readAll(exchange.getRequestBody());
+
+            Endpoint endpoint;
+            Matcher matcher = null;
+            if ("POST".equals(method) && "/ims/token/v2".equals(path)) {
+                endpoint = Endpoint.TOKEN;
+            } else if ("POST".equals(method) && "/api/v2/collection".equals(path)) {
+                endpoint = Endpoint.COLLECTION;
+            } else if ("POST".equals(method) && (matcher = UPLOAD_PATH.matcher(path)).matches()) {
+                endpoint = Endpoint.UPLOAD;
+            } else if ("GET".equals(method) && (matcher = LIST_PATH.matcher(path)).matches()) {
+                endpoint = Endpoint.LIST;
+            } else if ("POST".equals(method) && "/api/v2/inference/question-answer/stream".equals(path)) {
+                endpoint = Endpoint.INFERENCE;
+            } else {
+                sendError(exchange, 404, "No fake endpoint for " + method + " " + path);
+                return;
+            }
+            requestCounts.get(endpoint).increment();
+
+            EndpointProfile profile = profiles.get(endpoint);
+            pause(profile.getLatency().sample());
+            if (injectFault(exchange, profile)) {
+                return;
+            }
+            if (endpoint != Endpoint.TOKEN && !isAuthorized(exchange)) {
+                rejectedTokens.increment();
+                sendError(exchange, 401, "Invalid or expired access token");
+                return;
+            }
+            boolean stall = ThreadLocalRandom.current().nextDouble() < profile.getStallRate();
+            if (stall && endpoint != Endpoint.INFERENCE) {
+                stalls.increment();
+                pause(profile.getStallMillis());
+            }
+
+            switch (endpoint) {
+                case TOKEN:
+                    handleToken(exchange);
+                    break;
+                case COLLECTION:
+                    handleCreateCollection(exchange, body);
+                    break;
+                case UPLOAD:
+                    handleUpload(exchange, matcher.group(1), body);
+                    break;
+                case LIST:
+                    handleList(exchange, matcher.group(1));
+                    break;
+                default:
+                    handleInference(exchange, body, stall ? profile.getStallMillis() : -1);
+                    break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // client gave up on the exchange, which is expected under fault injection
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean injectFault(HttpExchange exchange, EndpointProfile profile) throws IOException {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < profile.getRate429()) {
+            injected429.increment();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(profile.getRetryAfterSeconds()));
+            sendError(exchange, 429, "Too many requests");
+            return true;
+        }
+        if (roll < profile.getRate429() + profile.getRate5xx()) {
+            injected5xx.increment();
+            int status = SERVER_ERRORS[ThreadLocalRandom.current().nextInt(SERVER_ERRORS.length)];
+            sendError(exchange, status, "Injected server error");
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        Long expiresAt = tokens.get(authorization.substring("Bearer ".length()));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private void handleToken(HttpExchange exchange) throws IOException {
+        String token = "fake-" + UUID.randomUUID();
+        tokens.put(token, System.currentTimeMillis() + tokenLifetimeSeconds * 1000);
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("access_token", token);
+        json.put("token_type", "bearer");
+        json.put("expires_in", tokenLifetimeSeconds);
+        sendJson(exchange, 200, json);
+    }
+
+    private void handleCreateCollection(HttpExchange exchange, byte[] body) throws IOException {
+        JsonNode request = objectMapper.readTree(body);
+        String collectionId = UUID.randomUUID().toString();
+        collections.put(collectionId, new FakeCollection(request.path("name").asText(collectionId)));
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("namespace_id", collectionId);
+        json.put("name", request.path("name").asText(null));
+        sendJson(exchange, 200, json);
+    }
+
+    private void handleUpload(HttpExchange exchange, String collectionId, byte[] body) throws IOException {
+        FakeCollection collection = collections.get(collectionId);
+        if (collection == null) {
+            sendError(exchange, 404, "Unknown collection " + collectionId);
+            return;
+        }
+        ArrayNode uploaded = objectMapper.createArrayNode();
+        Matcher matcher = FILE_NAME.matcher(new String(body, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            String documentId = UUID.randomUUID().toString();
+            collection.add(documentId, matcher.group(1));
+            uploaded.addObject()
+                    .put("document_id", documentId)
+                    .put("document_name", matcher.group(1));
+        }
+        sendJson(exchange, 200, uploaded.size() == 1 ? uploaded.get(0) : uploaded);
+    }
+
+    private void handleList(HttpExchange exchange, String collectionId) throws IOException {
+        FakeCollection collection = collections.get(collectionId);
+        if (collection == null) {
+            sendError(exchange, 404, "Unknown collection " + collectionId);
+            return;
+        }
+        int page = Math.max(1, queryParameter(exchange, "page", 1));
+        int pageSize = Math.max(1, queryParameter(exchange, "page_size", 100));
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("total", collection.size());
+        json.put("page", page);
+        json.put("page_size", pageSize);
+        ArrayNode items = json.putArray("pages");
+        for (String[] document : collection.range((long) (page - 1) * pageSize, pageSize)) {
+            items.addObject()
+                    .put("document_id", document[0])
+                    .put("document_name", document[1]);
+        }
+        sendJson(exchange, 200, json);
+    }
+
+    /**
+     * Streams an answer like Yukon does: one event carrying the sources, then one event per
+     * token at the configured rate, then the completion event. A stall holds the connection
+     * open, silent, at a random point after the headers were sent.
+     */
+    private void handleInference(HttpExchange exchange, byte[] body, long stallMillis)
+            throws IOException, InterruptedException {
+        JsonNode request = objectMapper.readTree(body);
+        FakeCollection collection = collections.get(request.path("collections").path(0).asText());
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+
+        ObjectNode first = objectMapper.createObjectNode();
+        first.put("generated_text", "");
+        ObjectNode source = first.putObject("source");
+        if (collection != null) {
+            List<String[]> documents = collection.sample(sourceDocuments);
+            for (int i = 0; i < documents.size(); i++) {
+                source.putObject(String.valueOf(i + 1))
+                        .put("document_id", documents.get(i)[0])
+                        .put("document_name", documents.get(i)[1])
+                        .put("score", 1.0 - i * 0.1);
+            }
+        }
+        first.put("stream_complete", false);
+        writeEvent(out, first);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int stallAt = stallMillis >= 0 ? random.nextInt(Math.max(1, answerTokens)) : -1;
+        long interval = tokensPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / tokensPerSecond : 0;
+        long next = System.nanoTime();
+        for (int i = 0; i < answerTokens; i++) {
+            if (i == stallAt) {
+                stalls.increment();
+                pause(stallMillis);
+                next = System.nanoTime();
+            }
+            next += interval;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            ObjectNode chunk = objectMapper.createObjectNode();
+            String text = WORDS[random.nextInt(WORDS.length)] + (i % 8 == 7 ? " [^1] " : " ");
+            chunk.put("generated_text", text);
+            chunk.put("stream_complete", false);
+            writeEvent(out, chunk);
+        }
+
+        ObjectNode last = objectMapper.createObjectNode();
+        last.put("generated_text", "");
+        last.put("stream_complete", true);
+        writeEvent(out, last);
+    }
+
+    private void writeEvent(OutputStream out, JsonNode event) throws IOException {
+        out.write(("data: [" + objectMapper.writeValueAsString(event) + "]\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void sendJson(HttpExchange exchange, int status, JsonNode json) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(json);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("error", message);
+        sendJson(exchange, status, json);
+    }
+
+    private static int queryParameter(HttpExchange exchange, String name, int defaultValue) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                    try {
+                        return Integer.parseInt(pair.substring(eq + 1));
+                    } catch (NumberFormatException e) {
+                        return defaultValue;
+                    }
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void pause(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    /**
+     * Documents of one fake collection, in upload order.
+     */
+    private static final class FakeCollection {
+        private final String name;
+        private final List<String[]> documents = new ArrayList<>();
+
+        FakeCollection(String name) {
+            this.name = name;
+        }
+
+        synchronized void add(String documentId, String documentName) {
+            documents.add(new String[] {documentId, documentName});
+        }
+
+        synchronized int size() {
+            return documents.size();
+        }
+
+        synchronized List<String[]> range(long from, int count) {
+            if (from >= documents.size()) {
+                return Collections.emptyList();
+            }
+            int start = (int) from;
+            return new ArrayList<>(documents.subList(start, Math.min(documents.size(), start + count)));
+        }
+
+        synchronized List<String[]> sample(int count) {
+            List<String[]> sample = new ArrayList<>(Math.min(count, documents.size()));
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < count && !documents.isEmpty(); i++) {
+                sample.add(documents.get(random.nextInt(documents.size())));
+            }
+            return sample;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    // ========== Command Line ==========
+
+    /**
+     * Runs the server until the JVM is stopped. Options:
+     * <pre>
+     * --port=8099 --token-lifetime=86400 --tokens-per-second=50 --answer-tokens=40
+     * --source-documents=5 --preload=collectionId:count
+     * --&lt;endpoint&gt;.latency=lognormal:200:2000 --&lt;endpoint&gt;.429=0.05 --&lt;endpoint&gt;.5xx=0.01
+     * --&lt;endpoint&gt;.stall=0.01 --&lt;endpoint&gt;.stall-millis=30000 --&lt;endpoint&gt;.retry-after=1
+     * </pre>
+     * where the endpoint is one of token, collection, upload, list or inference.
+     */
+    public static void main(String[] args) throws Exception {
+        Builder builder = builder().port(8099);
+        Map<String, String> endpointOptions = new LinkedHashMap<>();
+        Map<String, Integer> preloads = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --option=value, got " + arg);
+            }
+            String option = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            switch (option) {
+                case "port":
+                    builder.port(Integer.parseInt(value));
+                    break;
+                case "token-lifetime":
+                    builder.tokenLifetimeSeconds(Long.parseLong(value));
+                    break;
+                case "tokens-per-second":
+                    builder.tokensPerSecond(Integer.parseInt(value));
+                    break;
+                case "answer-tokens":
+                    builder.answerTokens(Integer.parseInt(value));
+                    break;
+                case "source-documents":
+                    builder.sourceDocuments(Integer.parseInt(value));
+                    break;
+                case "preload":
+                    int colon = value.lastIndexOf(':');
+                    preloads.put(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+                    break;
+                default:
+                    endpointOptions.put(option, value);
+                    break;
+            }
+        }
+
+        FakeYukonServer server = builder.build();
+        endpointOptions.forEach((option, value) -> server.configure(option, value));
+        preloads.forEach(server::preload);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+
+        System.out.println("Fake IMS/Yukon listening on " + server.getBaseUrl());
+        for (Endpoint endpoint : Endpoint.values()) {
+            System.out.println("  " + endpoint.name().toLowerCase(Locale.ROOT) + ": " + server.profile(endpoint));
+        }
+        preloads.forEach((id, count) -> System.out.println("  collection " + id + ": " + count + " documents"));
+        new CountDownLatch(1).await();
+    }
+
+    private void configure(String option, String value) {
+        int dot = option.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Unknown option --" + option);
+        }
+        EndpointProfile profile = profile(Endpoint.fromKey(option.substring(0, dot)));
+        switch (option.substring(dot + 1)) {
+            case "latency":
+                profile.latency(LatencyDistribution.parse(value));
+                break;
+            case "429":
+                profile.rate429(Double.parseDouble(value));
+                break;
+            case "5xx":
+                profile.rate5xx(Double.parseDouble(value));
+                break;
+            case "stall":
+                profile.stallRate(Double.parseDouble(value));
+                break;
+            case "stall-millis":
+                profile.stallMillis(Long.parseLong(value));
+                break;
+            case "retry-after":
+                profile.retryAfterSeconds(Integer.parseInt(value));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option --" + option);
+        }
+    }
+
+    public static final class Builder {
+        private int port;
+        private long tokenLifetimeSeconds = 86400;
+        private int tokensPerSecond = 50;
+        private int answerTokens = 40;
+        private int sourceDocuments = 5;
+
+        private Builder() {
+        }
+
+        /**
+         * Port to listen on; 0 picks a free one.
+         */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Lifetime of issued access tokens, reported as {@code expires_in}.
+         */
+        public Builder tokenLifetimeSeconds(long tokenLifetimeSeconds) {
+            this.tokenLifetimeSeconds = tokenLifetimeSeconds;
+            return this;
+        }
+
+        /**
+         * Rate at which answer tokens are streamed; 0 streams them without delay.
+         */
+        public Builder tokensPerSecond(int tokensPerSecond) {
+            this.tokensPerSecond = tokensPerSecond;
+            return this;
+        }
+
+        /**
+         * Number of text events in every answer.
+         */
+        public Builder answerTokens(int answerTokens) {
+            this.answerTokens = answerTokens;
+            return this;
+        }
+
+        /**
+         * Number of source documents cited by every answer, drawn from the collection.
+         */
+        public Builder sourceDocuments(int sourceDocuments) {
+            this.sourceDocuments = sourceDocuments;
+            return this;
+        }
+
+        public FakeYukonServer build() {
+            return new FakeYukonServer(this);
+        }
+    }
+}
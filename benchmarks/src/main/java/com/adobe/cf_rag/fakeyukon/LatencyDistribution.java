@@ -0,0 +1,91 @@
+package com.adobe.cf_rag.fakeyukon;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Response delay of a fake endpoint. Written as {@code constant:50}, {@code uniform:10:100} or
+ * {@code lognormal:200:2000}; the log-normal form takes the median and the p99 in milliseconds,
+ * which is how production latency is usually reported and gives the long tail real inference has.
+ */
+public final class LatencyDistribution {
+
+    /** No added delay. */
+    public static final LatencyDistribution NONE = constant(0);
+
+    private static final double Z_99 = 2.3263;
+
+    private final String description;
+    private final Kind kind;
+    private final double a;
+    private final double b;
+
+    private enum Kind { CONSTANT, UNIFORM, LOGNORMAL }
+
+    private LatencyDistribution(String description, Kind kind, double a, double b) {
+        this.description = description;
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    public static LatencyDistribution constant(long millis) {
+        return new LatencyDistribution("constant:" + millis, Kind.CONSTANT, millis, millis);
+    }
+
+    public static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        if (maxMillis < minMillis) {
+            throw new IllegalArgumentException("uniform max below min: " + minMillis + ":" + maxMillis);
+        }
+        return new LatencyDistribution("uniform:" + minMillis + ":" + maxMillis, Kind.UNIFORM, minMillis, maxMillis);
+    }
+
+    public static LatencyDistribution lognormal(long medianMillis, long p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("lognormal needs 0 < median <= p99: " + medianMillis + ":" + p99Millis);
+        }
+        double mu = Math.log(medianMillis);
+        double sigma = (Math.log(p99Millis) - mu) / Z_99;
+        return new LatencyDistribution("lognormal:" + medianMillis + ":" + p99Millis, Kind.LOGNORMAL, mu, sigma);
+    }
+
+    /**
+     * Parses the textual form; a bare number is a constant delay.
+     */
+    public static LatencyDistribution parse(String value) {
+        String[] parts = value.trim().split(":");
+        try {
+            switch (parts[0]) {
+                case "constant":
+                    return constant(Long.parseLong(parts[1]));
+                case "uniform":
+                    return uniform(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "lognormal":
+                    return lognormal(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                default:
+                    return constant(Long.parseLong(parts[0]));
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + value, e);
+        }
+    }
+
+    /**
+     * Draws one delay in milliseconds.
+     */
+    public long sample() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (kind) {
+            case UNIFORM:
+                return (long) (a + random.nextDouble() * (b - a));
+            case LOGNORMAL:
+                return Math.round(Math.exp(a + b * random.nextGaussian()));
+            default:
+                return (long) a;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,99 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.fakeyukon.FakeYukonServer;
+import com.adobe.cf_rag.fakeyukon.LatencyDistribution;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs questions against a {@link FakeYukonServer} whose answer stream is slow to start for one
+ * attempt only, so that the hedge has to win.
+ */
+class HedgedInferenceTest {
+
+    private static final String COLLECTION = "hedged";
+    private static final long SLOW_MILLIS = 5000;
+
+    private FakeYukonServer server;
+    private YukonDocumentStoreService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void hedgeAnswersWhenTheOriginalRequestIsSlow() throws Exception {
+        start();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(service.askQuestion(COLLECTION, "Warm-up " + i, null, true).isSuccess());
+        }
+        RequestHedger hedger = service.getAskHedger();
+        assertEquals(0, hedger.getHedges());
+
+        server.profile(FakeYukonServer.Endpoint.INFERENCE).latency(LatencyDistribution.constant(SLOW_MILLIS));
+        long requests = server.getRequestCount(FakeYukonServer.Endpoint.INFERENCE);
+        long start = System.nanoTime();
+        CompletableFuture<InferenceResult> answer = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.askQuestion(COLLECTION, "What is slow?", null, true);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        awaitRequests(requests + 1);
+        server.profile(FakeYukonServer.Endpoint.INFERENCE).latency(LatencyDistribution.NONE);
+        InferenceResult result = answer.get(SLOW_MILLIS * 2, TimeUnit.MILLISECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertTrue(elapsedMillis < SLOW_MILLIS, "answered after " + elapsedMillis + " ms");
+        assertEquals(1, hedger.getHedges());
+        assertEquals(1, hedger.getHedgeWins());
+        assertEquals(requests + 2, server.getRequestCount(FakeYukonServer.Endpoint.INFERENCE));
+    }
+
+    private void awaitRequests(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + SLOW_MILLIS;
+        while (server.getRequestCount(FakeYukonServer.Endpoint.INFERENCE) < count) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("inference request never arrived");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private void start() throws Exception {
+        server = FakeYukonServer.builder()
+                .port(0)
+                .tokensPerSecond(0)
+                .answerTokens(20)
+                .build();
+        server.start();
+        server.preload(COLLECTION, 5);
+
+        service = new YukonDocumentStoreService(YukonConfig.builder()
+                .imsHost(server.getBaseUrl())
+                .yukonBaseUrl(server.getBaseUrl())
+                .clientId("client")
+                .clientSecret("secret")
+                .authorizationCode("code")
+                .hedgeEnabled(true)
+                .hedgeBudgetPercent(100)
+                .hedgeMinDelay(50)
+                .indexRefreshInterval(0)
+                .build());
+    }
+}
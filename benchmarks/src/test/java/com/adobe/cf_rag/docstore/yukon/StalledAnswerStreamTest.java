@@ -0,0 +1,83 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.fakeyukon.FakeYukonServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs questions against {@link FakeYukonServer} answer streams that go silent part way through.
+ */
+class StalledAnswerStreamTest {
+
+    private static final String COLLECTION = "stalled";
+    private static final int INFERENCE_TIMEOUT = 500;
+
+    private FakeYukonServer server;
+    private YukonDocumentStoreService service;
+
+    @AfterEach
+    void stop() {
+        if (service != null) {
+            service.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void failsAQuestionWhoseAnswerStreamStalls() throws Exception {
+        start(30000);
+
+        long start = System.nanoTime();
+        InferenceResult result = service.askQuestion(COLLECTION, "What stalls?", null, true);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorMessage().contains("No response data received"), result.getErrorMessage());
+        assertTrue(elapsedMillis >= INFERENCE_TIMEOUT && elapsedMillis < 5000, "failed after " + elapsedMillis + " ms");
+        assertEquals(1, server.getStallCount());
+    }
+
+    @Test
+    void answersAQuestionWhoseStreamPausesWithinTheTimeout() throws Exception {
+        start(INFERENCE_TIMEOUT / 3);
+
+        InferenceResult result = service.askQuestion(COLLECTION, "What pauses?", null, true);
+
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertFalse(result.getAnswer().isEmpty());
+        assertEquals(1, server.getStallCount());
+    }
+
+    private void start(long stallMillis) throws IOException {
+        server = FakeYukonServer.builder()
+                .port(0)
+                .tokensPerSecond(0)
+                .answerTokens(20)
+                .build();
+        server.profile(FakeYukonServer.Endpoint.INFERENCE)
+                .stallRate(1)
+                .stallMillis(stallMillis);
+        server.start();
+        server.preload(COLLECTION, 5);
+
+        service = new YukonDocumentStoreService(YukonConfig.builder()
+                .imsHost(server.getBaseUrl())
+                .yukonBaseUrl(server.getBaseUrl())
+                .clientId("client")
+                .clientSecret("secret")
+                .authorizationCode("code")
+                .inferenceTimeout(INFERENCE_TIMEOUT)
+                .indexRefreshInterval(0)
+                .build());
+    }
+}
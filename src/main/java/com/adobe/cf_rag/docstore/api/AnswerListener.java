@@ -0,0 +1,18 @@
+package com.adobe.cf_rag.docstore.api;
+
+import java.io.IOException;
+
+/**
+ * Receives the generated answer of an inference query incrementally, as the document store streams it.
+ */
+@FunctionalInterface
+public interface AnswerListener {
+
+    /**
+     * Called for each chunk of generated text, in order.
+     * Throwing aborts the upstream request, e.g. when the receiving client has disconnected.
+     *
+     * @param text the next chunk of the answer
+     */
+    void onText(String text) throws IOException;
+}
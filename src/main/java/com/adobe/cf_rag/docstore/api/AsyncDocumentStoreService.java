@@ -0,0 +1,71 @@
+package com.adobe.cf_rag.docstore.api;
+
+import com.adobe.cf_rag.docstore.api.model.Collection;
+import com.adobe.cf_rag.docstore.api.model.Document;
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
+import com.adobe.cf_rag.docstore.api.model.SearchResult;
+import com.adobe.cf_rag.docstore.api.model.UploadResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous companion of {@link DocumentStoreService}. Each operation returns immediately;
+ * the returned future completes with the same result as the blocking variant, or exceptionally
+ * with a {@link DocumentStoreException}.
+ *
+ * Cancelling a future (or completing it by timeout) aborts the request in flight.
+ */
+public interface AsyncDocumentStoreService {
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#createCollection}.
+     */
+    CompletableFuture<Collection> createCollectionAsync(String name, String description);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#uploadDocument}.
+     */
+    CompletableFuture<UploadResult> uploadDocumentAsync(String collectionId, String fileName, String jsonContent);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#uploadDocuments}.
+     */
+    CompletableFuture<List<UploadResult>> uploadDocumentsAsync(String collectionId, List<Document> documents);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#askQuestion}.
+     */
+    CompletableFuture<InferenceResult> askQuestionAsync(String collectionId, String question,
+                                                        List<String> documentIds);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#askQuestion(String, String, List, boolean)}.
+     */
+    CompletableFuture<InferenceResult> askQuestionAsync(String collectionId, String question,
+                                                        List<String> documentIds, boolean bypassCache);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#streamAnswer}. The listener is called
+     * on the worker thread running the request.
+     */
+    CompletableFuture<InferenceResult> streamAnswerAsync(String collectionId, String question,
+                                                         List<String> documentIds, AnswerListener listener);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#searchDocuments}.
+     */
+    CompletableFuture<SearchResult> searchDocumentsAsync(String collectionId, String query, int maxResults);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#listDocuments}.
+     */
+    CompletableFuture<ListDocumentsResult> listDocumentsAsync(String collectionId);
+
+    /**
+     * Asynchronous variant of {@link DocumentStoreService#openDocumentCursor}. The future completes
+     * once the first page is fetched; the remaining pages are fetched as the cursor is read.
+     */
+    CompletableFuture<DocumentCursor> openDocumentCursorAsync(String collectionId);
+}
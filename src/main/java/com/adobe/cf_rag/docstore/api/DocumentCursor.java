@@ -0,0 +1,62 @@
+package com.adobe.cf_rag.docstore.api;
+
+import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over the documents of a collection, fetching pages lazily as they are consumed.
+ * Only a bounded number of pages is held in memory, whatever the size of the collection.
+ * Closing the cursor cancels pages that are still being fetched.
+ */
+public interface DocumentCursor extends AutoCloseable {
+
+    /**
+     * Returns true if another document is available, fetching the next page if needed.
+     *
+     * @throws DocumentStoreException if a page cannot be fetched
+     */
+    boolean hasNext() throws DocumentStoreException;
+
+    /**
+     * Returns the next document.
+     *
+     * @throws DocumentStoreException if a page cannot be fetched
+     * @throws NoSuchElementException if the listing is exhausted
+     */
+    ListDocumentsResult.DocumentInfo next() throws DocumentStoreException;
+
+    /**
+     * Returns the number of documents reported by the document store, or -1 if unknown.
+     */
+    int getTotal();
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Returns a cursor over an already complete list of documents.
+     */
+    static DocumentCursor of(List<ListDocumentsResult.DocumentInfo> documents) {
+        Iterator<ListDocumentsResult.DocumentInfo> iterator = documents.iterator();
+        return new DocumentCursor() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public ListDocumentsResult.DocumentInfo next() {
+                return iterator.next();
+            }
+
+            @Override
+            public int getTotal() {
+                return documents.size();
+            }
+        };
+    }
+}
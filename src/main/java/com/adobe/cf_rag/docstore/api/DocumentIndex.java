@@ -0,0 +1,43 @@
+package com.adobe.cf_rag.docstore.api;
+
+import com.adobe.cf_rag.docstore.api.model.IndexedDocument;
+
+import java.util.List;
+
+/**
+ * Read-only view of a local index of a collection's documents, mapping document IDs to JCR
+ * paths and variations and back. The index may lag behind the remote collection.
+ */
+public interface DocumentIndex {
+
+    /**
+     * Returns the indexed document with the given ID, or null.
+     */
+    IndexedDocument get(String documentId);
+
+    /**
+     * Returns true if at least one document (of any variation) is indexed at the path.
+     */
+    boolean containsPath(String path);
+
+    /**
+     * Returns the documents indexed at exactly the given path, one per variation.
+     */
+    List<IndexedDocument> getDocuments(String path);
+
+    /**
+     * Returns up to {@code limit} documents at or below the given path, in no particular order.
+     */
+    List<IndexedDocument> listUnder(String path, int limit);
+
+    /**
+     * Returns the number of indexed documents.
+     */
+    int size();
+
+    /**
+     * Returns when the index last matched a full listing of the collection (epoch millis),
+     * or 0 if it never has, in which case it only holds the documents seen so far.
+     */
+    long getLastRefreshTime();
+}
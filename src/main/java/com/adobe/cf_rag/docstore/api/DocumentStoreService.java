@@ -1,11 +1,13 @@
 package com.adobe.cf_rag.docstore.api;
 
 import com.adobe.cf_rag.docstore.api.model.Collection;
+import com.adobe.cf_rag.docstore.api.model.Document;
 import com.adobe.cf_rag.docstore.api.model.InferenceResult;
 import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
 import com.adobe.cf_rag.docstore.api.model.SearchResult;
 import com.adobe.cf_rag.docstore.api.model.UploadResult;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -13,7 +15,7 @@ import java.util.List;
  * Provides operations for managing collections, uploading JSON documents,
  * and performing inference queries.
  */
-public interface DocumentStoreService {
+public interface DocumentStoreService extends AutoCloseable {
 
     /**
      * Creates a new collection in the document store.
@@ -37,6 +39,18 @@ public interface DocumentStoreService {
     UploadResult uploadDocument(String collectionId, String fileName, String jsonContent)
             throws DocumentStoreException;
 
+    /**
+     * Uploads several JSON documents to a collection. Implementations may combine
+     * the documents into as few requests as their API allows.
+     *
+     * @param collectionId the ID of the target collection
+     * @param documents    the documents to upload
+     * @return one upload result per document, in the order of the given list
+     * @throws DocumentStoreException if the upload cannot be performed at all
+     */
+    List<UploadResult> uploadDocuments(String collectionId, List<Document> documents)
+            throws DocumentStoreException;
+
     /**
      * Asks a question about documents in a collection using AI inference.
      *
@@ -49,6 +63,46 @@ public interface DocumentStoreService {
     InferenceResult askQuestion(String collectionId, String question, List<String> documentIds)
             throws DocumentStoreException;
 
+    /**
+     * Asks a question, optionally bypassing any answer cache of the implementation.
+     * A fresh answer still replaces the cached one.
+     *
+     * @param collectionId the ID of the collection to query
+     * @param question     the question to ask
+     * @param documentIds  optional list of specific document IDs to query (null for all)
+     * @param bypassCache  true to always run a new inference
+     * @return the inference result containing the answer
+     * @throws DocumentStoreException if the inference fails
+     */
+    default InferenceResult askQuestion(String collectionId, String question, List<String> documentIds,
+                                        boolean bypassCache) throws DocumentStoreException {
+        return askQuestion(collectionId, question, documentIds);
+    }
+
+    /**
+     * Asks a question and passes the answer to the listener chunk by chunk as it is generated.
+     * Implementations without streaming support deliver the complete answer as a single chunk.
+     *
+     * @param collectionId the ID of the collection to query
+     * @param question     the question to ask
+     * @param documentIds  optional list of specific document IDs to query (null for all)
+     * @param listener     receives the answer text as it arrives
+     * @return the inference result containing the complete answer
+     * @throws DocumentStoreException if the inference fails
+     */
+    default InferenceResult streamAnswer(String collectionId, String question, List<String> documentIds,
+                                         AnswerListener listener) throws DocumentStoreException {
+        InferenceResult result = askQuestion(collectionId, question, documentIds);
+        if (result.isSuccess() && result.getAnswer() != null) {
+            try {
+                listener.onText(result.getAnswer());
+            } catch (IOException e) {
+                return InferenceResult.failure(question, collectionId, e.getMessage());
+            }
+        }
+        return result;
+    }
+
     /**
      * Searches for documents in a collection that are relevant to the given query.
      *
@@ -70,10 +124,44 @@ public interface DocumentStoreService {
      */
     ListDocumentsResult listDocuments(String collectionId) throws DocumentStoreException;
 
+    /**
+     * Opens a cursor over the documents of a collection that pulls pages lazily.
+     * Implementations without paging support list the whole collection up front.
+     *
+     * @param collectionId the ID of the collection
+     * @return a cursor the caller must close
+     * @throws DocumentStoreException if the first page cannot be fetched
+     */
+    default DocumentCursor openDocumentCursor(String collectionId) throws DocumentStoreException {
+        ListDocumentsResult result = listDocuments(collectionId);
+        if (!result.isSuccess()) {
+            throw new DocumentStoreException("Failed to list documents: " + result.getErrorMessage());
+        }
+        return DocumentCursor.of(result.getDocuments());
+    }
+
+    /**
+     * Returns the local index of a collection's documents, for lookups that must not wait for a
+     * remote listing. The index may lag behind the remote collection.
+     *
+     * @param collectionId the ID of the collection
+     * @return the index, or null if this implementation keeps no local index
+     */
+    default DocumentIndex getCollectionIndex(String collectionId) {
+        return null;
+    }
+
     /**
      * Returns the name of this document store implementation.
      * For example: "Yukon", "Elasticsearch", etc.
      */
     String getProviderName();
+
+    /**
+     * Releases resources held by this document store, such as pooled connections and threads.
+     */
+    @Override
+    default void close() {
+    }
 }
 
@@ -1,18 +1,51 @@
 package com.adobe.cf_rag.docstore.api.model;
 
+import com.adobe.cf_rag.util.Sha256;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
 /**
  * Represents a JSON document in a document store collection.
+ * The content is either held as a String or streamed from a {@link DocumentContent}.
+ * A document may carry the SHA-256 of its content, e.g. from the export manifest, so that
+ * callers needing the hash do not serialize the content again.
  */
 public class Document {
 
     private final String id;
     private final String fileName;
     private final String jsonContent;
+    private final DocumentContent content;
+    private volatile String contentHash;
 
     public Document(String id, String fileName, String jsonContent) {
         this.id = id;
         this.fileName = fileName;
         this.jsonContent = jsonContent;
+        this.content = null;
+    }
+
+    public Document(String id, String fileName, DocumentContent content) {
+        this(id, fileName, content, null);
+    }
+
+    /**
+     * Creates a streamed document whose content hash is already known.
+     *
+     * @param contentHash hex SHA-256 of the UTF-8 encoded content, or null if unknown
+     */
+    public Document(String id, String fileName, DocumentContent content, String contentHash) {
+        this.id = id;
+        this.fileName = fileName;
+        this.jsonContent = null;
+        this.content = content;
+        this.contentHash = contentHash;
     }
 
     /**
@@ -31,9 +64,58 @@ public class Document {
 
     /**
      * Returns the JSON content of the document.
+     * For streamed documents this renders the whole content into memory; prefer {@link #writeTo}.
      */
     public String getJsonContent() {
-        return jsonContent;
+        if (content == null) {
+            return jsonContent;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            content.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the UTF-8 encoded JSON content to the given stream without closing it.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (content != null) {
+            content.writeTo(out);
+        } else if (jsonContent != null) {
+            out.write(jsonContent.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Returns the hex SHA-256 of the UTF-8 encoded content. A hash given at construction is
+     * returned as is; otherwise the content is written through the digest on the first call, a
+     * pass of its own in addition to any later {@link #writeTo}.
+     */
+    public String getContentHash() throws IOException {
+        String hash = contentHash;
+        if (hash == null) {
+            MessageDigest digest = Sha256.newDigest();
+            try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+                writeTo(out);
+            }
+            hash = Sha256.toHex(digest.digest());
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns an estimate of the UTF-8 encoded content size in bytes.
+     */
+    public long getSizeEstimate() {
+        if (content != null) {
+            return content.estimatedSize();
+        }
+        return jsonContent != null ? DocumentContent.utf8Length(jsonContent) : 0;
     }
 
     @Override
@@ -41,4 +123,3 @@ public class Document {
         return "Document{id='" + id + "', fileName='" + fileName + "'}";
     }
 }
-
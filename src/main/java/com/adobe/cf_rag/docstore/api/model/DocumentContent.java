@@ -0,0 +1,44 @@
+package com.adobe.cf_rag.docstore.api.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * JSON content of a document that is written directly to an output stream,
+ * so it never has to be held as one String or byte array.
+ * Implementations must be repeatable: every call writes the same content.
+ */
+public interface DocumentContent {
+
+    /**
+     * Writes the UTF-8 encoded JSON content to the given stream. Must not close the stream.
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Returns an estimate of the content size in bytes, used for batching decisions.
+     */
+    long estimatedSize();
+
+    /**
+     * Returns the number of bytes a string takes in UTF-8, without encoding it.
+     */
+    static long utf8Length(String s) {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,40 @@
+package com.adobe.cf_rag.docstore.api.model;
+
+/**
+ * A document of the local collection index: its document store ID, JCR path and variation.
+ */
+public class IndexedDocument {
+
+    private final String documentId;
+    private final String path;
+    private final String variation;
+
+    public IndexedDocument(String documentId, String path, String variation) {
+        this.documentId = documentId;
+        this.path = path;
+        this.variation = variation;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    /**
+     * Returns the JCR path derived from the document name, or null if the name was unknown.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the fragment variation, or null if the document name carries none.
+     */
+    public String getVariation() {
+        return variation;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedDocument{documentId='" + documentId + "', path='" + path + "', variation='" + variation + "'}";
+    }
+}
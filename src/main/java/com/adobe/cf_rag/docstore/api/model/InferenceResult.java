@@ -10,28 +10,30 @@ public class InferenceResult {
     private final String answer;
     private final boolean success;
     private final String errorMessage;
+    private final boolean stale;
 
     private InferenceResult(String question, String collectionId, String answer,
-                            boolean success, String errorMessage) {
+                            boolean success, String errorMessage, boolean stale) {
         this.question = question;
         this.collectionId = collectionId;
         this.answer = answer;
         this.success = success;
         this.errorMessage = errorMessage;
+        this.stale = stale;
     }
 
     /**
      * Creates a successful inference result.
      */
     public static InferenceResult success(String question, String collectionId, String answer) {
-        return new InferenceResult(question, collectionId, answer, true, null);
+        return new InferenceResult(question, collectionId, answer, true, null, false);
     }
 
     /**
      * Creates a failed inference result.
      */
     public static InferenceResult failure(String question, String collectionId, String errorMessage) {
-        return new InferenceResult(question, collectionId, null, false, errorMessage);
+        return new InferenceResult(question, collectionId, null, false, errorMessage, false);
     }
 
     public String getQuestion() {
@@ -54,6 +56,20 @@ public class InferenceResult {
         return errorMessage;
     }
 
+    /**
+     * Returns true if this is an earlier answer served because the live call failed.
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Returns a copy of this successful result flagged as stale.
+     */
+    public InferenceResult asStale() {
+        return new InferenceResult(question, collectionId, answer, true, null, true);
+    }
+
     @Override
     public String toString() {
         if (success) {
@@ -12,28 +12,30 @@ public class SearchResult {
     private final List<DocumentInfo> documents;
     private final boolean success;
     private final String errorMessage;
+    private final boolean stale;
 
     private SearchResult(String query, String collectionId, List<DocumentInfo> documents,
-                         boolean success, String errorMessage) {
+                         boolean success, String errorMessage, boolean stale) {
         this.query = query;
         this.collectionId = collectionId;
         this.documents = documents;
         this.success = success;
         this.errorMessage = errorMessage;
+        this.stale = stale;
     }
 
     /**
      * Creates a successful search result.
      */
     public static SearchResult success(String query, String collectionId, List<DocumentInfo> documents) {
-        return new SearchResult(query, collectionId, documents, true, null);
+        return new SearchResult(query, collectionId, documents, true, null, false);
     }
 
     /**
      * Creates a failed search result.
      */
     public static SearchResult failure(String query, String collectionId, String errorMessage) {
-        return new SearchResult(query, collectionId, null, false, errorMessage);
+        return new SearchResult(query, collectionId, null, false, errorMessage, false);
     }
 
     public String getQuery() {
@@ -56,6 +58,20 @@ public class SearchResult {
         return errorMessage;
     }
 
+    /**
+     * Returns true if this is an earlier search result served because the live call failed.
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Returns a copy of this successful result flagged as stale.
+     */
+    public SearchResult asStale() {
+        return new SearchResult(query, collectionId, documents, true, null, true);
+    }
+
     @Override
     public String toString() {
         if (success) {
@@ -0,0 +1,70 @@
+package com.adobe.cf_rag.docstore.cache;
+
+/**
+ * Point-in-time statistics of a cache.
+ */
+public class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final int size;
+
+    public CacheStats(long hits, long misses, long evictions, long expirations, long invalidations, int size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.size = size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of lookups served from the cache, or 0 if there were none.
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups > 0 ? (double) hits / lookups : 0;
+    }
+
+    /**
+     * Returns the number of entries removed to stay within the size bound.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of entries dropped because their time-to-live had passed.
+     */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Returns the number of entries removed by explicit invalidation.
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                + ", expirations=" + expirations + ", invalidations=" + invalidations + ", size=" + size + "}";
+    }
+}
@@ -0,0 +1,255 @@
+package com.adobe.cf_rag.docstore.cache;
+
+import com.adobe.cf_rag.util.Sha256;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Second cache tier on local disk that survives restarts. Entries are JSON files grouped
+ * into one directory per partition (e.g. per collection), so a partition can be dropped at once.
+ * Dropping a partition only records the time in a marker file; entries written before it are
+ * deleted when they are read. Expired files are deleted when they are read and on startup.
+ * Beyond the size bound, the least recently written files are deleted.
+ *
+ * @param <V> value type
+ */
+public class DiskCacheTier<V> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCacheTier.class);
+
+    private static final String INVALIDATED_MARKER = "invalidated";
+    private static final double EVICT_TO = 0.9;
+
+    /**
+     * Converts cached values to and from JSON.
+     */
+    public interface Codec<V> {
+        void write(V value, ObjectNode node);
+
+        V read(JsonNode node);
+    }
+
+    private final File directory;
+    private final long ttlMillis;
+    private final long maxBytes;
+    private final ObjectMapper objectMapper;
+    private final Codec<V> codec;
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+    // partitions invalidated in this run without entries written since
+    private final Set<String> clean = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param maxBytes maximum total size of the cache files; the oldest are deleted beyond it
+     */
+    public DiskCacheTier(File directory, long ttlMillis, long maxBytes, ObjectMapper objectMapper, Codec<V> codec) {
+        this.directory = directory;
+        this.ttlMillis = ttlMillis;
+        this.maxBytes = maxBytes;
+        this.objectMapper = objectMapper;
+        this.codec = codec;
+        purgeExpired();
+    }
+
+    /**
+     * Returns the value stored for the key, or null if absent, expired or unreadable.
+     */
+    public V get(String partition, String key) {
+        File file = fileFor(partition, key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            JsonNode json = objectMapper.readTree(file);
+            if (!key.equals(json.path("key").asText()) || isExpired(json)
+                    || json.path("createdAt").asLong(0) <= invalidatedAt(partition)) {
+                delete(file);
+                return null;
+            }
+            return codec.read(json.path("value"));
+        } catch (IOException e) {
+            LOG.warn("Unable to read cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public void put(String partition, String key, V value) {
+        File file = fileFor(partition, key);
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            LOG.warn("Unable to create cache directory {}", dir);
+            return;
+        }
+
+        clean.remove(partition);
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("key", key);
+        json.put("createdAt", System.currentTimeMillis());
+        codec.write(value, json.putObject("value"));
+
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try {
+            objectMapper.writeValue(tmp, json);
+            long replaced = file.length();
+            long written = tmp.length();
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (totalBytes.addAndGet(written - replaced) > maxBytes) {
+                evictOldest();
+            }
+        } catch (IOException e) {
+            LOG.warn("Unable to write cache file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the total size of the cache files, as tracked since startup.
+     */
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * Invalidates all entries of a partition written so far. Nothing is deleted here, and the
+     * marker is only rewritten if entries were written since the last invalidation.
+     */
+    public void invalidatePartition(String partition) {
+        if (!clean.add(partition)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        File dir = partitionDirectory(partition);
+        if (dir.isDirectory()) {
+            File marker = new File(dir, INVALIDATED_MARKER);
+            File tmp = new File(dir, INVALIDATED_MARKER + ".tmp");
+            try {
+                Files.write(tmp.toPath(), Long.toString(now).getBytes(StandardCharsets.UTF_8));
+                Files.move(tmp.toPath(), marker.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOG.warn("Unable to write cache invalidation marker {}: {}", marker, e.getMessage());
+            }
+        }
+        invalidatedAt.put(partition, now);
+    }
+
+    /**
+     * Returns the time of the last invalidation of a partition, read from its marker once per run.
+     */
+    private long invalidatedAt(String partition) {
+        return invalidatedAt.computeIfAbsent(partition, p -> {
+            File marker = new File(partitionDirectory(p), INVALIDATED_MARKER);
+            if (!marker.isFile()) {
+                return 0L;
+            }
+            try {
+                return Long.parseLong(new String(Files.readAllBytes(marker.toPath()), StandardCharsets.UTF_8).trim());
+            } catch (IOException | NumberFormatException e) {
+                LOG.warn("Unable to read cache invalidation marker {}: {}", marker, e.getMessage());
+                return marker.lastModified();
+            }
+        });
+    }
+
+    private void purgeExpired() {
+        File[] partitions = directory.listFiles(File::isDirectory);
+        if (partitions == null) {
+            return;
+        }
+        long oldest = System.currentTimeMillis() - ttlMillis;
+        for (File partition : partitions) {
+            File[] files = partition.listFiles();
+            if (files == null) continue;
+            for (File file : files) {
+                if (file.lastModified() < oldest) {
+                    if (!file.delete()) {
+                        LOG.warn("Unable to delete expired cache file {}", file);
+                    }
+                } else if (isEntryFile(file)) {
+                    totalBytes.addAndGet(file.length());
+                }
+            }
+        }
+        if (totalBytes.get() > maxBytes) {
+            evictOldest();
+        }
+    }
+
+    /**
+     * Deletes the least recently written entries until the cache is well below its size bound,
+     * so the directory is not scanned again on every write.
+     */
+    private synchronized void evictOldest() {
+        if (totalBytes.get() <= maxBytes) {
+            return;
+        }
+        List<File> files = new ArrayList<>();
+        File[] partitions = directory.listFiles(File::isDirectory);
+        if (partitions != null) {
+            for (File partition : partitions) {
+                File[] entries = partition.listFiles(DiskCacheTier::isEntryFile);
+                if (entries != null) {
+                    files.addAll(List.of(entries));
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(File::lastModified));
+        long total = 0;
+        for (File file : files) {
+            total += file.length();
+        }
+        int evicted = 0;
+        long target = (long) (maxBytes * EVICT_TO);
+        for (File file : files) {
+            if (total <= target) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                evicted++;
+            }
+        }
+        totalBytes.set(total);
+        LOG.debug("Evicted {} cache files, {} bytes left", evicted, total);
+    }
+
+    private void delete(File file) throws IOException {
+        long length = file.length();
+        if (Files.deleteIfExists(file.toPath())) {
+            totalBytes.addAndGet(-length);
+        }
+    }
+
+    private static boolean isEntryFile(File file) {
+        return file.getName().endsWith(".json");
+    }
+
+    private boolean isExpired(JsonNode json) {
+        return System.currentTimeMillis() - json.path("createdAt").asLong(0) > ttlMillis;
+    }
+
+    private File partitionDirectory(String partition) {
+        return new File(directory, partition.replaceAll("[^A-Za-z0-9._-]", "_"));
+    }
+
+    private File fileFor(String partition, String key) {
+        return new File(partitionDirectory(partition), Sha256.hash(key) + ".json");
+    }
+}
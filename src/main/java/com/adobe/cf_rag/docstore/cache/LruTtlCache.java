@@ -0,0 +1,187 @@
+package com.adobe.cf_rag.docstore.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded in-memory cache with least-recently-used eviction and a time-to-live per entry.
+ * Optionally bounded by a total weight as well (e.g. the size of the cached text).
+ * Entries can be put with a version, e.g. the generation of the data they were computed from;
+ * a read that asks for a newer version drops them, so invalidating costs nothing up front.
+ * Thread-safe; all operations lock the cache briefly.
+ *
+ * @param <K> key type, must implement equals/hashCode
+ * @param <V> value type
+ */
+public class LruTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final ToLongFunction<V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long totalWeight;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * @param maxEntries maximum number of entries before the least recently used one is evicted
+     * @param ttlMillis  time after which an entry is no longer returned
+     */
+    public LruTtlCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, Long.MAX_VALUE, ttlMillis, value -> 0);
+    }
+
+    /**
+     * @param maxEntries maximum number of entries before the least recently used one is evicted
+     * @param maxWeight  maximum total weight of all entries before the least recently used ones are evicted
+     * @param ttlMillis  time after which an entry is no longer returned
+     * @param weigher    computes the weight of a value
+     */
+    public LruTtlCache(int maxEntries, long maxWeight, long ttlMillis, ToLongFunction<V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.weigher = weigher;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns true if this cache can hold anything at all.
+     */
+    public boolean isEnabled() {
+        return maxEntries > 0 && ttlMillis > 0;
+    }
+
+    /**
+     * Returns the cached value, or null if absent or expired.
+     */
+    public V get(K key) {
+        return get(key, Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns the cached value if it was put with at least the given version, or null if absent,
+     * expired or older; older entries are removed and counted as invalidated.
+     */
+    public synchronized V get(K key, long minVersion) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (now() - entry.createdAt > ttlMillis) {
+            remove(key);
+            expirations++;
+            misses++;
+            return null;
+        }
+        if (entry.version < minVersion) {
+            remove(key);
+            invalidations++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, 0);
+    }
+
+    /**
+     * Caches a value along with the version it belongs to.
+     */
+    public synchronized void put(K key, V value, long version) {
+        if (!isEnabled()) {
+            return;
+        }
+        long weight = weigher.applyAsLong(value);
+        if (weight > maxWeight) {
+            return;
+        }
+        remove(key);
+        entries.put(key, new Entry<>(value, weight, now(), version));
+        totalWeight += weight;
+        while (entries.size() > maxEntries || totalWeight > maxWeight) {
+            remove(entries.keySet().iterator().next());
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes every entry whose key matches the predicate.
+     *
+     * @return the number of removed entries
+     */
+    public synchronized int invalidateIf(Predicate<K> predicate) {
+        int removed = 0;
+        for (Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<K, Entry<V>> entry = it.next();
+            if (predicate.test(entry.getKey())) {
+                totalWeight -= entry.getValue().weight;
+                it.remove();
+                removed++;
+            }
+        }
+        invalidations += removed;
+        return removed;
+    }
+
+    public synchronized void clear() {
+        invalidations += entries.size();
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns a snapshot of the hit/miss statistics.
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, expirations, invalidations, entries.size());
+    }
+
+    /**
+     * Returns the total weight of all cached values.
+     */
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            totalWeight -= removed.weight;
+        }
+    }
+
+    private static long now() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long createdAt;
+        private final long version;
+
+        private Entry(V value, long weight, long createdAt, long version) {
+            this.value = value;
+            this.weight = weight;
+            this.createdAt = createdAt;
+            this.version = version;
+        }
+    }
+}
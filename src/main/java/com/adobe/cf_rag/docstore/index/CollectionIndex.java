@@ -0,0 +1,378 @@
+package com.adobe.cf_rag.docstore.index;
+
+import com.adobe.cf_rag.docstore.api.DocumentIndex;
+import com.adobe.cf_rag.docstore.api.model.IndexedDocument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Local mirror of the documents of one collection, mapping document IDs to JCR paths and
+ * variations and back. Paths are stored in a trie of interned segments, so the many
+ * fragments sharing a folder share its nodes; each document costs one small entry object.
+ *
+ * <p>File names encode {@code /}, {@code _} and {@code :} alike, so paths are keyed by their
+ * encoded form: every path given to the index is split at all three characters. A lookup of
+ * {@code /content/dam/my_folder} thus finds the documents uploaded from that folder, which the
+ * index reports under the decoded path {@code /content/dam/my/folder}.</p>
+ *
+ * <p>Uploads add entries as they succeed. A full refresh from the remote listing stamps every
+ * entry it sees; {@link #completeRefresh(long)} then drops the entries neither the listing
+ * nor a concurrent upload touched.</p>
+ */
+public class CollectionIndex implements DocumentIndex {
+
+    private static final String FILE_EXTENSION = ".json";
+    private static final String VARIATION_SEPARATOR = "__";
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> byDocumentId = new HashMap<>();
+    private final Map<String, String> interned = new HashMap<>();
+    private final Node root = new Node("", null);
+    private long generation;
+    private volatile long lastRefreshTime;
+
+    /**
+     * Indexes a document under the path and variation encoded in its file name
+     * ({@code path_with_underscores__variation.json}).
+     *
+     * @return the JCR path the name maps to, or null if the name is empty
+     */
+    public String put(String documentId, String fileName) {
+        if (fileName == null || fileName.isEmpty()) {
+            put(documentId, (String[]) null, null);
+            return null;
+        }
+        String name = fileName.endsWith(FILE_EXTENSION)
+                ? fileName.substring(0, fileName.length() - FILE_EXTENSION.length())
+                : fileName;
+        String variation = null;
+        int variationIndex = name.lastIndexOf(VARIATION_SEPARATOR);
+        if (variationIndex > 0) {
+            variation = name.substring(variationIndex + VARIATION_SEPARATOR.length());
+            name = name.substring(0, variationIndex);
+        }
+        put(documentId, name.split("_", -1), variation);
+        return "/" + name.replace("_", "/");
+    }
+
+    /**
+     * Indexes a document under a JCR path and variation.
+     */
+    public void put(String documentId, String path, String variation) {
+        put(documentId, path != null ? segments(path) : null, variation);
+    }
+
+    private void put(String documentId, String[] segments, String variation) {
+        lock.writeLock().lock();
+        try {
+            Node node = null;
+            if (segments != null) {
+                node = root;
+                for (int i = 0; i < segments.length; i++) {
+                    // folder segments repeat across fragments and are shared; leaf names rarely do
+                    String segment = i < segments.length - 1 ? intern(segments[i]) : segments[i];
+                    node = node.child(segment, true);
+                }
+            }
+            Entry entry = byDocumentId.get(documentId);
+            if (entry == null) {
+                entry = new Entry(documentId);
+                byDocumentId.put(documentId, entry);
+            } else if (entry.node != node) {
+                detach(entry);
+            }
+            if (entry.node != node && node != null) {
+                node.add(entry);
+            }
+            entry.node = node;
+            entry.variation = variation != null ? intern(variation) : null;
+            entry.generation = generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document from the index. Returns false if it was not indexed.
+     */
+    public boolean remove(String documentId) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = byDocumentId.remove(documentId);
+            if (entry == null) {
+                return false;
+            }
+            detach(entry);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public IndexedDocument get(String documentId) {
+        lock.readLock().lock();
+        try {
+            Entry entry = byDocumentId.get(documentId);
+            return entry != null ? entry.toDocument() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsPath(String path) {
+        lock.readLock().lock();
+        try {
+            Node node = find(path);
+            return node != null && node.entries != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<IndexedDocument> getDocuments(String path) {
+        lock.readLock().lock();
+        try {
+            Node node = find(path);
+            List<IndexedDocument> documents = new ArrayList<>();
+            if (node != null && node.entries != null) {
+                for (Entry entry : node.entries) {
+                    documents.add(entry.toDocument());
+                }
+            }
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<IndexedDocument> listUnder(String path, int limit) {
+        lock.readLock().lock();
+        try {
+            List<IndexedDocument> documents = new ArrayList<>();
+            Node start = find(path);
+            if (start == null) {
+                return documents;
+            }
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(start);
+            while (!pending.isEmpty() && documents.size() < limit) {
+                Node node = pending.pop();
+                if (node.entries != null) {
+                    for (Entry entry : node.entries) {
+                        if (documents.size() >= limit) {
+                            break;
+                        }
+                        documents.add(entry.toDocument());
+                    }
+                }
+                if (node.children != null) {
+                    for (Node child : node.children.values()) {
+                        pending.push(child);
+                    }
+                }
+            }
+            return documents;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byDocumentId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Starts a full refresh. Entries put from now on belong to the returned generation.
+     */
+    public long beginRefresh() {
+        lock.writeLock().lock();
+        try {
+            return ++generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Completes a full refresh, removing the entries that were not put since it began.
+     *
+     * @return the number of removed entries
+     */
+    public int completeRefresh(long refreshGeneration) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            for (Iterator<Entry> it = byDocumentId.values().iterator(); it.hasNext(); ) {
+                Entry entry = it.next();
+                if (entry.generation < refreshGeneration) {
+                    it.remove();
+                    detach(entry);
+                    removed++;
+                }
+            }
+            lastRefreshTime = System.currentTimeMillis();
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public long getLastRefreshTime() {
+        return lastRefreshTime;
+    }
+
+    private Node find(String path) {
+        if (path == null) {
+            return null;
+        }
+        Node node = root;
+        for (String segment : segments(path)) {
+            node = node.child(segment, false);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Splits a path into segments the way document file names encode it.
+     */
+    private static String[] segments(String path) {
+        String encoded = path.replace('_', '/').replace(':', '/');
+        String relative = encoded.startsWith("/") ? encoded.substring(1) : encoded;
+        if (relative.endsWith("/")) {
+            relative = relative.substring(0, relative.length() - 1);
+        }
+        return relative.isEmpty() ? new String[0] : relative.split("/", -1);
+    }
+
+    private String intern(String value) {
+        String existing = interned.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * Unlinks an entry from its node and prunes nodes left without entries or children.
+     */
+    private void detach(Entry entry) {
+        Node node = entry.node;
+        if (node == null) {
+            return;
+        }
+        node.remove(entry);
+        entry.node = null;
+        while (node.parent != null && node.entries == null && node.children == null) {
+            node.parent.removeChild(node);
+            if (node.parent.children == null || node.parent.children.isEmpty()) {
+                node.parent.children = null;
+            }
+            node = node.parent;
+        }
+    }
+
+    private static class Node {
+        final String segment;
+        final Node parent;
+        Map<String, Node> children;
+        Entry[] entries;
+
+        Node(String segment, Node parent) {
+            this.segment = segment;
+            this.parent = parent;
+        }
+
+        Node child(String segment, boolean create) {
+            Node child = children != null ? children.get(segment) : null;
+            if (child == null && create) {
+                if (children == null) {
+                    children = new HashMap<>(4);
+                }
+                child = new Node(segment, this);
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        void removeChild(Node child) {
+            children.remove(child.segment);
+        }
+
+        // one entry per variation, usually just a few, so a copied array is cheaper than a list
+        void add(Entry entry) {
+            if (entries == null) {
+                entries = new Entry[] {entry};
+            } else {
+                entries = Arrays.copyOf(entries, entries.length + 1);
+                entries[entries.length - 1] = entry;
+            }
+        }
+
+        void remove(Entry entry) {
+            if (entries == null) {
+                return;
+            }
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] == entry) {
+                    if (entries.length == 1) {
+                        entries = null;
+                    } else {
+                        Entry[] remaining = new Entry[entries.length - 1];
+                        System.arraycopy(entries, 0, remaining, 0, i);
+                        System.arraycopy(entries, i + 1, remaining, i, entries.length - i - 1);
+                        entries = remaining;
+                    }
+                    return;
+                }
+            }
+        }
+
+        void appendPath(StringBuilder sb) {
+            if (parent != null) {
+                parent.appendPath(sb);
+                sb.append('/').append(segment);
+            }
+        }
+    }
+
+    private static class Entry {
+        final String documentId;
+        Node node;
+        String variation;
+        long generation;
+
+        Entry(String documentId) {
+            this.documentId = documentId;
+        }
+
+        IndexedDocument toDocument() {
+            String path = null;
+            if (node != null) {
+                StringBuilder sb = new StringBuilder();
+                node.appendPath(sb);
+                path = sb.length() > 0 ? sb.toString() : "/";
+            }
+            return new IndexedDocument(documentId, path, variation);
+        }
+    }
+}
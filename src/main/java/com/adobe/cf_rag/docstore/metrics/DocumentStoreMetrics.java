@@ -0,0 +1,156 @@
+package com.adobe.cf_rag.docstore.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Latency histograms and counters of a document store: per-operation timings and errors,
+ * HTTP error statuses, transferred bytes and streamed answer chunks. All recording methods
+ * are lock-free and allocation-free, so they can sit on every request and SSE event.
+ */
+public class DocumentStoreMetrics implements DocumentStoreMetricsMXBean {
+
+    public static final String OBJECT_NAME = "com.adobe.cf_rag:type=DocumentStoreMetrics";
+
+    private static final int MAX_STATUS = 600;
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private final LongAdder[] errors = new LongAdder[Operation.values().length];
+    private final AtomicLongArray httpErrors = new AtomicLongArray(MAX_STATUS);
+    private final LongAdder ioErrors = new LongAdder();
+    private final LongAdder answerChunks = new LongAdder();
+    private final LongAdder generationNanos = new LongAdder();
+    private volatile LongSupplier bytesSent = () -> 0;
+    private volatile LongSupplier bytesReceived = () -> 0;
+
+    public DocumentStoreMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            errors[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a successful operation.
+     */
+    public void record(Operation operation, long nanos) {
+        latencies[operation.ordinal()].record(nanos);
+    }
+
+    /**
+     * Records an operation, counting it as an error unless it succeeded.
+     */
+    public void record(Operation operation, long nanos, boolean success) {
+        latencies[operation.ordinal()].record(nanos);
+        if (!success) {
+            errors[operation.ordinal()].increment();
+        }
+    }
+
+    /**
+     * Records an operation that failed.
+     */
+    public void recordFailure(Operation operation, long nanos) {
+        record(operation, nanos, false);
+    }
+
+    /**
+     * Counts a response with a 4xx or 5xx status; other statuses are ignored.
+     */
+    public void recordHttpStatus(int status) {
+        if (status >= 400 && status < MAX_STATUS) {
+            httpErrors.incrementAndGet(status);
+        }
+    }
+
+    /**
+     * Counts a request that failed without a response.
+     */
+    public void recordIoError() {
+        ioErrors.increment();
+    }
+
+    /**
+     * Counts one streamed answer chunk: an answer stream event with non-empty generated text.
+     * Yukon decides how much text an event carries, so this is not a count of model tokens.
+     */
+    public void recordAnswerChunk() {
+        answerChunks.increment();
+    }
+
+    /**
+     * Records the time an answer spent generating, from its first event to its last.
+     */
+    public void recordGeneration(long nanos) {
+        generationNanos.add(Math.max(0, nanos));
+    }
+
+    /**
+     * Reports transferred bytes from counters kept elsewhere, typically by the transport.
+     */
+    public void bindTransferCounters(LongSupplier sent, LongSupplier received) {
+        this.bytesSent = sent;
+        this.bytesReceived = received;
+    }
+
+    /**
+     * Returns the statistics of one operation.
+     */
+    public OperationStats getOperation(Operation operation) {
+        return new OperationStats(errors[operation.ordinal()].sum(), latencies[operation.ordinal()].snapshot());
+    }
+
+    @Override
+    public Map<String, OperationStats> getOperations() {
+        Map<String, OperationStats> operations = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            operations.put(operation.getMetricName(), getOperation(operation));
+        }
+        return operations;
+    }
+
+    @Override
+    public Map<String, Long> getHttpErrors() {
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        for (int status = 400; status < MAX_STATUS; status++) {
+            long count = httpErrors.get(status);
+            if (count > 0) {
+                statuses.put(String.valueOf(status), count);
+            }
+        }
+        return statuses;
+    }
+
+    @Override
+    public long getIoErrors() {
+        return ioErrors.sum();
+    }
+
+    @Override
+    public long getBytesSent() {
+        return bytesSent.getAsLong();
+    }
+
+    @Override
+    public long getBytesReceived() {
+        return bytesReceived.getAsLong();
+    }
+
+    @Override
+    public long getAnswerChunks() {
+        return answerChunks.sum();
+    }
+
+    /**
+     * Returns the average rate of answer chunks while answers were being generated.
+     */
+    @Override
+    public double getAnswerChunksPerSecond() {
+        long nanos = generationNanos.sum();
+        return nanos > 0 ? getAnswerChunks() * (double) TimeUnit.SECONDS.toNanos(1) / nanos : 0;
+    }
+}
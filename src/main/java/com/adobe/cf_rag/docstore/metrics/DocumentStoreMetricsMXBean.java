@@ -0,0 +1,37 @@
+package com.adobe.cf_rag.docstore.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link DocumentStoreMetrics}, registered as
+ * {@value DocumentStoreMetrics#OBJECT_NAME}.
+ */
+public interface DocumentStoreMetricsMXBean {
+
+    /**
+     * Returns the statistics of every operation, keyed by metric name.
+     */
+    Map<String, OperationStats> getOperations();
+
+    /**
+     * Returns the number of 4xx/5xx responses received, keyed by status code.
+     */
+    Map<String, Long> getHttpErrors();
+
+    long getIoErrors();
+
+    long getBytesSent();
+
+    long getBytesReceived();
+
+    /**
+     * Returns the number of answer stream events that carried generated text. An event holds
+     * as much text as Yukon chose to send, so this counts chunks, not model tokens.
+     */
+    long getAnswerChunks();
+
+    /**
+     * Returns the average number of answer chunks received per second of answer generation.
+     */
+    double getAnswerChunksPerSecond();
+}
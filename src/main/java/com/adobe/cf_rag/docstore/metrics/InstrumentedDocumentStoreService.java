@@ -0,0 +1,258 @@
+package com.adobe.cf_rag.docstore.metrics;
+
+import com.adobe.cf_rag.docstore.api.AnswerListener;
+import com.adobe.cf_rag.docstore.api.AsyncDocumentStoreService;
+import com.adobe.cf_rag.docstore.api.DocumentCursor;
+import com.adobe.cf_rag.docstore.api.DocumentIndex;
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+import com.adobe.cf_rag.docstore.api.DocumentStoreService;
+import com.adobe.cf_rag.docstore.api.model.Collection;
+import com.adobe.cf_rag.docstore.api.model.Document;
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
+import com.adobe.cf_rag.docstore.api.model.SearchResult;
+import com.adobe.cf_rag.docstore.api.model.UploadResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+/**
+ * Decorator that times every call of a {@link DocumentStoreService} and counts the failed ones,
+ * i.e. calls that threw or returned an unsuccessful result. Pass the delegate's own metrics,
+ * if it keeps any, so service calls and provider phases end up in one snapshot.
+ *
+ * <p>Asynchronous calls are forwarded too and recorded under the same operation when their
+ * future completes; a cancelled or exceptionally completed future counts as failed. The
+ * delegate's future is returned as is, so cancelling it still aborts the request.</p>
+ */
+public class InstrumentedDocumentStoreService implements DocumentStoreService, AsyncDocumentStoreService {
+
+    private final DocumentStoreService delegate;
+    private final AsyncDocumentStoreService asyncDelegate;
+    private final DocumentStoreMetrics metrics;
+
+    public <S extends DocumentStoreService & AsyncDocumentStoreService> InstrumentedDocumentStoreService(
+            S delegate, DocumentStoreMetrics metrics) {
+        this.delegate = delegate;
+        this.asyncDelegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public DocumentStoreMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public Collection createCollection(String name, String description) throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Collection collection = delegate.createCollection(name, description);
+            success = true;
+            return collection;
+        } finally {
+            metrics.record(Operation.CREATE_COLLECTION, System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public UploadResult uploadDocument(String collectionId, String fileName, String jsonContent)
+            throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            UploadResult result = delegate.uploadDocument(collectionId, fileName, jsonContent);
+            success = result.isSuccess();
+            return result;
+        } finally {
+            metrics.record(Operation.UPLOAD_DOCUMENT, System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public List<UploadResult> uploadDocuments(String collectionId, List<Document> documents)
+            throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            List<UploadResult> results = delegate.uploadDocuments(collectionId, documents);
+            success = allSucceeded(results);
+            return results;
+        } finally {
+            metrics.record(Operation.UPLOAD_DOCUMENTS, System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public InferenceResult askQuestion(String collectionId, String question, List<String> documentIds)
+            throws DocumentStoreException {
+        return askQuestion(collectionId, question, documentIds, false);
+    }
+
+    @Override
+    public InferenceResult askQuestion(String collectionId, String question, List<String> documentIds,
+                                       boolean bypassCache) throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            InferenceResult result = delegate.askQuestion(collectionId, question, documentIds, bypassCache);
+            success = result.isSuccess();
+            return result;
+        } finally {
+            metrics.record(Operation.ASK_QUESTION, System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public InferenceResult streamAnswer(String collectionId, String question, List<String> documentIds,
+                                        AnswerListener listener) throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            InferenceResult result = delegate.streamAnswer(collectionId, question, documentIds, listener);
+            success = result.isSuccess();
+            return result;
+        } finally {
+            metrics.record(Operation.STREAM_ANSWER, System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public SearchResult searchDocuments(String collectionId, String query, int maxResults)
+            throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            SearchResult result = delegate.searchDocuments(collectionId, query, maxResults);
+            success = result.isSuccess();
+            return result;
+        } finally {
+            metrics.record(Operation.SEARCH_DOCUMENTS, System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public ListDocumentsResult listDocuments(String collectionId) throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            ListDocumentsResult result = delegate.listDocuments(collectionId);
+            success = result.isSuccess();
+            return result;
+        } finally {
+            metrics.record(Operation.LIST_DOCUMENTS, System.nanoTime() - start, success);
+        }
+    }
+
+    /**
+     * Opens the delegate's cursor; only opening it (fetching the first page) is timed.
+     */
+    @Override
+    public DocumentCursor openDocumentCursor(String collectionId) throws DocumentStoreException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            DocumentCursor cursor = delegate.openDocumentCursor(collectionId);
+            success = true;
+            return cursor;
+        } finally {
+            metrics.record(Operation.OPEN_DOCUMENT_CURSOR, System.nanoTime() - start, success);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Collection> createCollectionAsync(String name, String description) {
+        return recordWhenDone(Operation.CREATE_COLLECTION, System.nanoTime(),
+                asyncDelegate.createCollectionAsync(name, description), collection -> true);
+    }
+
+    @Override
+    public CompletableFuture<UploadResult> uploadDocumentAsync(String collectionId, String fileName,
+                                                               String jsonContent) {
+        return recordWhenDone(Operation.UPLOAD_DOCUMENT, System.nanoTime(),
+                asyncDelegate.uploadDocumentAsync(collectionId, fileName, jsonContent), UploadResult::isSuccess);
+    }
+
+    @Override
+    public CompletableFuture<List<UploadResult>> uploadDocumentsAsync(String collectionId, List<Document> documents) {
+        return recordWhenDone(Operation.UPLOAD_DOCUMENTS, System.nanoTime(),
+                asyncDelegate.uploadDocumentsAsync(collectionId, documents),
+                InstrumentedDocumentStoreService::allSucceeded);
+    }
+
+    @Override
+    public CompletableFuture<InferenceResult> askQuestionAsync(String collectionId, String question,
+                                                               List<String> documentIds) {
+        return askQuestionAsync(collectionId, question, documentIds, false);
+    }
+
+    @Override
+    public CompletableFuture<InferenceResult> askQuestionAsync(String collectionId, String question,
+                                                               List<String> documentIds, boolean bypassCache) {
+        return recordWhenDone(Operation.ASK_QUESTION, System.nanoTime(),
+                asyncDelegate.askQuestionAsync(collectionId, question, documentIds, bypassCache),
+                InferenceResult::isSuccess);
+    }
+
+    @Override
+    public CompletableFuture<InferenceResult> streamAnswerAsync(String collectionId, String question,
+                                                                List<String> documentIds, AnswerListener listener) {
+        return recordWhenDone(Operation.STREAM_ANSWER, System.nanoTime(),
+                asyncDelegate.streamAnswerAsync(collectionId, question, documentIds, listener),
+                InferenceResult::isSuccess);
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchDocumentsAsync(String collectionId, String query, int maxResults) {
+        return recordWhenDone(Operation.SEARCH_DOCUMENTS, System.nanoTime(),
+                asyncDelegate.searchDocumentsAsync(collectionId, query, maxResults), SearchResult::isSuccess);
+    }
+
+    @Override
+    public CompletableFuture<ListDocumentsResult> listDocumentsAsync(String collectionId) {
+        return recordWhenDone(Operation.LIST_DOCUMENTS, System.nanoTime(),
+                asyncDelegate.listDocumentsAsync(collectionId), ListDocumentsResult::isSuccess);
+    }
+
+    @Override
+    public CompletableFuture<DocumentCursor> openDocumentCursorAsync(String collectionId) {
+        return recordWhenDone(Operation.OPEN_DOCUMENT_CURSOR, System.nanoTime(),
+                asyncDelegate.openDocumentCursorAsync(collectionId), cursor -> true);
+    }
+
+    @Override
+    public DocumentIndex getCollectionIndex(String collectionId) {
+        return delegate.getCollectionIndex(collectionId);
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Records the operation once the future completes, counting it as failed if it completed
+     * exceptionally (or was cancelled) or if its result does not pass {@code succeeded}.
+     */
+    private <T> CompletableFuture<T> recordWhenDone(Operation operation, long start, CompletableFuture<T> future,
+                                                    Predicate<T> succeeded) {
+        future.whenComplete((result, failure) -> metrics.record(operation, System.nanoTime() - start,
+                failure == null && succeeded.test(result)));
+        return future;
+    }
+
+    private static boolean allSucceeded(List<UploadResult> results) {
+        for (UploadResult result : results) {
+            if (!result.isSuccess()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,62 @@
+package com.adobe.cf_rag.docstore.metrics;
+
+/**
+ * Point-in-time summary of a {@link LatencyHistogram}. Durations are reported in milliseconds.
+ */
+public class LatencySnapshot {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long count;
+    private final long mean;
+    private final long p50;
+    private final long p95;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    LatencySnapshot(long count, long mean, long p50, long p95, long p99, long p999, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMillis() {
+        return mean / NANOS_PER_MILLI;
+    }
+
+    public double getP50Millis() {
+        return p50 / NANOS_PER_MILLI;
+    }
+
+    public double getP95Millis() {
+        return p95 / NANOS_PER_MILLI;
+    }
+
+    public double getP99Millis() {
+        return p99 / NANOS_PER_MILLI;
+    }
+
+    public double getP999Millis() {
+        return p999 / NANOS_PER_MILLI;
+    }
+
+    public double getMaxMillis() {
+        return max / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencySnapshot{count=%d, mean=%.3fms, p50=%.3fms, p95=%.3fms, p99=%.3fms, "
+                        + "p999=%.3fms, max=%.3fms}", count, getMeanMillis(), getP50Millis(), getP95Millis(),
+                getP99Millis(), getP999Millis(), getMaxMillis());
+    }
+}
@@ -0,0 +1,41 @@
+package com.adobe.cf_rag.docstore.metrics;
+
+/**
+ * Operations timed by {@link DocumentStoreMetrics}. The first group are calls of the
+ * {@link com.adobe.cf_rag.docstore.api.DocumentStoreService} API; the second group are the
+ * provider phases behind them.
+ */
+public enum Operation {
+    CREATE_COLLECTION("createCollection"),
+    UPLOAD_DOCUMENT("uploadDocument"),
+    UPLOAD_DOCUMENTS("uploadDocuments"),
+    ASK_QUESTION("askQuestion"),
+    STREAM_ANSWER("streamAnswer"),
+    SEARCH_DOCUMENTS("searchDocuments"),
+    LIST_DOCUMENTS("listDocuments"),
+    OPEN_DOCUMENT_CURSOR("openDocumentCursor"),
+
+    /** IMS token exchange. */
+    TOKEN_EXCHANGE("tokenExchange"),
+    /** One multipart upload request, single document or batch. */
+    UPLOAD_REQUEST("uploadRequest"),
+    /** From sending an inference request to its first SSE event. */
+    INFERENCE_FIRST_EVENT("inferenceFirstEvent"),
+    /** From sending an inference request to the end of its SSE stream. */
+    INFERENCE_STREAM("inferenceStream"),
+    /** One listing page, including its retries. */
+    LIST_PAGE("listPage");
+
+    private final String metricName;
+
+    Operation(String metricName) {
+        this.metricName = metricName;
+    }
+
+    /**
+     * Returns the name used in the JSON snapshot and over JMX.
+     */
+    public String getMetricName() {
+        return metricName;
+    }
+}
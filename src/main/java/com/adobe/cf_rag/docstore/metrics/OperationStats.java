@@ -0,0 +1,31 @@
+package com.adobe.cf_rag.docstore.metrics;
+
+/**
+ * Point-in-time statistics of one {@link Operation}: its latency distribution and how many
+ * of the calls failed.
+ */
+public class OperationStats {
+
+    private final long errors;
+    private final LatencySnapshot latency;
+
+    OperationStats(long errors, LatencySnapshot latency) {
+        this.errors = errors;
+        this.latency = latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * Returns the number of calls that threw or returned an unsuccessful result.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    public LatencySnapshot getLatency() {
+        return latency;
+    }
+}
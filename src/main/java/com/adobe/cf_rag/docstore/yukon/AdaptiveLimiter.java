@@ -0,0 +1,187 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of Yukon requests in flight to what the service currently tolerates.
+ * The limit grows while requests complete quickly and shrinks when Yukon throttles (HTTP 429
+ * or 503) or latency rises well above the lowest latency seen recently (AIMD):
+ *
+ *   - slow start: until the first congestion signal the limit grows by one per success,
+ *     i.e. it doubles every round trip
+ *   - then it grows by one per round trip (1/limit per success)
+ *   - a congestion signal multiplies it by {@value #DECREASE_FACTOR}, at most once per round
+ *     trip: requests started before the last decrease do not decrease it again
+ *
+ * The limit only grows while it is actually used, so an idle limiter does not drift to its
+ * maximum. A {@code Retry-After} from Yukon pauses all new requests until it has passed.
+ */
+public class AdaptiveLimiter {
+
+    private static final double DECREASE_FACTOR = 0.7;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final int LATENCY_WARMUP = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private long started;
+    private long decreasedAt = -1;
+    private boolean slowStart = true;
+    private long pausedUntil;
+    private double baselineNanos;
+    private long samples;
+
+    private long waits;
+    private long throttled;
+    private long decreases;
+
+    AdaptiveLimiter(int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = this.minLimit;
+    }
+
+    /**
+     * Waits until a request may be sent, and returns a ticket to pass to {@link #release}.
+     */
+    synchronized long acquire() throws InterruptedIOException {
+        boolean waited = false;
+        try {
+            while (true) {
+                long pause = pausedUntil - System.currentTimeMillis();
+                if (pause > 0) {
+                    waited = true;
+                    wait(pause);
+                } else if (inFlight >= (int) limit) {
+                    waited = true;
+                    wait();
+                } else {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send a Yukon request");
+        } finally {
+            if (waited) {
+                waits++;
+            }
+        }
+        inFlight++;
+        return started++;
+    }
+
+    /**
+     * Releases the slot of a request that got a response.
+     *
+     * @param ticket       the ticket returned by {@link #acquire}
+     * @param latencyNanos the time until the response arrived
+     * @param wasThrottled whether Yukon throttled the request (HTTP 429 or 503)
+     */
+    synchronized void release(long ticket, long latencyNanos, boolean wasThrottled) {
+        boolean saturated = inFlight >= (int) limit;
+        inFlight--;
+        if (wasThrottled) {
+            throttled++;
+            congested(ticket);
+        } else {
+            samples++;
+            if (samples == 1 || latencyNanos < baselineNanos) {
+                baselineNanos = latencyNanos;
+            } else {
+                // let the baseline follow a lasting change, e.g. larger batches
+                baselineNanos += (latencyNanos - baselineNanos) / 100;
+            }
+            if (samples > LATENCY_WARMUP && latencyNanos > baselineNanos * LATENCY_TOLERANCE) {
+                congested(ticket);
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + (slowStart ? 1 : 1 / limit));
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Releases the slot of a request that failed without a response; the limit is left as is.
+     */
+    synchronized void releaseFailed() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Holds back all new requests for the given time, e.g. as asked by a {@code Retry-After} header.
+     */
+    synchronized void pause(long millis) {
+        pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + millis);
+    }
+
+    private void congested(long ticket) {
+        if (ticket < decreasedAt) {
+            // sent before the last decrease took effect
+            return;
+        }
+        slowStart = false;
+        limit = Math.max(minLimit, limit * DECREASE_FACTOR);
+        decreasedAt = started;
+        decreases++;
+    }
+
+    /**
+     * Returns the current number of requests allowed in flight.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns how often a request had to wait for the limit or a pause.
+     */
+    public synchronized long getWaits() {
+        return waits;
+    }
+
+    /**
+     * Returns the number of responses that throttled (HTTP 429 or 503).
+     */
+    public synchronized long getThrottled() {
+        return throttled;
+    }
+
+    /**
+     * Returns how often the limit was decreased.
+     */
+    public synchronized long getDecreases() {
+        return decreases;
+    }
+
+    /**
+     * Returns the milliseconds new requests are still paused for after a {@code Retry-After}.
+     */
+    public synchronized long getPausedMillis() {
+        return Math.max(0, pausedUntil - System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the lowest recent latency, against which rising latency is detected, in milliseconds.
+     */
+    public synchronized long getBaselineLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((long) baselineNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLimiter{limit=" + getLimit() + ", inFlight=" + getInFlight()
+                + ", waits=" + getWaits() + ", throttled=" + getThrottled()
+                + ", decreases=" + getDecreases() + "}";
+    }
+}
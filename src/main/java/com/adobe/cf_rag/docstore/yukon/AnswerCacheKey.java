@@ -0,0 +1,60 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Cache key of a question answer: collection, normalized question and the sorted set of
+ * document IDs the answer was restricted to (empty for the whole collection).
+ */
+final class AnswerCacheKey {
+
+    private final String collectionId;
+    private final String question;
+    private final List<String> documentIds;
+
+    AnswerCacheKey(String collectionId, String question, List<String> documentIds) {
+        this.collectionId = collectionId;
+        this.question = SearchCacheKey.normalize(question);
+        TreeSet<String> sorted = new TreeSet<>();
+        if (documentIds != null) {
+            for (String documentId : documentIds) {
+                String trimmed = documentId.trim();
+                if (!trimmed.isEmpty()) {
+                    sorted.add(trimmed);
+                }
+            }
+        }
+        this.documentIds = Collections.unmodifiableList(new ArrayList<>(sorted));
+    }
+
+    String getCollectionId() {
+        return collectionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AnswerCacheKey)) return false;
+        AnswerCacheKey that = (AnswerCacheKey) o;
+        return Objects.equals(collectionId, that.collectionId)
+                && question.equals(that.question)
+                && documentIds.equals(that.documentIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(collectionId, question, documentIds);
+    }
+
+    /**
+     * Stable textual form, also used as the key of the disk tier.
+     */
+    @Override
+    public String toString() {
+        return collectionId + "\n" + question + "\n" + String.join(",", documentIds);
+    }
+}
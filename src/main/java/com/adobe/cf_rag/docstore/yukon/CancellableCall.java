@@ -0,0 +1,107 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the responses opened by one asynchronous operation so that cancelling the
+ * operation tears down its connections. The call is bound to the worker thread
+ * while the operation runs; responses opened on that thread register themselves.
+ * A call may be nested in another one bound to the same thread: its responses are
+ * tracked by the enclosing call as well, so cancelling either one aborts them.
+ */
+class CancellableCall {
+
+    private static final ThreadLocal<CancellableCall> CURRENT = new ThreadLocal<>();
+
+    private final CancellableCall parent;
+    private final Set<YukonResponse> responses = ConcurrentHashMap.newKeySet();
+    private CancellableCall previous;
+    private Thread runner;
+    private boolean cancelled;
+    private boolean interruptedRunner;
+
+    CancellableCall() {
+        this(null);
+    }
+
+    /**
+     * Creates a call nested in the given one, which may be null.
+     */
+    CancellableCall(CancellableCall parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Returns the call bound to the current thread, or null outside an asynchronous operation.
+     */
+    static CancellableCall current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds this call to the current thread. Returns false if it was cancelled before it started.
+     */
+    synchronized boolean enter() {
+        if (cancelled) {
+            return false;
+        }
+        runner = Thread.currentThread();
+        previous = CURRENT.get();
+        CURRENT.set(this);
+        return true;
+    }
+
+    synchronized void exit() {
+        if (previous != null) {
+            CURRENT.set(previous);
+            previous = null;
+        } else {
+            CURRENT.remove();
+        }
+        runner = null;
+        if (interruptedRunner) {
+            // clear the interrupt of a cancel() that raced with completion, but not one of the caller
+            Thread.interrupted();
+            interruptedRunner = false;
+        }
+    }
+
+    /**
+     * Registers a response opened by this call until it is released. Aborts it immediately if
+     * the call was already cancelled.
+     */
+    void track(YukonResponse response) {
+        if (parent != null) {
+            parent.track(response);
+        }
+        responses.add(response);
+        response.whenReleased(() -> responses.remove(response));
+        if (isCancelled()) {
+            response.abort();
+        }
+    }
+
+    synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Aborts every response of this call and interrupts the worker if it is still waiting for one.
+     */
+    void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (runner != null) {
+                runner.interrupt();
+                interruptedRunner = true;
+            }
+        }
+        for (YukonResponse response : responses) {
+            response.abort();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+/**
+ * Stops calling a Yukon endpoint that keeps failing or has become slow, so callers fail fast
+ * instead of each holding a thread until the read timeout.
+ *
+ *   - closed: calls pass; the outcomes of the last {@code windowSize} calls are kept, and once
+ *     at least {@code minimumCalls} were seen, a failure rate or slow-call rate at or above its
+ *     threshold opens the breaker
+ *   - open: calls are rejected until {@code openMillis} have passed
+ *   - half-open: one probe call passes; it closes the breaker if it succeeds in time and opens
+ *     it again otherwise
+ *
+ * Outcomes of calls admitted before the last state change are ignored, so a slow call that
+ * started while the breaker was closed cannot decide a probe.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openMillis;
+
+    // guarded by this
+    private State state = State.CLOSED;
+    private long epoch;
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int calls;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private boolean probing;
+
+    private long rejected;
+    private long opened;
+
+    /**
+     * @param failureRateThreshold  percentage of failed calls in the window that opens the breaker
+     * @param slowCallRateThreshold percentage of calls slower than {@code slowCallMillis} that opens the breaker
+     */
+    CircuitBreaker(String name, int windowSize, int minimumCalls, int failureRateThreshold,
+                   int slowCallRateThreshold, long slowCallMillis, long openMillis) {
+        this.name = name;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(this.windowSize, minimumCalls));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallMillis * 1_000_000;
+        this.openMillis = openMillis;
+        this.failed = new boolean[this.windowSize];
+        this.slow = new boolean[this.windowSize];
+    }
+
+    /**
+     * Asks to make a call. Returns a permit to pass to {@link #onSuccess}, {@link #onFailure} or
+     * {@link #onIgnored}, or -1 if the call is rejected.
+     */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                rejected++;
+                return -1;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                rejected++;
+                return -1;
+            }
+            probing = true;
+        }
+        return epoch;
+    }
+
+    /**
+     * Records a call that got a healthy answer from the endpoint after the given time.
+     */
+    synchronized void onSuccess(long permit, long latencyNanos) {
+        record(permit, false, latencyNanos > slowCallNanos);
+    }
+
+    /**
+     * Records a call the endpoint failed: a transport error, timeout, throttling or server error.
+     */
+    synchronized void onFailure(long permit, long latencyNanos) {
+        record(permit, true, latencyNanos > slowCallNanos);
+    }
+
+    /**
+     * Releases a permit whose call says nothing about the endpoint, e.g. because it was cancelled.
+     */
+    synchronized void onIgnored(long permit) {
+        if (permit == epoch && state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    private void record(long permit, boolean failure, boolean slowCall) {
+        if (permit != epoch) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transition(failure || slowCall ? State.OPEN : State.CLOSED);
+            return;
+        }
+        if (calls == windowSize) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        failures += failure ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        next = (next + 1) % windowSize;
+        if (calls >= minimumCalls && (failures * 100 >= failureRateThreshold * calls
+                || slowCalls * 100 >= slowCallRateThreshold * calls)) {
+            transition(State.OPEN);
+        }
+    }
+
+    private void transition(State to) {
+        state = to;
+        epoch++;
+        probing = false;
+        if (to == State.OPEN) {
+            openedAt = System.currentTimeMillis();
+            opened++;
+        }
+        if (to != State.HALF_OPEN) {
+            calls = 0;
+            failures = 0;
+            slowCalls = 0;
+            next = 0;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the percentage of failed calls in the current window.
+     */
+    public synchronized int getFailureRate() {
+        return calls == 0 ? 0 : failures * 100 / calls;
+    }
+
+    /**
+     * Returns the percentage of slow calls in the current window.
+     */
+    public synchronized int getSlowCallRate() {
+        return calls == 0 ? 0 : slowCalls * 100 / calls;
+    }
+
+    /**
+     * Returns the number of calls rejected while the breaker was open or probing.
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Returns how often the breaker opened.
+     */
+    public synchronized long getOpened() {
+        return opened;
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" + name + ", state=" + getState() + ", failureRate=" + getFailureRate()
+                + "%, slowCallRate=" + getSlowCallRate() + "%, rejected=" + getRejected()
+                + ", opened=" + getOpened() + "}";
+    }
+}
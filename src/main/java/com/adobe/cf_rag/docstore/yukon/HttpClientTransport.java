@@ -0,0 +1,394 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transport backed by one shared {@link HttpClient}: connections are pooled and reused,
+ * and HTTP/2 multiplexes concurrent requests over a single TLS connection per host.
+ * The number of concurrent exchanges is capped by the configured maximum.
+ * {@link HttpRequest#timeout} only bounds the wait for the response headers, so response
+ * bodies are watched separately: a read that receives nothing for the read timeout aborts
+ * the exchange.
+ */
+class HttpClientTransport implements YukonTransport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpClientTransport.class);
+
+    private static final int PIPE_CHUNK_SIZE = 64 * 1024;
+    private static final int PIPE_CHUNKS = 4;
+    private static final long WATCHDOG_PERIOD_MS = 1000;
+
+    private final HttpClient client;
+    private final ExecutorService clientExecutor;
+    private final ExecutorService bodyWriterExecutor;
+    private final ScheduledExecutorService watchdog;
+    private final Semaphore permits;
+    private final TransportMetrics metrics = new TransportMetrics();
+
+    HttpClientTransport(YukonConfig config) {
+        this.clientExecutor = Executors.newCachedThreadPool(namedThreads("cf-rag-http"));
+        this.bodyWriterExecutor = Executors.newCachedThreadPool(namedThreads("cf-rag-http-body"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(namedThreads("cf-rag-http-watchdog"));
+        this.permits = new Semaphore(Math.max(1, config.getMaxConnections()), true);
+        this.client = HttpClient.newBuilder()
+                .version(config.isHttp2Enabled() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeout()))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(clientExecutor)
+                .build();
+    }
+
+    @Override
+    public YukonResponse execute(YukonRequest request) throws IOException {
+        acquirePermit();
+        metrics.requestStarted();
+        List<BodyPipe> pipes = new CopyOnWriteArrayList<>();
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()))
+                    .timeout(Duration.ofMillis(request.getReadTimeout()));
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+            builder.method(request.getMethod(), request.getBody() != null
+                    ? HttpRequest.BodyPublishers.ofInputStream(() -> startBodyWriter(request, pipes))
+                    : HttpRequest.BodyPublishers.noBody());
+
+            HttpResponse<InputStream> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            metrics.responseReceived(response.version() == HttpClient.Version.HTTP_2);
+
+            return new YukonResponse(response.statusCode(),
+                    name -> response.headers().firstValue(name).orElse(null),
+                    new IdleTimeoutBody(metrics.countReceived(response.body()), request.getReadTimeout()),
+                    this::release,
+                    () -> {
+                        metrics.responseAborted();
+                        release();
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail();
+            throw new InterruptedIOException("Request to " + request.getUrl() + " interrupted");
+        } catch (IOException | RuntimeException e) {
+            fail();
+            throw e;
+        } finally {
+            // the client does not always close a body it stops reading, e.g. on an early response
+            for (BodyPipe pipe : pipes) {
+                pipe.abandon();
+            }
+        }
+    }
+
+    @Override
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        clientExecutor.shutdownNow();
+        bodyWriterExecutor.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    private void acquirePermit() throws IOException {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        metrics.permitWaited();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection slot");
+        }
+    }
+
+    private void release() {
+        metrics.requestFinished();
+        permits.release();
+    }
+
+    private void fail() {
+        metrics.requestFailed();
+        release();
+    }
+
+    /**
+     * Runs the body writer on its own thread, handing its output to the client through a small
+     * bounded pipe, so request bodies are streamed and never buffered in full. The writer stops
+     * once the exchange is over, or when the client reads nothing for the request's read timeout.
+     */
+    private InputStream startBodyWriter(YukonRequest request, List<BodyPipe> pipes) {
+        BodyPipe pipe = new BodyPipe(request.getReadTimeout());
+        pipes.add(pipe);
+        bodyWriterExecutor.execute(() -> {
+            try {
+                OutputStream out = metrics.countSent(pipe.output());
+                request.getBody().writeTo(out);
+                // only a complete body is ended: closing after a failure would send it truncated
+                out.close();
+            } catch (Throwable e) {
+                LOG.warn("Failed to write request body: {}", e.getMessage());
+                pipe.fail(e);
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+            }
+        });
+        return pipe.input();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Response body that aborts the exchange when a read receives no data for the read timeout.
+     * The aborted read fails with an {@link HttpTimeoutException} rather than ending the stream.
+     */
+    private final class IdleTimeoutBody extends FilterInputStream {
+        private static final long NOT_READING = Long.MIN_VALUE;
+
+        private final long timeoutMillis;
+        private final ScheduledFuture<?> check;
+        private volatile long readingSince = NOT_READING;
+        private volatile boolean timedOut;
+
+        IdleTimeoutBody(InputStream body, long timeoutMillis) {
+            super(body);
+            this.timeoutMillis = timeoutMillis;
+            long period = Math.max(1, Math.min(timeoutMillis, WATCHDOG_PERIOD_MS));
+            this.check = watchdog.scheduleWithFixedDelay(this::checkIdle, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int n = read(single, 0, 1);
+            return n < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkNotTimedOut();
+            readingSince = System.nanoTime();
+            try {
+                int n = in.read(b, off, len);
+                checkNotTimedOut();
+                return n;
+            } catch (IOException e) {
+                checkNotTimedOut();
+                throw e;
+            } finally {
+                readingSince = NOT_READING;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            check.cancel(false);
+            in.close();
+        }
+
+        private void checkIdle() {
+            long since = readingSince;
+            if (since != NOT_READING && !timedOut
+                    && System.nanoTime() - since > TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+                timedOut = true;
+                LOG.warn("No response data received for {} ms, aborting the exchange", timeoutMillis);
+                try {
+                    // unblocks the pending read and cancels the exchange
+                    in.close();
+                } catch (IOException e) {
+                    LOG.debug("Failed to close stalled response body", e);
+                }
+            }
+        }
+
+        private void checkNotTimedOut() throws HttpTimeoutException {
+            if (timedOut) {
+                throw new HttpTimeoutException("No response data received for " + timeoutMillis + " ms");
+            }
+        }
+    }
+
+    /**
+     * Single-producer, single-consumer byte pipe with a bounded number of in-flight chunks.
+     * A writer failure is rethrown to the reader instead of looking like a clean end of stream,
+     * and only a writer that completed without failing ends the stream.
+     */
+    private static final class BodyPipe {
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(PIPE_CHUNKS);
+        private final long stallTimeoutMillis;
+        private volatile Throwable failure;
+        private volatile boolean abandoned;
+
+        BodyPipe(long stallTimeoutMillis) {
+            this.stallTimeoutMillis = stallTimeoutMillis;
+        }
+
+        OutputStream output() {
+            return new OutputStream() {
+                private byte[] buffer = new byte[PIPE_CHUNK_SIZE];
+                private int count;
+
+                @Override
+                public void write(int b) throws IOException {
+                    if (count == buffer.length) {
+                        flushChunk();
+                    }
+                    buffer[count++] = (byte) b;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    while (len > 0) {
+                        if (count == buffer.length) {
+                            flushChunk();
+                        }
+                        int n = Math.min(len, buffer.length - count);
+                        System.arraycopy(b, off, buffer, count, n);
+                        count += n;
+                        off += n;
+                        len -= n;
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (count > 0) {
+                        flushChunk();
+                    }
+                    put(END);
+                }
+
+                private void flushChunk() throws IOException {
+                    byte[] chunk = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+                    put(chunk);
+                    buffer = new byte[PIPE_CHUNK_SIZE];
+                    count = 0;
+                }
+            };
+        }
+
+        InputStream input() {
+            return new InputStream() {
+                private byte[] current;
+                private int pos;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] single = new byte[1];
+                    int n = read(single, 0, 1);
+                    return n < 0 ? -1 : single[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (current == END) {
+                        return -1;
+                    }
+                    if (current == null || pos == current.length) {
+                        current = take();
+                        pos = 0;
+                        if (current == END) {
+                            return -1;
+                        }
+                    }
+                    int n = Math.min(len, current.length - pos);
+                    System.arraycopy(current, pos, b, off, n);
+                    pos += n;
+                    return n;
+                }
+
+                @Override
+                public void close() {
+                    abandon();
+                }
+            };
+        }
+
+        /**
+         * Stops the writer: its next write fails instead of waiting for a reader.
+         */
+        void abandon() {
+            abandoned = true;
+            chunks.clear();
+        }
+
+        /**
+         * Fails the body. The reader fails on its next chunk, even one written before the
+         * failure; if the pipe is full the reader is not waiting, so END need not fit.
+         */
+        void fail(Throwable e) {
+            failure = e;
+            chunks.offer(END);
+        }
+
+        private void put(byte[] chunk) throws IOException {
+            long start = System.currentTimeMillis();
+            try {
+                while (abandoned || !chunks.offer(chunk, 1, TimeUnit.SECONDS)) {
+                    if (abandoned) {
+                        throw new IOException("Request body no longer consumed");
+                    }
+                    if (System.currentTimeMillis() - start > stallTimeoutMillis) {
+                        throw new IOException("Request body not consumed for " + stallTimeoutMillis + " ms");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing request body");
+            }
+        }
+
+        private byte[] take() throws IOException {
+            byte[] chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading request body");
+            }
+            if (failure != null) {
+                throw new IOException("Request body writer failed: " + failure.getMessage(), failure);
+            }
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The fields of one Yukon inference event that the service uses. A single instance is reused
+ * for every event of a stream, so handlers must copy what they keep.
+ */
+final class InferenceEvent {
+
+    private String generatedText;
+    private boolean streamComplete;
+    private final List<String> sourceDocumentIds = new ArrayList<>();
+    private final List<String> sourceDocumentNames = new ArrayList<>();
+
+    void reset() {
+        generatedText = null;
+        streamComplete = false;
+        sourceDocumentIds.clear();
+        sourceDocumentNames.clear();
+    }
+
+    void setGeneratedText(String generatedText) {
+        this.generatedText = generatedText;
+    }
+
+    void setStreamComplete(boolean streamComplete) {
+        this.streamComplete = streamComplete;
+    }
+
+    void addSource(String documentId, String documentName) {
+        sourceDocumentIds.add(documentId);
+        sourceDocumentNames.add(documentName);
+    }
+
+    /**
+     * Returns the text chunk of this event, or null if it carries none.
+     */
+    String getGeneratedText() {
+        return generatedText;
+    }
+
+    boolean isStreamComplete() {
+        return streamComplete;
+    }
+
+    /**
+     * Returns the number of source documents cited by this event, in the order Yukon sent them.
+     */
+    int getSourceCount() {
+        return sourceDocumentIds.size();
+    }
+
+    /**
+     * Returns the document ID of a source, or null if Yukon omitted it.
+     */
+    String getSourceDocumentId(int index) {
+        return sourceDocumentIds.get(index);
+    }
+
+    /**
+     * Returns the document (file) name of a source, or null if Yukon omitted it.
+     */
+    String getSourceDocumentName(int index) {
+        return sourceDocumentNames.get(index);
+    }
+}
@@ -0,0 +1,133 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pulls {@code generated_text}, {@code source} and {@code stream_complete} out of the JSON data
+ * of inference events, skipping everything else without building a tree. One non-blocking
+ * Jackson parser is fed the data of every event of a stream in turn, so its buffers and
+ * symbol table are reused; per event only the extracted strings are allocated.
+ *
+ * <p>Event data is either an object or an array of objects; each object is handed to the
+ * handler on its own.</p>
+ */
+final class InferenceEventParser implements Closeable {
+
+    /**
+     * Receives each object of an event. The event instance is reused.
+     */
+    @FunctionalInterface
+    interface Handler {
+        /**
+         * @return true to stop processing the stream
+         */
+        boolean onEvent(InferenceEvent event) throws IOException;
+    }
+
+    private static final byte[] SEPARATOR = {' '};
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final InferenceEvent event = new InferenceEvent();
+
+    InferenceEventParser(JsonFactory jsonFactory) throws IOException {
+        this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parses the data of one event and passes its objects to the handler.
+     *
+     * @return true if the handler asked to stop
+     */
+    boolean parse(byte[] data, int length, Handler handler) throws IOException {
+        // root values of consecutive events must be separated; the space also completes the previous one
+        feeder.feedInput(SEPARATOR, 0, 1);
+        drain();
+        feeder.feedInput(data, 0, length);
+
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != JsonToken.NOT_AVAILABLE) {
+                if (token == JsonToken.START_OBJECT) {
+                    readObject();
+                    if (handler.onEvent(event)) {
+                        return true;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } else if (token == JsonToken.START_OBJECT) {
+            readObject();
+            if (handler.onEvent(event)) {
+                return true;
+            }
+        } else if (token != null && token != JsonToken.NOT_AVAILABLE) {
+            parser.skipChildren();
+        }
+        drain();
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private void readObject() throws IOException {
+        event.reset();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("generated_text".equals(field) && value.isScalarValue()) {
+                event.setGeneratedText(parser.getValueAsString());
+            } else if ("stream_complete".equals(field) && value.isScalarValue()) {
+                event.setStreamComplete(parser.getValueAsBoolean());
+            } else if ("source".equals(field) && value == JsonToken.START_OBJECT) {
+                readSources();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Reads the source map, e.g. {@code {"1": {"document_id": ..., "document_name": ...}}}.
+     */
+    private void readSources() throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            String documentId = null;
+            String documentName = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("document_id".equals(field) && value.isScalarValue()) {
+                    documentId = parser.getValueAsString();
+                } else if ("document_name".equals(field) && value.isScalarValue()) {
+                    documentName = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            event.addSource(documentId, documentName);
+        }
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            parser.skipChildren();
+        }
+    }
+}
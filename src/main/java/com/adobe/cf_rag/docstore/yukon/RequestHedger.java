@@ -0,0 +1,138 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when an inference request gets a duplicate ("hedge"). The hedge delay is a percentile
+ * of the time to the first response byte over the last {@value #WINDOW} attempts, so only the
+ * slowest few percent of requests are hedged. Hedges are paid for from a budget that every
+ * request adds a fraction of a hedge to, which caps the extra load at that fraction of the
+ * traffic even when Yukon is slow across the board.
+ *
+ * The percentile is recomputed only after {@value #RECOMPUTE_SAMPLES} new first-byte times, not
+ * on every request, so starting a request does not sort the window.
+ */
+public class RequestHedger {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_SAMPLES = 16;
+    private static final double MAX_TOKENS = 10;
+
+    private final double percentile;
+    private final double budgetRatio;
+    private final long minDelayNanos;
+
+    // guarded by this
+    private final long[] samples = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private int next;
+    private int count;
+    private int newSamples;
+    private long delayNanos = -1;
+    private double tokens;
+
+    private long requests;
+    private long hedges;
+    private long hedgeWins;
+    private long budgetDenied;
+
+    /**
+     * @param percentile     percentile of the recent first-byte times after which a request is hedged
+     * @param budgetPercent  hedges allowed per hundred requests
+     * @param minDelayMillis shortest hedge delay, however fast recent requests were
+     */
+    RequestHedger(double percentile, double budgetPercent, long minDelayMillis) {
+        this.percentile = Math.max(0, Math.min(100, percentile));
+        this.budgetRatio = Math.max(0, budgetPercent) / 100;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, minDelayMillis));
+    }
+
+    /**
+     * Counts a request towards the hedge budget and returns how long to wait for its first byte
+     * before hedging it, in nanoseconds, or -1 while too few requests were seen to tell.
+     */
+    synchronized long requestStarted() {
+        requests++;
+        tokens = Math.min(MAX_TOKENS, tokens + budgetRatio);
+        return count < MIN_SAMPLES ? -1 : delayNanos();
+    }
+
+    /**
+     * Records the time from sending an attempt, original or hedge, to its first response byte.
+     */
+    synchronized void recordFirstByte(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % WINDOW;
+        count = Math.min(WINDOW, count + 1);
+        newSamples++;
+    }
+
+    /**
+     * Takes a hedge from the budget. Returns false if the budget is used up.
+     */
+    synchronized boolean tryHedge() {
+        if (tokens < 1) {
+            budgetDenied++;
+            return false;
+        }
+        tokens--;
+        hedges++;
+        return true;
+    }
+
+    synchronized void hedgeWon() {
+        hedgeWins++;
+    }
+
+    private long delayNanos() {
+        if (delayNanos < 0 || newSamples >= RECOMPUTE_SAMPLES) {
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            int rank = (int) Math.ceil(percentile / 100 * count) - 1;
+            delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, Math.min(count - 1, rank))]);
+            newSamples = 0;
+        }
+        return delayNanos;
+    }
+
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Returns the number of duplicate requests sent.
+     */
+    public synchronized long getHedges() {
+        return hedges;
+    }
+
+    /**
+     * Returns the number of hedges that answered before the request they duplicated.
+     */
+    public synchronized long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    /**
+     * Returns how often a request was past its hedge delay but the budget was used up.
+     */
+    public synchronized long getBudgetDenied() {
+        return budgetDenied;
+    }
+
+    /**
+     * Returns the current hedge delay in milliseconds, or -1 while it is not known yet.
+     */
+    public synchronized long getDelayMillis() {
+        return count < MIN_SAMPLES ? -1 : TimeUnit.NANOSECONDS.toMillis(delayNanos());
+    }
+
+    @Override
+    public String toString() {
+        return "RequestHedger{requests=" + getRequests() + ", hedges=" + getHedges()
+                + ", hedgeWins=" + getHedgeWins() + ", budgetDenied=" + getBudgetDenied()
+                + ", delayMs=" + getDelayMillis() + "}";
+    }
+}
@@ -0,0 +1,51 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Cache key of a document search: collection, normalized query and result limit.
+ */
+final class SearchCacheKey {
+
+    private final String collectionId;
+    private final String query;
+    private final int maxResults;
+
+    SearchCacheKey(String collectionId, String query, int maxResults) {
+        this.collectionId = collectionId;
+        this.query = normalize(query);
+        this.maxResults = maxResults;
+    }
+
+    String getCollectionId() {
+        return collectionId;
+    }
+
+    /**
+     * Normalizes free text for cache lookups: trimmed, lower case, single spaces.
+     */
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SearchCacheKey)) return false;
+        SearchCacheKey that = (SearchCacheKey) o;
+        return maxResults == that.maxResults
+                && Objects.equals(collectionId, that.collectionId)
+                && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(collectionId, query, maxResults);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchCacheKey{collectionId='" + collectionId + "', query='" + query + "', maxResults=" + maxResults + "}";
+    }
+}
@@ -0,0 +1,157 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.AnswerListener;
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * One upstream inference shared by every caller asking the same question at the same time.
+ * The leader drives the Yukon stream and relays chunks to its own listener directly; each
+ * follower gets the chunks generated so far replayed, then the live ones, and writes them to
+ * its listener on its own thread so a slow client never stalls the others. The upstream
+ * call is cancelled as soon as the leader and all followers have detached.
+ */
+class SharedAnswerStream implements AnswerListener {
+
+    private static final Object END = new Object();
+
+    private final String collectionId;
+    private final String question;
+    private final AnswerListener leaderListener;
+
+    private final List<String> chunks = new ArrayList<>();
+    private final List<BlockingQueue<Object>> followers = new ArrayList<>();
+    private volatile IOException leaderFailure;
+    private CancellableCall upstream;
+    private boolean finished;
+    private InferenceResult result;
+    private DocumentStoreException error;
+
+    SharedAnswerStream(String collectionId, String question, AnswerListener leaderListener) {
+        this.collectionId = collectionId;
+        this.question = question;
+        this.leaderListener = leaderListener;
+    }
+
+    @Override
+    public void onText(String text) throws IOException {
+        synchronized (this) {
+            chunks.add(text);
+            for (BlockingQueue<Object> follower : followers) {
+                follower.add(text);
+            }
+        }
+        if (leaderListener != null && leaderFailure == null) {
+            try {
+                leaderListener.onText(text);
+            } catch (IOException e) {
+                leaderFailure = e;
+            }
+        }
+        synchronized (this) {
+            if (leaderFailure != null && followers.isEmpty()) {
+                throw leaderFailure;
+            }
+        }
+    }
+
+    /**
+     * Registers the call driving the upstream stream, cancelled once nobody listens anymore.
+     */
+    synchronized void attach(CancellableCall call) {
+        upstream = call;
+    }
+
+    /**
+     * Returns true once a chunk of the answer was relayed.
+     */
+    synchronized boolean hasChunks() {
+        return !chunks.isEmpty();
+    }
+
+    /**
+     * Publishes the upstream result to all followers and returns the leader's view of it.
+     */
+    InferenceResult complete(InferenceResult upstreamResult) {
+        synchronized (this) {
+            finished = true;
+            result = upstreamResult;
+            releaseFollowers();
+        }
+        IOException failure = leaderFailure;
+        return failure != null ? InferenceResult.failure(question, collectionId, failure.getMessage()) : upstreamResult;
+    }
+
+    /**
+     * Propagates a failure of the upstream call to all followers.
+     */
+    synchronized void fail(DocumentStoreException failure) {
+        finished = true;
+        error = failure;
+        releaseFollowers();
+    }
+
+    /**
+     * Joins the stream as a follower and blocks until it ends. Returns null if the stream
+     * finished before this caller could join, in which case the caller should start its own.
+     */
+    InferenceResult follow(AnswerListener listener) throws DocumentStoreException {
+        BlockingQueue<Object> queue;
+        synchronized (this) {
+            if (finished) {
+                return null;
+            }
+            queue = new LinkedBlockingQueue<>(chunks);
+            followers.add(queue);
+        }
+
+        try {
+            Object item;
+            while ((item = queue.take()) != END) {
+                if (listener != null) {
+                    listener.onText((String) item);
+                }
+            }
+        } catch (IOException e) {
+            detach(queue);
+            return InferenceResult.failure(question, collectionId, e.getMessage());
+        } catch (InterruptedException e) {
+            detach(queue);
+            Thread.currentThread().interrupt();
+            throw new DocumentStoreException("Interrupted while waiting for an identical question", e);
+        }
+
+        synchronized (this) {
+            if (error != null) {
+                throw new DocumentStoreException(error.getMessage(), error.getStatusCode(), error);
+            }
+            return result;
+        }
+    }
+
+    private void detach(BlockingQueue<Object> queue) {
+        CancellableCall abandoned = null;
+        synchronized (this) {
+            followers.remove(queue);
+            if (followers.isEmpty() && leaderFailure != null && !finished) {
+                abandoned = upstream;
+            }
+        }
+        if (abandoned != null) {
+            abandoned.cancel();
+        }
+    }
+
+    private void releaseFollowers() {
+        for (BlockingQueue<Object> follower : followers) {
+            follower.add(END);
+        }
+        followers.clear();
+    }
+}
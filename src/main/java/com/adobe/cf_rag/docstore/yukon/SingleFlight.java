@@ -0,0 +1,115 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical concurrent calls: the first caller for a key runs the call, callers
+ * arriving while it is in flight wait for and share its result (or its failure). If the
+ * leading caller is cancelled or interrupted, its outcome only says that it went away, so the
+ * waiting callers start over instead, and one of them runs the call again.
+ */
+class SingleFlight<K, V> {
+
+    @FunctionalInterface
+    interface Call<V> {
+        V call() throws DocumentStoreException;
+    }
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    V execute(K key, Call<V> call) throws DocumentStoreException {
+        while (true) {
+            CompletableFuture<V> created = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+            if (existing == null) {
+                return lead(key, created, call);
+            }
+            coalesced.incrementAndGet();
+            try {
+                return await(existing);
+            } catch (LeaderAbandonedException e) {
+                coalesced.decrementAndGet();
+            }
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Call<V> call) throws DocumentStoreException {
+        V value;
+        try {
+            value = call.call();
+        } catch (Throwable t) {
+            finish(key, flight, null, t);
+            throw t;
+        }
+        finish(key, flight, value, null);
+        return value;
+    }
+
+    private void finish(K key, CompletableFuture<V> flight, V value, Throwable failure) {
+        // removed before completing, so callers sent to start over do not join this flight again
+        inFlight.remove(key, flight);
+        if (leaderAbandoned()) {
+            flight.completeExceptionally(new LeaderAbandonedException());
+        } else if (failure != null) {
+            flight.completeExceptionally(failure);
+        } else {
+            flight.complete(value);
+        }
+    }
+
+    /**
+     * Returns true if the caller running the call was interrupted or its asynchronous operation
+     * cancelled, so that its result reflects its own cancellation rather than the call.
+     */
+    private static boolean leaderAbandoned() {
+        CancellableCall call = CancellableCall.current();
+        return Thread.currentThread().isInterrupted() || (call != null && call.isCancelled());
+    }
+
+    /**
+     * Returns the number of calls that were served by another caller's upstream call.
+     */
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    private V await(CompletableFuture<V> future) throws DocumentStoreException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentStoreException("Interrupted while waiting for an identical request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            if (cause instanceof DocumentStoreException) {
+                throw new DocumentStoreException(cause.getMessage(),
+                        ((DocumentStoreException) cause).getStatusCode(), cause);
+            }
+            throw new DocumentStoreException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Tells the callers waiting on a flight that its leader went away.
+     */
+    private static final class LeaderAbandonedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LeaderAbandonedException() {
+            super("Leading call was cancelled", null, false, false);
+        }
+    }
+}
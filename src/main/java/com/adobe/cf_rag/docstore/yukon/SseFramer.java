@@ -0,0 +1,239 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Splits a server-sent events stream into events at the byte level, following the SSE
+ * specification: lines end with CR, LF or CRLF; {@code data} lines of one event are joined with
+ * LF; {@code event}, {@code id} and {@code retry} fields and comments are recognised; a blank line
+ * dispatches the event. Line and data buffers are reused, so framing does not allocate per event.
+ * An event still pending when the stream ends is dispatched as well.
+ */
+final class SseFramer {
+
+    /**
+     * Receives the data of each event. The array is only valid during the call.
+     */
+    @FunctionalInterface
+    interface Listener {
+        /**
+         * @return true to stop reading
+         */
+        boolean onEvent(byte[] data, int length) throws IOException;
+    }
+
+    private static final byte[] DATA = {'d', 'a', 't', 'a'};
+    private static final byte[] EVENT = {'e', 'v', 'e', 'n', 't'};
+    private static final byte[] ID = {'i', 'd'};
+    private static final byte[] RETRY = {'r', 'e', 't', 'r', 'y'};
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private byte[] data = new byte[1024];
+    private int dataLength;
+    private boolean hasData;
+    private boolean skipLineFeed;
+    private boolean started;
+
+    private String eventType;
+    private String lastEventId;
+    private long retryMillis = -1;
+    private long eventCount;
+    private long firstEventNanos;
+
+    SseFramer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads events until the stream ends or the listener asks to stop.
+     *
+     * @return true if the listener stopped reading, false at the end of the stream
+     */
+    boolean run(Listener listener) throws IOException {
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            int i = 0;
+            while (i < read) {
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (buffer[i] == '\n') {
+                        i++;
+                        continue;
+                    }
+                }
+                int end = i;
+                while (end < read && buffer[end] != '\n' && buffer[end] != '\r') {
+                    end++;
+                }
+                appendToLine(i, end - i);
+                if (end == read) {
+                    break;
+                }
+                skipLineFeed = buffer[end] == '\r';
+                i = end + 1;
+                if (processLine(listener)) {
+                    return true;
+                }
+            }
+        }
+        if (lineLength > 0 && processLine(listener)) {
+            return true;
+        }
+        return hasData && dispatch(listener);
+    }
+
+    /**
+     * Returns the type of the event being dispatched, or null for the default "message" type.
+     */
+    String getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Returns the last event ID the server set, or null if it never set one.
+     */
+    String getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Returns the reconnection time the server asked for, or -1 if it did not.
+     */
+    long getRetryMillis() {
+        return retryMillis;
+    }
+
+    long getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} at which the first event was dispatched, or 0.
+     */
+    long getFirstEventNanos() {
+        return firstEventNanos;
+    }
+
+    private boolean processLine(Listener listener) throws IOException {
+        int length = lineLength;
+        lineLength = 0;
+        if (!started) {
+            started = true;
+            length = skipByteOrderMark(length);
+        }
+        if (length == 0) {
+            if (hasData) {
+                return dispatch(listener);
+            }
+            eventType = null;
+            return false;
+        }
+        if (line[0] == ':') {
+            return false;
+        }
+
+        int colon = indexOf(line, length, (byte) ':');
+        int nameLength = colon >= 0 ? colon : length;
+        int valueStart = colon >= 0 ? colon + 1 : length;
+        if (valueStart < length && line[valueStart] == ' ') {
+            valueStart++;
+        }
+        int valueLength = length - valueStart;
+
+        if (matches(DATA, nameLength)) {
+            ensureDataCapacity(dataLength + valueLength + 1);
+            System.arraycopy(line, valueStart, data, dataLength, valueLength);
+            dataLength += valueLength;
+            data[dataLength++] = '\n';
+            hasData = true;
+        } else if (matches(EVENT, nameLength)) {
+            eventType = new String(line, valueStart, valueLength, StandardCharsets.UTF_8);
+        } else if (matches(ID, nameLength)) {
+            if (indexOf(line, length, (byte) 0) < 0) {
+                lastEventId = new String(line, valueStart, valueLength, StandardCharsets.UTF_8);
+            }
+        } else if (matches(RETRY, nameLength)) {
+            parseRetry(valueStart, length);
+        }
+        return false;
+    }
+
+    private int skipByteOrderMark(int length) {
+        if (length >= 3 && line[0] == (byte) 0xEF && line[1] == (byte) 0xBB && line[2] == (byte) 0xBF) {
+            System.arraycopy(line, 3, line, 0, length - 3);
+            return length - 3;
+        }
+        return length;
+    }
+
+    private boolean dispatch(Listener listener) throws IOException {
+        // the last data line's LF is not part of the event data
+        int length = dataLength - 1;
+        dataLength = 0;
+        hasData = false;
+        eventCount++;
+        if (firstEventNanos == 0) {
+            firstEventNanos = System.nanoTime();
+        }
+        boolean stop = listener.onEvent(data, length);
+        eventType = null;
+        return stop;
+    }
+
+    private void parseRetry(int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return;
+            }
+            value = value * 10 + (line[i] - '0');
+        }
+        if (end > start) {
+            retryMillis = value;
+        }
+    }
+
+    private boolean matches(byte[] name, int length) {
+        if (length != name.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line[i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int length, byte value) {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void appendToLine(int offset, int length) {
+        if (lineLength + length > line.length) {
+            byte[] grown = new byte[Math.max(lineLength + length, line.length * 2)];
+            System.arraycopy(line, 0, grown, 0, lineLength);
+            line = grown;
+        }
+        System.arraycopy(buffer, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private void ensureDataCapacity(int capacity) {
+        if (capacity > data.length) {
+            byte[] grown = new byte[Math.max(capacity, data.length * 2)];
+            System.arraycopy(data, 0, grown, 0, dataLength);
+            data = grown;
+        }
+    }
+}
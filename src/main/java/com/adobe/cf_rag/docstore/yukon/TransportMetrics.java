@@ -0,0 +1,168 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a {@link YukonTransport}.
+ */
+public class TransportMetrics {
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong peakInFlight = new AtomicLong();
+    private final AtomicLong permitWaits = new AtomicLong();
+    private final AtomicLong http2Responses = new AtomicLong();
+    private final AtomicLong http1Responses = new AtomicLong();
+    private final AtomicLong aborted = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    void requestStarted() {
+        requests.incrementAndGet();
+        long current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+    }
+
+    void requestFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    void requestFailed() {
+        failures.incrementAndGet();
+    }
+
+    void permitWaited() {
+        permitWaits.incrementAndGet();
+    }
+
+    void responseReceived(boolean http2) {
+        (http2 ? http2Responses : http1Responses).incrementAndGet();
+    }
+
+    void responseAborted() {
+        aborted.incrementAndGet();
+    }
+
+    /**
+     * Wraps a request body stream so the bytes written to it are counted as sent.
+     */
+    OutputStream countSent(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytesSent.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytesSent.addAndGet(len);
+            }
+        };
+    }
+
+    /**
+     * Wraps a response body stream so the bytes read from it are counted as received.
+     */
+    InputStream countReceived(InputStream in) {
+        if (in == null) {
+            return null;
+        }
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) {
+                    bytesReceived.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = in.read(b, off, len);
+                if (n > 0) {
+                    bytesReceived.addAndGet(n);
+                }
+                return n;
+            }
+        };
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of requests that failed with an I/O error before a response arrived.
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    /**
+     * Returns how often a request had to wait for a free connection slot.
+     */
+    public long getPermitWaits() {
+        return permitWaits.get();
+    }
+
+    /**
+     * Returns the number of responses received over HTTP/2, i.e. multiplexed on a shared connection.
+     */
+    public long getHttp2Responses() {
+        return http2Responses.get();
+    }
+
+    /**
+     * Returns the number of responses received over HTTP/1.x keep-alive connections.
+     */
+    public long getHttp1Responses() {
+        return http1Responses.get();
+    }
+
+    /**
+     * Returns the number of responses torn down before their body was fully read.
+     */
+    public long getAborted() {
+        return aborted.get();
+    }
+
+    /**
+     * Returns the number of request body bytes written, excluding headers.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Returns the number of response body bytes read, excluding headers.
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    @Override
+    public String toString() {
+        return "TransportMetrics{requests=" + getRequests() + ", failures=" + getFailures()
+                + ", inFlight=" + getInFlight() + ", peakInFlight=" + getPeakInFlight()
+                + ", permitWaits=" + getPermitWaits() + ", http2=" + getHttp2Responses()
+                + ", http1=" + getHttp1Responses() + ", aborted=" + getAborted()
+                + ", bytesSent=" + getBytesSent() + ", bytesReceived=" + getBytesReceived() + "}";
+    }
+}
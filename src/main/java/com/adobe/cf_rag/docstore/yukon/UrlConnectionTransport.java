@@ -0,0 +1,79 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Transport backed by {@link HttpURLConnection}. Connections are left to the JDK
+ * keep-alive cache after a fully read response instead of being disconnected;
+ * only abandoned exchanges are torn down. HTTP/1.1 only.
+ */
+class UrlConnectionTransport implements YukonTransport {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final int connectTimeout;
+    private final TransportMetrics metrics = new TransportMetrics();
+
+    UrlConnectionTransport(YukonConfig config) {
+        this.connectTimeout = config.getConnectTimeout();
+    }
+
+    @Override
+    public YukonResponse execute(YukonRequest request) throws IOException {
+        metrics.requestStarted();
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection) new URL(request.getUrl()).openConnection();
+            conn.setConnectTimeout(connectTimeout);
+            conn.setReadTimeout(request.getReadTimeout());
+            conn.setDoInput(true);
+            conn.setRequestMethod(request.getMethod());
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
+            }
+            if (request.getBody() != null) {
+                conn.setDoOutput(true);
+                conn.setChunkedStreamingMode(CHUNK_SIZE);
+                // closing writes the terminating chunk, so a failed body is only disconnected below
+                OutputStream out = metrics.countSent(conn.getOutputStream());
+                request.getBody().writeTo(out);
+                out.close();
+            }
+
+            int status = conn.getResponseCode();
+            metrics.responseReceived(false);
+            InputStream body = metrics.countReceived(
+                    status >= 200 && status < 300 ? conn.getInputStream() : conn.getErrorStream());
+            HttpURLConnection connection = conn;
+            return new YukonResponse(status, connection::getHeaderField, body,
+                    metrics::requestFinished,
+                    () -> {
+                        metrics.responseAborted();
+                        metrics.requestFinished();
+                        connection.disconnect();
+                    });
+        } catch (IOException | RuntimeException e) {
+            metrics.requestFailed();
+            metrics.requestFinished();
+            if (conn != null) {
+                conn.disconnect();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void close() {
+        // connections are owned by the JDK keep-alive cache
+    }
+}
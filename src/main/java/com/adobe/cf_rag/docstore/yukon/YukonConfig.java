@@ -10,6 +10,42 @@ public class YukonConfig {
     private final String authorizationCode;
     private final String imsHost;
     private final String yukonBaseUrl;
+    private final int maxBatchDocuments;
+    private final long maxBatchBytes;
+    private final String transport;
+    private final int maxConnections;
+    private final int connectTimeout;
+    private final int requestTimeout;
+    private final int inferenceTimeout;
+    private final boolean http2Enabled;
+    private final int asyncThreads;
+    private final int searchCacheSize;
+    private final long searchCacheTtl;
+    private final int answerCacheSize;
+    private final long answerCacheMaxChars;
+    private final long answerCacheTtl;
+    private final String answerCacheDirectory;
+    private final long answerCacheDiskMaxBytes;
+    private final int listParallelism;
+    private final int listPageRetries;
+    private final long indexRefreshInterval;
+    private final int uploadRetries;
+    private final long retryBaseDelay;
+    private final long retryMaxDelay;
+    private final int uploadConcurrencyMin;
+    private final int uploadConcurrencyMax;
+    private final int breakerWindowSize;
+    private final int breakerMinimumCalls;
+    private final int breakerFailureRateThreshold;
+    private final int breakerSlowCallRateThreshold;
+    private final long breakerOpenDuration;
+    private final long askSlowCallThreshold;
+    private final long searchSlowCallThreshold;
+    private final long staleResultTtl;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+    private final double hedgeBudgetPercent;
+    private final long hedgeMinDelay;
 
     private YukonConfig(Builder builder) {
         this.clientId = builder.clientId;
@@ -17,6 +53,42 @@ public class YukonConfig {
         this.authorizationCode = builder.authorizationCode;
         this.imsHost = builder.imsHost;
         this.yukonBaseUrl = builder.yukonBaseUrl;
+        this.maxBatchDocuments = builder.maxBatchDocuments;
+        this.maxBatchBytes = builder.maxBatchBytes;
+        this.transport = builder.transport;
+        this.maxConnections = builder.maxConnections;
+        this.connectTimeout = builder.connectTimeout;
+        this.requestTimeout = builder.requestTimeout;
+        this.inferenceTimeout = builder.inferenceTimeout;
+        this.http2Enabled = builder.http2Enabled;
+        this.asyncThreads = builder.asyncThreads;
+        this.searchCacheSize = builder.searchCacheSize;
+        this.searchCacheTtl = builder.searchCacheTtl;
+        this.answerCacheSize = builder.answerCacheSize;
+        this.answerCacheMaxChars = builder.answerCacheMaxChars;
+        this.answerCacheTtl = builder.answerCacheTtl;
+        this.answerCacheDirectory = builder.answerCacheDirectory;
+        this.answerCacheDiskMaxBytes = builder.answerCacheDiskMaxBytes;
+        this.listParallelism = builder.listParallelism;
+        this.listPageRetries = builder.listPageRetries;
+        this.indexRefreshInterval = builder.indexRefreshInterval;
+        this.uploadRetries = builder.uploadRetries;
+        this.retryBaseDelay = builder.retryBaseDelay;
+        this.retryMaxDelay = builder.retryMaxDelay;
+        this.uploadConcurrencyMin = builder.uploadConcurrencyMin;
+        this.uploadConcurrencyMax = builder.uploadConcurrencyMax;
+        this.breakerWindowSize = builder.breakerWindowSize;
+        this.breakerMinimumCalls = builder.breakerMinimumCalls;
+        this.breakerFailureRateThreshold = builder.breakerFailureRateThreshold;
+        this.breakerSlowCallRateThreshold = builder.breakerSlowCallRateThreshold;
+        this.breakerOpenDuration = builder.breakerOpenDuration;
+        this.askSlowCallThreshold = builder.askSlowCallThreshold;
+        this.searchSlowCallThreshold = builder.searchSlowCallThreshold;
+        this.staleResultTtl = builder.staleResultTtl;
+        this.hedgeEnabled = builder.hedgeEnabled;
+        this.hedgePercentile = builder.hedgePercentile;
+        this.hedgeBudgetPercent = builder.hedgeBudgetPercent;
+        this.hedgeMinDelay = builder.hedgeMinDelay;
     }
 
     public String getClientId() {
@@ -31,6 +103,9 @@ public class YukonConfig {
         return authorizationCode;
     }
 
+    /**
+     * Returns the IMS host name; may include a scheme and port, e.g. http://localhost:8099.
+     */
     public String getImsHost() {
         return imsHost;
     }
@@ -39,6 +114,258 @@ public class YukonConfig {
         return yukonBaseUrl;
     }
 
+    /**
+     * Returns the maximum number of documents sent in one multipart upload request.
+     */
+    public int getMaxBatchDocuments() {
+        return maxBatchDocuments;
+    }
+
+    /**
+     * Returns the maximum combined size, in bytes, of the documents sent in one multipart upload request.
+     */
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    /**
+     * Returns the transport implementation: "httpclient" (pooled, HTTP/2) or "urlconnection".
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * Returns the maximum number of concurrent HTTP exchanges with IMS and Yukon.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Returns the connect timeout in milliseconds.
+     */
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Returns the read timeout in milliseconds for collection, upload and listing calls.
+     */
+    public int getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Returns the read timeout in milliseconds for streaming inference calls.
+     */
+    public int getInferenceTimeout() {
+        return inferenceTimeout;
+    }
+
+    /**
+     * Returns whether the pooled transport negotiates HTTP/2.
+     */
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    /**
+     * Returns the number of worker threads running asynchronous operations.
+     */
+    public int getAsyncThreads() {
+        return asyncThreads;
+    }
+
+    /**
+     * Returns the maximum number of cached search results (0 disables the cache).
+     */
+    public int getSearchCacheSize() {
+        return searchCacheSize;
+    }
+
+    /**
+     * Returns how long a cached search result stays valid, in milliseconds.
+     */
+    public long getSearchCacheTtl() {
+        return searchCacheTtl;
+    }
+
+    /**
+     * Returns the maximum number of cached answers (0 disables the cache).
+     */
+    public int getAnswerCacheSize() {
+        return answerCacheSize;
+    }
+
+    /**
+     * Returns the maximum total length, in characters, of all answers held in memory.
+     */
+    public long getAnswerCacheMaxChars() {
+        return answerCacheMaxChars;
+    }
+
+    /**
+     * Returns how long a cached answer stays valid, in milliseconds.
+     */
+    public long getAnswerCacheTtl() {
+        return answerCacheTtl;
+    }
+
+    /**
+     * Returns the directory of the disk-backed answer cache tier, or null to keep answers in memory only.
+     */
+    public String getAnswerCacheDirectory() {
+        return answerCacheDirectory;
+    }
+
+    /**
+     * Returns the maximum total size of the disk answer cache tier, in bytes.
+     */
+    public long getAnswerCacheDiskMaxBytes() {
+        return answerCacheDiskMaxBytes;
+    }
+
+    /**
+     * Returns how many document listing pages are fetched concurrently after the first one.
+     */
+    public int getListParallelism() {
+        return listParallelism;
+    }
+
+    /**
+     * Returns how often a failed document listing page is retried before the listing fails.
+     */
+    public int getListPageRetries() {
+        return listPageRetries;
+    }
+
+    /**
+     * Returns the interval, in milliseconds, at which local collection indexes are refreshed from the remote listing (0 disables).
+     */
+    public long getIndexRefreshInterval() {
+        return indexRefreshInterval;
+    }
+
+    /**
+     * Returns how often an upload is retried after a transport error, timeout, throttling or server error.
+     */
+    public int getUploadRetries() {
+        return uploadRetries;
+    }
+
+    /**
+     * Returns the backoff before the first retry in milliseconds; it doubles with every retry.
+     */
+    public long getRetryBaseDelay() {
+        return retryBaseDelay;
+    }
+
+    /**
+     * Returns the longest backoff, or Retry-After wait, before a retry in milliseconds.
+     */
+    public long getRetryMaxDelay() {
+        return retryMaxDelay;
+    }
+
+    /**
+     * Returns the lowest number of uploads the adaptive limiter keeps in flight.
+     */
+    public int getUploadConcurrencyMin() {
+        return uploadConcurrencyMin;
+    }
+
+    /**
+     * Returns the highest number of uploads the adaptive limiter lets in flight.
+     */
+    public int getUploadConcurrencyMax() {
+        return uploadConcurrencyMax;
+    }
+
+    /**
+     * Returns the number of recent inference calls a circuit breaker judges an endpoint by.
+     */
+    public int getBreakerWindowSize() {
+        return breakerWindowSize;
+    }
+
+    /**
+     * Returns the number of calls a circuit breaker needs to have seen before it may open.
+     */
+    public int getBreakerMinimumCalls() {
+        return breakerMinimumCalls;
+    }
+
+    /**
+     * Returns the percentage of failed calls that opens a circuit breaker.
+     */
+    public int getBreakerFailureRateThreshold() {
+        return breakerFailureRateThreshold;
+    }
+
+    /**
+     * Returns the percentage of slow calls that opens a circuit breaker.
+     */
+    public int getBreakerSlowCallRateThreshold() {
+        return breakerSlowCallRateThreshold;
+    }
+
+    /**
+     * Returns how long an open circuit breaker rejects calls before it lets a probe through, in milliseconds.
+     */
+    public long getBreakerOpenDuration() {
+        return breakerOpenDuration;
+    }
+
+    /**
+     * Returns the duration in milliseconds above which an answer counts as slow for its circuit breaker.
+     */
+    public long getAskSlowCallThreshold() {
+        return askSlowCallThreshold;
+    }
+
+    /**
+     * Returns the duration in milliseconds above which a search counts as slow for its circuit breaker.
+     */
+    public long getSearchSlowCallThreshold() {
+        return searchSlowCallThreshold;
+    }
+
+    /**
+     * Returns how long answers and search results are kept to be served, flagged as stale, when the live call fails, in milliseconds.
+     */
+    public long getStaleResultTtl() {
+        return staleResultTtl;
+    }
+
+    /**
+     * Returns whether an inference request that has not answered within the hedge delay is sent a second time.
+     */
+    public boolean isHedgeEnabled() {
+        return hedgeEnabled;
+    }
+
+    /**
+     * Returns the percentile of recent times to the first response byte that an inference request may take before it is hedged.
+     */
+    public double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * Returns the number of hedged inference requests allowed per hundred requests.
+     */
+    public double getHedgeBudgetPercent() {
+        return hedgeBudgetPercent;
+    }
+
+    /**
+     * Returns the shortest hedge delay in milliseconds.
+     */
+    public long getHedgeMinDelay() {
+        return hedgeMinDelay;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -49,6 +376,42 @@ public class YukonConfig {
         private String authorizationCode;
         private String imsHost = "ims-na1.adobelogin.com";
         private String yukonBaseUrl = "https://yukon.adobe.io";
+        private int maxBatchDocuments = 50;
+        private long maxBatchBytes = 8L * 1024 * 1024;
+        private String transport = "httpclient";
+        private int maxConnections = 32;
+        private int connectTimeout = 15000;
+        private int requestTimeout = 60000;
+        private int inferenceTimeout = 120000;
+        private boolean http2Enabled = true;
+        private int asyncThreads = 16;
+        private int searchCacheSize = 500;
+        private long searchCacheTtl = 300000L;
+        private int answerCacheSize = 1000;
+        private long answerCacheMaxChars = 5000000L;
+        private long answerCacheTtl = 3600000L;
+        private String answerCacheDirectory = null;
+        private long answerCacheDiskMaxBytes = 268435456L;
+        private int listParallelism = 8;
+        private int listPageRetries = 3;
+        private long indexRefreshInterval = 900000L;
+        private int uploadRetries = 3;
+        private long retryBaseDelay = 250L;
+        private long retryMaxDelay = 30000L;
+        private int uploadConcurrencyMin = 1;
+        private int uploadConcurrencyMax = 16;
+        private int breakerWindowSize = 20;
+        private int breakerMinimumCalls = 10;
+        private int breakerFailureRateThreshold = 50;
+        private int breakerSlowCallRateThreshold = 50;
+        private long breakerOpenDuration = 30000L;
+        private long askSlowCallThreshold = 60000L;
+        private long searchSlowCallThreshold = 10000L;
+        private long staleResultTtl = 86400000L;
+        private boolean hedgeEnabled = false;
+        private double hedgePercentile = 95.0;
+        private double hedgeBudgetPercent = 5.0;
+        private long hedgeMinDelay = 20L;
 
         public Builder clientId(String clientId) {
             this.clientId = clientId;
@@ -75,6 +438,186 @@ public class YukonConfig {
             return this;
         }
 
+        public Builder maxBatchDocuments(int maxBatchDocuments) {
+            this.maxBatchDocuments = maxBatchDocuments;
+            return this;
+        }
+
+        public Builder maxBatchBytes(long maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+            return this;
+        }
+
+        public Builder transport(String transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        public Builder maxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        public Builder connectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder requestTimeout(int requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        public Builder inferenceTimeout(int inferenceTimeout) {
+            this.inferenceTimeout = inferenceTimeout;
+            return this;
+        }
+
+        public Builder http2Enabled(boolean http2Enabled) {
+            this.http2Enabled = http2Enabled;
+            return this;
+        }
+
+        public Builder asyncThreads(int asyncThreads) {
+            this.asyncThreads = asyncThreads;
+            return this;
+        }
+
+        public Builder searchCacheSize(int searchCacheSize) {
+            this.searchCacheSize = searchCacheSize;
+            return this;
+        }
+
+        public Builder searchCacheTtl(long searchCacheTtl) {
+            this.searchCacheTtl = searchCacheTtl;
+            return this;
+        }
+
+        public Builder answerCacheSize(int answerCacheSize) {
+            this.answerCacheSize = answerCacheSize;
+            return this;
+        }
+
+        public Builder answerCacheMaxChars(long answerCacheMaxChars) {
+            this.answerCacheMaxChars = answerCacheMaxChars;
+            return this;
+        }
+
+        public Builder answerCacheTtl(long answerCacheTtl) {
+            this.answerCacheTtl = answerCacheTtl;
+            return this;
+        }
+
+        public Builder answerCacheDirectory(String answerCacheDirectory) {
+            this.answerCacheDirectory = answerCacheDirectory;
+            return this;
+        }
+
+        public Builder answerCacheDiskMaxBytes(long answerCacheDiskMaxBytes) {
+            this.answerCacheDiskMaxBytes = answerCacheDiskMaxBytes;
+            return this;
+        }
+
+        public Builder listParallelism(int listParallelism) {
+            this.listParallelism = listParallelism;
+            return this;
+        }
+
+        public Builder listPageRetries(int listPageRetries) {
+            this.listPageRetries = listPageRetries;
+            return this;
+        }
+
+        public Builder indexRefreshInterval(long indexRefreshInterval) {
+            this.indexRefreshInterval = indexRefreshInterval;
+            return this;
+        }
+
+        public Builder uploadRetries(int uploadRetries) {
+            this.uploadRetries = uploadRetries;
+            return this;
+        }
+
+        public Builder retryBaseDelay(long retryBaseDelay) {
+            this.retryBaseDelay = retryBaseDelay;
+            return this;
+        }
+
+        public Builder retryMaxDelay(long retryMaxDelay) {
+            this.retryMaxDelay = retryMaxDelay;
+            return this;
+        }
+
+        public Builder uploadConcurrencyMin(int uploadConcurrencyMin) {
+            this.uploadConcurrencyMin = uploadConcurrencyMin;
+            return this;
+        }
+
+        public Builder uploadConcurrencyMax(int uploadConcurrencyMax) {
+            this.uploadConcurrencyMax = uploadConcurrencyMax;
+            return this;
+        }
+
+        public Builder breakerWindowSize(int breakerWindowSize) {
+            this.breakerWindowSize = breakerWindowSize;
+            return this;
+        }
+
+        public Builder breakerMinimumCalls(int breakerMinimumCalls) {
+            this.breakerMinimumCalls = breakerMinimumCalls;
+            return this;
+        }
+
+        public Builder breakerFailureRateThreshold(int breakerFailureRateThreshold) {
+            this.breakerFailureRateThreshold = breakerFailureRateThreshold;
+            return this;
+        }
+
+        public Builder breakerSlowCallRateThreshold(int breakerSlowCallRateThreshold) {
+            this.breakerSlowCallRateThreshold = breakerSlowCallRateThreshold;
+            return this;
+        }
+
+        public Builder breakerOpenDuration(long breakerOpenDuration) {
+            this.breakerOpenDuration = breakerOpenDuration;
+            return this;
+        }
+
+        public Builder askSlowCallThreshold(long askSlowCallThreshold) {
+            this.askSlowCallThreshold = askSlowCallThreshold;
+            return this;
+        }
+
+        public Builder searchSlowCallThreshold(long searchSlowCallThreshold) {
+            this.searchSlowCallThreshold = searchSlowCallThreshold;
+            return this;
+        }
+
+        public Builder staleResultTtl(long staleResultTtl) {
+            this.staleResultTtl = staleResultTtl;
+            return this;
+        }
+
+        public Builder hedgeEnabled(boolean hedgeEnabled) {
+            this.hedgeEnabled = hedgeEnabled;
+            return this;
+        }
+
+        public Builder hedgePercentile(double hedgePercentile) {
+            this.hedgePercentile = hedgePercentile;
+            return this;
+        }
+
+        public Builder hedgeBudgetPercent(double hedgeBudgetPercent) {
+            this.hedgeBudgetPercent = hedgeBudgetPercent;
+            return this;
+        }
+
+        public Builder hedgeMinDelay(long hedgeMinDelay) {
+            this.hedgeMinDelay = hedgeMinDelay;
+            return this;
+        }
+
         public YukonConfig build() {
             if (clientId == null || clientId.isEmpty()) {
                 throw new IllegalArgumentException("clientId is required");
@@ -4,45 +4,285 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.adobe.cf_rag.docstore.api.AnswerListener;
+import com.adobe.cf_rag.docstore.api.AsyncDocumentStoreService;
+import com.adobe.cf_rag.docstore.api.DocumentCursor;
+import com.adobe.cf_rag.docstore.api.DocumentIndex;
 import com.adobe.cf_rag.docstore.api.DocumentStoreException;
 import com.adobe.cf_rag.docstore.api.DocumentStoreService;
 import com.adobe.cf_rag.docstore.api.model.Collection;
+import com.adobe.cf_rag.docstore.api.model.Document;
 import com.adobe.cf_rag.docstore.api.model.InferenceResult;
 import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
 import com.adobe.cf_rag.docstore.api.model.SearchResult;
 import com.adobe.cf_rag.docstore.api.model.UploadResult;
+import com.adobe.cf_rag.docstore.cache.CacheStats;
+import com.adobe.cf_rag.docstore.cache.DiskCacheTier;
+import com.adobe.cf_rag.docstore.cache.LruTtlCache;
+import com.adobe.cf_rag.docstore.index.CollectionIndex;
+import com.adobe.cf_rag.docstore.metrics.DocumentStoreMetrics;
+import com.adobe.cf_rag.docstore.metrics.Operation;
+import com.adobe.cf_rag.util.Sha256;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 /**
  * Yukon-specific implementation of the DocumentStoreService.
  * Uses Adobe IMS for authentication and Yukon v2 API for document operations.
+ * The parsing and serialization hot paths are package-private so the benchmarks module can measure them.
  */
-public class YukonDocumentStoreService implements DocumentStoreService {
+public class YukonDocumentStoreService implements DocumentStoreService, AsyncDocumentStoreService {
 
     private static final Logger LOG = LoggerFactory.getLogger(YukonDocumentStoreService.class);
     private static final String PROVIDER_NAME = "Yukon";
+    private static final String BEARER = "Bearer ";
+    private static final Pattern CITATION_MARKER = Pattern.compile("\\[\\^?\\d+]");
+    // bytes read after a completion event to keep its connection, before aborting the stream instead
+    private static final int DRAIN_LIMIT = 64 * 1024;
 
     private final YukonConfig config;
     private final ObjectMapper objectMapper;
-
-    // Token caching
-    private String cachedAccessToken;
-    private long tokenExpirationTime;
+    private final YukonTransport transport;
+    private final ExecutorService asyncExecutor;
+    private final ExecutorService listExecutor;
+    private final ScheduledExecutorService indexExecutor;
+
+    // Local mirror of each collection used so far, kept current by uploads, listings and refreshes
+    private final Map<String, CollectionIndex> collectionIndexes = new ConcurrentHashMap<>();
+    private final Set<String> pendingIndexRefreshes = ConcurrentHashMap.newKeySet();
+    private final LruTtlCache<SearchCacheKey, SearchResult> searchCache;
+    private final LruTtlCache<AnswerCacheKey, InferenceResult> answerCache;
+    private final DiskCacheTier<InferenceResult> diskAnswerCache;
+
+    // Last good results, served flagged as stale when a live call fails; not invalidated by uploads
+    private final LruTtlCache<SearchCacheKey, SearchResult> staleSearches;
+    private final LruTtlCache<AnswerCacheKey, InferenceResult> staleAnswers;
+    private final AtomicLong staleSearchCount = new AtomicLong();
+    private final AtomicLong staleAnswerCount = new AtomicLong();
+
+    // Identical concurrent questions and searches share one upstream call
+    private final Map<AnswerCacheKey, SharedAnswerStream> answerFlights = new ConcurrentHashMap<>();
+    private final AtomicLong coalescedAnswers = new AtomicLong();
+    private final SingleFlight<SearchCacheKey, SearchResult> searchFlights = new SingleFlight<>();
+
+    // Bumped on every successful upload; results computed under an older generation are not cached
+    private final Map<String, AtomicLong> collectionGenerations = new ConcurrentHashMap<>();
+
+    private final YukonTokenManager tokenManager;
+    private final DocumentStoreMetrics metrics = new DocumentStoreMetrics();
+
+    // Uploads adapt their concurrency to what Yukon tolerates
+    private final AdaptiveLimiter uploadLimiter;
+
+    // Answers and searches share the inference endpoint but not its latency, so each has its own breaker
+    private final CircuitBreaker askBreaker;
+    private final CircuitBreaker searchBreaker;
+
+    // Optional duplicate inference requests for the slowest few percent; null when hedging is disabled
+    private final RequestHedger askHedger;
+    private final RequestHedger searchHedger;
+    private final ExecutorService hedgeExecutor;
 
     public YukonDocumentStoreService(YukonConfig config) {
+        this(config, createTransport(config));
+    }
+
+    public YukonDocumentStoreService(YukonConfig config, YukonTransport transport) {
         this.config = config;
         this.objectMapper = new ObjectMapper();
-        LOG.info("YukonDocumentStoreService initialized with base URL: {}", config.getYukonBaseUrl());
+        this.transport = transport;
+        TransportMetrics transportMetrics = transport.getMetrics();
+        metrics.bindTransferCounters(transportMetrics::getBytesSent, transportMetrics::getBytesReceived);
+        this.tokenManager = new YukonTokenManager(config, transport, objectMapper, metrics);
+        this.uploadLimiter = new AdaptiveLimiter(config.getUploadConcurrencyMin(), config.getUploadConcurrencyMax());
+        this.askBreaker = circuitBreaker("ask", config.getAskSlowCallThreshold());
+        this.searchBreaker = circuitBreaker("search", config.getSearchSlowCallThreshold());
+        if (config.isHedgeEnabled()) {
+            this.askHedger = requestHedger();
+            this.searchHedger = requestHedger();
+            this.hedgeExecutor = Executors.newCachedThreadPool(namedThreads("cf-rag-yukon-hedge"));
+        } else {
+            this.askHedger = null;
+            this.searchHedger = null;
+            this.hedgeExecutor = null;
+        }
+        this.asyncExecutor = Executors.newFixedThreadPool(Math.max(1, config.getAsyncThreads()),
+                namedThreads("cf-rag-yukon-async"));
+        this.listExecutor = Executors.newFixedThreadPool(Math.max(1, config.getListParallelism()),
+                namedThreads("cf-rag-yukon-list"));
+        this.indexExecutor = Executors.newSingleThreadScheduledExecutor(namedThreads("cf-rag-yukon-index"));
+        if (config.getIndexRefreshInterval() > 0) {
+            indexExecutor.scheduleWithFixedDelay(this::refreshIndexes, config.getIndexRefreshInterval(),
+                    config.getIndexRefreshInterval(), TimeUnit.MILLISECONDS);
+        }
+        this.searchCache = new LruTtlCache<>(config.getSearchCacheSize(), config.getSearchCacheTtl());
+        this.answerCache = new LruTtlCache<>(config.getAnswerCacheSize(), config.getAnswerCacheMaxChars(),
+                config.getAnswerCacheTtl(), result -> result.getAnswer() != null ? result.getAnswer().length() : 0);
+        this.diskAnswerCache = config.getAnswerCacheDirectory() != null && !config.getAnswerCacheDirectory().isEmpty()
+                ? new DiskCacheTier<>(new File(config.getAnswerCacheDirectory()), config.getAnswerCacheTtl(),
+                        config.getAnswerCacheDiskMaxBytes(), objectMapper, new InferenceResultCodec())
+                : null;
+        this.staleSearches = new LruTtlCache<>(config.getSearchCacheSize(), config.getStaleResultTtl());
+        this.staleAnswers = new LruTtlCache<>(config.getAnswerCacheSize(), config.getAnswerCacheMaxChars(),
+                config.getStaleResultTtl(), result -> result.getAnswer() != null ? result.getAnswer().length() : 0);
+        tokenManager.prefetch();
+        LOG.info("YukonDocumentStoreService initialized with base URL: {} ({} transport)",
+                config.getYukonBaseUrl(), config.getTransport());
+    }
+
+    private CircuitBreaker circuitBreaker(String name, long slowCallMillis) {
+        return new CircuitBreaker(name, config.getBreakerWindowSize(), config.getBreakerMinimumCalls(),
+                config.getBreakerFailureRateThreshold(), config.getBreakerSlowCallRateThreshold(),
+                slowCallMillis, config.getBreakerOpenDuration());
+    }
+
+    private RequestHedger requestHedger() {
+        return new RequestHedger(config.getHedgePercentile(), config.getHedgeBudgetPercent(), config.getHedgeMinDelay());
+    }
+
+    private static YukonTransport createTransport(YukonConfig config) {
+        return "urlconnection".equalsIgnoreCase(config.getTransport())
+                ? new UrlConnectionTransport(config)
+                : new HttpClientTransport(config);
+    }
+
+    /**
+     * Returns the connection counters of the underlying transport.
+     */
+    public TransportMetrics getTransportMetrics() {
+        return transport.getMetrics();
+    }
+
+    /**
+     * Returns the limiter that adapts the number of uploads in flight.
+     */
+    public AdaptiveLimiter getUploadLimiter() {
+        return uploadLimiter;
+    }
+
+    /**
+     * Returns the circuit breaker of askQuestion/streamAnswer.
+     */
+    public CircuitBreaker getAskBreaker() {
+        return askBreaker;
+    }
+
+    /**
+     * Returns the circuit breaker of searchDocuments.
+     */
+    public CircuitBreaker getSearchBreaker() {
+        return searchBreaker;
+    }
+
+    /**
+     * Returns the hedging statistics of askQuestion/streamAnswer, or null if hedging is disabled.
+     */
+    public RequestHedger getAskHedger() {
+        return askHedger;
+    }
+
+    /**
+     * Returns the hedging statistics of searchDocuments, or null if hedging is disabled.
+     */
+    public RequestHedger getSearchHedger() {
+        return searchHedger;
+    }
+
+    /**
+     * Returns the number of earlier answers served because the live call failed.
+     */
+    public long getStaleAnswerCount() {
+        return staleAnswerCount.get();
+    }
+
+    /**
+     * Returns the number of earlier search results served because the live call failed.
+     */
+    public long getStaleSearchCount() {
+        return staleSearchCount.get();
+    }
+
+    /**
+     * Returns the latency histograms and counters of the Yukon calls made by this service.
+     */
+    public DocumentStoreMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the hit/miss statistics of the search result cache.
+     */
+    public CacheStats getSearchCacheStats() {
+        return searchCache.getStats();
+    }
+
+    /**
+     * Returns the hit/miss statistics of the in-memory answer cache.
+     */
+    public CacheStats getAnswerCacheStats() {
+        return answerCache.getStats();
+    }
+
+    /**
+     * Returns the number of askQuestion/streamAnswer calls that joined an identical call in flight.
+     */
+    public long getCoalescedAnswerCount() {
+        return coalescedAnswers.get();
+    }
+
+    /**
+     * Returns the number of searchDocuments calls that joined an identical call in flight.
+     */
+    public long getCoalescedSearchCount() {
+        return searchFlights.getCoalescedCount();
+    }
+
+    @Override
+    public void close() {
+        asyncExecutor.shutdownNow();
+        listExecutor.shutdownNow();
+        indexExecutor.shutdownNow();
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+        tokenManager.close();
+        transport.close();
     }
 
     @Override
@@ -65,31 +305,287 @@ public class YukonDocumentStoreService implements DocumentStoreService {
             throws DocumentStoreException {
         try {
             String token = getAccessToken();
-            return doUploadDocument(token, collectionId, fileName, jsonContent);
+            UploadResult result = doUploadDocument(token, collectionId, fileName, jsonContent);
+            if (result.isSuccess()) {
+                collectionIndex(collectionId).put(result.getDocumentId(), fileName);
+                collectionChanged(collectionId);
+            }
+            return result;
         } catch (IOException e) {
             throw new DocumentStoreException("Failed to upload document: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Uploads the documents in batches. A batch that fails does not stop the others: its
+     * documents get failed results, and the successful ones are still indexed and returned.
+     */
+    @Override
+    public List<UploadResult> uploadDocuments(String collectionId, List<Document> documents)
+            throws DocumentStoreException {
+        List<UploadResult> results = new ArrayList<>(documents.size());
+        List<List<Document>> batches = partitionBatches(documents);
+        for (int i = 0; i < batches.size(); i++) {
+            List<Document> batch = batches.get(i);
+            try {
+                String token = getAccessToken();
+                results.addAll(doUploadBatch(token, collectionId, batch));
+            } catch (InterruptedIOException e) {
+                // the caller is cancelled: fail the remaining batches without sending them
+                for (List<Document> remaining : batches.subList(i, batches.size())) {
+                    addFailures(results, remaining, e);
+                }
+                break;
+            } catch (IOException e) {
+                LOG.error("Batch upload of {} documents to collection {} failed", batch.size(), collectionId, e);
+                addFailures(results, batch, e);
+            }
+        }
+
+        if (results.stream().anyMatch(UploadResult::isSuccess)) {
+            CollectionIndex index = collectionIndex(collectionId);
+            for (UploadResult result : results) {
+                if (result.isSuccess()) {
+                    index.put(result.getDocumentId(), result.getFileName());
+                }
+            }
+            collectionChanged(collectionId);
+        }
+        return results;
+    }
+
+    private static void addFailures(List<UploadResult> results, List<Document> batch, IOException e) {
+        for (Document document : batch) {
+            results.add(UploadResult.failure(document.getFileName(), "Failed to upload document: " + e.getMessage()));
+        }
+    }
+
     @Override
     public InferenceResult askQuestion(String collectionId, String question, List<String> documentIds)
             throws DocumentStoreException {
+        return askQuestion(collectionId, question, documentIds, false);
+    }
+
+    @Override
+    public InferenceResult askQuestion(String collectionId, String question, List<String> documentIds,
+                                       boolean bypassCache) throws DocumentStoreException {
+        AnswerCacheKey cacheKey = new AnswerCacheKey(collectionId, question, documentIds);
+        if (!bypassCache) {
+            InferenceResult cached = getCachedAnswer(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return coalescedAnswer(cacheKey, question, documentIds, null, !bypassCache);
+    }
+
+    @Override
+    public InferenceResult streamAnswer(String collectionId, String question, List<String> documentIds,
+                                        AnswerListener listener) throws DocumentStoreException {
+        return coalescedAnswer(new AnswerCacheKey(collectionId, question, documentIds), question, documentIds,
+                listener, true);
+    }
+
+    /**
+     * Runs the inference for a question, or joins the identical one already in flight unless
+     * {@code join} is false.
+     */
+    private InferenceResult coalescedAnswer(AnswerCacheKey key, String question, List<String> documentIds,
+                                            AnswerListener listener, boolean join) throws DocumentStoreException {
+        String collectionId = key.getCollectionId();
+        while (true) {
+            SharedAnswerStream stream = new SharedAnswerStream(collectionId, question, listener);
+            SharedAnswerStream inFlight = answerFlights.putIfAbsent(key, stream);
+            if (inFlight == null || !join) {
+                // a caller bypassing the cache must not take an answer started before it asked
+                return leadAnswer(key, stream, question, documentIds);
+            }
+            InferenceResult shared = inFlight.follow(listener);
+            if (shared != null) {
+                coalescedAnswers.incrementAndGet();
+                LOG.debug("Question '{}' answered by an identical request in flight", question);
+                return shared;
+            }
+        }
+    }
+
+    private InferenceResult leadAnswer(AnswerCacheKey key, SharedAnswerStream stream, String question,
+                                       List<String> documentIds) throws DocumentStoreException {
+        String collectionId = key.getCollectionId();
+        long generation = collectionGeneration(collectionId);
+        InferenceResult result = null;
+        DocumentStoreException failure = null;
+        CancellableCall upstream = new CancellableCall(CancellableCall.current());
+        stream.attach(upstream);
         try {
-            String token = getAccessToken();
-            return doAskQuestion(token, collectionId, question, documentIds);
-        } catch (IOException e) {
-            throw new DocumentStoreException("Failed to ask question: " + e.getMessage(), e);
+            try {
+                upstream.enter();
+                String token = getAccessToken();
+                result = doAskQuestion(token, collectionId, question, documentIds, stream);
+            } catch (IOException e) {
+                failure = new DocumentStoreException("Failed to ask question: " + e.getMessage(), e);
+            } finally {
+                upstream.exit();
+            }
+            if (result == null || !result.isSuccess()) {
+                InferenceResult stale = staleAnswer(key, stream);
+                if (stale != null) {
+                    result = stale;
+                    failure = null;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            cacheAnswer(key, result, generation);
+        } finally {
+            answerFlights.remove(key, stream);
+            if (result == null) {
+                stream.fail(failure != null ? failure : new DocumentStoreException("Failed to ask question"));
+            }
         }
+        return stream.complete(result);
     }
 
     @Override
     public SearchResult searchDocuments(String collectionId, String query, int maxResults)
             throws DocumentStoreException {
+        SearchCacheKey cacheKey = new SearchCacheKey(collectionId, query, maxResults);
+        SearchResult cached = searchCache.get(cacheKey, collectionGeneration(collectionId));
+        if (cached != null) {
+            LOG.debug("Search cache hit for {}", cacheKey);
+            return cached;
+        }
+
+        return searchFlights.execute(cacheKey, () -> {
+            long generation = collectionGeneration(collectionId);
+            SearchResult result;
+            try {
+                String token = getAccessToken();
+                result = doSearchDocuments(token, collectionId, query, maxResults);
+            } catch (IOException e) {
+                SearchResult stale = staleSearch(cacheKey);
+                if (stale != null) {
+                    return stale;
+                }
+                throw new DocumentStoreException("Failed to search documents: " + e.getMessage(), e);
+            }
+            if (!result.isSuccess()) {
+                SearchResult stale = staleSearch(cacheKey);
+                return stale != null ? stale : result;
+            }
+            staleSearches.put(cacheKey, result);
+            searchCache.put(cacheKey, result, generation);
+            return result;
+        });
+    }
+
+    // ========== Stale Fallback ==========
+
+    private SearchResult staleSearch(SearchCacheKey cacheKey) {
+        SearchResult stale = staleSearches.get(cacheKey);
+        if (stale == null) {
+            return null;
+        }
+        staleSearchCount.incrementAndGet();
+        LOG.warn("Live search failed, serving an earlier result for {}", cacheKey);
+        return stale.asStale();
+    }
+
+    /**
+     * Returns the last good answer to a question, flagged as stale, after the live call failed
+     * before streaming anything. Streaming callers get it as a single chunk. Returns null if there
+     * is none, or if part of a live answer was streamed already.
+     */
+    private InferenceResult staleAnswer(AnswerCacheKey cacheKey, SharedAnswerStream stream) {
+        if (stream.hasChunks()) {
+            return null;
+        }
+        InferenceResult stale = staleAnswers.get(cacheKey);
+        if (stale == null) {
+            return null;
+        }
         try {
-            String token = getAccessToken();
-            return doSearchDocuments(token, collectionId, query, maxResults);
+            stream.onText(stale.getAnswer());
         } catch (IOException e) {
-            throw new DocumentStoreException("Failed to search documents: " + e.getMessage(), e);
+            return null;
+        }
+        staleAnswerCount.incrementAndGet();
+        LOG.warn("Live answer failed, serving an earlier answer to question '{}'", stale.getQuestion());
+        return stale.asStale();
+    }
+
+    // ========== Cache Invalidation ==========
+
+    private long collectionGeneration(String collectionId) {
+        AtomicLong generation = collectionGenerations.get(collectionId);
+        return generation != null ? generation.get() : 0;
+    }
+
+    /**
+     * Invalidates the cached results of a collection after its content changed. Cached results
+     * carry the generation they were computed in and are dropped when read in a later one, so
+     * this is cheap enough to run after every upload batch.
+     */
+    private void collectionChanged(String collectionId) {
+        AtomicLong generation = collectionGenerations.computeIfAbsent(collectionId, id -> new AtomicLong());
+        synchronized (generation) {
+            generation.incrementAndGet();
+            if (diskAnswerCache != null) {
+                diskAnswerCache.invalidatePartition(collectionId);
+            }
+        }
+    }
+
+    private InferenceResult getCachedAnswer(AnswerCacheKey cacheKey) {
+        long generation = collectionGeneration(cacheKey.getCollectionId());
+        InferenceResult cached = answerCache.get(cacheKey, generation);
+        if (cached == null && diskAnswerCache != null) {
+            cached = diskAnswerCache.get(cacheKey.getCollectionId(), cacheKey.toString());
+            if (cached != null) {
+                answerCache.put(cacheKey, cached, generation);
+            }
+        }
+        if (cached != null) {
+            LOG.debug("Answer cache hit for question '{}'", cached.getQuestion());
+        }
+        return cached;
+    }
+
+    private void cacheAnswer(AnswerCacheKey cacheKey, InferenceResult result, long generation) {
+        if (!result.isSuccess() || result.isStale()) {
+            return;
+        }
+        staleAnswers.put(cacheKey, result);
+        AtomicLong current = collectionGenerations.computeIfAbsent(cacheKey.getCollectionId(), id -> new AtomicLong());
+        // checked and written under the lock collectionChanged holds, so an answer from before an
+        // upload is either written before the disk tier is invalidated or not written at all
+        synchronized (current) {
+            if (generation != current.get()) {
+                return;
+            }
+            answerCache.put(cacheKey, result, generation);
+            if (diskAnswerCache != null) {
+                diskAnswerCache.put(cacheKey.getCollectionId(), cacheKey.toString(), result);
+            }
+        }
+    }
+
+    /**
+     * Stores successful inference results in the disk cache tier.
+     */
+    private static class InferenceResultCodec implements DiskCacheTier.Codec<InferenceResult> {
+        @Override
+        public void write(InferenceResult value, ObjectNode node) {
+            node.put("question", value.getQuestion());
+            node.put("collectionId", value.getCollectionId());
+            node.put("answer", value.getAnswer());
+        }
+
+        @Override
+        public InferenceResult read(JsonNode node) {
+            return InferenceResult.success(node.path("question").asText(null),
+                    node.path("collectionId").asText(null), node.path("answer").asText(null));
         }
     }
 
@@ -103,66 +599,304 @@ public class YukonDocumentStoreService implements DocumentStoreService {
         }
     }
 
-    // ========== Token Management ==========
+    @Override
+    public DocumentCursor openDocumentCursor(String collectionId) throws DocumentStoreException {
+        try {
+            String token = getAccessToken();
+            return new PagedDocumentCursor(token, collectionId);
+        } catch (IOException e) {
+            throw new DocumentStoreException("Failed to list documents: " + e.getMessage(), e);
+        }
+    }
+
+    // ========== Local Collection Index ==========
 
-    private synchronized String getAccessToken() throws IOException {
-        long now = System.currentTimeMillis();
-        if (cachedAccessToken != null && tokenExpirationTime > now + 300000) {
-            return cachedAccessToken;
+    /**
+     * Returns the local index of a collection. The first request for a collection that has not
+     * been fully listed yet schedules a background refresh; until it completes, the index only
+     * holds the documents seen in uploads, listings and search results.
+     */
+    @Override
+    public DocumentIndex getCollectionIndex(String collectionId) {
+        CollectionIndex index = collectionIndex(collectionId);
+        if (index.getLastRefreshTime() == 0 && pendingIndexRefreshes.add(collectionId)) {
+            try {
+                indexExecutor.execute(() -> refreshIndex(collectionId));
+            } catch (RejectedExecutionException e) {
+                pendingIndexRefreshes.remove(collectionId);
+            }
+        }
+        return index;
+    }
+
+    private CollectionIndex collectionIndex(String collectionId) {
+        return collectionIndexes.computeIfAbsent(collectionId, id -> new CollectionIndex());
+    }
+
+    private void refreshIndexes() {
+        for (String collectionId : collectionIndexes.keySet()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            refreshIndex(collectionId);
+        }
+    }
+
+    /**
+     * Rebuilds a collection index from the remote listing. Every listed page updates the index
+     * as it is parsed; completing the refresh drops documents that no longer exist remotely.
+     */
+    private void refreshIndex(String collectionId) {
+        CollectionIndex index = collectionIndex(collectionId);
+        long generation = index.beginRefresh();
+        try (PagedDocumentCursor cursor = new PagedDocumentCursor(getAccessToken(), collectionId)) {
+            while (cursor.advance()) {
+                cursor.current.next();
+            }
+            int removed = index.completeRefresh(generation);
+            LOG.debug("Refreshed index of collection {}: {} documents, {} removed", collectionId, index.size(), removed);
+        } catch (IOException e) {
+            LOG.warn("Failed to refresh index of collection {}: {}", collectionId, e.getMessage());
+        } finally {
+            pendingIndexRefreshes.remove(collectionId);
         }
+    }
+
+    // ========== Asynchronous Operations ==========
+
+    @Override
+    public CompletableFuture<Collection> createCollectionAsync(String name, String description) {
+        return supplyAsync(() -> createCollection(name, description));
+    }
 
-        String tokenUrl = "https://" + config.getImsHost() + "/ims/token/v2";
-        LOG.info("Exchanging authorization code for access token at: {}", tokenUrl);
+    @Override
+    public CompletableFuture<UploadResult> uploadDocumentAsync(String collectionId, String fileName,
+                                                               String jsonContent) {
+        return supplyAsync(() -> uploadDocument(collectionId, fileName, jsonContent));
+    }
+
+    @Override
+    public CompletableFuture<List<UploadResult>> uploadDocumentsAsync(String collectionId, List<Document> documents) {
+        return supplyAsync(() -> uploadDocuments(collectionId, documents));
+    }
+
+    @Override
+    public CompletableFuture<InferenceResult> askQuestionAsync(String collectionId, String question,
+                                                               List<String> documentIds) {
+        return supplyAsync(() -> askQuestion(collectionId, question, documentIds));
+    }
+
+    @Override
+    public CompletableFuture<InferenceResult> askQuestionAsync(String collectionId, String question,
+                                                               List<String> documentIds, boolean bypassCache) {
+        return supplyAsync(() -> askQuestion(collectionId, question, documentIds, bypassCache));
+    }
+
+    @Override
+    public CompletableFuture<InferenceResult> streamAnswerAsync(String collectionId, String question,
+                                                                List<String> documentIds, AnswerListener listener) {
+        return supplyAsync(() -> streamAnswer(collectionId, question, documentIds, listener));
+    }
+
+    @Override
+    public CompletableFuture<SearchResult> searchDocumentsAsync(String collectionId, String query, int maxResults) {
+        return supplyAsync(() -> searchDocuments(collectionId, query, maxResults));
+    }
+
+    @Override
+    public CompletableFuture<ListDocumentsResult> listDocumentsAsync(String collectionId) {
+        return supplyAsync(() -> listDocuments(collectionId));
+    }
+
+    @Override
+    public CompletableFuture<DocumentCursor> openDocumentCursorAsync(String collectionId) {
+        return supplyAsync(() -> openDocumentCursor(collectionId));
+    }
 
-        URL url = new URL(tokenUrl);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setDoOutput(true);
-        conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+    @FunctionalInterface
+    private interface AsyncOperation<T> {
+        T call() throws DocumentStoreException;
+    }
 
-        String body = "grant_type=authorization_code" +
-                "&client_id=" + URLEncoder.encode(config.getClientId(), "UTF-8") +
-                "&client_secret=" + URLEncoder.encode(config.getClientSecret(), "UTF-8") +
-                "&code=" + URLEncoder.encode(config.getAuthorizationCode(), "UTF-8");
+    /**
+     * Runs a blocking operation on the dedicated async executor. Responses opened by the operation
+     * are tracked, so cancelling the future (or timing it out) aborts the exchange in flight.
+     */
+    private <T> CompletableFuture<T> supplyAsync(AsyncOperation<T> operation) {
+        CancellableCall call = new CancellableCall();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled() || error instanceof TimeoutException) {
+                call.cancel();
+            }
+        });
 
-        try (DataOutputStream out = new DataOutputStream(conn.getOutputStream())) {
-            out.writeBytes(body);
-            out.flush();
+        try {
+            asyncExecutor.execute(() -> {
+                if (future.isDone() || !call.enter()) {
+                    return;
+                }
+                try {
+                    future.complete(operation.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    call.exit();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new DocumentStoreException("Document store is shut down", e));
         }
+        return future;
+    }
 
-        int status = conn.getResponseCode();
-        InputStream is = status >= 200 && status < 300 ? conn.getInputStream() : conn.getErrorStream();
-        String responseBody = readAll(is);
-        conn.disconnect();
+    /**
+     * Sends a request through the transport, registering the response with the
+     * current asynchronous call (if any) so it can be aborted on cancellation.
+     */
+    private YukonResponse send(YukonRequest request) throws IOException {
+        return send(request, CancellableCall.current());
+    }
 
-        if (status < 200 || status >= 300) {
-            LOG.error("IMS token exchange failed: {}", responseBody);
-            throw new IOException("IMS token exchange failed with HTTP " + status + ": " + responseBody);
+    /**
+     * Sends a request on behalf of the given call, which may belong to another thread.
+     * A request rejected with HTTP 401 is sent once more with a freshly exchanged token.
+     */
+    private YukonResponse send(YukonRequest request, CancellableCall call) throws IOException {
+        YukonResponse response = execute(request, call);
+        String authorization = request.getHeaders().get("Authorization");
+        if (response.getStatus() == 401 && authorization != null && authorization.startsWith(BEARER)) {
+            response.readBody();
+            String token = tokenManager.refreshRejected(authorization.substring(BEARER.length()));
+            response = execute(request.toBuilder().header("Authorization", BEARER + token).build(), call);
         }
+        return response;
+    }
 
-        JsonNode json = objectMapper.readTree(responseBody);
-        JsonNode accessTokenNode = json.get("access_token");
-        if (accessTokenNode == null || accessTokenNode.isNull()) {
-            throw new IOException("No access_token in IMS response: " + responseBody);
+    /**
+     * Sends a request, retrying transport errors, timeouts, throttling and server errors up to
+     * the given number of times. Retries back off exponentially with jitter, or wait as long as
+     * a {@code Retry-After} header asks. With a limiter, each attempt waits for a slot and reports
+     * its latency and throttling back, and a {@code Retry-After} pauses all requests of the limiter.
+     * Returns the last response, with its body unread; throws if the last attempt got no response.
+     */
+    private YukonResponse sendWithRetries(YukonRequest request, CancellableCall call, AdaptiveLimiter limiter,
+                                          int maxRetries, String description) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            long ticket = limiter != null ? limiter.acquire() : 0;
+            long start = System.nanoTime();
+            YukonResponse response;
+            try {
+                response = send(request, call);
+            } catch (IOException e) {
+                if (limiter != null) {
+                    limiter.releaseFailed();
+                }
+                if (attempt >= Math.max(0, maxRetries) || Thread.currentThread().isInterrupted()
+                        || (call != null && call.isCancelled())) {
+                    throw e;
+                }
+                LOG.warn("{} failed ({}), retrying", description, e.getMessage());
+                backOff(attempt, -1, description);
+                continue;
+            }
+
+            int status = response.getStatus();
+            boolean throttled = status == 429 || status == 503;
+            if (limiter != null) {
+                limiter.release(ticket, System.nanoTime() - start, throttled);
+            }
+            boolean retryable = status == 408 || status == 429 || status >= 500;
+            if (!retryable || attempt >= Math.max(0, maxRetries) || (call != null && call.isCancelled())) {
+                return response;
+            }
+            long retryAfter = throttled ? retryAfterMillis(response.getHeader("Retry-After")) : -1;
+            if (retryAfter > 0 && limiter != null) {
+                limiter.pause(Math.min(retryAfter, config.getRetryMaxDelay()));
+            }
+            String body = response.readBody();
+            LOG.warn("{} failed (HTTP {}: {}), retrying", description, status, body.trim());
+            backOff(attempt, retryAfter, description);
         }
-        String accessToken = accessTokenNode.asText();
+    }
 
-        LOG.info("Successfully obtained access token from IMS");
-        JsonNode expiresInNode = json.get("expires_in");
-        long expiry = expiresInNode != null && !expiresInNode.isNull()
-                ? expiresInNode.asLong() * 1000 : 86400000L;
-        tokenExpirationTime = now + expiry;
-        cachedAccessToken = accessToken;
+    /**
+     * Sleeps before a retry: as long as the server asked for, or else an exponentially growing
+     * delay with jitter, so clients throttled at the same time do not retry in lockstep.
+     */
+    private void backOff(int attempt, long retryAfterMillis, String description) throws IOException {
+        long maxDelay = Math.max(1, config.getRetryMaxDelay());
+        long base = Math.max(1, config.getRetryBaseDelay());
+        long delay;
+        if (retryAfterMillis >= 0) {
+            delay = Math.min(maxDelay, retryAfterMillis) + ThreadLocalRandom.current().nextLong(base);
+        } else {
+            long ceiling = Math.min(maxDelay, base << Math.min(attempt, 30));
+            delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while retrying: " + description);
+        }
+    }
 
-        return cachedAccessToken;
+    /**
+     * Parses a {@code Retry-After} header given in seconds or as an HTTP date. Returns -1 if it
+     * is absent or invalid.
+     */
+    static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, Long.parseLong(value)) * 1000;
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try an HTTP date
+        }
+        try {
+            long at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - System.currentTimeMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private YukonResponse execute(YukonRequest request, CancellableCall call) throws IOException {
+        YukonResponse response;
+        try {
+            response = transport.execute(request);
+        } catch (IOException e) {
+            metrics.recordIoError();
+            throw e;
+        }
+        metrics.recordHttpStatus(response.getStatus());
+        if (call != null) {
+            call.track(response);
+        }
+        return response;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // ========== Token Management ==========
+
+    private String getAccessToken() throws IOException {
+        return tokenManager.getAccessToken();
     }
 
     // ========== Collection Operations ==========
 
     private Collection doCreateCollection(String token, String name, String description) throws IOException {
-        HttpURLConnection conn = createConnection("/api/v2/collection", token, "POST",
-                "application/json", 60000);
-
         ObjectNode payload = objectMapper.createObjectNode();
         payload.put("name", name);
         payload.put("description", description != null ? description : "");
@@ -170,13 +904,15 @@ public class YukonDocumentStoreService implements DocumentStoreService {
         payload.put("is_frozen", false);
         payload.putObject("metadata");
 
-        try (OutputStream out = conn.getOutputStream()) {
-            objectMapper.writeValue(out, payload);
-        }
+        YukonResponse response = send(yukonRequest("/api/v2/collection", token, "POST",
+                "application/json", config.getRequestTimeout())
+                .header("Content-Type", "application/json")
+                .body(jsonBody(payload))
+                .build());
 
         String body;
         try {
-            body = readResponse(conn);
+            body = readResponse(response);
         } catch (IOException e) {
             LOG.error("Failed to create collection '{}': {}", name, e.getMessage());
             throw new IOException("Failed to create collection: " + e.getMessage(), e);
@@ -192,17 +928,20 @@ public class YukonDocumentStoreService implements DocumentStoreService {
 
     private UploadResult doUploadDocument(String token, String collectionId, String fileName,
                                           String jsonContent) throws IOException {
-        String boundary = "----DocStoreBoundary" + UUID.randomUUID();
-        HttpURLConnection conn = createConnection("/api/v2/collection/" + collectionId + "/upload",
-                token, "POST", "application/json", 60000);
-        conn.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
-
-        writeMultipartBody(conn, boundary, fileName, jsonContent);
-
-        int status = conn.getResponseCode();
-        InputStream is = status >= 200 && status < 300 ? conn.getInputStream() : conn.getErrorStream();
-        String body = readAll(is);
-        conn.disconnect();
+        long start = System.nanoTime();
+        YukonResponse response;
+        String body;
+        try {
+            response = sendWithRetries(uploadRequest(token, collectionId,
+                    Collections.singletonList(new Document(null, fileName, jsonContent))),
+                    CancellableCall.current(), uploadLimiter, config.getUploadRetries(), "Upload of " + fileName);
+            body = response.readBody();
+        } catch (IOException e) {
+            metrics.recordFailure(Operation.UPLOAD_REQUEST, System.nanoTime() - start);
+            throw e;
+        }
+        int status = response.getStatus();
+        metrics.record(Operation.UPLOAD_REQUEST, System.nanoTime() - start, status >= 200 && status < 300);
 
         if (status >= 200 && status < 300) {
             LOG.debug("Uploaded {} to collection {} successfully", fileName, collectionId);
@@ -215,59 +954,173 @@ public class YukonDocumentStoreService implements DocumentStoreService {
         }
     }
 
-    private void writeMultipartBody(HttpURLConnection conn, String boundary, String fileName,
-                                    String jsonContent) throws IOException {
+    /**
+     * Splits documents into batches that respect the configured part count and byte limits.
+     * A single document larger than the byte limit is sent in a batch of its own.
+     */
+    private List<List<Document>> partitionBatches(List<Document> documents) {
+        int maxDocuments = Math.max(1, config.getMaxBatchDocuments());
+        long maxBytes = config.getMaxBatchBytes();
+
+        List<List<Document>> batches = new ArrayList<>();
+        List<Document> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (Document document : documents) {
+            long size = document.getSizeEstimate();
+            if (!current.isEmpty() && (current.size() >= maxDocuments || currentBytes + size > maxBytes)) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(document);
+            currentBytes += size;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    private List<UploadResult> doUploadBatch(String token, String collectionId, List<Document> batch)
+            throws IOException {
+        long start = System.nanoTime();
+        YukonResponse response;
+        String body;
+        try {
+            response = sendWithRetries(uploadRequest(token, collectionId, batch), CancellableCall.current(),
+                    uploadLimiter, config.getUploadRetries(), "Batch upload of " + batch.size() + " documents");
+            body = response.readBody();
+        } catch (IOException e) {
+            metrics.recordFailure(Operation.UPLOAD_REQUEST, System.nanoTime() - start);
+            throw e;
+        }
+        int status = response.getStatus();
+        metrics.record(Operation.UPLOAD_REQUEST, System.nanoTime() - start, status >= 200 && status < 300);
+
+        List<UploadResult> results = new ArrayList<>(batch.size());
+        if (status < 200 || status >= 300) {
+            LOG.error("Batch upload of {} documents failed (collection {}), HTTP {}: {}",
+                    batch.size(), collectionId, status, body);
+            for (Document document : batch) {
+                results.add(UploadResult.failure(document.getFileName(), "HTTP " + status + ": " + body));
+            }
+            return results;
+        }
+
+        Map<String, String> documentIds = parseUploadedDocumentIds(body, batch);
+        for (Document document : batch) {
+            String documentId = documentIds.getOrDefault(document.getFileName(), document.getFileName());
+            results.add(UploadResult.success(documentId, document.getFileName()));
+        }
+        LOG.debug("Uploaded batch of {} documents to collection {} successfully", batch.size(), collectionId);
+        return results;
+    }
+
+    /**
+     * Maps uploaded file names to the document IDs assigned by Yukon. Accepts a single
+     * DocumentInfo object, an array of them, or an object with a "documents" array.
+     */
+    private Map<String, String> parseUploadedDocumentIds(String body, List<Document> batch) throws IOException {
+        Map<String, String> documentIds = new HashMap<>();
+        if (body == null || body.trim().isEmpty()) {
+            return documentIds;
+        }
+        JsonNode json = objectMapper.readTree(body);
+        JsonNode items = json.isArray() ? json : json.has("documents") ? json.get("documents") : null;
+        if (items == null) {
+            items = objectMapper.createArrayNode().add(json);
+        }
+        for (JsonNode item : items) {
+            String docId = item.has("document_id") ? item.get("document_id").asText() : null;
+            String docName = item.has("document_name") ? item.get("document_name").asText() : null;
+            if (docName == null && batch.size() == 1) {
+                docName = batch.get(0).getFileName();
+            }
+            if (docId != null && docName != null) {
+                documentIds.put(docName, docId);
+            }
+        }
+        return documentIds;
+    }
+
+    private YukonRequest uploadRequest(String token, String collectionId, List<Document> documents)
+            throws IOException {
+        String boundary = "----DocStoreBoundary" + UUID.randomUUID();
+        return yukonRequest("/api/v2/collection/" + collectionId + "/upload",
+                token, "POST", "application/json", config.getRequestTimeout())
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .header("Idempotency-Key", idempotencyKey(collectionId, documents))
+                .body(out -> writeMultipartBody(out, boundary, documents))
+                .build();
+    }
+
+    /**
+     * Derives the idempotency key of an upload from the collection and the names and content
+     * hashes of its files, so the retries of an upload and any re-submission of the same files
+     * share a key, while a later upload of edited files gets a new one. Exported documents carry
+     * the hash their export computed, so their content is not serialized again for the key; the
+     * hash of any other document costs a serialization pass before the body is sent.
+     */
+    static String idempotencyKey(String collectionId, List<Document> documents) throws IOException {
+        MessageDigest digest = Sha256.newDigest();
+        digest.update(collectionId.getBytes(StandardCharsets.UTF_8));
+        for (Document document : documents) {
+            digest.update((byte) '\n');
+            digest.update(String.valueOf(document.getFileName()).getBytes(StandardCharsets.UTF_8));
+            // file names never contain a raw NUL, so it separates name and hash
+            digest.update((byte) 0);
+            digest.update(document.getContentHash().getBytes(StandardCharsets.UTF_8));
+        }
+        return Sha256.toHex(digest.digest());
+    }
+
+    /**
+     * Streams the documents as multipart parts into the request body. The transport sends the
+     * body chunked, so neither the request nor any document is buffered in full.
+     */
+    void writeMultipartBody(OutputStream out, String boundary, List<Document> documents)
+            throws IOException {
         String lineEnd = "\r\n";
         String twoHyphens = "--";
 
-        try (OutputStream out = conn.getOutputStream()) {
+        for (Document document : documents) {
             StringBuilder sb = new StringBuilder();
             sb.append(twoHyphens).append(boundary).append(lineEnd);
             sb.append("Content-Disposition: form-data; name=\"documents\"; filename=\"")
-                    .append(fileName).append("\"").append(lineEnd);
+                    .append(document.getFileName()).append("\"").append(lineEnd);
             sb.append("Content-Type: application/json").append(lineEnd);
             sb.append(lineEnd);
 
             out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
-            out.write(jsonContent.getBytes(StandardCharsets.UTF_8));
+            document.writeTo(out);
             out.write(lineEnd.getBytes(StandardCharsets.UTF_8));
-
-            String end = twoHyphens + boundary + twoHyphens + lineEnd;
-            out.write(end.getBytes(StandardCharsets.UTF_8));
-            out.flush();
         }
+
+        String end = twoHyphens + boundary + twoHyphens + lineEnd;
+        out.write(end.getBytes(StandardCharsets.UTF_8));
+        out.flush();
     }
 
     // ========== Inference ==========
 
-    private InferenceResult doAskQuestion(String token, String collectionId, String question,
-                                          List<String> documentIds) throws IOException {
-        HttpURLConnection conn = createInferenceConnection(token);
+    /**
+     * Runs a question-answer inference. If a listener is given, each generated text chunk is
+     * relayed to it as soon as its event arrives; a listener failure aborts the upstream stream.
+     */
+    InferenceResult doAskQuestion(String token, String collectionId, String question,
+                                  List<String> documentIds, AnswerListener listener) throws IOException {
         ObjectNode payload = createInferencePayload(collectionId, question, documentIds);
 
-        try (OutputStream out = conn.getOutputStream()) {
-            objectMapper.writeValue(out, payload);
-        }
-
         StringBuilder fullAnswer = new StringBuilder();
+        long start = System.nanoTime();
         try {
-            processSseStream(conn, eventJson -> {
-                // Handle both array and object responses
-                if (eventJson.isArray()) {
-                    for (JsonNode item : eventJson) {
-                        appendGeneratedText(item, fullAnswer);
-                        if (isStreamComplete(item)) {
-                            return true;
-                        }
-                    }
-                } else {
-                    appendGeneratedText(eventJson, fullAnswer);
-                    if (isStreamComplete(eventJson)) {
-                        return true;
-                    }
-                }
-                return false;
+            streamInference(askBreaker, askHedger, token, payload, start, true, event -> {
+                appendGeneratedText(event, fullAnswer, listener);
+                return event.isStreamComplete();
             });
+        } catch (ListenerAbortedException e) {
+            LOG.info("Answer stream for question '{}' aborted: {}", question, e.getMessage());
+            return InferenceResult.failure(question, collectionId, e.getMessage());
         } catch (IOException e) {
             LOG.error("Yukon inference failed: {}", e.getMessage());
             return InferenceResult.failure(question, collectionId, e.getMessage());
@@ -277,149 +1130,492 @@ public class YukonDocumentStoreService implements DocumentStoreService {
         return InferenceResult.success(question, collectionId, fullAnswer.toString());
     }
 
-    private HttpURLConnection createInferenceConnection(String token) throws IOException {
-        HttpURLConnection conn = createConnection("/api/v2/inference/question-answer/stream",
-                token, "POST", "text/event-stream", 120000);
-        conn.setDoOutput(true);
-        return conn;
+    /**
+     * Runs an inference stream through a circuit breaker. While the breaker is open the call fails
+     * right away. Transport errors, timeouts, throttling and server errors count as failures of the
+     * endpoint; client errors, listener aborts and cancelled calls do not.
+     */
+    private void streamInference(CircuitBreaker breaker, RequestHedger hedger, String token, ObjectNode payload,
+                                 long start, boolean generation, InferenceEventParser.Handler handler)
+            throws IOException {
+        long permit = breaker.tryAcquire();
+        if (permit < 0) {
+            throw new IOException("Yukon " + breaker.getName() + " calls are failing, circuit open");
+        }
+        boolean healthy = false;
+        boolean ignored = false;
+        try {
+            YukonResponse response = hedger != null
+                    ? executeHedged(hedger, token, payload)
+                    : send(inferenceRequest(token, payload));
+            processSseStream(response, start, generation, handler);
+            healthy = true;
+        } catch (HttpStatusException e) {
+            int status = e.getStatus();
+            healthy = status < 500 && status != 408 && status != 429;
+            throw e;
+        } catch (ListenerAbortedException e) {
+            ignored = true;
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            ignored = Thread.currentThread().isInterrupted();
+            throw e;
+        } finally {
+            if (ignored) {
+                breaker.onIgnored(permit);
+            } else if (healthy) {
+                breaker.onSuccess(permit, System.nanoTime() - start);
+            } else {
+                breaker.onFailure(permit, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private YukonRequest inferenceRequest(String token, ObjectNode payload) {
+        return yukonRequest("/api/v2/inference/question-answer/stream",
+                token, "POST", "text/event-stream", config.getInferenceTimeout())
+                .header("Content-Type", "application/json")
+                .body(jsonBody(payload))
+                .build();
     }
 
-    private void appendGeneratedText(JsonNode node, StringBuilder builder) {
-        if (node.has("generated_text")) {
-            String generatedText = node.get("generated_text").asText();
-            generatedText = generatedText.replaceAll("\\[\\^?\\d+]", "");
+    // ========== Hedged Inference ==========
+
+    /**
+     * Sends an inference request and, if no response byte arrived within the hedge delay and the
+     * budget allows, a duplicate with its own request ID. The first attempt to start streaming
+     * wins; the other one is cancelled and its exchange aborted. An attempt that fails does not
+     * win while the other one may still succeed.
+     */
+    private YukonResponse executeHedged(RequestHedger hedger, String token, ObjectNode payload) throws IOException {
+        long delay = hedger.requestStarted();
+        BlockingQueue<HedgedAttempt> done = new LinkedBlockingQueue<>();
+        HedgedAttempt primary = new HedgedAttempt(inferenceRequest(token, payload), hedger, done);
+        HedgedAttempt hedge = null;
+        try {
+            primary.start();
+            HedgedAttempt first = delay >= 0 ? done.poll(delay, TimeUnit.NANOSECONDS) : null;
+            if (first == null && delay >= 0 && hedger.tryHedge()) {
+                ObjectNode hedgePayload = payload.deepCopy();
+                hedgePayload.put("request_id", UUID.randomUUID().toString());
+                hedge = new HedgedAttempt(inferenceRequest(token, hedgePayload), hedger, done);
+                hedge.start();
+            }
+            if (first == null) {
+                first = done.take();
+            }
+            HedgedAttempt winner = first;
+            if (!first.succeeded() && hedge != null) {
+                HedgedAttempt second = done.take();
+                winner = second.succeeded() ? second : primary;
+            }
+            if (hedge != null) {
+                if (winner == hedge) {
+                    hedger.hedgeWon();
+                    primary.cancel();
+                } else {
+                    hedge.cancel();
+                }
+            }
+            return winner.result();
+        } catch (InterruptedException e) {
+            primary.cancel();
+            if (hedge != null) {
+                hedge.cancel();
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an inference response");
+        }
+    }
+
+    /**
+     * One attempt of a hedged request, sent on the hedge executor and completed with its first
+     * response byte, which is pushed back so the stream reads unchanged.
+     */
+    private final class HedgedAttempt {
+        private final YukonRequest request;
+        private final RequestHedger hedger;
+        private final BlockingQueue<HedgedAttempt> done;
+        private final CancellableCall call = new CancellableCall();
+        private final CancellableCall caller = CancellableCall.current();
+        private volatile YukonResponse response;
+        private volatile IOException failure;
+
+        private HedgedAttempt(YukonRequest request, RequestHedger hedger, BlockingQueue<HedgedAttempt> done) {
+            this.request = request;
+            this.hedger = hedger;
+            this.done = done;
+        }
+
+        void start() throws IOException {
+            try {
+                hedgeExecutor.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                throw new IOException("Document store is shut down", e);
+            }
+        }
+
+        private void run() {
+            try {
+                if (!call.enter()) {
+                    failure = new InterruptedIOException("Hedged attempt cancelled");
+                    return;
+                }
+                try {
+                    long start = System.nanoTime();
+                    YukonResponse sent = send(request, call);
+                    if (sent.isSuccess() && sent.getBody() != null) {
+                        PushbackInputStream body = new PushbackInputStream(sent.getBody());
+                        int b = body.read();
+                        if (b >= 0) {
+                            body.unread(b);
+                        }
+                        hedger.recordFirstByte(System.nanoTime() - start);
+                        sent = new YukonResponse(sent.getStatus(), sent::getHeader, body, sent::close, sent::abort);
+                    }
+                    response = sent;
+                } finally {
+                    call.exit();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new IOException(e.getMessage(), e);
+            } finally {
+                done.add(this);
+            }
+        }
+
+        boolean succeeded() {
+            YukonResponse current = response;
+            return current != null && current.isSuccess();
+        }
+
+        /**
+         * Returns the response, registered with the calling operation so that cancelling it aborts the stream.
+         */
+        YukonResponse result() throws IOException {
+            if (response == null) {
+                throw failure;
+            }
+            if (caller != null) {
+                caller.track(response);
+            }
+            return response;
+        }
+
+        void cancel() {
+            call.cancel();
+            YukonResponse current = response;
+            if (current != null) {
+                current.abort();
+            }
+        }
+    }
+
+    private void appendGeneratedText(InferenceEvent event, StringBuilder builder, AnswerListener listener)
+            throws ListenerAbortedException {
+        String generatedText = event.getGeneratedText();
+        if (generatedText != null) {
+            if (generatedText.indexOf('[') >= 0) {
+                generatedText = CITATION_MARKER.matcher(generatedText).replaceAll("");
+            }
             builder.append(generatedText);
+            if (!generatedText.isEmpty()) {
+                metrics.recordAnswerChunk();
+            }
+            if (listener != null && !generatedText.isEmpty()) {
+                try {
+                    listener.onText(generatedText);
+                } catch (IOException e) {
+                    throw new ListenerAbortedException(e);
+                }
+            }
         }
     }
 
-    private boolean isStreamComplete(JsonNode node) {
-        return node.has("stream_complete") && node.get("stream_complete").asBoolean();
+    /**
+     * Signals that an inference request was answered with an HTTP error status.
+     */
+    private static class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        HttpStatusException(int status, String body) {
+            super("HTTP " + status + ": " + body);
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * Signals that an answer listener gave up, as opposed to a failure of the Yukon stream itself.
+     */
+    private static class ListenerAbortedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ListenerAbortedException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
     }
 
     // ========== Document Search ==========
 
-    private SearchResult doSearchDocuments(String token, String collectionId, String query, int maxResults)
+    /**
+     * Searches by running an inference on the query and reading the retrieved sources. Yukon
+     * sends the sources ahead of the generated answer, so the stream is abandoned at the first
+     * event without sources that follows them, or once {@code maxResults} documents were
+     * collected, instead of waiting for an answer that would be discarded.
+     */
+    SearchResult doSearchDocuments(String token, String collectionId, String query, int maxResults)
             throws IOException {
         // Use the same inference endpoint as askQuestion, but extract source documents
-        HttpURLConnection conn = createInferenceConnection(token);
         ObjectNode payload = createInferencePayload(collectionId, query, null);
 
-        try (OutputStream out = conn.getOutputStream()) {
-            objectMapper.writeValue(out, payload);
-        }
-
-        List<SearchResult.DocumentInfo> documents = new ArrayList<>();
+        Map<String, SearchResult.DocumentInfo> documents = new LinkedHashMap<>();
+        long start = System.nanoTime();
         try {
-            processSseStream(conn, eventJson -> {
-                // Handle both array and object responses
-                JsonNode responseNode = eventJson.isArray() && eventJson.size() > 0
-                        ? eventJson.get(0) : eventJson;
-
-                // Extract source documents
-                extractSourceDocuments(responseNode, documents, maxResults);
-
-                return isStreamComplete(responseNode);
-            });
+            CollectionIndex index = collectionIndex(collectionId);
+            streamInference(searchBreaker, searchHedger, token, payload, start, false, event ->
+                    extractSourceDocuments(event, index, documents, maxResults) || event.isStreamComplete());
         } catch (IOException e) {
             LOG.error("Yukon search failed: {}", e.getMessage());
             return SearchResult.failure(query, collectionId, e.getMessage());
         }
 
         LOG.info("Search completed for query '{}', found {} documents", query, documents.size());
-        return SearchResult.success(query, collectionId, documents);
-    }
-
-    private void extractSourceDocuments(JsonNode responseNode, List<SearchResult.DocumentInfo> documents,
-                                        int maxResults) {
-        JsonNode sourceNode = responseNode.get("source");
-        if (sourceNode != null && sourceNode.isObject()) {
-            sourceNode.fields().forEachRemaining(entry -> {
-                JsonNode docInfo = entry.getValue();
-                String docId = docInfo.has("document_id")
-                        ? docInfo.get("document_id").asText() : null;
-                String docName = docInfo.has("document_name")
-                        ? docInfo.get("document_name").asText() : null;
-                String jcrPath = extractJcrPathFromFileName(docName);
-                if (docId != null && documents.size() < maxResults) {
-                    // Avoid duplicates
-                    boolean exists = documents.stream()
-                            .anyMatch(d -> d.getDocumentId().equals(docId));
-                    if (!exists) {
-                        documents.add(new SearchResult.DocumentInfo(docId, jcrPath));
-                    }
-                }
-            });
+        return SearchResult.success(query, collectionId, new ArrayList<>(documents.values()));
+    }
+
+    /**
+     * Adds the sources of an event to the documents found so far, keyed by document ID, and
+     * records their paths in the collection index. Sources may be spread over several events.
+     *
+     * @return true if {@code maxResults} documents were found, or if the event carries no sources
+     *         while earlier ones did, i.e. the rest of the stream has nothing more for the search
+     */
+    boolean extractSourceDocuments(InferenceEvent event, CollectionIndex index,
+                                   Map<String, SearchResult.DocumentInfo> documents, int maxResults) {
+        if (event.getSourceCount() == 0) {
+            return !documents.isEmpty();
+        }
+        for (int i = 0; i < event.getSourceCount(); i++) {
+            String docId = event.getSourceDocumentId(i);
+            String docName = event.getSourceDocumentName(i);
+            String jcrPath = docId != null && docName != null
+                    ? index.put(docId, docName) : extractJcrPathFromFileName(docName);
+            if (docId != null && documents.size() < maxResults && !documents.containsKey(docId)) {
+                documents.put(docId, new SearchResult.DocumentInfo(docId, jcrPath));
+            }
         }
+        return documents.size() >= maxResults;
     }
 
     // ========== List Documents ==========
 
     private static final int PAGE_SIZE = 100; // Maximum allowed by Yukon API
 
+    /**
+     * Lists a whole collection by draining a paged cursor.
+     */
     private ListDocumentsResult doListDocuments(String token, String collectionId) throws IOException {
-        List<ListDocumentsResult.DocumentInfo> documents = new ArrayList<>();
-        int page = 1;
-        int totalPages;
+        List<ListDocumentsResult.DocumentInfo> documents;
+        int pages;
+        try (PagedDocumentCursor cursor = new PagedDocumentCursor(token, collectionId)) {
+            documents = new ArrayList<>(Math.max(cursor.getTotal(), 0));
+            while (cursor.advance()) {
+                documents.add(cursor.current.next());
+            }
+            pages = cursor.totalPages;
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            LOG.error("Yukon list documents failed: {}", e.getMessage());
+            return ListDocumentsResult.failure(collectionId, e.getMessage());
+        }
 
-        do {
-            String urlPath = "/api/v2/collection/" + collectionId
-                    + "/document?page=" + page + "&page_size=" + PAGE_SIZE;
-            HttpURLConnection conn = createConnection(urlPath, token, "GET", "application/json", 60000);
+        LOG.info("Listed {} documents in collection '{}' ({} pages)", documents.size(), collectionId,
+                Math.max(pages, 1));
+        return ListDocumentsResult.success(collectionId, documents);
+    }
 
-            String body;
+    /**
+     * Pulls listing pages lazily. The first page is read on open, because it reports the total;
+     * later pages are prefetched on the shared listing pool, at most listParallelism ahead of the
+     * consumer, and handed out in page order.
+     */
+    private class PagedDocumentCursor implements DocumentCursor {
+        private final String collectionId;
+        private final CancellableCall call;
+        private final int total;
+        private final int totalPages;
+        private final int window;
+        private final Deque<Future<JsonNode>> pending = new ArrayDeque<>();
+        private int nextPage = 2;
+        private Iterator<ListDocumentsResult.DocumentInfo> current;
+
+        PagedDocumentCursor(String token, String collectionId) throws IOException {
+            this.collectionId = collectionId;
+            this.call = CancellableCall.current();
+            JsonNode firstPage = fetchDocumentPage(token, collectionId, 1, call);
+            this.total = firstPage.has("total") ? firstPage.get("total").asInt() : 0;
+            this.totalPages = (total + PAGE_SIZE - 1) / PAGE_SIZE;
+            this.window = Math.max(1, config.getListParallelism());
+            this.current = parseDocumentInfos(firstPage, collectionIndex(collectionId)).iterator();
+        }
+
+        @Override
+        public boolean hasNext() throws DocumentStoreException {
             try {
-                body = readResponse(conn);
+                return advance();
             } catch (IOException e) {
-                LOG.error("Yukon list documents failed: {}", e.getMessage());
-                return ListDocumentsResult.failure(collectionId, e.getMessage());
+                throw new DocumentStoreException("Failed to list documents: " + e.getMessage(), e);
             }
+        }
 
-            JsonNode json = objectMapper.readTree(body);
+        @Override
+        public ListDocumentsResult.DocumentInfo next() throws DocumentStoreException {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
 
-            // Calculate total pages from response
-            int total = json.has("total") ? json.get("total").asInt() : 0;
-            totalPages = (total + PAGE_SIZE - 1) / PAGE_SIZE;
-
-            // Response is an InfoPage object with a "pages" array containing DocumentInfo objects
-            JsonNode pagesArray = json.get("pages");
-            if (pagesArray != null && pagesArray.isArray()) {
-                for (JsonNode item : pagesArray) {
-                    String docId = item.has("document_id") ? item.get("document_id").asText() : null;
-                    String docName = item.has("document_name") ? item.get("document_name").asText() : null;
-                    String jcrPath = extractJcrPathFromFileName(docName);
-                    if (docId != null) {
-                        documents.add(new ListDocumentsResult.DocumentInfo(docId, jcrPath));
-                    }
+        @Override
+        public int getTotal() {
+            return total;
+        }
+
+        @Override
+        public void close() {
+            Future<JsonNode> page;
+            while ((page = pending.poll()) != null) {
+                page.cancel(true);
+            }
+        }
+
+        /**
+         * Moves to the next page if the current one is exhausted; returns false at the end.
+         */
+        boolean advance() throws IOException {
+            while (!current.hasNext()) {
+                prefetch();
+                Future<JsonNode> page = pending.poll();
+                if (page == null) {
+                    return false;
                 }
+                try {
+                    current = parseDocumentInfos(page.get(), collectionIndex(collectionId)).iterator();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while listing documents of collection " + collectionId);
+                }
+                prefetch();
             }
+            return true;
+        }
 
-            page++;
-        } while (page <= totalPages);
+        private void prefetch() throws IOException {
+            while (pending.size() < window && nextPage <= totalPages) {
+                int pageNumber = nextPage++;
+                try {
+                    pending.add(listExecutor.submit(
+                            () -> fetchDocumentPage(getAccessToken(), collectionId, pageNumber, call)));
+                } catch (RejectedExecutionException e) {
+                    throw new IOException("Document store is shut down", e);
+                }
+            }
+        }
+    }
 
-        LOG.info("Listed {} documents in collection '{}'", documents.size(), collectionId);
-        return ListDocumentsResult.success(collectionId, documents);
+    /**
+     * Fetches one listing page. Transport errors, timeouts, throttling and server errors are
+     * retried with exponential backoff; other HTTP errors fail the page immediately.
+     */
+    private JsonNode fetchDocumentPage(String token, String collectionId, int page, CancellableCall call)
+            throws IOException {
+        String urlPath = "/api/v2/collection/" + collectionId
+                + "/document?page=" + page + "&page_size=" + PAGE_SIZE;
+        YukonRequest request = yukonRequest(urlPath, token, "GET", "application/json",
+                config.getRequestTimeout()).build();
+        int maxRetries = Math.max(0, config.getListPageRetries());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            JsonNode json = fetchPageWithRetries(request, collectionId, page, maxRetries, call);
+            success = true;
+            return json;
+        } finally {
+            metrics.record(Operation.LIST_PAGE, System.nanoTime() - start, success);
+        }
     }
 
-    // ========== Utility Methods ==========
+    private JsonNode fetchPageWithRetries(YukonRequest request, String collectionId, int page, int maxRetries,
+                                          CancellableCall call) throws IOException {
+        String body;
+        int status;
+        try {
+            YukonResponse response = sendWithRetries(request, call, null, maxRetries,
+                    "Listing page " + page + " of collection " + collectionId);
+            status = response.getStatus();
+            body = response.readBody();
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IOException("Page " + page + " failed: " + e.getMessage(), e);
+        }
+        if (status < 200 || status >= 300) {
+            throw new IOException("Page " + page + " failed: HTTP " + status + ": " + body);
+        }
+        return objectMapper.readTree(body);
+    }
 
     /**
-     * Creates an HTTP connection with common settings for Yukon API calls.
+     * Parses a listing page, indexing each document on the way.
      */
-    private HttpURLConnection createConnection(String urlPath, String token, String method,
-                                               String accept, int readTimeout) throws IOException {
-        URL url = new URL(config.getYukonBaseUrl() + urlPath);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setConnectTimeout(15000);
-        conn.setReadTimeout(readTimeout);
-        conn.setDoInput(true);
-        conn.setRequestMethod(method);
-        conn.setRequestProperty("Authorization", "Bearer " + token);
-        conn.setRequestProperty("Accept", accept);
-        if ("POST".equals(method)) {
-            conn.setDoOutput(true);
-            conn.setRequestProperty("Content-Type", "application/json");
+    private List<ListDocumentsResult.DocumentInfo> parseDocumentInfos(JsonNode json, CollectionIndex index) {
+        List<ListDocumentsResult.DocumentInfo> documents = new ArrayList<>(PAGE_SIZE);
+        // Response is an InfoPage object with a "pages" array containing DocumentInfo objects
+        JsonNode pagesArray = json.get("pages");
+        if (pagesArray != null && pagesArray.isArray()) {
+            for (JsonNode item : pagesArray) {
+                String docId = item.has("document_id") ? item.get("document_id").asText() : null;
+                String docName = item.has("document_name") ? item.get("document_name").asText() : null;
+                if (docId != null) {
+                    String jcrPath = index.put(docId, docName);
+                    documents.add(new ListDocumentsResult.DocumentInfo(docId, jcrPath));
+                }
+            }
         }
-        return conn;
+        return documents;
+    }
+
+    // ========== Utility Methods ==========
+
+    /**
+     * Starts a request with common settings for Yukon API calls.
+     */
+    private YukonRequest.Builder yukonRequest(String urlPath, String token, String method,
+                                              String accept, int readTimeout) {
+        return YukonRequest.builder(method, config.getYukonBaseUrl() + urlPath)
+                .header("Authorization", BEARER + token)
+                .header("Accept", accept)
+                .readTimeout(readTimeout);
+    }
+
+    private YukonRequest.BodyWriter jsonBody(JsonNode payload) {
+        return out -> objectMapper.writeValue(new FilterOutputStream(out) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        }, payload);
     }
 
     /**
@@ -458,11 +1654,9 @@ public class YukonDocumentStoreService implements DocumentStoreService {
      * Reads the response body and handles error checking.
      * Returns the response body string, or throws IOException on error.
      */
-    private String readResponse(HttpURLConnection conn) throws IOException {
-        int status = conn.getResponseCode();
-        InputStream is = status >= 200 && status < 300 ? conn.getInputStream() : conn.getErrorStream();
-        String body = readAll(is);
-        conn.disconnect();
+    private String readResponse(YukonResponse response) throws IOException {
+        int status = response.getStatus();
+        String body = response.readBody();
 
         if (status < 200 || status >= 300) {
             throw new IOException("HTTP " + status + ": " + body);
@@ -471,43 +1665,87 @@ public class YukonDocumentStoreService implements DocumentStoreService {
     }
 
     /**
-     * Functional interface for processing SSE events.
+     * Reads and processes an SSE stream from the response. Events are framed from the raw bytes
+     * and only the fields the service uses are parsed out of their JSON data. If processing
+     * stops before the server ends the stream, the exchange is aborted rather than drained.
+     * A handler may throw to stop processing and abort the stream.
      */
-    @FunctionalInterface
-    private interface SseEventProcessor {
-        /**
-         * Process an SSE event.
-         * @param eventJson the parsed JSON from the event
-         * @return true if stream processing should stop
-         */
-        boolean process(JsonNode eventJson);
+    void processSseStream(YukonResponse response, InferenceEventParser.Handler handler) throws IOException {
+        processSseStream(response, 0, false, handler);
     }
 
     /**
-     * Reads and processes an SSE stream from the connection.
+     * Processes an inference stream whose request was sent at {@code startNanos}, recording the
+     * time to its first event and to its end. For generated answers, the time from the first
+     * event to the end also counts towards the token rate. A stream the handler stops at its
+     * completion event is read to its end and closed, so its connection is reused; a stream
+     * stopped earlier is aborted.
      */
-    private void processSseStream(HttpURLConnection conn, SseEventProcessor processor) throws IOException {
-        int status = conn.getResponseCode();
+    private void processSseStream(YukonResponse response, long startNanos, boolean generation,
+                                  InferenceEventParser.Handler handler) throws IOException {
+        int status = response.getStatus();
         if (status < 200 || status >= 300) {
-            InputStream errorStream = conn.getErrorStream();
-            String errorBody = readAll(errorStream);
-            conn.disconnect();
-            throw new IOException("HTTP " + status + ": " + errorBody);
-        }
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            boolean streamComplete = false;
-            while ((line = reader.readLine()) != null && !streamComplete) {
-                if (line.startsWith("data: ")) {
-                    String jsonData = line.substring(6);
-                    JsonNode eventJson = objectMapper.readTree(jsonData);
-                    streamComplete = processor.process(eventJson);
+            String errorBody = response.readBody();
+            if (startNanos != 0) {
+                metrics.recordFailure(Operation.INFERENCE_STREAM, System.nanoTime() - startNanos);
+            }
+            throw new HttpStatusException(status, errorBody);
+        }
+
+        boolean endOfStream = false;
+        boolean completed = false;
+        InputStream body = response.getBody();
+        SseFramer framer = new SseFramer(body);
+        boolean[] streamComplete = new boolean[1];
+        InferenceEventParser.Handler tracking = event -> {
+            streamComplete[0] = event.isStreamComplete();
+            return handler.onEvent(event);
+        };
+        // the body is closed by close() or abort(), after an abort has kept it from being drained
+        try (InferenceEventParser parser = new InferenceEventParser(objectMapper.getFactory())) {
+            boolean stopped = framer.run((data, length) -> {
+                if (startNanos != 0 && framer.getEventCount() == 1) {
+                    metrics.record(Operation.INFERENCE_FIRST_EVENT, framer.getFirstEventNanos() - startNanos);
+                }
+                return parser.parse(data, length, tracking);
+            });
+            endOfStream = !stopped || (streamComplete[0] && drainCompletedStream(body));
+            completed = true;
+        } finally {
+            if (endOfStream) {
+                response.close();
+            } else {
+                response.abort();
+            }
+            if (startNanos != 0) {
+                long end = System.nanoTime();
+                metrics.record(Operation.INFERENCE_STREAM, end - startNanos, completed);
+                if (generation && framer.getFirstEventNanos() != 0) {
+                    metrics.recordGeneration(end - framer.getFirstEventNanos());
                 }
             }
         }
-        conn.disconnect();
+    }
+
+    /**
+     * Reads what follows the completion event of a stream, which is normally just its end.
+     * Returns false if the stream fails or goes on for more than {@link #DRAIN_LIMIT} bytes.
+     */
+    private static boolean drainCompletedStream(InputStream body) {
+        byte[] buffer = new byte[1024];
+        long remaining = DRAIN_LIMIT;
+        try {
+            int n;
+            while ((n = body.read(buffer)) >= 0) {
+                remaining -= n;
+                if (remaining < 0) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
     }
 
     /**
@@ -515,7 +1753,7 @@ public class YukonDocumentStoreService implements DocumentStoreService {
      * The filename format is: path_with_underscores__variation.json
      * For example: content_dam_my-folder_my-cf__master.json -> /content/dam/my-folder/my-cf
      */
-    private String extractJcrPathFromFileName(String fileName) {
+    String extractJcrPathFromFileName(String fileName) {
         if (fileName == null || fileName.isEmpty()) {
             return null;
         }
@@ -535,16 +1773,4 @@ public class YukonDocumentStoreService implements DocumentStoreService {
         // Convert underscores back to slashes and add leading slash
         return "/" + name.replace("_", "/");
     }
-
-    private String readAll(InputStream in) throws IOException {
-        if (in == null) return "";
-        StringBuilder sb = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line).append('\n');
-            }
-        }
-        return sb.toString();
-    }
 }
@@ -0,0 +1,106 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An HTTP request sent through a {@link YukonTransport}.
+ */
+public class YukonRequest {
+
+    /**
+     * Writes a request body. Must be repeatable, since a transport may send it more than once.
+     */
+    @FunctionalInterface
+    public interface BodyWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final String method;
+    private final String url;
+    private final Map<String, String> headers;
+    private final BodyWriter body;
+    private final int readTimeout;
+
+    private YukonRequest(Builder builder) {
+        this.method = builder.method;
+        this.url = builder.url;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(builder.headers));
+        this.body = builder.body;
+        this.readTimeout = builder.readTimeout;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Returns the body writer, or null for requests without a body.
+     */
+    public BodyWriter getBody() {
+        return body;
+    }
+
+    /**
+     * Returns the read timeout in milliseconds.
+     */
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    public static Builder builder(String method, String url) {
+        return new Builder(method, url);
+    }
+
+    /**
+     * Returns a builder initialized with this request, e.g. to resend it with a changed header.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder(method, url).body(body).readTimeout(readTimeout);
+        builder.headers.putAll(headers);
+        return builder;
+    }
+
+    public static class Builder {
+        private final String method;
+        private final String url;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private BodyWriter body;
+        private int readTimeout = 60000;
+
+        private Builder(String method, String url) {
+            this.method = method;
+            this.url = url;
+        }
+
+        public Builder header(String name, String value) {
+            this.headers.put(name, value);
+            return this;
+        }
+
+        public Builder body(BodyWriter body) {
+            this.body = body;
+            return this;
+        }
+
+        public Builder readTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        public YukonRequest build() {
+            return new YukonRequest(this);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A response received through a {@link YukonTransport}. The body is streamed;
+ * it is not read until the caller asks for it.
+ */
+public class YukonResponse implements AutoCloseable {
+
+    private final int status;
+    private final Function<String, String> headers;
+    private final InputStream body;
+    private final Runnable onClose;
+    private final Runnable onAbort;
+    private final List<Runnable> releaseListeners = new ArrayList<>(1);
+    private boolean released;
+
+    YukonResponse(int status, Function<String, String> headers, InputStream body,
+                  Runnable onClose, Runnable onAbort) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.onClose = onClose;
+        this.onAbort = onAbort;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return status >= 200 && status < 300;
+    }
+
+    /**
+     * Returns the value of a response header, or null if it is absent.
+     */
+    public String getHeader(String name) {
+        return headers.apply(name);
+    }
+
+    /**
+     * Returns the response body stream (the error body for non-2xx responses).
+     */
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * Reads the whole body as UTF-8 text and releases the response.
+     */
+    public String readBody() throws IOException {
+        if (body == null) {
+            close();
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sb.append(line).append('\n');
+            }
+        } finally {
+            close();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Releases a fully consumed response so its connection can be reused.
+     */
+    @Override
+    public synchronized void close() {
+        if (!released) {
+            released = true;
+            closeQuietly();
+            onClose.run();
+            notifyReleased();
+        }
+    }
+
+    /**
+     * Tears down the underlying exchange without consuming the rest of the body,
+     * e.g. when a stream is abandoned early or the caller was cancelled.
+     */
+    public synchronized void abort() {
+        if (!released) {
+            released = true;
+            onAbort.run();
+            closeQuietly();
+            notifyReleased();
+        }
+    }
+
+    /**
+     * Runs the given action once the response is closed or aborted, or right away if it already is.
+     */
+    synchronized void whenReleased(Runnable listener) {
+        if (released) {
+            listener.run();
+        } else {
+            releaseListeners.add(listener);
+        }
+    }
+
+    private void notifyReleased() {
+        for (Runnable listener : releaseListeners) {
+            listener.run();
+        }
+        releaseListeners.clear();
+    }
+
+    private void closeQuietly() {
+        if (body != null) {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // nothing to release
+            }
+        }
+    }
+}
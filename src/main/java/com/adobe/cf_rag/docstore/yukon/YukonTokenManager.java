@@ -0,0 +1,264 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.adobe.cf_rag.docstore.metrics.DocumentStoreMetrics;
+import com.adobe.cf_rag.docstore.metrics.Operation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the IMS access token used for Yukon calls. Callers read the current token without
+ * locking; a background task exchanges a new one ahead of expiry, so requests normally never
+ * wait for IMS. When a token is missing, expired or rejected, concurrent callers share a
+ * single exchange instead of each starting their own. At most one background refresh is
+ * scheduled at a time, for the token currently held.
+ */
+class YukonTokenManager implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(YukonTokenManager.class);
+
+    private static final long REFRESH_AHEAD_MS = 300000;
+    private static final long EXPIRY_MARGIN_MS = 30000;
+    private static final long RETRY_DELAY_MS = 30000;
+    private static final long DEFAULT_LIFETIME_MS = 86400000L;
+
+    private final YukonConfig config;
+    private final YukonTransport transport;
+    private final ObjectMapper objectMapper;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final DocumentStoreMetrics metrics;
+
+    private final AtomicReference<AccessToken> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<AccessToken>> exchange = new AtomicReference<>();
+    private ScheduledFuture<?> scheduledRefresh; // guarded by this
+
+    YukonTokenManager(YukonConfig config, YukonTransport transport, ObjectMapper objectMapper,
+                      DocumentStoreMetrics metrics) {
+        this.config = config;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "cf-rag-ims-token");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Fetches the first token in the background, so the first request does not pay for it.
+     */
+    void prefetch() {
+        submitRefresh(0);
+    }
+
+    /**
+     * Returns a valid access token, exchanging a new one only if none is usable.
+     */
+    String getAccessToken() throws IOException {
+        AccessToken token = current.get();
+        if (token != null && token.isUsable()) {
+            return token.value;
+        }
+        return refresh(token).value;
+    }
+
+    /**
+     * Returns a replacement for a token that Yukon rejected. If another caller already
+     * replaced it, that token is returned without a new exchange.
+     */
+    String refreshRejected(String rejectedToken) throws IOException {
+        AccessToken token = current.get();
+        if (token != null && !token.value.equals(rejectedToken) && token.isUsable()) {
+            return token.value;
+        }
+        LOG.info("Access token rejected by Yukon, exchanging a new one");
+        return refresh(token).value;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Exchanges a new token unless the given one was already replaced. Only one exchange
+     * runs at a time; callers arriving meanwhile wait for its outcome.
+     */
+    private AccessToken refresh(AccessToken stale) throws IOException {
+        while (true) {
+            AccessToken token = current.get();
+            if (token != null && token != stale && token.isUsable()) {
+                return token;
+            }
+
+            CompletableFuture<AccessToken> running = exchange.get();
+            if (running != null) {
+                return await(running);
+            }
+            CompletableFuture<AccessToken> mine = new CompletableFuture<>();
+            if (!exchange.compareAndSet(null, mine)) {
+                continue;
+            }
+            try {
+                AccessToken fresh = exchangeToken();
+                current.set(fresh);
+                mine.complete(fresh);
+                scheduleRefresh(fresh);
+                return fresh;
+            } catch (IOException | RuntimeException e) {
+                mine.completeExceptionally(e);
+                throw e;
+            } finally {
+                exchange.set(null);
+            }
+        }
+    }
+
+    private AccessToken await(CompletableFuture<AccessToken> running) throws IOException {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the IMS token exchange");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException
+                    ? new IOException(cause.getMessage(), cause)
+                    : new IOException("IMS token exchange failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void scheduleRefresh(AccessToken token) {
+        submitRefresh(Math.max(0, token.refreshAt - System.currentTimeMillis()));
+    }
+
+    /**
+     * Schedules the background refresh, replacing the one scheduled before.
+     */
+    private synchronized void submitRefresh(long delayMs) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        try {
+            scheduledRefresh = scheduler.schedule(this::backgroundRefresh, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Token manager closed, not scheduling a refresh");
+        }
+    }
+
+    /**
+     * Returns the number of background refreshes waiting to run.
+     */
+    int getScheduledRefreshCount() {
+        return scheduler.getQueue().size();
+    }
+
+    private void backgroundRefresh() {
+        AccessToken token = current.get();
+        if (token != null && !token.isDue()) {
+            // replaced since this refresh was scheduled; the new token scheduled its own
+            return;
+        }
+        try {
+            refresh(token);
+        } catch (IOException e) {
+            LOG.warn("Background IMS token refresh failed, retrying in {} ms: {}", RETRY_DELAY_MS, e.getMessage());
+            submitRefresh(RETRY_DELAY_MS);
+        }
+    }
+
+    private AccessToken exchangeToken() throws IOException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            AccessToken token = doExchangeToken();
+            success = true;
+            return token;
+        } finally {
+            metrics.record(Operation.TOKEN_EXCHANGE, System.nanoTime() - start, success);
+        }
+    }
+
+    private AccessToken doExchangeToken() throws IOException {
+        // a host may carry its own scheme, e.g. http://localhost:8099 for a local stand-in server
+        String imsBase = config.getImsHost().contains("://") ? config.getImsHost() : "https://" + config.getImsHost();
+        String tokenUrl = imsBase + "/ims/token/v2";
+        LOG.info("Exchanging authorization code for access token at: {}", tokenUrl);
+
+        String body = "grant_type=authorization_code" +
+                "&client_id=" + URLEncoder.encode(config.getClientId(), "UTF-8") +
+                "&client_secret=" + URLEncoder.encode(config.getClientSecret(), "UTF-8") +
+                "&code=" + URLEncoder.encode(config.getAuthorizationCode(), "UTF-8");
+
+        long issuedAt = System.currentTimeMillis();
+        YukonResponse response;
+        try {
+            response = transport.execute(YukonRequest.builder("POST", tokenUrl)
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .body(out -> out.write(body.getBytes(StandardCharsets.UTF_8)))
+                    .readTimeout(config.getRequestTimeout())
+                    .build());
+        } catch (IOException e) {
+            metrics.recordIoError();
+            throw e;
+        }
+        int status = response.getStatus();
+        metrics.recordHttpStatus(status);
+        String responseBody = response.readBody();
+
+        if (status < 200 || status >= 300) {
+            LOG.error("IMS token exchange failed: {}", responseBody);
+            throw new IOException("IMS token exchange failed with HTTP " + status + ": " + responseBody);
+        }
+
+        JsonNode json = objectMapper.readTree(responseBody);
+        JsonNode accessTokenNode = json.get("access_token");
+        if (accessTokenNode == null || accessTokenNode.isNull()) {
+            throw new IOException("No access_token in IMS response: " + responseBody);
+        }
+
+        LOG.info("Successfully obtained access token from IMS");
+        JsonNode expiresInNode = json.get("expires_in");
+        long lifetime = expiresInNode != null && !expiresInNode.isNull()
+                ? expiresInNode.asLong() * 1000 : DEFAULT_LIFETIME_MS;
+        return new AccessToken(accessTokenNode.asText(), issuedAt, issuedAt + lifetime);
+    }
+
+    private static class AccessToken {
+        final String value;
+        final long expiresAt;
+        final long refreshAt;
+
+        AccessToken(String value, long issuedAt, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.refreshAt = expiresAt - Math.min(REFRESH_AHEAD_MS, (expiresAt - issuedAt) / 2);
+        }
+
+        boolean isUsable() {
+            return System.currentTimeMillis() < expiresAt - EXPIRY_MARGIN_MS;
+        }
+
+        /**
+         * Returns true once the token is inside the window in which it is refreshed ahead of expiry.
+         */
+        boolean isDue() {
+            return System.currentTimeMillis() >= refreshAt;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import java.io.IOException;
+
+/**
+ * HTTP transport used by {@link YukonDocumentStoreService} for all IMS and Yukon calls.
+ * Implementations are shared by all threads of a service instance and may pool connections.
+ */
+public interface YukonTransport extends AutoCloseable {
+
+    /**
+     * Sends a request and returns as soon as the response status and headers are available.
+     * The caller must {@link YukonResponse#close() close} or {@link YukonResponse#abort() abort}
+     * the returned response.
+     */
+    YukonResponse execute(YukonRequest request) throws IOException;
+
+    /**
+     * Returns the counters of this transport.
+     */
+    TransportMetrics getMetrics();
+
+    /**
+     * Releases pooled connections and worker threads.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,110 @@
+package com.adobe.cf_rag.export;
+
+import com.adobe.cq.dam.cfm.ContentElement;
+import com.adobe.cq.dam.cfm.ContentFragment;
+import com.adobe.cq.dam.cfm.ContentVariation;
+import com.adobe.cq.dam.cfm.FragmentData;
+import com.adobe.cq.dam.cfm.VariationDef;
+import com.adobe.cf_rag.docstore.api.model.DocumentContent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes Content Fragments into the JSON documents stored in the document store.
+ * Stateless and safe to share between export worker threads.
+ */
+public class ContentFragmentSerializer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentFragmentSerializer.class);
+
+    private final ObjectMapper objectMapper;
+
+    public ContentFragmentSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Resolves the variation request parameter to the list of variation names to export.
+     * "all" expands to master plus every variation defined on the fragment.
+     */
+    public List<String> getVariationsToExport(ContentFragment cf, String variationParam) {
+        List<String> variations = new ArrayList<>();
+        if ("all".equalsIgnoreCase(variationParam)) {
+            variations.add("master");
+            Iterator<VariationDef> it = cf.listAllVariations();
+            while (it.hasNext()) {
+                variations.add(it.next().getName());
+            }
+        } else {
+            variations.add(variationParam);
+        }
+        return variations;
+    }
+
+    /**
+     * Builds the document file name for a fragment path and variation,
+     * e.g. /content/dam/my-cf + master -> content_dam_my-cf__master.json
+     */
+    public String buildFileName(String path, String variation) {
+        String safePath = path.replace("/", "_").replace(":", "_");
+        if (safePath.startsWith("_")) safePath = safePath.substring(1);
+        return safePath + "__" + variation + ".json";
+    }
+
+    /**
+     * Captures the values of a fragment variation for streaming serialization.
+     * Elements without a value for the variation fall back to the master value. If element
+     * names repeat, the last value is kept at the position of the first, as in a JSON object.
+     */
+    public DocumentContent snapshot(ContentFragment cf, String variation) {
+        Map<String, Object> elements = new LinkedHashMap<>();
+
+        for (Iterator<ContentElement> it = cf.getElements(); it.hasNext(); ) {
+            ContentElement elem = it.next();
+
+            Object value;
+            if ("master".equals(variation)) {
+                FragmentData data = elem.getValue();
+                value = data != null ? data.getValue() : null;
+            } else {
+                ContentVariation cv = elem.getVariation(variation);
+                if (cv != null) {
+                    FragmentData data = cv.getValue();
+                    value = data != null ? data.getValue() : null;
+                } else {
+                    FragmentData data = elem.getValue();
+                    value = data != null ? data.getValue() : null;
+                }
+            }
+
+            elements.put(elem.getName(), value);
+        }
+
+        return new FragmentSnapshot(objectMapper.getFactory(), cf.getTitle(), cf.getName(), variation, elements);
+    }
+
+    /**
+     * Serializes a fragment variation into a JSON String.
+     * Export workers stream {@link #snapshot} output instead; this is for single-document callers.
+     */
+    public String buildJsonContent(ContentFragment cf, String variation) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            snapshot(cf, variation).writeTo(out);
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.error("Error serializing content fragment to JSON", e);
+            return "{}";
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.adobe.cf_rag.export;
+
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+import com.adobe.cf_rag.docstore.api.DocumentStoreService;
+import com.adobe.cf_rag.docstore.api.model.UploadResult;
+import com.adobe.cq.dam.cfm.ContentFragment;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a collection in sync with content fragment edits. Resource changes below the
+ * registered root paths are mapped to their fragment asset and, where the path tells, the
+ * variation that changed. Changes are collected until a fragment has been quiet for the
+ * debounce time (or has been changing for longer than the maximum delay), so the burst of
+ * node events of one save results in a single upload per fragment/variation.
+ *
+ * Pending fragments are uploaded on a background thread with {@link ContentFragmentSerializer#buildJsonContent}
+ * and {@link DocumentStoreService#uploadDocument}, reading through the {@value ExportJobManager#SUBSERVICE}
+ * service user. Removed fragments are not deleted from the collection.
+ */
+public class ContentFragmentSync implements ResourceChangeListener, AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentFragmentSync.class);
+
+    private static final String CONTENT = "/jcr:content";
+    private static final String DATA = CONTENT + "/data/";
+    private static final String RENDITIONS = CONTENT + "/renditions";
+    private static final int MAX_DELAY_FACTOR = 10;
+
+    private final DocumentStoreService documentStore;
+    private final ContentFragmentSerializer serializer;
+    private final ResourceResolverFactory resolverFactory;
+    private final String collectionId;
+    private final String variationParam;
+    private final long debounceMs;
+    private final long maxDelayMs;
+    private final ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private final Map<String, PendingFragment> pending = new HashMap<>();
+    private ScheduledFuture<?> flush;
+
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong uploads = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * @param variationParam the variation to keep in sync, or "all"
+     * @param debounceMs     how long a fragment must be quiet before it is uploaded
+     */
+    public ContentFragmentSync(DocumentStoreService documentStore, ContentFragmentSerializer serializer,
+                               ResourceResolverFactory resolverFactory, String collectionId, String variationParam,
+                               long debounceMs) {
+        this.documentStore = documentStore;
+        this.serializer = serializer;
+        this.resolverFactory = resolverFactory;
+        this.collectionId = collectionId;
+        this.variationParam = variationParam;
+        this.debounceMs = Math.max(0, debounceMs);
+        this.maxDelayMs = Math.max(1, this.debounceMs) * MAX_DELAY_FACTOR;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cf-rag-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records the changed fragments; called on the observation thread, so it does no I/O.
+     */
+    @Override
+    public void onChange(List<ResourceChange> resourceChanges) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (ResourceChange change : resourceChanges) {
+                String path = change.getPath();
+                if (path == null || path.contains(RENDITIONS)) {
+                    continue;
+                }
+                int content = path.indexOf(CONTENT);
+                String assetPath = content >= 0 ? path.substring(0, content) : path;
+                String variation = variationOf(path, content);
+                if (variation != null && !"all".equalsIgnoreCase(variationParam) && !variation.equals(variationParam)) {
+                    // an edit of a variation that is not synced
+                    continue;
+                }
+                changes.incrementAndGet();
+                pending.computeIfAbsent(assetPath, key -> new PendingFragment(now)).changed(now, variation);
+            }
+            if (!pending.isEmpty() && flush == null) {
+                scheduleFlush(debounceMs);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of resource changes received for synced fragments.
+     */
+    public long getChanges() {
+        return changes.get();
+    }
+
+    /**
+     * Returns the number of fragments waiting for their debounce time to pass.
+     */
+    public synchronized int getPending() {
+        return pending.size();
+    }
+
+    public long getUploads() {
+        return uploads.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Stops syncing; changes still pending are dropped and picked up by the next export.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Returns the variation a path below {@code jcr:content/data} belongs to, or null if the
+     * change is not specific to one variation, e.g. metadata or a new fragment.
+     */
+    private static String variationOf(String path, int content) {
+        if (content < 0 || !path.startsWith(DATA, content)) {
+            return null;
+        }
+        int start = content + DATA.length();
+        int end = path.indexOf('/', start);
+        String variation = end >= 0 ? path.substring(start, end) : path.substring(start);
+        return variation.isEmpty() ? null : variation;
+    }
+
+    // called with the lock held
+    private void scheduleFlush(long delayMs) {
+        try {
+            flush = scheduler.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Content fragment sync closed, not scheduling an upload");
+        }
+    }
+
+    private void flush() {
+        Map<String, PendingFragment> ready = new HashMap<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            long nextDue = Long.MAX_VALUE;
+            for (Iterator<Map.Entry<String, PendingFragment>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, PendingFragment> entry = it.next();
+                long due = entry.getValue().dueAt();
+                if (due <= now) {
+                    ready.put(entry.getKey(), entry.getValue());
+                    it.remove();
+                } else {
+                    nextDue = Math.min(nextDue, due);
+                }
+            }
+            flush = null;
+            if (!pending.isEmpty()) {
+                scheduleFlush(nextDue - now);
+            }
+        }
+        if (!ready.isEmpty()) {
+            upload(ready);
+        }
+    }
+
+    private void upload(Map<String, PendingFragment> fragments) {
+        try (ResourceResolver resolver = resolverFactory.getServiceResourceResolver(
+                Collections.singletonMap(ResourceResolverFactory.SUBSERVICE, ExportJobManager.SUBSERVICE))) {
+            for (Map.Entry<String, PendingFragment> entry : fragments.entrySet()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                uploadFragment(resolver, entry.getKey(), entry.getValue());
+            }
+        } catch (LoginException e) {
+            LOG.error("Content fragment sync cannot log in as service user {}", ExportJobManager.SUBSERVICE, e);
+            failures.addAndGet(fragments.size());
+        }
+    }
+
+    private void uploadFragment(ResourceResolver resolver, String assetPath, PendingFragment fragment) {
+        Resource resource = resolver.getResource(assetPath);
+        ContentFragment cf = resource != null ? resource.adaptTo(ContentFragment.class) : null;
+        if (cf == null) {
+            // removed, or a change to something that is not a content fragment
+            return;
+        }
+        List<String> variations = fragment.variations != null
+                ? new ArrayList<>(fragment.variations)
+                : serializer.getVariationsToExport(cf, variationParam);
+        for (String variation : variations) {
+            String fileName = serializer.buildFileName(resource.getPath(), variation);
+            try {
+                UploadResult result = documentStore.uploadDocument(collectionId, fileName,
+                        serializer.buildJsonContent(cf, variation));
+                if (result.isSuccess()) {
+                    uploads.incrementAndGet();
+                    LOG.debug("Synced {} to collection {}", fileName, collectionId);
+                } else {
+                    failures.incrementAndGet();
+                    LOG.warn("Sync of {} to collection {} failed: {}", fileName, collectionId,
+                            result.getErrorMessage());
+                }
+            } catch (DocumentStoreException | RuntimeException e) {
+                failures.incrementAndGet();
+                LOG.error("Sync of {} to collection {} failed", fileName, collectionId, e);
+            }
+        }
+    }
+
+    /**
+     * The changes of one fragment since its last upload.
+     */
+    private final class PendingFragment {
+        private final long firstChange;
+        private long lastChange;
+        // null: all synced variations
+        private Set<String> variations = new LinkedHashSet<>();
+
+        private PendingFragment(long firstChange) {
+            this.firstChange = firstChange;
+        }
+
+        private void changed(long time, String variation) {
+            lastChange = time;
+            if (variation == null) {
+                variations = null;
+            } else if (variations != null) {
+                variations.add(variation);
+            }
+        }
+
+        private long dueAt() {
+            return Math.min(lastChange + debounceMs, firstChange + maxDelayMs);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.adobe.cf_rag.export;
+
+/**
+ * A background export of the content fragments below a root path, with its progress.
+ *
+ * Counts are cumulative over all attempts: an export interrupted by a restart resumes from its
+ * last checkpoint, and the counts of the earlier attempts are carried over. Documents that were
+ * in flight past the checkpoint are exported, and counted, again. Throughput and ETA refer to
+ * the current attempt.
+ *
+ * A job remembers the user who submitted it; it reads the repository as that user and only they
+ * see its status.
+ */
+public class ExportJob {
+
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final String collectionId;
+    private final String rootPath;
+    private final String variation;
+    private final boolean incremental;
+    private final String submittedBy;
+    private final long createdAt;
+
+    private volatile State state = State.QUEUED;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String errorMessage;
+    private volatile int attempts;
+    private volatile long total = -1;
+    private volatile FragmentDiscovery.FragmentPaths paths;
+
+    // progress of earlier attempts, restored from the checkpoint
+    private volatile String checkpointPath;
+    private volatile long checkpointCompleted;
+    private volatile int checkpointSucceeded;
+    private volatile int checkpointFailed;
+    private volatile int checkpointSkipped;
+
+    private volatile ExportStats stats = new ExportStats();
+    private volatile ExportWatermark watermark = new ExportWatermark();
+
+    ExportJob(String id, String collectionId, String rootPath, String variation, boolean incremental,
+              String submittedBy, long createdAt) {
+        this.id = id;
+        this.collectionId = collectionId;
+        this.rootPath = rootPath;
+        this.variation = variation;
+        this.incremental = incremental;
+        this.submittedBy = submittedBy;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCollectionId() {
+        return collectionId;
+    }
+
+    public String getRootPath() {
+        return rootPath;
+    }
+
+    public String getVariation() {
+        return variation;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Returns the ID of the user who submitted the job, or null for a job checkpointed before
+     * submitters were recorded.
+     */
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns when the current attempt started, or 0 if the job has not started yet.
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * Returns when the job succeeded or failed, or 0 while it is queued or running.
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Returns how often the job was started; more than once if it was resumed after a restart.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns the number of content fragments to export, or -1 while it is unknown. Discovery
+     * does not count fragments up front, so the total is known once it has read the last one,
+     * or from an earlier attempt.
+     */
+    public long getTotal() {
+        FragmentDiscovery.FragmentPaths current = paths;
+        long discovered = current != null ? current.getTotal() : -1;
+        if (discovered >= 0) {
+            total = discovered;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of fragments, in path order, that are completely processed.
+     */
+    public long getCompleted() {
+        return checkpointCompleted + watermark.getCompleted();
+    }
+
+    /**
+     * Returns the last fragment path of the completed range, or null if none is completed yet.
+     */
+    public String getCompletedPath() {
+        String path = watermark.getCompletedPath();
+        return path != null ? path : checkpointPath;
+    }
+
+    public int getSuccessCount() {
+        return checkpointSucceeded + stats.getSuccessCount();
+    }
+
+    public int getFailCount() {
+        return checkpointFailed + stats.getFailCount();
+    }
+
+    public int getSkipped() {
+        return checkpointSkipped + stats.getSkipped();
+    }
+
+    /**
+     * Returns the per-stage counters of the current attempt.
+     */
+    public ExportStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the fragments completed per second in the current attempt.
+     */
+    public double getFragmentsPerSecond() {
+        long started = startedAt;
+        if (started == 0) {
+            return 0;
+        }
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = Math.max(1, end - started);
+        return watermark.getCompleted() * 1000.0 / elapsed;
+    }
+
+    /**
+     * Returns the estimated seconds until the job finishes, or -1 while there is no estimate.
+     */
+    public long getEtaSeconds() {
+        long total = getTotal();
+        if (state != State.RUNNING || total < 0) {
+            return -1;
+        }
+        double rate = getFragmentsPerSecond();
+        if (rate <= 0) {
+            return -1;
+        }
+        return (long) Math.ceil(Math.max(0, total - getCompleted()) / rate);
+    }
+
+    ExportWatermark getWatermark() {
+        return watermark;
+    }
+
+    long getCheckpointCompleted() {
+        return checkpointCompleted;
+    }
+
+    String getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    /**
+     * Sets the paths the current attempt discovers, which report the total once they know it.
+     */
+    void discovering(FragmentDiscovery.FragmentPaths paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * Returns a copy of the progress, with the completed count and path taken at the same time.
+     */
+    Progress progress() {
+        ExportWatermark current = watermark;
+        long completed;
+        String path;
+        // the watermark guards its state with its own monitor
+        synchronized (current) {
+            completed = current.getCompleted();
+            path = current.getCompletedPath();
+        }
+        return new Progress(path != null ? path : checkpointPath, checkpointCompleted + completed,
+                getSuccessCount(), getFailCount(), getSkipped());
+    }
+
+    /**
+     * Restores the progress and state of a job read from its checkpoint file.
+     */
+    void restore(State state, int attempts, long startedAt, long finishedAt, String errorMessage, long total,
+                 String path, long completed, int succeeded, int failed, int skipped) {
+        this.state = state;
+        this.attempts = attempts;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.errorMessage = errorMessage;
+        this.total = total;
+        this.checkpointPath = path;
+        this.checkpointCompleted = completed;
+        this.checkpointSucceeded = succeeded;
+        this.checkpointFailed = failed;
+        this.checkpointSkipped = skipped;
+    }
+
+    /**
+     * Starts a new attempt, carrying over what earlier attempts completed.
+     */
+    void started() {
+        Progress progress = progress();
+        checkpointPath = progress.path;
+        checkpointCompleted = progress.completed;
+        checkpointSucceeded = progress.succeeded;
+        checkpointFailed = progress.failed;
+        checkpointSkipped = progress.skipped;
+        stats = new ExportStats();
+        watermark = new ExportWatermark();
+        paths = null;
+        attempts++;
+        startedAt = System.currentTimeMillis();
+        finishedAt = 0;
+        errorMessage = null;
+        state = State.RUNNING;
+    }
+
+    /**
+     * Marks a job that was interrupted, e.g. by a shutdown, so it resumes on the next start.
+     */
+    void interrupted() {
+        state = State.QUEUED;
+    }
+
+    void succeeded() {
+        finishedAt = System.currentTimeMillis();
+        state = State.SUCCEEDED;
+    }
+
+    void failed(String errorMessage) {
+        this.errorMessage = errorMessage;
+        finishedAt = System.currentTimeMillis();
+        state = State.FAILED;
+    }
+
+    /**
+     * The progress of a job as written to its checkpoint.
+     */
+    static final class Progress {
+        final String path;
+        final long completed;
+        final int succeeded;
+        final int failed;
+        final int skipped;
+
+        Progress(String path, long completed, int succeeded, int failed, int skipped) {
+            this.path = path;
+            this.completed = completed;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.skipped = skipped;
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package com.adobe.cf_rag.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Session;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs exports as background jobs, one at a time, so submitting one returns immediately.
+ *
+ * Each job is written to a checkpoint file in the job directory when it is submitted, every
+ * checkpoint interval while it runs, and when it ends. A checkpoint holds the last fragment
+ * path before which everything is exported, plus the counts so far. Jobs that were queued or
+ * running when the instance stopped are resumed from their checkpoint on the next start;
+ * finished jobs are kept for a week so their status can still be read.
+ *
+ * A job runs only while holding the lock on its {@code .lock} file. A run that does not stop
+ * within the shutdown wait keeps the lock until it ends, and the manager that resumes the job
+ * waits for it, then reads the checkpoint that run left before continuing; two runs never write
+ * the same checkpoint and manifest.
+ *
+ * The request that submitted a job is gone by the time it runs, so jobs log in through the
+ * {@value #SUBSERVICE} service user impersonating the submitter: discovery and fragment reads
+ * see exactly what the submitter may read. The service user therefore needs to be allowed to
+ * impersonate the users who export. A job without a recorded submitter is failed rather than
+ * run with the service user's own permissions.
+ */
+public class ExportJobManager implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExportJobManager.class);
+
+    public static final String SUBSERVICE = "cf-rag-export";
+
+    private static final long RETENTION_MS = TimeUnit.DAYS.toMillis(7);
+    private static final long SHUTDOWN_WAIT_MS = 10000;
+    private static final long HANDOVER_RETRY_MS = 1000;
+
+    private final ExportPipeline pipeline;
+    private final FragmentDiscovery discovery;
+    private final ResourceResolverFactory resolverFactory;
+    private final File jobDirectory;
+    private final File manifestDirectory;
+    private final ObjectMapper objectMapper;
+    private final long checkpointInterval;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService runner;
+    private final ScheduledExecutorService checkpointer;
+
+    public ExportJobManager(ExportPipeline pipeline, FragmentDiscovery discovery,
+                            ResourceResolverFactory resolverFactory, File jobDirectory, File manifestDirectory,
+                            ObjectMapper objectMapper, long checkpointInterval) {
+        this.pipeline = pipeline;
+        this.discovery = discovery;
+        this.resolverFactory = resolverFactory;
+        this.jobDirectory = jobDirectory;
+        this.manifestDirectory = manifestDirectory;
+        this.objectMapper = objectMapper;
+        this.checkpointInterval = Math.max(1000, checkpointInterval);
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cf-rag-export-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cf-rag-export-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the jobs of earlier runs and queues the unfinished ones again, oldest first.
+     */
+    public void resumeJobs() {
+        File[] files = jobDirectory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) {
+            return;
+        }
+        List<ExportJob> unfinished = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            ExportJob job = readJob(file);
+            if (job == null) {
+                continue;
+            }
+            boolean finished = job.getState() == ExportJob.State.SUCCEEDED || job.getState() == ExportJob.State.FAILED;
+            if (finished && now - job.getFinishedAt() > RETENTION_MS) {
+                deleteQuietly(file);
+                File lockFile = lockFile(job.getId());
+                if (lockFile.exists()) {
+                    deleteQuietly(lockFile);
+                }
+                continue;
+            }
+            jobs.put(job.getId(), job);
+            if (!finished) {
+                unfinished.add(job);
+            }
+        }
+        unfinished.sort(Comparator.comparingLong(ExportJob::getCreatedAt));
+        for (ExportJob job : unfinished) {
+            LOG.info("Resuming export job {} to collection {} after {} fragments",
+                    job.getId(), job.getCollectionId(), job.getCompleted());
+            job.interrupted();
+            schedule(job);
+        }
+    }
+
+    /**
+     * Queues an export and returns its job right away.
+     *
+     * @param submittedBy ID of the user the job reads the repository as
+     */
+    public ExportJob submit(String collectionId, String rootPath, String variation, boolean incremental,
+                            String submittedBy) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), collectionId, rootPath, variation, incremental,
+                submittedBy, System.currentTimeMillis());
+        jobs.put(job.getId(), job);
+        writeCheckpoint(job);
+        schedule(job);
+        LOG.info("Export job {} queued by {} for {} to collection {}", job.getId(), submittedBy, rootPath,
+                collectionId);
+        return job;
+    }
+
+    /**
+     * Returns a job by ID, or null if it is unknown.
+     */
+    public ExportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Returns the jobs submitted by a user, newest first.
+     */
+    public List<ExportJob> getJobs(String submittedBy) {
+        List<ExportJob> list = new ArrayList<>();
+        for (ExportJob job : jobs.values()) {
+            if (submittedBy != null && submittedBy.equals(job.getSubmittedBy())) {
+                list.add(job);
+            }
+        }
+        list.sort(Comparator.comparingLong(ExportJob::getCreatedAt).reversed());
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Stops the running job after writing its checkpoint; it and the queued jobs resume on the
+     * next start.
+     */
+    @Override
+    public void close() {
+        runner.shutdownNow();
+        try {
+            if (!runner.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                LOG.warn("Export job did not stop within {} ms", SHUTDOWN_WAIT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpointer.shutdownNow();
+    }
+
+    private void schedule(ExportJob job) {
+        schedule(job, false);
+    }
+
+    private void schedule(ExportJob job, boolean handedOver) {
+        try {
+            runner.execute(() -> run(job, handedOver));
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Export job manager closed, job {} stays queued", job.getId());
+        }
+    }
+
+    /**
+     * Runs the job once the run of an earlier manager that still holds it has ended. Meanwhile the
+     * runner goes on with the other jobs.
+     */
+    private void awaitHandover(ExportJob job) {
+        LOG.info("Export job {} is still running in a stopped instance, retrying in {} ms", job.getId(),
+                HANDOVER_RETRY_MS);
+        try {
+            checkpointer.schedule(() -> schedule(job, true), HANDOVER_RETRY_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Export job manager closed, job {} stays queued", job.getId());
+        }
+    }
+
+    /**
+     * @param handedOver whether the job was held by another run when it was first scheduled, so
+     *                   that run's last checkpoint has to be read again
+     */
+    private void run(ExportJob job, boolean handedOver) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        FileLock lock;
+        try {
+            lock = tryLock(job);
+        } catch (IOException e) {
+            LOG.warn("Unable to lock export job {}, running it unlocked", job.getId(), e);
+            run(job);
+            return;
+        }
+        if (lock == null) {
+            awaitHandover(job);
+            return;
+        }
+        try {
+            if (handedOver && !reload(job)) {
+                return;
+            }
+            run(job);
+        } finally {
+            unlock(job, lock);
+        }
+    }
+
+    /**
+     * Reads the checkpoint the previous run of a job left, and returns whether the job still has
+     * to run.
+     */
+    private boolean reload(ExportJob job) {
+        JsonNode json = readJson(jobFile(job.getId()));
+        if (json == null) {
+            return true;
+        }
+        restore(job, json);
+        if (job.getState() == ExportJob.State.SUCCEEDED || job.getState() == ExportJob.State.FAILED) {
+            LOG.info("Export job {} was finished by a stopped instance", job.getId());
+            return false;
+        }
+        job.interrupted();
+        return true;
+    }
+
+    private void run(ExportJob job) {
+        job.started();
+        writeCheckpoint(job);
+        if (job.getSubmittedBy() == null) {
+            LOG.error("Export job {} has no recorded submitter and is not run", job.getId());
+            job.failed("No submitting user recorded for the job");
+            writeCheckpoint(job);
+            return;
+        }
+        ExportManifest manifest = null;
+        ScheduledFuture<?> checkpoints = null;
+        try (ResourceResolver resolver = openSubmitterResolver(job)) {
+            Session session = resolver.adaptTo(Session.class);
+            if (session == null) {
+                throw new IllegalStateException("Unable to adapt to JCR Session");
+            }
+            if (job.isIncremental()) {
+                manifest = ExportManifest.load(manifestDirectory, job.getCollectionId(), objectMapper);
+            }
+            FragmentDiscovery.FragmentPaths paths = findRemaining(session, job);
+            job.discovering(paths);
+
+            ExportManifest jobManifest = manifest;
+            checkpoints = checkpointer.scheduleWithFixedDelay(() -> checkpoint(job, jobManifest),
+                    checkpointInterval, checkpointInterval, TimeUnit.MILLISECONDS);
+            pipeline.run(resolver, paths, job.getCollectionId(), job.getVariation(), manifest,
+                    job.getStats(), job.getWatermark());
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+            job.succeeded();
+            LOG.info("Export job {} finished: {} uploaded, {} failed, {} skipped",
+                    job.getId(), job.getSuccessCount(), job.getFailCount(), job.getSkipped());
+        } catch (InterruptedException e) {
+            LOG.info("Export job {} interrupted after {} fragments, it resumes on the next start",
+                    job.getId(), job.getCompleted());
+            job.interrupted();
+        } catch (LoginException e) {
+            LOG.error("Export job {} cannot log in as service user {} impersonating {}",
+                    job.getId(), SUBSERVICE, job.getSubmittedBy(), e);
+            job.failed("Unable to open a resource resolver for " + job.getSubmittedBy() + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            LOG.error("Export job {} failed", job.getId(), e);
+            job.failed(e.getMessage());
+        } finally {
+            if (checkpoints != null) {
+                checkpoints.cancel(false);
+            }
+            checkpoint(job, manifest);
+        }
+    }
+
+    /**
+     * Logs in as the service user impersonating the submitter of the job, so the job reads with
+     * the submitter's permissions.
+     */
+    private ResourceResolver openSubmitterResolver(ExportJob job) throws LoginException {
+        Map<String, Object> authenticationInfo = new HashMap<>();
+        authenticationInfo.put(ResourceResolverFactory.SUBSERVICE, SUBSERVICE);
+        authenticationInfo.put(ResourceResolverFactory.USER_IMPERSONATION, job.getSubmittedBy());
+        return resolverFactory.getServiceResourceResolver(authenticationInfo);
+    }
+
+    /**
+     * Queries the fragments the job has yet to export: all of them, or when resuming, the ones
+     * after the checkpoint path.
+     */
+    private FragmentDiscovery.FragmentPaths findRemaining(Session session, ExportJob job) {
+        return discovery.find(session, job.getRootPath(), job.getCheckpointPath(), job.getCheckpointCompleted());
+    }
+
+    /**
+     * Takes the progress of the job, saves the manifest, then writes that progress. Documents are
+     * recorded in the manifest before their fragment can complete, so a checkpoint never claims
+     * documents the manifest does not know about.
+     */
+    private synchronized void checkpoint(ExportJob job, ExportManifest manifest) {
+        ExportJob.Progress progress = job.progress();
+        if (manifest != null) {
+            try {
+                manifest.save();
+            } catch (IOException e) {
+                LOG.error("Unable to save export manifest for collection {}", job.getCollectionId(), e);
+            }
+        }
+        writeCheckpoint(job, progress);
+    }
+
+    private void writeCheckpoint(ExportJob job) {
+        writeCheckpoint(job, job.progress());
+    }
+
+    private synchronized void writeCheckpoint(ExportJob job, ExportJob.Progress progress) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("id", job.getId());
+        json.put("collectionId", job.getCollectionId());
+        json.put("rootPath", job.getRootPath());
+        json.put("variation", job.getVariation());
+        json.put("incremental", job.isIncremental());
+        json.put("submittedBy", job.getSubmittedBy());
+        json.put("createdAt", job.getCreatedAt());
+        json.put("state", job.getState().name());
+        json.put("attempts", job.getAttempts());
+        json.put("startedAt", job.getStartedAt());
+        json.put("finishedAt", job.getFinishedAt());
+        json.put("errorMessage", job.getErrorMessage());
+        json.put("total", job.getTotal());
+        ObjectNode checkpoint = json.putObject("checkpoint");
+        checkpoint.put("path", progress.path);
+        checkpoint.put("completed", progress.completed);
+        checkpoint.put("succeeded", progress.succeeded);
+        checkpoint.put("failed", progress.failed);
+        checkpoint.put("skipped", progress.skipped);
+
+        try {
+            if (!jobDirectory.isDirectory() && !jobDirectory.mkdirs()) {
+                throw new IOException("Unable to create export job directory " + jobDirectory);
+            }
+            File file = jobFile(job.getId());
+            File tmp = new File(file.getPath() + ".tmp");
+            objectMapper.writeValue(tmp, json);
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.error("Unable to write checkpoint of export job {}", job.getId(), e);
+        }
+    }
+
+    private ExportJob readJob(File file) {
+        JsonNode json = readJson(file);
+        if (json == null) {
+            return null;
+        }
+        ExportJob job = new ExportJob(json.path("id").asText(), json.path("collectionId").asText(),
+                json.path("rootPath").asText(), json.path("variation").asText(),
+                json.path("incremental").asBoolean(), json.path("submittedBy").asText(null),
+                json.path("createdAt").asLong());
+        restore(job, json);
+        return job;
+    }
+
+    private JsonNode readJson(File file) {
+        try {
+            JsonNode json = objectMapper.readTree(file);
+            ExportJob.State.valueOf(json.path("state").asText());
+            return json;
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.warn("Ignoring unreadable export job file {}", file, e);
+            return null;
+        }
+    }
+
+    private static void restore(ExportJob job, JsonNode json) {
+        JsonNode checkpoint = json.path("checkpoint");
+        job.restore(ExportJob.State.valueOf(json.path("state").asText()), json.path("attempts").asInt(),
+                json.path("startedAt").asLong(), json.path("finishedAt").asLong(),
+                json.path("errorMessage").asText(null), json.path("total").asLong(-1),
+                checkpoint.path("path").asText(null), checkpoint.path("completed").asLong(),
+                checkpoint.path("succeeded").asInt(), checkpoint.path("failed").asInt(),
+                checkpoint.path("skipped").asInt());
+    }
+
+    /**
+     * Takes the lock on the job's lock file, or returns null if another run holds it, in this JVM
+     * or another process.
+     */
+    private FileLock tryLock(ExportJob job) throws IOException {
+        if (!jobDirectory.isDirectory() && !jobDirectory.mkdirs()) {
+            throw new IOException("Unable to create export job directory " + jobDirectory);
+        }
+        FileChannel channel = FileChannel.open(lockFile(job.getId()).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return lock;
+            }
+        } catch (OverlappingFileLockException e) {
+            // held by a run of another manager in this JVM
+        } catch (IOException e) {
+            closeQuietly(job, channel);
+            throw e;
+        }
+        closeQuietly(job, channel);
+        return null;
+    }
+
+    private static void unlock(ExportJob job, FileLock lock) {
+        closeQuietly(job, lock.channel());
+    }
+
+    private static void closeQuietly(ExportJob job, FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.warn("Unable to release the lock of export job {}", job.getId(), e);
+        }
+    }
+
+    private File jobFile(String id) {
+        return new File(jobDirectory, fileName(id) + ".json");
+    }
+
+    private File lockFile(String id) {
+        return new File(jobDirectory, fileName(id) + ".lock");
+    }
+
+    private static String fileName(String id) {
+        return id.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static void deleteQuietly(File file) {
+        if (!file.delete()) {
+            LOG.warn("Unable to delete expired export job file {}", file);
+        }
+    }
+}
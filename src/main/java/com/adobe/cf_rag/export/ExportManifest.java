@@ -0,0 +1,136 @@
+package com.adobe.cf_rag.export;
+
+import com.adobe.cf_rag.docstore.api.model.DocumentContent;
+import com.adobe.cf_rag.util.Sha256;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-collection record of what was last exported, used to skip unchanged
+ * fragment/variation pairs in incremental exports.
+ *
+ * Maps each document file name to the content hash of its JSON and the
+ * last-modified time of the fragment it was exported from. Stored as a JSON
+ * file on local disk, one file per collection.
+ */
+public class ExportManifest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExportManifest.class);
+
+    private final File file;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private ExportManifest(File file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Loads the manifest of a collection from the given directory.
+     * Returns an empty manifest if none exists yet or the file cannot be read.
+     */
+    public static ExportManifest load(File directory, String collectionId, ObjectMapper objectMapper) {
+        String safeName = collectionId.replaceAll("[^A-Za-z0-9._-]", "_");
+        ExportManifest manifest = new ExportManifest(new File(directory, safeName + ".json"), objectMapper);
+        if (manifest.file.isFile()) {
+            try {
+                JsonNode json = objectMapper.readTree(manifest.file);
+                for (Iterator<Map.Entry<String, JsonNode>> it = json.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = it.next();
+                    JsonNode value = field.getValue();
+                    manifest.entries.put(field.getKey(),
+                            new Entry(value.path("hash").asText(null), value.path("lastModified").asLong(0)));
+                }
+            } catch (IOException e) {
+                LOG.warn("Unable to read export manifest {}, starting a full export", manifest.file, e);
+                manifest.entries.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes the manifest to disk, replacing the previous file atomically.
+     */
+    public void save() throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create manifest directory " + directory);
+        }
+
+        ObjectNode json = objectMapper.createObjectNode();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            ObjectNode node = json.putObject(entry.getKey());
+            node.put("hash", entry.getValue().hash);
+            node.put("lastModified", entry.getValue().lastModified);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        objectMapper.writeValue(tmp, json);
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns true if the document was exported from a fragment with the same last-modified time.
+     * An unknown last-modified time (0 or less) never matches.
+     */
+    public boolean isUnmodified(String fileName, long lastModified) {
+        Entry entry = entries.get(fileName);
+        return lastModified > 0 && entry != null && entry.lastModified == lastModified;
+    }
+
+    /**
+     * Returns true if the document was exported with exactly the given content hash.
+     */
+    public boolean hasHash(String fileName, String hash) {
+        Entry entry = entries.get(fileName);
+        return entry != null && hash.equals(entry.hash);
+    }
+
+    /**
+     * Records a successfully exported document.
+     */
+    public void record(String fileName, String hash, long lastModified) {
+        entries.put(fileName, new Entry(hash, lastModified));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Computes the content hash stored in the manifest, streaming the document without buffering it.
+     */
+    public static String fingerprint(DocumentContent content) throws IOException {
+        MessageDigest digest = Sha256.newDigest();
+        try (DigestOutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            content.writeTo(out);
+        }
+        return Sha256.toHex(digest.digest());
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final long lastModified;
+
+        private Entry(String hash, long lastModified) {
+            this.hash = hash;
+            this.lastModified = lastModified;
+        }
+    }
+}
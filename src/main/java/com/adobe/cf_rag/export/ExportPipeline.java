@@ -0,0 +1,381 @@
+package com.adobe.cf_rag.export;
+
+import com.adobe.cf_rag.docstore.api.DocumentStoreService;
+import com.adobe.cf_rag.docstore.api.model.Document;
+import com.adobe.cf_rag.docstore.api.model.DocumentContent;
+import com.adobe.cf_rag.docstore.api.model.UploadResult;
+import com.adobe.cq.dam.cfm.ContentFragment;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Staged, concurrent Content Fragment export.
+ *
+ * Stages:
+ *   1. Discovery (calling thread): feeds fragment paths into a bounded path queue
+ *   2. Read workers: each with its own resource resolver, capture fragment values as streamable documents
+ *   3. Upload workers: drain the bounded document queue in batches into the document store
+ *
+ * Both queues are bounded, so a slow upload stage throttles reading and discovery. If a worker
+ * dies, e.g. from an Error, the export is abandoned rather than left waiting on a full queue.
+ * With an {@link ExportManifest}, unchanged fragment/variation pairs are skipped in the
+ * read stage, before any network I/O.
+ */
+public class ExportPipeline {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExportPipeline.class);
+
+    private static final String END_OF_PATHS = new String("END_OF_PATHS");
+    private static final ExportItem END_OF_ITEMS = new ExportItem(null, null, null, null, 0);
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private final DocumentStoreService documentStore;
+    private final ContentFragmentSerializer serializer;
+    private final int readerThreads;
+    private final int uploaderThreads;
+    private final int queueCapacity;
+    private final int uploadBatchSize;
+
+    public ExportPipeline(DocumentStoreService documentStore, ContentFragmentSerializer serializer,
+                          int readerThreads, int uploaderThreads, int queueCapacity, int uploadBatchSize) {
+        this.documentStore = documentStore;
+        this.serializer = serializer;
+        this.readerThreads = Math.max(1, readerThreads);
+        this.uploaderThreads = Math.max(1, uploaderThreads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.uploadBatchSize = Math.max(1, uploadBatchSize);
+    }
+
+    /**
+     * Exports the content fragments at the given paths and blocks until all of them are processed.
+     *
+     * @param resolver       resolver of the caller; each read worker works on its own clone
+     * @param paths          content fragment asset paths, consumed on the calling thread
+     * @param collectionId   the target collection
+     * @param variationParam the variation to export, or "all"
+     * @param manifest       manifest for incremental export, or null to export everything
+     * @return the per-stage counters of this run
+     */
+    public ExportStats run(ResourceResolver resolver, Iterator<String> paths, String collectionId,
+                           String variationParam, ExportManifest manifest) throws InterruptedException {
+        return run(resolver, paths, collectionId, variationParam, manifest, new ExportStats(), null);
+    }
+
+    /**
+     * Runs an export that reports into the given counters, so they can be watched while it runs,
+     * and optionally tracks finished paths for checkpoints.
+     *
+     * @param watermark tracker of finished paths, or null
+     * @throws IllegalStateException if an export worker died
+     */
+    ExportStats run(ResourceResolver resolver, Iterator<String> paths, String collectionId, String variationParam,
+                    ExportManifest manifest, ExportStats stats, ExportWatermark watermark)
+            throws InterruptedException {
+        BlockingQueue<String> pathQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ExportItem> itemQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        ExecutorService readers = Executors.newFixedThreadPool(readerThreads, namedThreads("cf-rag-export-reader"));
+        ExecutorService uploaders = Executors.newFixedThreadPool(uploaderThreads, namedThreads("cf-rag-export-uploader"));
+        try {
+            List<Future<?>> uploaderFutures = new ArrayList<>();
+            for (int i = 0; i < uploaderThreads; i++) {
+                uploaderFutures.add(uploaders.submit(() -> runUploader(itemQueue, collectionId, manifest, stats, watermark)));
+            }
+            List<Future<?>> readerFutures = new ArrayList<>();
+            for (int i = 0; i < readerThreads; i++) {
+                readerFutures.add(readers.submit(() -> runReader(resolver, pathQueue, itemQueue, uploaderFutures,
+                        variationParam, manifest, stats, watermark)));
+            }
+
+            while (paths.hasNext()) {
+                String path;
+                try {
+                    path = paths.next();
+                } catch (RuntimeException e) {
+                    LOG.error("Error discovering content fragment", e);
+                    stats.incrementReadFailures();
+                    continue;
+                }
+                if (watermark != null) {
+                    watermark.discovered(path);
+                }
+                put(pathQueue, path, readerFutures);
+                stats.incrementDiscovered();
+            }
+            // readers stop at their end marker, so some may already be done here
+            int endMarkers = 0;
+            while (endMarkers < readerThreads && !allDone(readerFutures)) {
+                if (pathQueue.offer(END_OF_PATHS, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    endMarkers++;
+                }
+            }
+            awaitAll(readerFutures);
+
+            put(itemQueue, END_OF_ITEMS, uploaderFutures);
+            awaitAll(uploaderFutures);
+        } catch (InterruptedException | RuntimeException e) {
+            if (watermark != null) {
+                watermark.stop();
+            }
+            throw e;
+        } finally {
+            readers.shutdownNow();
+            uploaders.shutdownNow();
+        }
+
+        LOG.info("Export to collection {} finished: {}", collectionId, stats);
+        return stats;
+    }
+
+    private void runReader(ResourceResolver requestResolver, BlockingQueue<String> pathQueue,
+                           BlockingQueue<ExportItem> itemQueue, List<Future<?>> uploaderFutures,
+                           String variationParam, ExportManifest manifest, ExportStats stats,
+                           ExportWatermark watermark) {
+        ResourceResolver resolver = null;
+        try {
+            resolver = requestResolver.clone(null);
+        } catch (LoginException e) {
+            LOG.error("Unable to open resource resolver for export worker", e);
+        }
+
+        try {
+            String path;
+            while ((path = pathQueue.take()) != END_OF_PATHS) {
+                if (resolver == null) {
+                    stats.incrementReadFailures();
+                    finishRead(watermark, path, 0);
+                    continue;
+                }
+                try {
+                    Resource cfResource = resolver.getResource(path);
+                    ContentFragment cf = cfResource != null ? cfResource.adaptTo(ContentFragment.class) : null;
+                    if (cf == null) {
+                        finishRead(watermark, path, 0);
+                        continue;
+                    }
+
+                    long lastModified = manifest != null ? getLastModified(cfResource) : 0;
+                    List<ExportItem> items = new ArrayList<>();
+                    for (String variation : serializer.getVariationsToExport(cf, variationParam)) {
+                        String fileName = serializer.buildFileName(cfResource.getPath(), variation);
+                        if (manifest != null && manifest.isUnmodified(fileName, lastModified)) {
+                            stats.incrementSkipped();
+                            continue;
+                        }
+                        DocumentContent content = serializer.snapshot(cf, variation);
+                        // hashed here on the reader threads even without a manifest: the upload
+                        // needs the hash for its idempotency key before it streams the body
+                        String hash = ExportManifest.fingerprint(content);
+                        if (manifest != null && manifest.hasHash(fileName, hash)) {
+                            // Touched but not changed: remember the new timestamp, skip the upload
+                            manifest.record(fileName, hash, lastModified);
+                            stats.incrementSkipped();
+                            continue;
+                        }
+                        items.add(new ExportItem(path, fileName, content, hash, lastModified));
+                    }
+                    stats.incrementFragmentsRead();
+                    // before queueing, so an upload cannot finish an item the watermark does not expect yet
+                    finishRead(watermark, path, items.size());
+
+                    for (ExportItem item : items) {
+                        if (!itemQueue.offer(item)) {
+                            stats.incrementQueueFullWaits();
+                            put(itemQueue, item, uploaderFutures);
+                        }
+                        stats.incrementDocumentsQueued();
+                    }
+                } catch (InterruptedException | WorkerDiedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    LOG.error("Error processing content fragment {}", path, e);
+                    stats.incrementReadFailures();
+                    finishRead(watermark, path, 0);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (resolver != null) {
+                resolver.close();
+            }
+        }
+    }
+
+    private void runUploader(BlockingQueue<ExportItem> itemQueue, String collectionId, ExportManifest manifest,
+                             ExportStats stats, ExportWatermark watermark) {
+        try {
+            boolean finished = false;
+            while (!finished) {
+                List<ExportItem> batch = new ArrayList<>(uploadBatchSize);
+                batch.add(itemQueue.take());
+                itemQueue.drainTo(batch, uploadBatchSize - 1);
+
+                // The end marker is shared: put it back so the other upload workers see it too
+                if (batch.remove(END_OF_ITEMS)) {
+                    itemQueue.put(END_OF_ITEMS);
+                    finished = true;
+                }
+                if (!batch.isEmpty()) {
+                    uploadBatch(batch, collectionId, manifest, stats);
+                    if (watermark != null) {
+                        for (ExportItem item : batch) {
+                            watermark.uploaded(item.path);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void uploadBatch(List<ExportItem> batch, String collectionId, ExportManifest manifest,
+                             ExportStats stats) {
+        List<Document> documents = new ArrayList<>(batch.size());
+        for (ExportItem item : batch) {
+            documents.add(new Document(null, item.fileName, item.content, item.hash));
+        }
+        try {
+            List<UploadResult> uploadResults = documentStore.uploadDocuments(collectionId, documents);
+            for (int i = 0; i < uploadResults.size(); i++) {
+                if (uploadResults.get(i).isSuccess()) {
+                    stats.incrementUploadsSucceeded();
+                    ExportItem item = batch.get(i);
+                    if (manifest != null) {
+                        manifest.record(item.fileName, item.hash, item.lastModified);
+                    }
+                } else {
+                    stats.incrementUploadsFailed();
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Error uploading batch of {} documents", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                stats.incrementUploadsFailed();
+            }
+        }
+    }
+
+    private static void finishRead(ExportWatermark watermark, String path, int items) {
+        if (watermark != null) {
+            watermark.read(path, items);
+        }
+    }
+
+    /**
+     * Returns the last-modified time of a fragment asset, or 0 if it is unknown.
+     */
+    private static long getLastModified(Resource cfResource) {
+        Resource content = cfResource.getChild("jcr:content");
+        Calendar lastModified = content != null
+                ? content.getValueMap().get("jcr:lastModified", Calendar.class) : null;
+        return lastModified != null ? lastModified.getTimeInMillis() : 0;
+    }
+
+    /**
+     * Hands an element to the next stage, waiting while its queue is full. The workers of that
+     * stage only finish after their end marker, so one that is done before has died, and
+     * waiting on could block forever.
+     */
+    private static <T> void put(BlockingQueue<T> queue, T element, List<Future<?>> consumers)
+            throws InterruptedException {
+        while (!queue.offer(element, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            for (Future<?> consumer : consumers) {
+                if (consumer.isDone()) {
+                    throw new WorkerDiedException(failureOf(consumer));
+                }
+            }
+        }
+    }
+
+    private static Throwable failureOf(Future<?> future) {
+        try {
+            future.get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (CancellationException e) {
+            return e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e;
+        }
+    }
+
+    private static boolean allDone(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Export worker failed", e.getCause());
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Thrown when the next stage of the pipeline has died, to stop the stage feeding it.
+     */
+    private static final class WorkerDiedException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private WorkerDiedException(Throwable cause) {
+            super("Export worker of the next stage stopped unexpectedly", cause);
+        }
+    }
+
+    /**
+     * A captured document waiting to be uploaded; serialized into the request body by the uploader.
+     */
+    private static final class ExportItem {
+        private final String path;
+        private final String fileName;
+        private final DocumentContent content;
+        private final String hash;
+        private final long lastModified;
+
+        private ExportItem(String path, String fileName, DocumentContent content, String hash, long lastModified) {
+            this.path = path;
+            this.fileName = fileName;
+            this.content = content;
+            this.hash = hash;
+            this.lastModified = lastModified;
+        }
+    }
+}
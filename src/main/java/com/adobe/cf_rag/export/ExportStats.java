@@ -0,0 +1,123 @@
+package com.adobe.cf_rag.export;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-stage counters of an export run. Updated concurrently by the pipeline workers.
+ */
+public class ExportStats {
+
+    private final AtomicInteger discovered = new AtomicInteger();
+    private final AtomicInteger fragmentsRead = new AtomicInteger();
+    private final AtomicInteger readFailures = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger documentsQueued = new AtomicInteger();
+    private final AtomicInteger queueFullWaits = new AtomicInteger();
+    private final AtomicInteger uploadsSucceeded = new AtomicInteger();
+    private final AtomicInteger uploadsFailed = new AtomicInteger();
+
+    void incrementDiscovered() {
+        discovered.incrementAndGet();
+    }
+
+    void incrementFragmentsRead() {
+        fragmentsRead.incrementAndGet();
+    }
+
+    void incrementReadFailures() {
+        readFailures.incrementAndGet();
+    }
+
+    void incrementSkipped() {
+        skipped.incrementAndGet();
+    }
+
+    void incrementDocumentsQueued() {
+        documentsQueued.incrementAndGet();
+    }
+
+    void incrementQueueFullWaits() {
+        queueFullWaits.incrementAndGet();
+    }
+
+    void incrementUploadsSucceeded() {
+        uploadsSucceeded.incrementAndGet();
+    }
+
+    void incrementUploadsFailed() {
+        uploadsFailed.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of content fragment paths handed to the read stage.
+     */
+    public int getDiscovered() {
+        return discovered.get();
+    }
+
+    /**
+     * Returns the number of fragments successfully read and serialized.
+     */
+    public int getFragmentsRead() {
+        return fragmentsRead.get();
+    }
+
+    /**
+     * Returns the number of fragments that could not be read or serialized.
+     */
+    public int getReadFailures() {
+        return readFailures.get();
+    }
+
+    /**
+     * Returns the number of fragment/variation pairs skipped because they did not change
+     * since the last incremental export.
+     */
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Returns the number of documents handed to the upload stage.
+     */
+    public int getDocumentsQueued() {
+        return documentsQueued.get();
+    }
+
+    /**
+     * Returns how often a read worker had to wait because the upload queue was full.
+     */
+    public int getQueueFullWaits() {
+        return queueFullWaits.get();
+    }
+
+    public int getUploadsSucceeded() {
+        return uploadsSucceeded.get();
+    }
+
+    public int getUploadsFailed() {
+        return uploadsFailed.get();
+    }
+
+    /**
+     * Returns the total number of successfully uploaded documents.
+     */
+    public int getSuccessCount() {
+        return uploadsSucceeded.get();
+    }
+
+    /**
+     * Returns the total number of failures: failed uploads plus fragments that could not be read.
+     */
+    public int getFailCount() {
+        return uploadsFailed.get() + readFailures.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ExportStats{discovered=" + getDiscovered() + ", read=" + getFragmentsRead()
+                + ", readFailures=" + getReadFailures() + ", skipped=" + getSkipped()
+                + ", queued=" + getDocumentsQueued()
+                + ", uploaded=" + getUploadsSucceeded() + ", uploadFailures=" + getUploadsFailed() + "}";
+    }
+}
@@ -0,0 +1,100 @@
+package com.adobe.cf_rag.export;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks which discovered fragment paths an export has finished, i.e. read and uploaded all
+ * of their documents (or failed), and reports the last path before which every path in
+ * discovery order is finished. Workers complete paths out of order; only that contiguous
+ * prefix is safe to skip when an interrupted export resumes.
+ */
+final class ExportWatermark {
+
+    private final Map<String, Long> sequences = new HashMap<>();
+    private final Map<Long, String> paths = new HashMap<>();
+    private final Map<Long, Integer> pendingItems = new HashMap<>();
+    private final Set<Long> finished = new HashSet<>();
+    private long nextSequence;
+    private long completed;
+    private String completedPath;
+    private boolean stopped;
+
+    /**
+     * Registers a path in discovery order.
+     */
+    synchronized void discovered(String path) {
+        if (stopped) {
+            return;
+        }
+        long sequence = nextSequence++;
+        sequences.put(path, sequence);
+        paths.put(sequence, path);
+    }
+
+    /**
+     * Records how many documents of a path were handed to the upload stage; zero finishes the
+     * path right away, e.g. when it was skipped or could not be read.
+     */
+    synchronized void read(String path, int items) {
+        Long sequence = sequences.get(path);
+        if (sequence == null || stopped) {
+            return;
+        }
+        if (items > 0) {
+            pendingItems.put(sequence, items);
+        } else {
+            finish(sequence);
+        }
+    }
+
+    /**
+     * Records that one document of a path was uploaded or failed to upload.
+     */
+    synchronized void uploaded(String path) {
+        Long sequence = sequences.get(path);
+        if (sequence == null || stopped) {
+            return;
+        }
+        Integer remaining = pendingItems.get(sequence);
+        if (remaining == null || remaining <= 1) {
+            pendingItems.remove(sequence);
+            finish(sequence);
+        } else {
+            pendingItems.put(sequence, remaining - 1);
+        }
+    }
+
+    /**
+     * Freezes the watermark when an export is interrupted, so uploads that fail because their
+     * workers are being stopped do not count as finished.
+     */
+    synchronized void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Returns the number of paths, from the first one on, that are all finished.
+     */
+    synchronized long getCompleted() {
+        return completed;
+    }
+
+    /**
+     * Returns the last path of the finished prefix, or null if the first path is not finished yet.
+     */
+    synchronized String getCompletedPath() {
+        return completedPath;
+    }
+
+    private void finish(long sequence) {
+        finished.add(sequence);
+        while (finished.remove(completed)) {
+            completedPath = paths.remove(completed);
+            sequences.remove(completedPath);
+            completed++;
+        }
+    }
+}
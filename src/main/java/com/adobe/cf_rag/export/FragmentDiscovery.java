@@ -0,0 +1,141 @@
+package com.adobe.cf_rag.export;
+
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.Query;
+import javax.jcr.query.RowIterator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds the content fragment assets below a root path with a JCR-SQL2 query. Results are ordered
+ * by path, so a run can be resumed after the last path it completed.
+ *
+ * One query is run per discovery and its rows are read lazily, a window of a fixed page size at
+ * a time, each read only when the previous one is used up: the first paths are available as soon
+ * as the first window is, and the paths held by discovery do not depend on the number of
+ * fragments. A resumed run starts after the checkpointed path with a lower bound on the path in
+ * that same single query; the bound is not backed by an index, so it is never repeated per
+ * window. Whether the repository itself streams the rows depends on its indexes: without an
+ * index that returns the fragments in path order, Oak sorts the matching paths in memory once
+ * before the first row. QueryBuilder has no lower bound on the path, hence the plain JCR query.
+ * Totals are not computed.
+ */
+public class FragmentDiscovery {
+
+    private final int pageSize;
+
+    public FragmentDiscovery(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Queries all content fragments below the given root path.
+     */
+    public FragmentPaths find(Session session, String rootPath) {
+        return find(session, rootPath, null, 0);
+    }
+
+    /**
+     * Queries the content fragments below the given root path that come after a path.
+     *
+     * @param afterPath path to start after, in path order, or null to start at the first fragment
+     * @param skipped   number of fragments up to and including {@code afterPath}, counted in the total
+     */
+    public FragmentPaths find(Session session, String rootPath, String afterPath, long skipped) {
+        return new FragmentPaths(session, rootPath, afterPath, skipped);
+    }
+
+    private RowIterator query(Session session, String rootPath, String afterPath) {
+        StringBuilder statement = new StringBuilder("SELECT a.[jcr:path] FROM [dam:Asset] AS a")
+                .append(" WHERE ISDESCENDANTNODE(a, [").append(rootPath.replace("]", "]]")).append("])")
+                .append(" AND a.[jcr:content/contentFragment] = 'true'");
+        if (afterPath != null) {
+            statement.append(" AND a.[jcr:path] > $after");
+        }
+        statement.append(" ORDER BY a.[jcr:path]");
+
+        try {
+            Query query = session.getWorkspace().getQueryManager().createQuery(statement.toString(), Query.JCR_SQL2);
+            if (afterPath != null) {
+                // compared as a path, like the ordering, not as a string
+                query.bindValue("after", session.getValueFactory().createValue(afterPath, PropertyType.PATH));
+            }
+            return query.execute().getRows();
+        } catch (RepositoryException e) {
+            throw new IllegalStateException("Unable to query content fragments below " + rootPath, e);
+        }
+    }
+
+    /**
+     * The paths of the found fragments, read from the query window by window while they are
+     * iterated.
+     */
+    public class FragmentPaths implements Iterator<String> {
+
+        private final Session session;
+        private final String rootPath;
+        private final String afterPath;
+        private RowIterator rows;
+        private long count;
+        private Iterator<String> window = Collections.emptyIterator();
+        private boolean lastWindow;
+        private volatile long total = -1;
+
+        private FragmentPaths(Session session, String rootPath, String afterPath, long skipped) {
+            this.session = session;
+            this.rootPath = rootPath;
+            this.afterPath = afterPath;
+            this.count = skipped;
+        }
+
+        /**
+         * Returns the total number of matches including the skipped ones, or -1 until the last
+         * window was read.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!window.hasNext() && !lastWindow) {
+                if (rows == null) {
+                    rows = query(session, rootPath, afterPath);
+                }
+                List<String> paths = readWindow();
+                count += paths.size();
+                lastWindow = !rows.hasNext();
+                if (lastWindow) {
+                    total = count;
+                }
+                window = paths.iterator();
+            }
+            return window.hasNext();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return window.next();
+        }
+
+        private List<String> readWindow() {
+            List<String> paths = new ArrayList<>(pageSize);
+            try {
+                while (paths.size() < pageSize && rows.hasNext()) {
+                    paths.add(rows.nextRow().getPath());
+                }
+            } catch (RepositoryException e) {
+                throw new IllegalStateException("Unable to read content fragments below " + rootPath, e);
+            }
+            return paths;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.adobe.cf_rag.export;
+
+import com.adobe.cf_rag.docstore.api.model.DocumentContent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * The values of one content fragment variation, captured by a read worker and
+ * written as JSON straight into an output stream. No JSON tree, String or byte[]
+ * copy of the document is created; the element values are the ones returned by
+ * the Content Fragment API.
+ */
+class FragmentSnapshot implements DocumentContent {
+
+    private final JsonFactory jsonFactory;
+    private final String title;
+    private final String name;
+    private final String variation;
+    private final Map<String, Object> elements;
+
+    FragmentSnapshot(JsonFactory jsonFactory, String title, String name, String variation,
+                     Map<String, Object> elements) {
+        this.jsonFactory = jsonFactory;
+        this.title = title;
+        this.name = name;
+        this.variation = variation;
+        this.elements = elements;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        try (JsonGenerator gen = jsonFactory.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            gen.writeStringField("title", title);
+            gen.writeStringField("name", name);
+            gen.writeStringField("variation", variation);
+
+            gen.writeObjectFieldStart("elements");
+            for (Map.Entry<String, Object> element : elements.entrySet()) {
+                gen.writeFieldName(element.getKey());
+                writeValue(gen, element.getValue());
+            }
+            gen.writeEndObject();
+
+            gen.writeEndObject();
+        }
+    }
+
+    @Override
+    public long estimatedSize() {
+        long size = 64 + length(title) + length(name) + length(variation);
+        for (Map.Entry<String, Object> element : elements.entrySet()) {
+            size += 8 + DocumentContent.utf8Length(element.getKey()) + estimateValue(element.getValue());
+        }
+        return size;
+    }
+
+    private static void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String) {
+            gen.writeString((String) value);
+        } else if (value instanceof Integer) {
+            gen.writeNumber((Integer) value);
+        } else if (value instanceof Long) {
+            gen.writeNumber((Long) value);
+        } else if (value instanceof Double) {
+            gen.writeNumber((Double) value);
+        } else if (value instanceof Float) {
+            gen.writeNumber((Float) value);
+        } else if (value instanceof Boolean) {
+            gen.writeBoolean((Boolean) value);
+        } else if (value.getClass().isArray()) {
+            gen.writeStartArray();
+            Object[] arr = (Object[]) value;
+            for (Object item : arr) {
+                if (item instanceof String) {
+                    gen.writeString((String) item);
+                } else if (item instanceof Integer) {
+                    gen.writeNumber((Integer) item);
+                } else if (item instanceof Long) {
+                    gen.writeNumber((Long) item);
+                } else if (item instanceof Double) {
+                    gen.writeNumber((Double) item);
+                } else if (item instanceof Boolean) {
+                    gen.writeBoolean((Boolean) item);
+                } else if (item != null) {
+                    gen.writeString(item.toString());
+                }
+            }
+            gen.writeEndArray();
+        } else {
+            gen.writeString(value.toString());
+        }
+    }
+
+    private static long estimateValue(Object value) {
+        if (value instanceof String) {
+            return DocumentContent.utf8Length((String) value) + 2;
+        } else if (value instanceof Object[]) {
+            long size = 2;
+            for (Object item : (Object[]) value) {
+                size += item instanceof String ? DocumentContent.utf8Length((String) item) + 3 : 8;
+            }
+            return size;
+        }
+        return 16;
+    }
+
+    private static long length(String s) {
+        return s != null ? DocumentContent.utf8Length(s) : 4;
+    }
+}
@@ -1,33 +1,47 @@
 package com.adobe.cf_rag.servlets;
 
-import com.adobe.cq.dam.cfm.ContentElement;
-import com.adobe.cq.dam.cfm.ContentFragment;
-import com.adobe.cq.dam.cfm.ContentVariation;
-import com.adobe.cq.dam.cfm.VariationDef;
-import com.adobe.cq.dam.cfm.FragmentData;
-import com.day.cq.search.PredicateGroup;
-import com.day.cq.search.Query;
-import com.day.cq.search.QueryBuilder;
-import com.day.cq.search.result.Hit;
-import com.day.cq.search.result.SearchResult;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.adobe.cf_rag.docstore.api.DocumentCursor;
+import com.adobe.cf_rag.docstore.api.DocumentIndex;
 import com.adobe.cf_rag.docstore.api.DocumentStoreException;
 import com.adobe.cf_rag.docstore.api.DocumentStoreService;
 import com.adobe.cf_rag.docstore.api.model.Collection;
+import com.adobe.cf_rag.docstore.api.model.IndexedDocument;
 import com.adobe.cf_rag.docstore.api.model.InferenceResult;
 import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
-import com.adobe.cf_rag.docstore.api.model.UploadResult;
+import com.adobe.cf_rag.docstore.cache.CacheStats;
+import com.adobe.cf_rag.docstore.metrics.DocumentStoreMetrics;
+import com.adobe.cf_rag.docstore.metrics.InstrumentedDocumentStoreService;
+import com.adobe.cf_rag.docstore.metrics.LatencySnapshot;
+import com.adobe.cf_rag.docstore.metrics.OperationStats;
+import com.adobe.cf_rag.docstore.yukon.AdaptiveLimiter;
+import com.adobe.cf_rag.docstore.yukon.CircuitBreaker;
+import com.adobe.cf_rag.docstore.yukon.RequestHedger;
+import com.adobe.cf_rag.docstore.yukon.TransportMetrics;
 import com.adobe.cf_rag.docstore.yukon.YukonConfig;
 import com.adobe.cf_rag.docstore.yukon.YukonDocumentStoreService;
+import com.adobe.cf_rag.export.ContentFragmentSerializer;
+import com.adobe.cf_rag.export.ContentFragmentSync;
+import com.adobe.cf_rag.export.ExportJob;
+import com.adobe.cf_rag.export.ExportJobManager;
+import com.adobe.cf_rag.export.ExportManifest;
+import com.adobe.cf_rag.export.ExportPipeline;
+import com.adobe.cf_rag.export.ExportStats;
+import com.adobe.cf_rag.export.FragmentDiscovery;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
-import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ResourceChangeListener;
 import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.metatype.annotations.AttributeDefinition;
@@ -38,9 +52,15 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import javax.jcr.Session;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
+import java.io.File;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
 import java.util.*;
 
 /**
@@ -48,14 +68,24 @@ import java.util.*;
  * Uses the DocumentStoreService abstraction layer.
  *
  * Endpoint:
- *   GET /bin/cf-export?rootPath=...&collectionId=...&variation=...
+ *   GET /bin/cf-export?rootPath=...&collectionId=...&variation=...&incremental=...
  *
  * Actions:
  *   - (default): Upload content fragments to collection
+ *   - action=submitExport&rootPath=...&collectionId=...&variation=...&incremental=...: Run the upload
+ *     as a background job and return its job ID right away
+ *   - action=exportStatus&jobId=...: Progress, throughput and ETA of an export job (all jobs without jobId)
  *   - action=createCollection&name=...&description=...: Create a new collection
  *   - action=askQuestion&collectionId=...&question=...: Ask a question about the collection
+ *     (add stream=true to receive the answer as server-sent events while it is generated,
+ *     fresh=true to bypass the answer cache)
  *   - action=searchDocuments&collectionId=...&query=...&maxResults=...: Search for relevant documents
  *   - action=listDocuments&collectionId=...: List all documents in a collection
+ *     (add stream=true to write the list page by page as it is fetched)
+ *   - action=lookupDocuments&collectionId=...&documentId=...|path=...&recursive=...: Look up documents
+ *     in the local collection index
+ *   - action=metrics: Latency percentiles, error counts and transfer statistics of the document store
+ *     (also exposed over JMX as com.adobe.cf_rag:type=DocumentStoreMetrics)
  */
 @Component(
         service = Servlet.class,
@@ -68,6 +98,8 @@ import java.util.*;
 public class CfRagServlet extends SlingSafeMethodsServlet {
 
     private static final Logger LOG = LoggerFactory.getLogger(CfRagServlet.class);
+    private static final int LIST_FLUSH_INTERVAL = 100;
+    private static final int DEFAULT_LOOKUP_LIMIT = 1000;
 
     @ObjectClassDefinition(
             name = "CF RAG Servlet Configuration",
@@ -83,33 +115,357 @@ public class CfRagServlet extends SlingSafeMethodsServlet {
         @AttributeDefinition(name = "Authorization Code", description = "IMS permanent authorization code")
         String authorizationCode() default "";
 
-        @AttributeDefinition(name = "IMS Host", description = "IMS host for token exchange")
+        @AttributeDefinition(name = "IMS Host",
+                description = "IMS host for token exchange (https is assumed unless a scheme is given)")
         String imsHost() default "ims-na1.adobelogin.com";
 
         @AttributeDefinition(name = "Yukon Base URL", description = "Base URL for Yukon API")
         String yukonBaseUrl() default "https://yukon.adobe.io";
+
+        @AttributeDefinition(name = "Export Reader Threads",
+                description = "Number of workers reading and serializing content fragments during export")
+        int exportReaderThreads() default 4;
+
+        @AttributeDefinition(name = "Export Uploader Threads",
+                description = "Number of workers uploading serialized documents during export; "
+                        + "the upload concurrency limits decide how many of them send at once")
+        int exportUploaderThreads() default 16;
+
+        @AttributeDefinition(name = "Export Queue Capacity",
+                description = "Maximum number of items buffered between export stages")
+        int exportQueueCapacity() default 100;
+
+        @AttributeDefinition(name = "Export Upload Batch Size",
+                description = "Maximum number of documents an upload worker sends per batch upload call")
+        int exportUploadBatchSize() default 20;
+
+        @AttributeDefinition(name = "Transport", description = "HTTP transport: httpclient (pooled, HTTP/2) or urlconnection")
+        String transport() default "httpclient";
+
+        @AttributeDefinition(name = "Max Connections", description = "Maximum concurrent HTTP exchanges with IMS and Yukon")
+        int maxConnections() default 32;
+
+        @AttributeDefinition(name = "Connect Timeout", description = "Connect timeout in milliseconds")
+        int connectTimeout() default 15000;
+
+        @AttributeDefinition(name = "Request Timeout", description = "Read timeout in milliseconds for non-streaming calls")
+        int requestTimeout() default 60000;
+
+        @AttributeDefinition(name = "Inference Timeout", description = "Read timeout in milliseconds for streaming inference calls")
+        int inferenceTimeout() default 120000;
+
+        @AttributeDefinition(name = "HTTP/2", description = "Negotiate HTTP/2 with the pooled transport")
+        boolean http2Enabled() default true;
+
+        @AttributeDefinition(name = "Async Threads", description = "Worker threads for asynchronous document store calls")
+        int asyncThreads() default 16;
+
+        @AttributeDefinition(name = "Search Cache Size", description = "Maximum number of cached search results (0 disables)")
+        int searchCacheSize() default 500;
+
+        @AttributeDefinition(name = "Search Cache TTL", description = "Time in milliseconds a cached search result stays valid")
+        long searchCacheTtl() default 300000L;
+
+        @AttributeDefinition(name = "Answer Cache Size", description = "Maximum number of cached answers (0 disables)")
+        int answerCacheSize() default 1000;
+
+        @AttributeDefinition(name = "Answer Cache Max Characters",
+                description = "Maximum total length of all answers held in memory")
+        long answerCacheMaxChars() default 5000000L;
+
+        @AttributeDefinition(name = "Answer Cache TTL", description = "Time in milliseconds a cached answer stays valid")
+        long answerCacheTtl() default 3600000L;
+
+        @AttributeDefinition(name = "Answer Cache Directory",
+                description = "Directory of the disk-backed answer cache tier (empty: memory only)")
+        String answerCacheDirectory() default "";
+
+        @AttributeDefinition(name = "Answer Cache Disk Size",
+                description = "Maximum total size in bytes of the disk answer cache tier; the oldest files are deleted beyond it")
+        long answerCacheDiskMaxBytes() default 268435456L;
+
+        @AttributeDefinition(name = "List Parallelism",
+                description = "Number of document listing pages fetched concurrently")
+        int listParallelism() default 8;
+
+        @AttributeDefinition(name = "List Page Retries",
+                description = "Retries of a failed document listing page before the listing fails")
+        int listPageRetries() default 3;
+
+        @AttributeDefinition(name = "Upload Retries",
+                description = "Retries of an upload that failed with a transport error, timeout, throttling or server error")
+        int uploadRetries() default 3;
+
+        @AttributeDefinition(name = "Retry Base Delay",
+                description = "Milliseconds before the first retry of a Yukon call; doubles with every retry")
+        long retryBaseDelay() default 250L;
+
+        @AttributeDefinition(name = "Retry Max Delay",
+                description = "Longest wait in milliseconds before a retry, including waits asked for by Retry-After")
+        long retryMaxDelay() default 30000L;
+
+        @AttributeDefinition(name = "Upload Concurrency Min",
+                description = "Lowest number of uploads in flight the adaptive limiter backs off to")
+        int uploadConcurrencyMin() default 1;
+
+        @AttributeDefinition(name = "Upload Concurrency Max",
+                description = "Highest number of uploads in flight the adaptive limiter grows to")
+        int uploadConcurrencyMax() default 16;
+
+        @AttributeDefinition(name = "Breaker Window Size",
+                description = "Number of recent inference calls a circuit breaker judges Yukon by")
+        int breakerWindowSize() default 20;
+
+        @AttributeDefinition(name = "Breaker Minimum Calls",
+                description = "Calls a circuit breaker must have seen before it may open")
+        int breakerMinimumCalls() default 10;
+
+        @AttributeDefinition(name = "Breaker Failure Rate Threshold",
+                description = "Percentage of failed calls (transport errors, timeouts, 408/429/5xx) that opens a circuit breaker")
+        int breakerFailureRateThreshold() default 50;
+
+        @AttributeDefinition(name = "Breaker Slow Call Rate Threshold",
+                description = "Percentage of slow calls that opens a circuit breaker")
+        int breakerSlowCallRateThreshold() default 50;
+
+        @AttributeDefinition(name = "Breaker Open Duration",
+                description = "Milliseconds an open circuit breaker fails calls fast before it lets a probe through")
+        long breakerOpenDuration() default 30000L;
+
+        @AttributeDefinition(name = "Ask Slow Call Threshold",
+                description = "Milliseconds above which an answer counts as slow for the ask circuit breaker")
+        long askSlowCallThreshold() default 60000L;
+
+        @AttributeDefinition(name = "Search Slow Call Threshold",
+                description = "Milliseconds above which a search counts as slow for the search circuit breaker")
+        long searchSlowCallThreshold() default 10000L;
+
+        @AttributeDefinition(name = "Stale Result TTL",
+                description = "Milliseconds answers and search results are kept to be served, flagged as stale, when Yukon fails")
+        long staleResultTtl() default 86400000L;
+
+        @AttributeDefinition(name = "Hedge Enabled",
+                description = "Send a duplicate of an inference request that has not started answering within the hedge delay")
+        boolean hedgeEnabled() default false;
+
+        @AttributeDefinition(name = "Hedge Percentile",
+                description = "Percentile of recent times to the first response byte after which a request is hedged")
+        double hedgePercentile() default 95.0;
+
+        @AttributeDefinition(name = "Hedge Budget Percent",
+                description = "Hedged requests allowed per hundred inference requests")
+        double hedgeBudgetPercent() default 5.0;
+
+        @AttributeDefinition(name = "Hedge Min Delay",
+                description = "Shortest hedge delay in milliseconds")
+        long hedgeMinDelay() default 20L;
+
+        @AttributeDefinition(name = "Max Batch Documents",
+                description = "Maximum number of documents in one Yukon multipart upload request")
+        int maxBatchDocuments() default 50;
+
+        @AttributeDefinition(name = "Max Batch Bytes",
+                description = "Maximum combined document size in one Yukon multipart upload request")
+        long maxBatchBytes() default 8388608L;
+
+        @AttributeDefinition(name = "Manifest Directory",
+                description = "Directory for incremental export manifests (empty: bundle data area)")
+        String manifestDirectory() default "";
+
+        @AttributeDefinition(name = "Export Discovery Page Size",
+                description = "Number of content fragments read from the discovery query per window")
+        int exportDiscoveryPageSize() default 1000;
+
+        @AttributeDefinition(name = "Export Job Directory",
+                description = "Directory for export job checkpoints (empty: bundle data area)")
+        String exportJobDirectory() default "";
+
+        @AttributeDefinition(name = "Export Checkpoint Interval",
+                description = "Milliseconds between checkpoints of a running export job")
+        long exportCheckpointInterval() default 10000L;
+
+        @AttributeDefinition(name = "Sync Root Paths",
+                description = "Paths below which content fragment edits are uploaded as they happen (empty disables)")
+        String[] syncRootPaths() default {};
+
+        @AttributeDefinition(name = "Sync Collection ID", description = "Collection that edited content fragments are uploaded to")
+        String syncCollectionId() default "";
+
+        @AttributeDefinition(name = "Sync Variation", description = "Variation to keep in sync, or \"all\"")
+        String syncVariation() default "master";
+
+        @AttributeDefinition(name = "Sync Debounce",
+                description = "Milliseconds a content fragment must be unchanged before it is uploaded")
+        long syncDebounce() default 2000L;
+
+        @AttributeDefinition(name = "Index Refresh Interval",
+                description = "Milliseconds between refreshes of the local collection indexes from Yukon (0 disables)")
+        long indexRefreshInterval() default 900000L;
     }
 
-    private DocumentStoreService documentStore;
+    // replaced on reconfiguration while requests are served
+    private volatile DocumentStoreService documentStore;
+    private volatile YukonDocumentStoreService yukonStore;
+    private volatile DocumentStoreMetrics metrics;
+    private volatile ExportPipeline exportPipeline;
+    private volatile FragmentDiscovery fragmentDiscovery;
+    private volatile ExportJobManager exportJobs;
+    private ContentFragmentSync fragmentSync;
+    private ServiceRegistration<ResourceChangeListener> fragmentSyncRegistration;
+    private volatile File manifestDirectory;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ContentFragmentSerializer serializer = new ContentFragmentSerializer(objectMapper);
 
     @Reference
-    private QueryBuilder queryBuilder;
+    private ResourceResolverFactory resolverFactory;
 
     @Activate
     @Modified
-    protected void activate(Config config) {
+    protected void activate(Config config, BundleContext bundleContext) {
         YukonConfig yukonConfig = YukonConfig.builder()
                 .clientId(config.clientId())
                 .clientSecret(config.clientSecret())
                 .authorizationCode(config.authorizationCode())
                 .imsHost(config.imsHost())
                 .yukonBaseUrl(config.yukonBaseUrl())
+                .maxBatchDocuments(config.maxBatchDocuments())
+                .maxBatchBytes(config.maxBatchBytes())
+                .transport(config.transport())
+                .maxConnections(config.maxConnections())
+                .connectTimeout(config.connectTimeout())
+                .requestTimeout(config.requestTimeout())
+                .inferenceTimeout(config.inferenceTimeout())
+                .http2Enabled(config.http2Enabled())
+                .asyncThreads(config.asyncThreads())
+                .searchCacheSize(config.searchCacheSize())
+                .searchCacheTtl(config.searchCacheTtl())
+                .answerCacheSize(config.answerCacheSize())
+                .answerCacheMaxChars(config.answerCacheMaxChars())
+                .answerCacheTtl(config.answerCacheTtl())
+                .answerCacheDirectory(config.answerCacheDirectory())
+                .answerCacheDiskMaxBytes(config.answerCacheDiskMaxBytes())
+                .listParallelism(config.listParallelism())
+                .listPageRetries(config.listPageRetries())
+                .uploadRetries(config.uploadRetries())
+                .retryBaseDelay(config.retryBaseDelay())
+                .retryMaxDelay(config.retryMaxDelay())
+                .uploadConcurrencyMin(config.uploadConcurrencyMin())
+                .uploadConcurrencyMax(config.uploadConcurrencyMax())
+                .breakerWindowSize(config.breakerWindowSize())
+                .breakerMinimumCalls(config.breakerMinimumCalls())
+                .breakerFailureRateThreshold(config.breakerFailureRateThreshold())
+                .breakerSlowCallRateThreshold(config.breakerSlowCallRateThreshold())
+                .breakerOpenDuration(config.breakerOpenDuration())
+                .askSlowCallThreshold(config.askSlowCallThreshold())
+                .searchSlowCallThreshold(config.searchSlowCallThreshold())
+                .staleResultTtl(config.staleResultTtl())
+                .hedgeEnabled(config.hedgeEnabled())
+                .hedgePercentile(config.hedgePercentile())
+                .hedgeBudgetPercent(config.hedgeBudgetPercent())
+                .hedgeMinDelay(config.hedgeMinDelay())
+                .indexRefreshInterval(config.indexRefreshInterval())
                 .build();
-        this.documentStore = new YukonDocumentStoreService(yukonConfig);
+        stopFragmentSync();
+        if (this.exportJobs != null) {
+            // checkpoints the running job, which resumes on the new store below
+            this.exportJobs.close();
+        }
+        // requests in flight keep using the previous store, so it is closed only once replaced
+        DocumentStoreService previousStore = this.documentStore;
+        YukonDocumentStoreService store = new YukonDocumentStoreService(yukonConfig);
+        this.metrics = store.getMetrics();
+        this.yukonStore = store;
+        this.documentStore = new InstrumentedDocumentStoreService(store, metrics);
+        registerMetricsMBean();
+        this.exportPipeline = new ExportPipeline(documentStore, serializer,
+                config.exportReaderThreads(), config.exportUploaderThreads(), config.exportQueueCapacity(),
+                config.exportUploadBatchSize());
+        this.manifestDirectory = config.manifestDirectory().isEmpty()
+                ? bundleContext.getDataFile("export-manifests")
+                : new File(config.manifestDirectory());
+        this.fragmentDiscovery = new FragmentDiscovery(config.exportDiscoveryPageSize());
+        File jobDirectory = config.exportJobDirectory().isEmpty()
+                ? bundleContext.getDataFile("export-jobs")
+                : new File(config.exportJobDirectory());
+        this.exportJobs = new ExportJobManager(exportPipeline, fragmentDiscovery, resolverFactory, jobDirectory,
+                manifestDirectory, objectMapper, config.exportCheckpointInterval());
+        exportJobs.resumeJobs();
+        startFragmentSync(config, bundleContext);
+        if (previousStore != null) {
+            previousStore.close();
+        }
         LOG.info("CfRagServlet configured with {} provider", documentStore.getProviderName());
     }
 
+    @Deactivate
+    protected void deactivate() {
+        stopFragmentSync();
+        if (exportJobs != null) {
+            exportJobs.close();
+            exportJobs = null;
+        }
+        unregisterMetricsMBean();
+        if (documentStore != null) {
+            documentStore.close();
+            documentStore = null;
+        }
+    }
+
+    /**
+     * Registers the listener that uploads edited content fragments, if sync is configured.
+     */
+    private void startFragmentSync(Config config, BundleContext bundleContext) {
+        String[] rootPaths = config.syncRootPaths();
+        if (rootPaths == null || rootPaths.length == 0 || config.syncCollectionId().isEmpty()) {
+            return;
+        }
+        fragmentSync = new ContentFragmentSync(documentStore, serializer, resolverFactory,
+                config.syncCollectionId(), config.syncVariation(), config.syncDebounce());
+        Hashtable<String, Object> properties = new Hashtable<>();
+        properties.put(ResourceChangeListener.PATHS, rootPaths);
+        properties.put(ResourceChangeListener.CHANGES, new String[]{"ADDED", "CHANGED"});
+        fragmentSyncRegistration = bundleContext.registerService(ResourceChangeListener.class, fragmentSync, properties);
+        LOG.info("Syncing content fragment edits below {} to collection {}",
+                Arrays.toString(rootPaths), config.syncCollectionId());
+    }
+
+    private void stopFragmentSync() {
+        if (fragmentSyncRegistration != null) {
+            fragmentSyncRegistration.unregister();
+            fragmentSyncRegistration = null;
+        }
+        if (fragmentSync != null) {
+            fragmentSync.close();
+            fragmentSync = null;
+        }
+    }
+
+    /**
+     * Publishes the metrics of the current document store over JMX, replacing those of a
+     * previous configuration.
+     */
+    private void registerMetricsMBean() {
+        unregisterMetricsMBean();
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(metrics, new ObjectName(DocumentStoreMetrics.OBJECT_NAME));
+        } catch (JMException e) {
+            LOG.warn("Unable to register document store metrics MBean: {}", e.getMessage());
+        }
+    }
+
+    private void unregisterMetricsMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(DocumentStoreMetrics.OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOG.warn("Unable to unregister document store metrics MBean: {}", e.getMessage());
+        }
+    }
+
     @Override
     protected void doGet(@Nonnull SlingHttpServletRequest request, @Nonnull SlingHttpServletResponse response)
             throws ServletException, IOException {
@@ -125,6 +481,14 @@ public class CfRagServlet extends SlingSafeMethodsServlet {
                 handleSearchDocuments(request, response);
             } else if ("listDocuments".equals(action)) {
                 handleListDocuments(request, response);
+            } else if ("lookupDocuments".equals(action)) {
+                handleLookupDocuments(request, response);
+            } else if ("metrics".equals(action)) {
+                handleMetrics(response);
+            } else if ("submitExport".equals(action)) {
+                handleSubmitExport(request, response);
+            } else if ("exportStatus".equals(action)) {
+                handleExportStatus(request, response);
             } else {
                 handleUpload(request, response);
             }
@@ -175,18 +539,64 @@ public class CfRagServlet extends SlingSafeMethodsServlet {
                 ? Arrays.asList(documentIdsParam.split(","))
                 : null;
 
-        InferenceResult inferenceResult = documentStore.askQuestion(collectionId, question, documentIds);
+        if ("true".equalsIgnoreCase(request.getParameter("stream"))) {
+            streamAnswer(response, collectionId, question, documentIds);
+            return;
+        }
+
+        boolean fresh = "true".equalsIgnoreCase(request.getParameter("fresh"));
+        InferenceResult inferenceResult = documentStore.askQuestion(collectionId, question, documentIds, fresh);
 
         ObjectNode result = objectMapper.createObjectNode();
         result.put("question", inferenceResult.getQuestion());
         result.put("collectionId", inferenceResult.getCollectionId());
         result.put("answer", inferenceResult.getAnswer());
+        result.put("stale", inferenceResult.isStale());
 
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         objectMapper.writeValue(response.getWriter(), result);
     }
 
+    /**
+     * Relays the answer as server-sent events: one "chunk" event per generated text fragment,
+     * flushed immediately, then a "complete" (or "error") event. If the client goes away,
+     * writing fails and the upstream inference stream is aborted.
+     */
+    private void streamAnswer(SlingHttpServletResponse response, String collectionId, String question,
+                              List<String> documentIds) throws IOException, DocumentStoreException {
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        PrintWriter writer = response.getWriter();
+
+        InferenceResult inferenceResult = documentStore.streamAnswer(collectionId, question, documentIds, text -> {
+            ObjectNode chunk = objectMapper.createObjectNode();
+            chunk.put("text", text);
+            writeSseEvent(writer, "chunk", chunk);
+        });
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("question", inferenceResult.getQuestion());
+        result.put("collectionId", inferenceResult.getCollectionId());
+        if (inferenceResult.isSuccess()) {
+            result.put("answer", inferenceResult.getAnswer());
+            result.put("stale", inferenceResult.isStale());
+            writeSseEvent(writer, "complete", result);
+        } else {
+            result.put("errorMessage", inferenceResult.getErrorMessage());
+            writeSseEvent(writer, "error", result);
+        }
+    }
+
+    private void writeSseEvent(PrintWriter writer, String event, ObjectNode data) throws IOException {
+        writer.write("event: " + event + "\ndata: " + objectMapper.writeValueAsString(data) + "\n\n");
+        writer.flush();
+        if (writer.checkError()) {
+            throw new IOException("Client disconnected");
+        }
+    }
+
     private void handleSearchDocuments(SlingHttpServletRequest request, SlingHttpServletResponse response)
             throws IOException, DocumentStoreException {
         String collectionId = request.getParameter("collectionId");
@@ -219,6 +629,7 @@ public class CfRagServlet extends SlingSafeMethodsServlet {
         result.put("query", searchResult.getQuery());
         result.put("collectionId", searchResult.getCollectionId());
         result.put("success", searchResult.isSuccess());
+        result.put("stale", searchResult.isStale());
 
         if (searchResult.isSuccess()) {
             ArrayNode documents = result.putArray("documents");
@@ -247,6 +658,11 @@ public class CfRagServlet extends SlingSafeMethodsServlet {
             return;
         }
 
+        if ("true".equalsIgnoreCase(request.getParameter("stream"))) {
+            streamDocumentList(response, collectionId);
+            return;
+        }
+
         ListDocumentsResult listResult = documentStore.listDocuments(collectionId);
 
         ObjectNode result = objectMapper.createObjectNode();
@@ -271,8 +687,250 @@ public class CfRagServlet extends SlingSafeMethodsServlet {
         objectMapper.writeValue(response.getWriter(), result);
     }
 
+    /**
+     * Writes the document list with a JsonGenerator while the cursor pulls pages, flushing after
+     * every page, so memory use does not depend on the collection size. Once output has started
+     * a listing failure can no longer change the status code; it is reported in the trailing
+     * "success" and "errorMessage" fields instead.
+     */
+    private void streamDocumentList(SlingHttpServletResponse response, String collectionId)
+            throws IOException, DocumentStoreException {
+        try (DocumentCursor cursor = documentStore.openDocumentCursor(collectionId)) {
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            PrintWriter writer = response.getWriter();
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+
+            generator.writeStartObject();
+            generator.writeStringField("collectionId", collectionId);
+            generator.writeNumberField("total", cursor.getTotal());
+            generator.writeArrayFieldStart("documents");
+            int count = 0;
+            String errorMessage = null;
+            try {
+                while (cursor.hasNext()) {
+                    ListDocumentsResult.DocumentInfo doc = cursor.next();
+                    generator.writeStartObject();
+                    generator.writeStringField("documentId", doc.getDocumentId());
+                    if (doc.getDocumentPath() != null) {
+                        generator.writeStringField("documentPath", doc.getDocumentPath());
+                    }
+                    generator.writeEndObject();
+                    if (++count % LIST_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                        if (writer.checkError()) {
+                            throw new IOException("Client disconnected");
+                        }
+                    }
+                }
+            } catch (DocumentStoreException e) {
+                LOG.error("Listing of collection {} failed after {} documents", collectionId, count, e);
+                errorMessage = e.getMessage();
+            }
+            generator.writeEndArray();
+            generator.writeNumberField("count", count);
+            generator.writeBooleanField("success", errorMessage == null);
+            if (errorMessage != null) {
+                generator.writeStringField("errorMessage", errorMessage);
+            }
+            generator.writeEndObject();
+            generator.flush();
+        }
+    }
+
+    /**
+     * Answers document lookups from the local collection index, without a remote listing:
+     * by documentId, by exact path, or (with recursive=true) everything below a path.
+     */
+    private void handleLookupDocuments(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws IOException {
+        String collectionId = request.getParameter("collectionId");
+        String documentId = request.getParameter("documentId");
+        String path = request.getParameter("path");
+
+        if (collectionId == null || collectionId.isEmpty()) {
+            response.sendError(SlingHttpServletResponse.SC_BAD_REQUEST, "collectionId is required");
+            return;
+        }
+        if ((documentId == null || documentId.isEmpty()) && (path == null || path.isEmpty())) {
+            response.sendError(SlingHttpServletResponse.SC_BAD_REQUEST, "documentId or path is required");
+            return;
+        }
+
+        DocumentIndex index = documentStore.getCollectionIndex(collectionId);
+        if (index == null) {
+            response.sendError(SlingHttpServletResponse.SC_NOT_IMPLEMENTED,
+                    documentStore.getProviderName() + " keeps no local document index");
+            return;
+        }
+
+        List<IndexedDocument> documents;
+        if (documentId != null && !documentId.isEmpty()) {
+            IndexedDocument document = index.get(documentId);
+            documents = document != null ? Collections.singletonList(document) : Collections.emptyList();
+        } else if ("true".equalsIgnoreCase(request.getParameter("recursive"))) {
+            String limitParam = request.getParameter("limit");
+            int limit = DEFAULT_LOOKUP_LIMIT;
+            if (limitParam != null && !limitParam.isEmpty()) {
+                try {
+                    limit = Integer.parseInt(limitParam);
+                } catch (NumberFormatException e) {
+                    response.sendError(SlingHttpServletResponse.SC_BAD_REQUEST, "limit must be a number");
+                    return;
+                }
+            }
+            documents = index.listUnder(path, limit);
+        } else {
+            documents = index.getDocuments(path);
+        }
+
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("collectionId", collectionId);
+        result.put("indexSize", index.size());
+        result.put("complete", index.getLastRefreshTime() > 0);
+        ArrayNode documentsNode = result.putArray("documents");
+        for (IndexedDocument document : documents) {
+            ObjectNode docNode = documentsNode.addObject();
+            docNode.put("documentId", document.getDocumentId());
+            if (document.getPath() != null) {
+                docNode.put("documentPath", document.getPath());
+            }
+            if (document.getVariation() != null) {
+                docNode.put("variation", document.getVariation());
+            }
+        }
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), result);
+    }
+
+    private void handleMetrics(SlingHttpServletResponse response) throws IOException {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("provider", documentStore.getProviderName());
+
+        ObjectNode operations = result.putObject("operations");
+        for (Map.Entry<String, OperationStats> entry : metrics.getOperations().entrySet()) {
+            OperationStats stats = entry.getValue();
+            LatencySnapshot latency = stats.getLatency();
+            ObjectNode operation = operations.putObject(entry.getKey());
+            operation.put("count", stats.getCount());
+            operation.put("errors", stats.getErrors());
+            operation.put("meanMs", latency.getMeanMillis());
+            operation.put("p50Ms", latency.getP50Millis());
+            operation.put("p95Ms", latency.getP95Millis());
+            operation.put("p99Ms", latency.getP99Millis());
+            operation.put("p999Ms", latency.getP999Millis());
+            operation.put("maxMs", latency.getMaxMillis());
+        }
+
+        ObjectNode httpErrors = result.putObject("httpErrors");
+        metrics.getHttpErrors().forEach(httpErrors::put);
+        result.put("ioErrors", metrics.getIoErrors());
+        result.put("bytesSent", metrics.getBytesSent());
+        result.put("bytesReceived", metrics.getBytesReceived());
+        result.put("answerChunks", metrics.getAnswerChunks());
+        result.put("answerChunksPerSecond", metrics.getAnswerChunksPerSecond());
+
+        TransportMetrics transport = yukonStore.getTransportMetrics();
+        ObjectNode transportNode = result.putObject("transport");
+        transportNode.put("requests", transport.getRequests());
+        transportNode.put("failures", transport.getFailures());
+        transportNode.put("inFlight", transport.getInFlight());
+        transportNode.put("peakInFlight", transport.getPeakInFlight());
+        transportNode.put("permitWaits", transport.getPermitWaits());
+        transportNode.put("http2Responses", transport.getHttp2Responses());
+        transportNode.put("http1Responses", transport.getHttp1Responses());
+        transportNode.put("aborted", transport.getAborted());
+
+        AdaptiveLimiter limiter = yukonStore.getUploadLimiter();
+        ObjectNode limiterNode = result.putObject("uploadLimiter");
+        limiterNode.put("limit", limiter.getLimit());
+        limiterNode.put("inFlight", limiter.getInFlight());
+        limiterNode.put("waits", limiter.getWaits());
+        limiterNode.put("throttled", limiter.getThrottled());
+        limiterNode.put("decreases", limiter.getDecreases());
+        limiterNode.put("pausedMs", limiter.getPausedMillis());
+        limiterNode.put("baselineLatencyMs", limiter.getBaselineLatencyMillis());
+
+        ObjectNode caches = result.putObject("caches");
+        putCacheStats(caches.putObject("search"), yukonStore.getSearchCacheStats());
+        putCacheStats(caches.putObject("answer"), yukonStore.getAnswerCacheStats());
+
+        ObjectNode coalesced = result.putObject("coalesced");
+        coalesced.put("answers", yukonStore.getCoalescedAnswerCount());
+        coalesced.put("searches", yukonStore.getCoalescedSearchCount());
+
+        ObjectNode breakers = result.putObject("circuitBreakers");
+        putBreaker(breakers, yukonStore.getAskBreaker());
+        putBreaker(breakers, yukonStore.getSearchBreaker());
+
+        if (yukonStore.getAskHedger() != null) {
+            ObjectNode hedging = result.putObject("hedging");
+            putHedger(hedging.putObject("ask"), yukonStore.getAskHedger());
+            putHedger(hedging.putObject("search"), yukonStore.getSearchHedger());
+        }
+
+        ObjectNode stale = result.putObject("stale");
+        stale.put("answers", yukonStore.getStaleAnswerCount());
+        stale.put("searches", yukonStore.getStaleSearchCount());
+
+        ContentFragmentSync sync = fragmentSync;
+        if (sync != null) {
+            ObjectNode syncNode = result.putObject("sync");
+            syncNode.put("changes", sync.getChanges());
+            syncNode.put("pending", sync.getPending());
+            syncNode.put("uploads", sync.getUploads());
+            syncNode.put("failures", sync.getFailures());
+        }
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), result);
+    }
+
+    private void putBreaker(ObjectNode breakers, CircuitBreaker breaker) {
+        ObjectNode node = breakers.putObject(breaker.getName());
+        node.put("state", breaker.getState().name());
+        node.put("failureRate", breaker.getFailureRate());
+        node.put("slowCallRate", breaker.getSlowCallRate());
+        node.put("rejected", breaker.getRejected());
+        node.put("opened", breaker.getOpened());
+    }
+
+    private void putHedger(ObjectNode node, RequestHedger hedger) {
+        node.put("requests", hedger.getRequests());
+        node.put("hedges", hedger.getHedges());
+        node.put("hedgeWins", hedger.getHedgeWins());
+        node.put("budgetDenied", hedger.getBudgetDenied());
+        node.put("delayMs", hedger.getDelayMillis());
+    }
+
+    private void putCacheStats(ObjectNode node, CacheStats stats) {
+        node.put("hits", stats.getHits());
+        node.put("misses", stats.getMisses());
+        node.put("hitRate", stats.getHitRate());
+        node.put("size", stats.getSize());
+        node.put("evictions", stats.getEvictions());
+        node.put("expirations", stats.getExpirations());
+        node.put("invalidations", stats.getInvalidations());
+    }
+
+    /**
+     * Default action: queues the export as a background job, like action=submitExport. With
+     * sync=true the export runs within the request instead, which answers once it is done.
+     */
     private void handleUpload(SlingHttpServletRequest request, SlingHttpServletResponse response)
             throws IOException, DocumentStoreException {
+        if ("true".equalsIgnoreCase(request.getParameter("sync"))) {
+            handleSyncUpload(request, response);
+        } else {
+            handleSubmitExport(request, response);
+        }
+    }
+
+    private void handleSyncUpload(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws IOException, DocumentStoreException {
         ResourceResolver resolver = request.getResourceResolver();
         Session session = resolver.adaptTo(Session.class);
         if (session == null) {
@@ -285,156 +943,151 @@ public class CfRagServlet extends SlingSafeMethodsServlet {
         String variationParam = Optional.ofNullable(request.getParameter("variation"))
                 .filter(s -> !s.isEmpty()).orElse("master");
         String collectionId = request.getParameter("collectionId");
+        boolean incremental = "true".equalsIgnoreCase(request.getParameter("incremental"));
 
         if (collectionId == null || collectionId.isEmpty()) {
             response.sendError(SlingHttpServletResponse.SC_BAD_REQUEST, "collectionId is required");
             return;
         }
 
-        // Find content fragments
-        Map<String, String> predicates = new HashMap<>();
-        predicates.put("path", rootPath);
-        predicates.put("type", "dam:Asset");
-        predicates.put("1_property", "jcr:content/contentFragment");
-        predicates.put("1_property.value", "true");
-        predicates.put("p.limit", "-1");
+        ExportManifest manifest = incremental
+                ? ExportManifest.load(manifestDirectory, collectionId, objectMapper) : null;
 
-        Query query = queryBuilder.createQuery(PredicateGroup.create(predicates), session);
-        SearchResult searchResult = query.getResult();
+        Iterator<String> paths = fragmentDiscovery.find(session, rootPath);
 
-        List<UploadResult> uploadResults = new ArrayList<>();
-        int successCount = 0;
-        int failCount = 0;
-
-        for (Hit hit : searchResult.getHits()) {
-            try {
-                Resource cfResource = hit.getResource();
-                ContentFragment cf = cfResource.adaptTo(ContentFragment.class);
-                if (cf == null) continue;
-
-                List<String> variationsToExport = getVariationsToExport(cf, variationParam);
-                for (String variation : variationsToExport) {
-                    String fileName = buildFileName(cfResource.getPath(), variation);
-                    String jsonContent = buildJsonContent(cf, variation);
-
-                    UploadResult uploadResult = documentStore.uploadDocument(collectionId, fileName, jsonContent);
-                    uploadResults.add(uploadResult);
-
-                    if (uploadResult.isSuccess()) {
-                        successCount++;
-                    } else {
-                        failCount++;
-                    }
+        ExportStats stats;
+        try {
+            stats = exportPipeline.run(resolver, paths, collectionId, variationParam, manifest);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(SlingHttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Export interrupted");
+            return;
+        } finally {
+            if (manifest != null) {
+                try {
+                    manifest.save();
+                } catch (IOException e) {
+                    LOG.error("Unable to save export manifest for collection {}", collectionId, e);
                 }
-            } catch (Exception e) {
-                LOG.error("Error processing content fragment", e);
-                failCount++;
             }
         }
 
         ObjectNode responseJson = objectMapper.createObjectNode();
-        responseJson.put("success", successCount);
-        responseJson.put("failed", failCount);
+        responseJson.put("success", stats.getSuccessCount());
+        responseJson.put("failed", stats.getFailCount());
+        responseJson.put("skipped", stats.getSkipped());
         responseJson.put("collectionId", collectionId);
 
+        putStages(responseJson.putObject("stages"), stats);
+
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         objectMapper.writeValue(response.getWriter(), responseJson);
     }
 
-    private List<String> getVariationsToExport(ContentFragment cf, String variationParam) {
-        List<String> variations = new ArrayList<>();
-        if ("all".equalsIgnoreCase(variationParam)) {
-            variations.add("master");
-            Iterator<VariationDef> it = cf.listAllVariations();
-            while (it.hasNext()) {
-                variations.add(it.next().getName());
-            }
-        } else {
-            variations.add(variationParam);
-        }
-        return variations;
+    private void putStages(ObjectNode stages, ExportStats stats) {
+        stages.put("discovered", stats.getDiscovered());
+        stages.put("fragmentsRead", stats.getFragmentsRead());
+        stages.put("readFailures", stats.getReadFailures());
+        stages.put("documentsQueued", stats.getDocumentsQueued());
+        stages.put("queueFullWaits", stats.getQueueFullWaits());
+        stages.put("uploadsSucceeded", stats.getUploadsSucceeded());
+        stages.put("uploadsFailed", stats.getUploadsFailed());
     }
 
-    private String buildFileName(String path, String variation) {
-        String safePath = path.replace("/", "_").replace(":", "_");
-        if (safePath.startsWith("_")) safePath = safePath.substring(1);
-        return safePath + "__" + variation + ".json";
-    }
+    /**
+     * Queues an export as a background job and answers with HTTP 202 and the job ID; progress is
+     * read with action=exportStatus. The job reads the repository as the caller, through the
+     * export service user impersonating them.
+     */
+    private void handleSubmitExport(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws IOException {
+        String rootPath = Optional.ofNullable(request.getParameter("rootPath"))
+                .filter(s -> !s.isEmpty()).orElse("/content/dam");
+        String variationParam = Optional.ofNullable(request.getParameter("variation"))
+                .filter(s -> !s.isEmpty()).orElse("master");
+        String collectionId = request.getParameter("collectionId");
+        boolean incremental = "true".equalsIgnoreCase(request.getParameter("incremental"));
 
-    private String buildJsonContent(ContentFragment cf, String variation) {
-        ObjectNode root = objectMapper.createObjectNode();
-        root.put("title", cf.getTitle());
-        root.put("name", cf.getName());
-        root.put("variation", variation);
+        if (collectionId == null || collectionId.isEmpty()) {
+            response.sendError(SlingHttpServletResponse.SC_BAD_REQUEST, "collectionId is required");
+            return;
+        }
+        if (request.getResourceResolver().getResource(rootPath) == null) {
+            response.sendError(SlingHttpServletResponse.SC_NOT_FOUND, "Root path not found: " + rootPath);
+            return;
+        }
 
-        ObjectNode elements = root.putObject("elements");
+        ExportJob job = exportJobs.submit(collectionId, rootPath, variationParam, incremental,
+                request.getResourceResolver().getUserID());
 
-        for (Iterator<ContentElement> it = cf.getElements(); it.hasNext(); ) {
-            ContentElement elem = it.next();
+        response.setStatus(SlingHttpServletResponse.SC_ACCEPTED);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), exportJobStatus(job));
+    }
 
-            Object value;
-            if ("master".equals(variation)) {
-                FragmentData data = elem.getValue();
-                value = data != null ? data.getValue() : null;
-            } else {
-                ContentVariation cv = elem.getVariation(variation);
-                if (cv != null) {
-                    FragmentData data = cv.getValue();
-                    value = data != null ? data.getValue() : null;
-                } else {
-                    FragmentData data = elem.getValue();
-                    value = data != null ? data.getValue() : null;
-                }
+    /**
+     * Reports the caller's own export jobs; jobs of other users are treated as unknown.
+     */
+    private void handleExportStatus(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws IOException {
+        String userId = request.getResourceResolver().getUserID();
+        String jobId = request.getParameter("jobId");
+        ObjectNode result;
+        if (jobId == null || jobId.isEmpty()) {
+            result = objectMapper.createObjectNode();
+            ArrayNode jobs = result.putArray("jobs");
+            for (ExportJob job : exportJobs.getJobs(userId)) {
+                jobs.add(exportJobStatus(job));
             }
-
-            addValueToNode(elements, elem.getName(), value);
+        } else {
+            ExportJob job = exportJobs.getJob(jobId);
+            if (job == null || userId == null || !userId.equals(job.getSubmittedBy())) {
+                response.sendError(SlingHttpServletResponse.SC_NOT_FOUND, "Unknown export job " + jobId);
+                return;
+            }
+            result = exportJobStatus(job);
         }
 
-        try {
-            return objectMapper.writeValueAsString(root);
-        } catch (IOException e) {
-            LOG.error("Error serializing content fragment to JSON", e);
-            return "{}";
-        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getWriter(), result);
     }
 
-    private void addValueToNode(ObjectNode node, String fieldName, Object value) {
-        if (value == null) {
-            node.putNull(fieldName);
-        } else if (value instanceof String) {
-            node.put(fieldName, (String) value);
-        } else if (value instanceof Integer) {
-            node.put(fieldName, (Integer) value);
-        } else if (value instanceof Long) {
-            node.put(fieldName, (Long) value);
-        } else if (value instanceof Double) {
-            node.put(fieldName, (Double) value);
-        } else if (value instanceof Float) {
-            node.put(fieldName, (Float) value);
-        } else if (value instanceof Boolean) {
-            node.put(fieldName, (Boolean) value);
-        } else if (value.getClass().isArray()) {
-            ArrayNode arrayNode = node.putArray(fieldName);
-            Object[] arr = (Object[]) value;
-            for (Object item : arr) {
-                if (item instanceof String) {
-                    arrayNode.add((String) item);
-                } else if (item instanceof Integer) {
-                    arrayNode.add((Integer) item);
-                } else if (item instanceof Long) {
-                    arrayNode.add((Long) item);
-                } else if (item instanceof Double) {
-                    arrayNode.add((Double) item);
-                } else if (item instanceof Boolean) {
-                    arrayNode.add((Boolean) item);
-                } else if (item != null) {
-                    arrayNode.add(item.toString());
-                }
-            }
-        } else {
-            node.put(fieldName, value.toString());
+    private ObjectNode exportJobStatus(ExportJob job) {
+        ObjectNode status = objectMapper.createObjectNode();
+        status.put("jobId", job.getId());
+        status.put("state", job.getState().name());
+        status.put("collectionId", job.getCollectionId());
+        status.put("rootPath", job.getRootPath());
+        status.put("variation", job.getVariation());
+        status.put("incremental", job.isIncremental());
+        status.put("attempts", job.getAttempts());
+        status.put("createdAt", job.getCreatedAt());
+        if (job.getStartedAt() > 0) {
+            status.put("startedAt", job.getStartedAt());
+        }
+        if (job.getFinishedAt() > 0) {
+            status.put("finishedAt", job.getFinishedAt());
+        }
+        status.put("total", job.getTotal());
+        status.put("completed", job.getCompleted());
+        if (job.getCompletedPath() != null) {
+            status.put("lastCompletedPath", job.getCompletedPath());
         }
+        status.put("success", job.getSuccessCount());
+        status.put("failed", job.getFailCount());
+        status.put("skipped", job.getSkipped());
+        status.put("fragmentsPerSecond", job.getFragmentsPerSecond());
+        long eta = job.getEtaSeconds();
+        if (eta >= 0) {
+            status.put("etaSeconds", eta);
+        }
+        if (job.getErrorMessage() != null) {
+            status.put("errorMessage", job.getErrorMessage());
+        }
+        putStages(status.putObject("stages"), job.getStats());
+        return status;
     }
 }
-
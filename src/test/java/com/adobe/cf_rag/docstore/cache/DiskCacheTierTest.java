@@ -0,0 +1,138 @@
+package com.adobe.cf_rag.docstore.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskCacheTierTest {
+
+    private static final long TTL = 60_000;
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("disk-cache-tier");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void keepsEntriesAcrossRestarts() {
+        cache(UNBOUNDED).put("c1", "q1", "answer");
+
+        DiskCacheTier<String> restarted = cache(UNBOUNDED);
+
+        assertEquals("answer", restarted.get("c1", "q1"));
+        assertTrue(restarted.getTotalBytes() > 0);
+    }
+
+    @Test
+    void dropsEntriesWrittenBeforeTheInvalidationWhenRead() {
+        DiskCacheTier<String> cache = cache(UNBOUNDED);
+        cache.put("c1", "q1", "old");
+        cache.put("c2", "q1", "other collection");
+
+        cache.invalidatePartition("c1");
+
+        assertEquals(2, files("c1"), "invalidating only adds a marker");
+        assertNull(cache.get("c1", "q1"));
+        assertEquals(1, files("c1"), "only the marker is left");
+        assertEquals("other collection", cache.get("c2", "q1"));
+    }
+
+    @Test
+    void keepsEntriesWrittenAfterTheInvalidation() throws InterruptedException {
+        DiskCacheTier<String> cache = cache(UNBOUNDED);
+        cache.put("c1", "q1", "old");
+        cache.invalidatePartition("c1");
+        Thread.sleep(5);
+
+        cache.put("c1", "q1", "new");
+
+        assertEquals("new", cache.get("c1", "q1"));
+    }
+
+    @Test
+    void invalidationSurvivesRestarts() {
+        DiskCacheTier<String> cache = cache(UNBOUNDED);
+        cache.put("c1", "q1", "old");
+        cache.invalidatePartition("c1");
+
+        assertNull(cache(UNBOUNDED).get("c1", "q1"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyWrittenFilesBeyondTheSizeBound() throws InterruptedException {
+        DiskCacheTier<String> probe = cache(UNBOUNDED);
+        probe.put("probe", "k0", "value-0");
+        long entrySize = probe.getTotalBytes();
+        deletePartition("probe");
+
+        long maxBytes = entrySize * 7 / 2;
+        DiskCacheTier<String> cache = cache(maxBytes);
+        for (int i = 0; i < 4; i++) {
+            cache.put("c1", "k" + i, "value-" + i);
+            Thread.sleep(20);
+        }
+
+        assertNull(cache.get("c1", "k0"));
+        assertEquals("value-1", cache.get("c1", "k1"));
+        assertEquals("value-3", cache.get("c1", "k3"));
+        assertEquals(3 * entrySize, cache.getTotalBytes());
+        assertTrue(cache.getTotalBytes() <= maxBytes);
+    }
+
+    private DiskCacheTier<String> cache(long maxBytes) {
+        return new DiskCacheTier<>(directory.toFile(), TTL, maxBytes, objectMapper, new StringCodec());
+    }
+
+    private int files(String partition) {
+        String[] names = directory.resolve(partition).toFile().list();
+        return names != null ? names.length : 0;
+    }
+
+    private void deletePartition(String partition) {
+        File dir = directory.resolve(partition).toFile();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    private static final class StringCodec implements DiskCacheTier.Codec<String> {
+        @Override
+        public void write(String value, ObjectNode node) {
+            node.put("text", value);
+        }
+
+        @Override
+        public String read(JsonNode node) {
+            return node.path("text").asText(null);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.adobe.cf_rag.docstore.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LruTtlCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(2, 60_000);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.get("a");
+
+        cache.put("c", "3");
+
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("3", cache.get("c"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void evictsUntilTheTotalWeightFits() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 10, 60_000, value -> value.length());
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+
+        cache.put("c", "cccc");
+
+        assertNull(cache.get("a"));
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.getTotalWeight());
+    }
+
+    @Test
+    void doesNotCacheValuesHeavierThanTheWholeCache() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 10, 60_000, value -> value.length());
+        cache.put("a", "aaaa");
+
+        cache.put("big", "bbbbbbbbbbbb");
+
+        assertNull(cache.get("big"));
+        assertEquals("aaaa", cache.get("a"));
+    }
+
+    @Test
+    void replacingAValueUpdatesTheWeight() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 10, 60_000, value -> value.length());
+        cache.put("a", "aaaa");
+
+        cache.put("a", "aa");
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getTotalWeight());
+    }
+
+    @Test
+    void expiresEntriesAfterTheTtl() throws InterruptedException {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 20);
+        cache.put("a", "1");
+
+        Thread.sleep(50);
+
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getStats().getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void dropsEntriesOlderThanTheRequestedVersion() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        cache.put("a", "1", 3);
+
+        assertEquals("1", cache.get("a", 3));
+        assertEquals("1", cache.get("a"));
+        assertNull(cache.get("a", 4));
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        LruTtlCache<String, String> cache = new LruTtlCache<>(10, 60_000);
+        cache.put("a", "1");
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void cacheWithoutEntriesOrTtlIsDisabled() {
+        LruTtlCache<String, String> noEntries = new LruTtlCache<>(0, 60_000);
+        LruTtlCache<String, String> noTtl = new LruTtlCache<>(10, 0);
+
+        noEntries.put("a", "1");
+        noTtl.put("a", "1");
+
+        assertFalse(noEntries.isEnabled());
+        assertFalse(noTtl.isEnabled());
+        assertNull(noEntries.get("a"));
+        assertNull(noTtl.get("a"));
+    }
+}
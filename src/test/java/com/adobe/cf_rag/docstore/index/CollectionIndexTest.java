@@ -0,0 +1,93 @@
+package com.adobe.cf_rag.docstore.index;
+
+import com.adobe.cf_rag.docstore.api.model.IndexedDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CollectionIndexTest {
+
+    private final CollectionIndex index = new CollectionIndex();
+
+    @Test
+    void mapsFileNamesToPathsAndVariations() {
+        assertEquals("/content/dam/site/cf-1", index.put("d1", "content_dam_site_cf-1__master.json"));
+
+        IndexedDocument document = index.get("d1");
+        assertEquals("/content/dam/site/cf-1", document.getPath());
+        assertEquals("master", document.getVariation());
+    }
+
+    @Test
+    void findsDocumentsByTheEncodedPath() {
+        index.put("d1", "content_dam_my_folder_cf-1__master.json");
+        index.put("d2", "/content/dam/site:jcr/cf-2", "master");
+
+        assertTrue(index.containsPath("/content/dam/my_folder/cf-1"));
+        assertTrue(index.containsPath("/content/dam/my/folder/cf-1"));
+        assertEquals("d1", index.getDocuments("/content/dam/my_folder/cf-1").get(0).getDocumentId());
+        assertEquals(1, index.listUnder("/content/dam/my_folder", 10).size());
+        assertTrue(index.containsPath("content_dam_site_jcr_cf-2"));
+        assertFalse(index.containsPath("/content/dam/my_folder"));
+    }
+
+    @Test
+    void keepsOneEntryPerVariation() {
+        index.put("d1", "content_dam_cf-1__master.json");
+        index.put("d2", "content_dam_cf-1__summer.json");
+        index.put("d3", "content_dam_cf-2__master.json");
+
+        assertEquals(2, index.getDocuments("/content/dam/cf-1").size());
+        assertEquals(3, index.listUnder("/content", 10).size());
+        assertEquals(2, index.listUnder("/content", 2).size());
+    }
+
+    @Test
+    void movesAReindexedDocumentAndPrunesItsOldFolder() {
+        index.put("d1", "content_dam_old_cf-1__master.json");
+        index.put("d1", "content_dam_new_cf-1__master.json");
+
+        assertEquals(1, index.size());
+        assertFalse(index.containsPath("/content/dam/old/cf-1"));
+        assertTrue(index.listUnder("/content/dam/old", 10).isEmpty());
+        assertEquals("/content/dam/new/cf-1", index.get("d1").getPath());
+
+        assertTrue(index.remove("d1"));
+        assertFalse(index.remove("d1"));
+        assertTrue(index.listUnder("/", 10).isEmpty());
+    }
+
+    @Test
+    void refreshDropsEntriesTheListingDidNotReturn() {
+        index.put("d1", "content_dam_cf-1__master.json");
+        index.put("d2", "content_dam_cf-2__master.json");
+
+        long generation = index.beginRefresh();
+        index.put("d1", "content_dam_cf-1__master.json");
+        int removed = index.completeRefresh(generation);
+
+        assertEquals(1, removed);
+        assertNull(index.get("d2"));
+        assertFalse(index.containsPath("/content/dam/cf-2"));
+        assertTrue(index.getLastRefreshTime() > 0);
+    }
+
+    @Test
+    void refreshKeepsEntriesUploadedWhileItRuns() {
+        index.put("d1", "content_dam_cf-1__master.json");
+
+        long generation = index.beginRefresh();
+        // uploaded after the listing page that would have contained it was fetched
+        index.put("d2", "content_dam_cf-2__master.json");
+        index.completeRefresh(generation);
+
+        List<IndexedDocument> documents = index.listUnder("/content/dam", 10);
+        assertEquals(1, documents.size());
+        assertEquals("d2", documents.get(0).getDocumentId());
+    }
+}
@@ -0,0 +1,69 @@
+package com.adobe.cf_rag.docstore.metrics;
+
+import com.adobe.cf_rag.docstore.api.AsyncDocumentStoreService;
+import com.adobe.cf_rag.docstore.api.DocumentStoreService;
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.docstore.api.model.SearchResult;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InstrumentedDocumentStoreServiceTest {
+
+    private final DocumentStoreMetrics metrics = new DocumentStoreMetrics();
+    private final Map<String, CompletableFuture<?>> futures = new HashMap<>();
+
+    @Test
+    void recordsAnAsyncCallWhenItsFutureCompletes() {
+        CompletableFuture<InferenceResult> upstream = new CompletableFuture<>();
+        futures.put("askQuestionAsync", upstream);
+        InstrumentedDocumentStoreService service = new InstrumentedDocumentStoreService(delegate(), metrics);
+
+        CompletableFuture<InferenceResult> future = service.askQuestionAsync("c1", "q", null);
+
+        assertSame(upstream, future);
+        assertEquals(0, metrics.getOperation(Operation.ASK_QUESTION).getCount());
+        upstream.complete(InferenceResult.success("q", "c1", "answer"));
+        assertEquals(1, metrics.getOperation(Operation.ASK_QUESTION).getCount());
+        assertEquals(0, metrics.getOperation(Operation.ASK_QUESTION).getErrors());
+    }
+
+    @Test
+    void countsUnsuccessfulAndCancelledAsyncCallsAsErrors() {
+        CompletableFuture<SearchResult> failed = new CompletableFuture<>();
+        CompletableFuture<InferenceResult> cancelled = new CompletableFuture<>();
+        futures.put("searchDocumentsAsync", failed);
+        futures.put("askQuestionAsync", cancelled);
+        InstrumentedDocumentStoreService service = new InstrumentedDocumentStoreService(delegate(), metrics);
+
+        service.searchDocumentsAsync("c1", "query", 5);
+        failed.complete(SearchResult.failure("query", "c1", "unavailable"));
+        service.askQuestionAsync("c1", "q", Collections.emptyList(), true).cancel(true);
+
+        assertTrue(cancelled.isCancelled());
+        assertEquals(1, metrics.getOperation(Operation.SEARCH_DOCUMENTS).getErrors());
+        assertEquals(1, metrics.getOperation(Operation.ASK_QUESTION).getErrors());
+    }
+
+    private AsyncStore delegate() {
+        return (AsyncStore) Proxy.newProxyInstance(AsyncStore.class.getClassLoader(), new Class<?>[]{AsyncStore.class},
+                (proxy, method, args) -> {
+                    CompletableFuture<?> future = futures.get(method.getName());
+                    if (future == null) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return future;
+                });
+    }
+
+    interface AsyncStore extends DocumentStoreService, AsyncDocumentStoreService {
+    }
+}
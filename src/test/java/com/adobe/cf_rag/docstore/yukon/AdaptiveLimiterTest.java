@@ -0,0 +1,165 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLimiterTest {
+
+    private static final long FAST = 1_000_000;
+
+    @Test
+    void growsByOnePerSuccessDuringSlowStart() throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 100);
+
+        keepSaturated(limiter, 10);
+
+        assertEquals(11, limiter.getLimit());
+    }
+
+    @Test
+    void neverGrowsBeyondTheMaximum() throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 5);
+
+        keepSaturated(limiter, 20);
+
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void growsOnlyWhileTheLimitIsUsed() throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 10);
+
+        for (int i = 0; i < 20; i++) {
+            limiter.release(limiter.acquire(), FAST, false);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void throttlingDecreasesOncePerRoundTrip() throws InterruptedIOException {
+        AdaptiveLimiter limiter = grownTo(10);
+        long before = limiter.acquire();
+        long alsoBefore = limiter.acquire();
+
+        limiter.release(before, FAST, true);
+        assertEquals(7, limiter.getLimit());
+        limiter.release(alsoBefore, FAST, true);
+        assertEquals(7, limiter.getLimit());
+
+        limiter.release(limiter.acquire(), FAST, true);
+        assertEquals(4, limiter.getLimit());
+        assertEquals(3, limiter.getThrottled());
+        assertEquals(2, limiter.getDecreases());
+    }
+
+    @Test
+    void growsByAboutOnePerRoundTripAfterCongestion() throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 100);
+        while (limiter.getLimit() < 10) {
+            releaseRound(limiter, limiter.getLimit());
+        }
+        limiter.release(limiter.acquire(), FAST, true);
+        assertEquals(7, limiter.getLimit());
+
+        // about three round trips of 7 to 9 requests; slow start would have grown by 24
+        keepSaturated(limiter, 24);
+
+        int limit = limiter.getLimit();
+        assertTrue(limit >= 9 && limit <= 10, "limit " + limit);
+    }
+
+    @Test
+    void risingLatencyDecreasesTheLimit() throws InterruptedIOException {
+        AdaptiveLimiter limiter = grownTo(10);
+
+        limiter.release(limiter.acquire(), 5 * FAST, false);
+
+        assertEquals(7, limiter.getLimit());
+        assertEquals(0, limiter.getThrottled());
+        assertEquals(1, limiter.getDecreases());
+        assertEquals(1, limiter.getBaselineLatencyMillis());
+    }
+
+    @Test
+    void neverDropsBelowTheMinimum() throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 10);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.release(limiter.acquire(), FAST, true);
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void failedRequestsLeaveTheLimitAlone() throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 10);
+
+        limiter.acquire();
+        limiter.releaseFailed();
+
+        assertEquals(1, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void pauseHoldsBackNewRequests() throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, 10);
+        limiter.pause(100);
+        assertTrue(limiter.getPausedMillis() > 0);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+
+        assertTrue(System.nanoTime() - start >= 80_000_000L);
+        assertEquals(1, limiter.getWaits());
+    }
+
+    /**
+     * Keeps as many requests in flight as the limit allows while the given number of them succeed
+     * quickly one after the other, then lets the rest succeed as well.
+     */
+    private static void keepSaturated(AdaptiveLimiter limiter, int successes) throws InterruptedIOException {
+        Deque<Long> tickets = new ArrayDeque<>();
+        for (int i = 0; i < successes; i++) {
+            while (tickets.size() < limiter.getLimit()) {
+                tickets.add(limiter.acquire());
+            }
+            limiter.release(tickets.poll(), FAST, false);
+        }
+        while (!tickets.isEmpty()) {
+            limiter.release(tickets.poll(), FAST, false);
+        }
+    }
+
+    /**
+     * Returns a limiter with minimum 1 whose limit was grown to the given value, past the latency warmup.
+     */
+    private static AdaptiveLimiter grownTo(int limit) throws InterruptedIOException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(1, limit);
+        while (limiter.getLimit() < limit) {
+            releaseRound(limiter, limiter.getLimit());
+        }
+        return limiter;
+    }
+
+    /**
+     * Sends the given number of requests at once and lets them all succeed quickly.
+     */
+    private static void releaseRound(AdaptiveLimiter limiter, int requests) throws InterruptedIOException {
+        long[] tickets = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            tickets[i] = limiter.acquire();
+        }
+        for (long ticket : tickets) {
+            limiter.release(ticket, FAST, false);
+        }
+    }
+}
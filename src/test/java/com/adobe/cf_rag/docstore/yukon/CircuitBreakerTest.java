@@ -0,0 +1,152 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = 1_000_000;
+    private static final long SLOW = 2_000_000_000L;
+
+    @Test
+    void staysClosedBelowTheMinimumNumberOfCalls() {
+        CircuitBreaker breaker = breaker(60_000);
+
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(100, breaker.getFailureRate());
+    }
+
+    @Test
+    void opensAtTheFailureRateThreshold() {
+        CircuitBreaker breaker = breaker(60_000);
+
+        for (int i = 0; i < 5; i++) {
+            breaker.onSuccess(breaker.tryAcquire(), FAST);
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1, breaker.getOpened());
+    }
+
+    @Test
+    void opensAtTheSlowCallRateThreshold() {
+        CircuitBreaker breaker = breaker(60_000);
+
+        for (int i = 0; i < 5; i++) {
+            breaker.onSuccess(breaker.tryAcquire(), SLOW);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = breaker(60_000);
+
+        for (int i = 0; i < 5; i++) {
+            breaker.onSuccess(breaker.tryAcquire(), FAST);
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+        assertEquals(44, breaker.getFailureRate());
+        for (int i = 0; i < 10; i++) {
+            breaker.onSuccess(breaker.tryAcquire(), FAST);
+        }
+
+        assertEquals(0, breaker.getFailureRate());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void rejectsCallsWhileOpen() {
+        CircuitBreaker breaker = opened(60_000);
+
+        assertEquals(-1, breaker.tryAcquire());
+        assertEquals(-1, breaker.tryAcquire());
+        assertEquals(2, breaker.getRejected());
+    }
+
+    @Test
+    void successfulProbeCloses() {
+        CircuitBreaker breaker = opened(0);
+
+        long probe = breaker.tryAcquire();
+        assertTrue(probe >= 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(-1, breaker.tryAcquire());
+
+        breaker.onSuccess(probe, FAST);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getFailureRate());
+    }
+
+    @Test
+    void failedOrSlowProbeOpensAgain() {
+        CircuitBreaker breaker = opened(0);
+
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        breaker.onSuccess(breaker.tryAcquire(), SLOW);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(3, breaker.getOpened());
+    }
+
+    @Test
+    void ignoredProbeLetsAnotherOneThrough() {
+        CircuitBreaker breaker = opened(0);
+
+        long probe = breaker.tryAcquire();
+        breaker.onIgnored(probe);
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire() >= 0);
+    }
+
+    @Test
+    void outcomesOfCallsAdmittedBeforeAStateChangeAreIgnored() {
+        CircuitBreaker breaker = breaker(0);
+        long stale = breaker.tryAcquire();
+        for (int i = 0; i < 5; i++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+        long probe = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onFailure(stale, SLOW);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess(probe, FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    /**
+     * Returns a breaker over the last 10 calls that needs 5 of them and opens at 50% failed or slow calls.
+     */
+    private static CircuitBreaker breaker(long openMillis) {
+        return new CircuitBreaker("test", 10, 5, 50, 50, 1000, openMillis);
+    }
+
+    private static CircuitBreaker opened(long openMillis) {
+        CircuitBreaker breaker = breaker(openMillis);
+        for (int i = 0; i < 5; i++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+        assertEquals(1, breaker.getOpened());
+        return breaker;
+    }
+}
@@ -0,0 +1,246 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link HttpClientTransport} against a local HTTP server that answers early or stalls.
+ */
+class HttpClientTransportTest {
+
+    private static final int READ_TIMEOUT = 1000;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch releaseServer = new CountDownLatch(1);
+    private final List<Integer> receivedBodies = new CopyOnWriteArrayList<>();
+    private final CountDownLatch uploadHandled = new CountDownLatch(1);
+    private HttpServer server;
+    private HttpClientTransport transport;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/stall-body", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            out.write("partial".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            awaitRelease();
+            exchange.close();
+        });
+        server.createContext("/slow-body", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 5; i++) {
+                    out.write(("chunk" + i).getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    sleep(READ_TIMEOUT / 2);
+                }
+            }
+        });
+        server.createContext("/reject", exchange -> {
+            byte[] body = "too large".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(413, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/stall-request", exchange -> {
+            awaitRelease();
+            exchange.close();
+        });
+        server.createContext("/upload", exchange -> {
+            try {
+                receivedBodies.add(exchange.getRequestBody().readAllBytes().length);
+                exchange.sendResponseHeaders(204, -1);
+            } catch (IOException e) {
+                // the client broke the request off
+            } finally {
+                exchange.close();
+                uploadHandled.countDown();
+            }
+        });
+        server.createContext("/ok", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        transport = new HttpClientTransport(YukonConfig.builder()
+                .clientId("client")
+                .clientSecret("secret")
+                .authorizationCode("code")
+                .maxConnections(1)
+                .http2Enabled(false)
+                .build());
+    }
+
+    @AfterEach
+    void stopServer() {
+        releaseServer.countDown();
+        transport.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void failsAResponseBodyThatStallsAfterTheHeaders() throws Exception {
+        YukonResponse response = transport.execute(get("/stall-body"));
+        InputStream body = response.getBody();
+        byte[] buffer = new byte[7];
+        assertEquals(7, body.readNBytes(buffer, 0, 7));
+
+        long start = System.nanoTime();
+        assertThrows(HttpTimeoutException.class, body::read);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        response.abort();
+
+        assertTrue(elapsedMillis >= READ_TIMEOUT && elapsedMillis < 5000, "timed out after " + elapsedMillis + " ms");
+        assertEquals(1, transport.getMetrics().getAborted());
+        assertEquals(0, transport.getMetrics().getInFlight());
+    }
+
+    @Test
+    void keepsReadingABodyThatArrivesInSlowChunks() throws Exception {
+        YukonResponse response = transport.execute(get("/slow-body"));
+
+        assertEquals("chunk0chunk1chunk2chunk3chunk4\n", response.readBody());
+    }
+
+    @Test
+    void stopsTheBodyWriterWhenTheServerAnswersEarly() throws Exception {
+        CountDownLatch writerStopped = new CountDownLatch(1);
+        AtomicReference<IOException> writerFailure = new AtomicReference<>();
+
+        try (YukonResponse response = transport.execute(post("/reject", endlessBody(writerStopped, writerFailure)))) {
+            assertEquals(413, response.getStatus());
+        } catch (IOException e) {
+            // the server may reset the connection instead, as it leaves the request body unread
+        }
+
+        assertTrue(writerStopped.await(5, TimeUnit.SECONDS), "body writer still blocked");
+        assertTrue(writerFailure.get() != null);
+    }
+
+    @Test
+    void stopsTheBodyWriterWhenTheRequestStalls() throws Exception {
+        CountDownLatch writerStopped = new CountDownLatch(1);
+        AtomicReference<IOException> writerFailure = new AtomicReference<>();
+
+        assertThrows(IOException.class,
+                () -> transport.execute(post("/stall-request", endlessBody(writerStopped, writerFailure))));
+
+        assertTrue(writerStopped.await(5, TimeUnit.SECONDS), "body writer still blocked");
+        assertEquals(1, transport.getMetrics().getFailures());
+        assertEquals(0, transport.getMetrics().getInFlight());
+    }
+
+    @Test
+    void neverCompletesARequestWhoseBodyWriterFails() throws Exception {
+        YukonRequest request = YukonRequest.builder("POST", url("/upload"))
+                .body(failingBody(100 * 1024))
+                .readTimeout(READ_TIMEOUT)
+                .build();
+
+        assertThrows(IOException.class, () -> transport.execute(request));
+
+        assertTrue(uploadHandled.await(5, TimeUnit.SECONDS), "server still reading the request");
+        assertTrue(receivedBodies.isEmpty(), "server received a complete body of " + receivedBodies);
+        assertEquals(1, transport.getMetrics().getFailures());
+        assertEquals(0, transport.getMetrics().getInFlight());
+    }
+
+    @Test
+    void releasesTheConnectionSlotOfAnAbortedResponse() throws Exception {
+        YukonResponse stalled = transport.execute(get("/stall-body"));
+        stalled.getBody().read();
+        stalled.abort();
+
+        // a single connection slot: the next request only gets it if the abort released it
+        Future<Integer> next = executor.submit(() -> {
+            try (YukonResponse response = transport.execute(get("/ok"))) {
+                return response.getStatus();
+            }
+        });
+
+        assertEquals(204, (int) next.get(5, TimeUnit.SECONDS));
+        assertEquals(1, transport.getMetrics().getAborted());
+        assertEquals(0, transport.getMetrics().getInFlight());
+    }
+
+    private YukonRequest get(String path) {
+        return YukonRequest.builder("GET", url(path)).readTimeout(READ_TIMEOUT).build();
+    }
+
+    private YukonRequest post(String path, YukonRequest.BodyWriter body) {
+        return YukonRequest.builder("POST", url(path)).body(body).readTimeout(READ_TIMEOUT).build();
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static YukonRequest.BodyWriter endlessBody(CountDownLatch stopped, AtomicReference<IOException> failure) {
+        return out -> {
+            byte[] chunk = new byte[16 * 1024];
+            try {
+                while (true) {
+                    out.write(chunk);
+                }
+            } catch (IOException e) {
+                failure.set(e);
+                throw e;
+            } finally {
+                stopped.countDown();
+            }
+        };
+    }
+
+    /**
+     * Writes part of a body, more than one pipe chunk, and then fails.
+     */
+    static YukonRequest.BodyWriter failingBody(int bytesBeforeFailure) {
+        return out -> {
+            out.write(new byte[bytesBeforeFailure]);
+            throw new IOException("Fragment could not be read");
+        };
+    }
+
+    private void awaitRelease() {
+        try {
+            releaseServer.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
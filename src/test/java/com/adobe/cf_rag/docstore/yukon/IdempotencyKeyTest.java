@@ -0,0 +1,61 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.model.Document;
+import com.adobe.cf_rag.docstore.api.model.DocumentContent;
+import com.adobe.cf_rag.util.Sha256;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class IdempotencyKeyTest {
+
+    private static final String JSON = "{\"title\":\"Teaser\"}";
+
+    @Test
+    void usesTheCarriedContentHashWithoutSerializing() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        Document carried = new Document(null, "a.json", content(writes), Sha256.hash(JSON));
+
+        String key = YukonDocumentStoreService.idempotencyKey("c1", Collections.singletonList(carried));
+
+        assertEquals(0, writes.get());
+        assertEquals(key, YukonDocumentStoreService.idempotencyKey("c1",
+                Collections.singletonList(new Document(null, "a.json", JSON))));
+    }
+
+    @Test
+    void changesWithTheCollectionNamesAndContent() throws Exception {
+        String key = YukonDocumentStoreService.idempotencyKey("c1", Arrays.asList(
+                new Document(null, "a.json", JSON), new Document(null, "b.json", JSON)));
+
+        assertNotEquals(key, YukonDocumentStoreService.idempotencyKey("c2", Arrays.asList(
+                new Document(null, "a.json", JSON), new Document(null, "b.json", JSON))));
+        assertNotEquals(key, YukonDocumentStoreService.idempotencyKey("c1", Arrays.asList(
+                new Document(null, "a.json", JSON), new Document(null, "c.json", JSON))));
+        assertNotEquals(key, YukonDocumentStoreService.idempotencyKey("c1", Arrays.asList(
+                new Document(null, "a.json", JSON), new Document(null, "b.json", "{}"))));
+    }
+
+    private static DocumentContent content(AtomicInteger writes) {
+        return new DocumentContent() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                writes.incrementAndGet();
+                out.write(JSON.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public long estimatedSize() {
+                return JSON.length();
+            }
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InferenceEventParserTest {
+
+    @Test
+    void extractsTextSourcesAndCompletion() throws IOException {
+        List<String> events = new ArrayList<>();
+        try (InferenceEventParser parser = new InferenceEventParser(new JsonFactory())) {
+            parse(parser, "{\"generated_text\":\"Hello\",\"model\":{\"name\":\"x\",\"tags\":[1,2]}}", events);
+            parse(parser, "{\"source\":{\"1\":{\"document_id\":\"d1\",\"document_name\":\"content_dam_a__master.json\","
+                    + "\"score\":0.5},\"2\":{\"document_id\":\"d2\"}},\"stream_complete\":true}", events);
+        }
+
+        assertEquals(Arrays.asList("text=Hello complete=false sources=[]",
+                "text=null complete=true sources=[d1:content_dam_a__master.json, d2:null]"), events);
+    }
+
+    @Test
+    void handsOutEachObjectOfAnArrayEvent() throws IOException {
+        List<String> events = new ArrayList<>();
+        try (InferenceEventParser parser = new InferenceEventParser(new JsonFactory())) {
+            parse(parser, "[{\"generated_text\":\"a\"},42,{\"generated_text\":\"b\"}]", events);
+            parse(parser, "\"ignored\"", events);
+            parse(parser, "{\"generated_text\":\"c\"}", events);
+        }
+
+        assertEquals(Arrays.asList("text=a complete=false sources=[]", "text=b complete=false sources=[]",
+                "text=c complete=false sources=[]"), events);
+    }
+
+    @Test
+    void parsesEventsFramedFromSplitChunks() throws IOException {
+        String stream = "data: {\"generated_text\":\"Grüß\"}\n\n"
+                + "data: [{\"generated_text\":\" Gott\"},\n"
+                + "data:  {\"generated_text\":\"!\"}]\n\n"
+                + "data: {\"stream_complete\":true}\n\n";
+
+        for (int chunkSize = 1; chunkSize <= 16; chunkSize++) {
+            StringBuilder text = new StringBuilder();
+            boolean[] complete = new boolean[1];
+            try (InferenceEventParser parser = new InferenceEventParser(new JsonFactory())) {
+                SseFramer framer = new SseFramer(SseFramerTest.chunked(stream, chunkSize));
+                framer.run((data, length) -> parser.parse(data, length, event -> {
+                    if (event.getGeneratedText() != null) {
+                        text.append(event.getGeneratedText());
+                    }
+                    complete[0] |= event.isStreamComplete();
+                    return false;
+                }));
+            }
+            assertEquals("Grüß Gott!", text.toString(), "chunk size " + chunkSize);
+            assertTrue(complete[0]);
+        }
+    }
+
+    @Test
+    void stopsWhenHandlerAsks() throws IOException {
+        List<String> texts = new ArrayList<>();
+        try (InferenceEventParser parser = new InferenceEventParser(new JsonFactory())) {
+            byte[] data = "[{\"generated_text\":\"a\"},{\"generated_text\":\"b\"}]".getBytes(StandardCharsets.UTF_8);
+            boolean stopped = parser.parse(data, data.length, event -> {
+                texts.add(event.getGeneratedText());
+                return true;
+            });
+
+            assertTrue(stopped);
+            assertEquals(Arrays.asList("a"), texts);
+        }
+    }
+
+    private static boolean parse(InferenceEventParser parser, String json, List<String> events) throws IOException {
+        byte[] data = json.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(data, data.length, event -> {
+            List<String> sources = new ArrayList<>();
+            for (int i = 0; i < event.getSourceCount(); i++) {
+                sources.add(event.getSourceDocumentId(i) + ":" + event.getSourceDocumentName(i));
+            }
+            events.add("text=" + event.getGeneratedText() + " complete=" + event.isStreamComplete()
+                    + " sources=" + sources);
+            return false;
+        });
+    }
+}
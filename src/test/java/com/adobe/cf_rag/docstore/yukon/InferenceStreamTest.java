@@ -0,0 +1,151 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.model.InferenceResult;
+import com.adobe.cf_rag.docstore.api.model.SearchResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs answers and searches of {@link YukonDocumentStoreService} against canned inference streams.
+ */
+class InferenceStreamTest {
+
+    private final StreamTransport transport = new StreamTransport();
+    private final YukonDocumentStoreService service = new YukonDocumentStoreService(YukonConfig.builder()
+            .clientId("client")
+            .clientSecret("secret")
+            .authorizationCode("code")
+            .imsHost("http://ims.test")
+            .yukonBaseUrl("http://yukon.test")
+            .indexRefreshInterval(0)
+            .build(), transport);
+
+    @AfterEach
+    void close() {
+        service.close();
+    }
+
+    @Test
+    void completedAnswerKeepsItsConnection() throws Exception {
+        transport.events = Arrays.asList(
+                sources("d1"),
+                "{\"generated_text\":\"Hello \",\"stream_complete\":false}",
+                "{\"generated_text\":\"world\",\"stream_complete\":false}",
+                "{\"generated_text\":\"\",\"stream_complete\":true}");
+
+        InferenceResult result = service.askQuestion("c1", "Hi?", null, true);
+
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertEquals("Hello world", result.getAnswer());
+        assertEquals(Arrays.asList("closed"), transport.outcomes);
+    }
+
+    @Test
+    void searchMergesSourcesSpreadOverSeveralEvents() throws Exception {
+        transport.events = Arrays.asList(
+                sources("d1", "d2"),
+                sources("d3"),
+                "{\"generated_text\":\"Hello\",\"stream_complete\":false}",
+                sources("d4"),
+                "{\"generated_text\":\"\",\"stream_complete\":true}");
+
+        SearchResult result = service.searchDocuments("c1", "hello", 10);
+
+        assertTrue(result.isSuccess(), result.getErrorMessage());
+        assertEquals(Arrays.asList("d1", "d2", "d3"), documentIds(result));
+        assertEquals(Arrays.asList("aborted"), transport.outcomes);
+    }
+
+    @Test
+    void searchStopsAtMaxResults() throws Exception {
+        transport.events = Arrays.asList(
+                sources("d1", "d2"),
+                sources("d3"),
+                "{\"generated_text\":\"\",\"stream_complete\":true}");
+
+        SearchResult result = service.searchDocuments("c1", "hello", 2);
+
+        assertEquals(Arrays.asList("d1", "d2"), documentIds(result));
+        assertEquals(Arrays.asList("aborted"), transport.outcomes);
+    }
+
+    @Test
+    void searchReachingTheCompletionEventKeepsItsConnection() throws Exception {
+        transport.events = Arrays.asList(
+                sources("d1"),
+                sources("d2"),
+                "{\"generated_text\":\"\",\"stream_complete\":true}");
+
+        SearchResult result = service.searchDocuments("c1", "hello", 10);
+
+        assertEquals(Arrays.asList("d1", "d2"), documentIds(result));
+        assertEquals(Arrays.asList("closed"), transport.outcomes);
+    }
+
+    private static String sources(String... documentIds) {
+        StringBuilder event = new StringBuilder("{\"generated_text\":\"\",\"source\":{");
+        for (int i = 0; i < documentIds.length; i++) {
+            if (i > 0) {
+                event.append(',');
+            }
+            event.append('"').append(i + 1).append("\":{\"document_id\":\"").append(documentIds[i])
+                    .append("\",\"document_name\":\"content_dam_").append(documentIds[i]).append("__master.json\"}");
+        }
+        return event.append("},\"stream_complete\":false}").toString();
+    }
+
+    private static List<String> documentIds(SearchResult result) {
+        List<String> ids = new ArrayList<>();
+        for (SearchResult.DocumentInfo document : result.getDocuments()) {
+            ids.add(document.getDocumentId());
+        }
+        return ids;
+    }
+
+    /**
+     * Answers the IMS token exchange, and every inference with the canned events. Records
+     * whether each inference response was closed or aborted.
+     */
+    private static class StreamTransport implements YukonTransport {
+        final List<String> outcomes = new ArrayList<>();
+        volatile List<String> events;
+
+        @Override
+        public YukonResponse execute(YukonRequest request) throws IOException {
+            if (request.getUrl().endsWith("/ims/token/v2")) {
+                return response("{\"access_token\":\"token\",\"expires_in\":3600}", () -> { }, () -> { });
+            }
+            StringBuilder body = new StringBuilder();
+            for (String event : events) {
+                body.append("data: [").append(event).append("]\n\n");
+            }
+            return response(body.toString(),
+                    () -> outcomes.add("closed"),
+                    () -> outcomes.add("aborted"));
+        }
+
+        private static YukonResponse response(String body, Runnable onClose, Runnable onAbort) {
+            return new YukonResponse(200, name -> null,
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), onClose, onAbort);
+        }
+
+        @Override
+        public TransportMetrics getMetrics() {
+            return new TransportMetrics();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.DocumentCursor;
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+import com.adobe.cf_rag.docstore.api.model.ListDocumentsResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Exercises the paged listing cursor of {@link YukonDocumentStoreService} against a canned transport.
+ */
+class PagedDocumentCursorTest {
+
+    private static final Pattern PAGE = Pattern.compile("/api/v2/collection/c1/document\\?page=(\\d+)&page_size=(\\d+)");
+
+    private final ListingTransport transport = new ListingTransport(250);
+    private final YukonDocumentStoreService service = new YukonDocumentStoreService(YukonConfig.builder()
+            .clientId("client")
+            .clientSecret("secret")
+            .authorizationCode("code")
+            .imsHost("http://ims.test")
+            .yukonBaseUrl("http://yukon.test")
+            .indexRefreshInterval(0)
+            .listParallelism(2)
+            .listPageRetries(0)
+            .build(), transport);
+
+    @AfterEach
+    void close() {
+        service.close();
+    }
+
+    @Test
+    void returnsAllDocumentsInPageOrder() throws DocumentStoreException {
+        List<String> documentIds = new ArrayList<>();
+        try (DocumentCursor cursor = service.openDocumentCursor("c1")) {
+            assertEquals(250, cursor.getTotal());
+            while (cursor.hasNext()) {
+                documentIds.add(cursor.next().getDocumentId());
+            }
+        }
+
+        assertEquals(250, documentIds.size());
+        for (int i = 0; i < documentIds.size(); i++) {
+            assertEquals("doc-" + i, documentIds.get(i));
+        }
+        assertEquals(250, service.getCollectionIndex("c1").size());
+    }
+
+    @Test
+    void readsOnlyTheFirstPageOnOpen() throws DocumentStoreException {
+        try (DocumentCursor cursor = service.openDocumentCursor("c1")) {
+            assertEquals(Collections.singleton(1), transport.requestedPages);
+
+            ListDocumentsResult.DocumentInfo first = cursor.next();
+            assertEquals("doc-0", first.getDocumentId());
+            assertEquals("/content/dam/folder/cf0", first.getDocumentPath());
+            assertEquals(Collections.singleton(1), transport.requestedPages);
+        }
+    }
+
+    @Test
+    void opensTheCursorAsynchronously() throws Exception {
+        int count = 0;
+        try (DocumentCursor cursor = service.openDocumentCursorAsync("c1").get(5, TimeUnit.SECONDS)) {
+            assertEquals(Collections.singleton(1), transport.requestedPages);
+            while (cursor.hasNext()) {
+                cursor.next();
+                count++;
+            }
+        }
+
+        assertEquals(250, count);
+    }
+
+    @Test
+    void failsWhenAPageFails() throws DocumentStoreException {
+        transport.failingPage = 2;
+        try (DocumentCursor cursor = service.openDocumentCursor("c1")) {
+            for (int i = 0; i < 100; i++) {
+                cursor.next();
+            }
+            assertThrows(DocumentStoreException.class, cursor::hasNext);
+        }
+    }
+
+    @Test
+    void emptyCollectionHasNoDocuments() throws DocumentStoreException {
+        transport.total = 0;
+        try (DocumentCursor cursor = service.openDocumentCursor("c1")) {
+            assertEquals(0, cursor.getTotal());
+            assertFalse(cursor.hasNext());
+        }
+    }
+
+    /**
+     * Answers the IMS token exchange and the listing pages of collection c1.
+     */
+    private static class ListingTransport implements YukonTransport {
+        final Set<Integer> requestedPages = ConcurrentHashMap.newKeySet();
+        volatile int total;
+        volatile int failingPage;
+
+        ListingTransport(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public YukonResponse execute(YukonRequest request) throws IOException {
+            if (request.getUrl().endsWith("/ims/token/v2")) {
+                return response(200, "{\"access_token\":\"token\",\"expires_in\":3600}");
+            }
+            Matcher matcher = PAGE.matcher(request.getUrl());
+            if (!matcher.find()) {
+                return response(404, "{}");
+            }
+            int page = Integer.parseInt(matcher.group(1));
+            int pageSize = Integer.parseInt(matcher.group(2));
+            requestedPages.add(page);
+            if (page == failingPage) {
+                return response(400, "{\"error\":\"bad page\"}");
+            }
+            StringBuilder body = new StringBuilder("{\"total\":").append(total).append(",\"pages\":[");
+            for (int i = (page - 1) * pageSize; i < Math.min(total, page * pageSize); i++) {
+                if (body.charAt(body.length() - 1) != '[') {
+                    body.append(',');
+                }
+                body.append("{\"document_id\":\"doc-").append(i)
+                        .append("\",\"document_name\":\"content_dam_folder_cf").append(i).append("__master.json\"}");
+            }
+            return response(200, body.append("]}").toString());
+        }
+
+        @Override
+        public TransportMetrics getMetrics() {
+            return new TransportMetrics();
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private static YukonResponse response(int status, String body) {
+            return new YukonResponse(status, name -> null,
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), () -> { }, () -> { });
+        }
+    }
+}
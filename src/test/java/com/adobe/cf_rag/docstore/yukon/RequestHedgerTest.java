@@ -0,0 +1,95 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestHedgerTest {
+
+    @Test
+    void doesNotHedgeUntilEnoughFirstBytesWereSeen() {
+        RequestHedger hedger = new RequestHedger(95, 100, 0);
+
+        record(hedger, 19, 10);
+
+        assertEquals(-1, hedger.requestStarted());
+        assertEquals(-1, hedger.getDelayMillis());
+        record(hedger, 1, 10);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), hedger.requestStarted());
+    }
+
+    @Test
+    void delayIsThePercentileOfRecentFirstByteTimes() {
+        RequestHedger hedger = new RequestHedger(95, 100, 0);
+
+        for (int i = 1; i <= 100; i++) {
+            hedger.recordFirstByte(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertEquals(95, hedger.getDelayMillis());
+    }
+
+    @Test
+    void delayIsNeverBelowTheMinimum() {
+        RequestHedger hedger = new RequestHedger(95, 100, 50);
+
+        record(hedger, 20, 1);
+
+        assertEquals(50, hedger.getDelayMillis());
+    }
+
+    @Test
+    void delayFollowsTheWindowInSteps() {
+        RequestHedger hedger = new RequestHedger(95, 100, 0);
+        record(hedger, 20, 10);
+        assertEquals(10, hedger.getDelayMillis());
+
+        record(hedger, 15, 1000);
+        assertEquals(10, hedger.getDelayMillis());
+
+        record(hedger, 1, 1000);
+        assertEquals(1000, hedger.getDelayMillis());
+    }
+
+    @Test
+    void budgetCapsHedgesAtAFractionOfRequests() {
+        RequestHedger hedger = new RequestHedger(95, 50, 0);
+
+        for (int i = 0; i < 10; i++) {
+            hedger.requestStarted();
+        }
+        for (int i = 0; i < 5; i++) {
+            assertTrue(hedger.tryHedge());
+        }
+
+        assertFalse(hedger.tryHedge());
+        assertEquals(10, hedger.getRequests());
+        assertEquals(5, hedger.getHedges());
+        assertEquals(1, hedger.getBudgetDenied());
+    }
+
+    @Test
+    void idlePeriodsDoNotSaveUpMoreThanABurstOfHedges() {
+        RequestHedger hedger = new RequestHedger(95, 100, 0);
+
+        for (int i = 0; i < 100; i++) {
+            hedger.requestStarted();
+        }
+        int granted = 0;
+        while (hedger.tryHedge()) {
+            granted++;
+        }
+
+        assertEquals(10, granted);
+    }
+
+    private static void record(RequestHedger hedger, int times, long millis) {
+        for (int i = 0; i < times; i++) {
+            hedger.recordFirstByte(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
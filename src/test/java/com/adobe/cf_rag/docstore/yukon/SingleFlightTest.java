@@ -0,0 +1,138 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "value";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            followers.add(executor.submit(() -> flight.execute("key", () -> {
+                calls.incrementAndGet();
+                return "other";
+            })));
+        }
+        waitForCoalesced(flight, 4);
+        release.countDown();
+
+        assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void followersShareTheFailure() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw new DocumentStoreException("Yukon unavailable", 503);
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> flight.execute("key", () -> "unused"));
+        waitForCoalesced(flight, 1);
+        release.countDown();
+
+        for (Future<String> future : List.of(leader, follower)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            DocumentStoreException failure = (DocumentStoreException) e.getCause();
+            assertEquals("Yukon unavailable", failure.getMessage());
+            assertEquals(503, failure.getStatusCode());
+        }
+    }
+
+    @Test
+    void followersStartOverWhenTheLeaderIsCancelled() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(new CountDownLatch(1));
+            return "cancelled";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<String> follower = executor.submit(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            return "own";
+        }));
+        waitForCoalesced(flight, 1);
+        leader.cancel(true);
+
+        assertEquals("own", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    @Test
+    void callsAfterCompletionRunAgain() throws DocumentStoreException {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(1, (int) flight.execute("key", calls::incrementAndGet));
+        assertEquals(2, (int) flight.execute("key", calls::incrementAndGet));
+        assertEquals(3, (int) flight.execute("other", calls::incrementAndGet));
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    private static void await(CountDownLatch latch) throws DocumentStoreException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentStoreException("interrupted", e);
+        }
+    }
+
+    private static void waitForCoalesced(SingleFlight<?, ?> flight, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (flight.getCoalescedCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, flight.getCoalescedCount());
+    }
+}
@@ -0,0 +1,106 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseFramerTest {
+
+    @Test
+    void framesEventsSplitAtEveryChunkBoundary() throws IOException {
+        String stream = "data: first\n\n"
+                + "event: update\r\ndata: line one\r\ndata: line two\r\n\r\n"
+                + ": a comment\rdata: café ✓\r\r"
+                + "data:no space\n\n";
+        List<String> expected = Arrays.asList(
+                "null|first", "update|line one\nline two", "null|café ✓", "null|no space");
+
+        for (int chunkSize = 1; chunkSize <= stream.length(); chunkSize++) {
+            List<String> events = new ArrayList<>();
+            SseFramer framer = new SseFramer(chunked(stream, chunkSize));
+            SseFramer.Listener listener = (data, length) -> {
+                events.add(framer.getEventType() + "|" + new String(data, 0, length, StandardCharsets.UTF_8));
+                return false;
+            };
+            assertFalse(framer.run(listener));
+            assertEquals(expected, events, "chunk size " + chunkSize);
+            assertEquals(4, framer.getEventCount());
+        }
+    }
+
+    @Test
+    void readsIdRetryAndByteOrderMark() throws IOException {
+        String stream = "﻿id: 42\nretry: 1500\ndata: x\n\nretry: soon\ndata: y\n\n";
+        List<String> events = new ArrayList<>();
+        SseFramer framer = new SseFramer(chunked(stream, 2));
+
+        framer.run((data, length) -> {
+            events.add(new String(data, 0, length, StandardCharsets.UTF_8));
+            return false;
+        });
+
+        assertEquals(Arrays.asList("x", "y"), events);
+        assertEquals("42", framer.getLastEventId());
+        assertEquals(1500, framer.getRetryMillis());
+        assertTrue(framer.getFirstEventNanos() > 0);
+    }
+
+    @Test
+    void dispatchesEventPendingAtEndOfStream() throws IOException {
+        List<String> events = new ArrayList<>();
+        SseFramer framer = new SseFramer(chunked("data: a\n\ndata: tail", 3));
+
+        framer.run((data, length) -> {
+            events.add(new String(data, 0, length, StandardCharsets.UTF_8));
+            return false;
+        });
+
+        assertEquals(Arrays.asList("a", "tail"), events);
+    }
+
+    @Test
+    void stopsWhenListenerAsks() throws IOException {
+        List<String> events = new ArrayList<>();
+        SseFramer framer = new SseFramer(chunked("data: a\n\ndata: b\n\n", 1));
+
+        boolean stopped = framer.run((data, length) -> {
+            events.add(new String(data, 0, length, StandardCharsets.UTF_8));
+            return true;
+        });
+
+        assertTrue(stopped);
+        assertEquals(Arrays.asList("a"), events);
+    }
+
+    @Test
+    void ignoresBlankLinesWithoutData() throws IOException {
+        SseFramer framer = new SseFramer(chunked("event: ping\n\n\n: keep-alive\n\n", 4));
+
+        assertFalse(framer.run((data, length) -> true));
+        assertEquals(0, framer.getEventCount());
+        assertNull(framer.getEventType());
+    }
+
+    /**
+     * Returns a stream of the UTF-8 bytes of the text that hands out at most chunkSize bytes per read.
+     */
+    static InputStream chunked(String text, int chunkSize) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunkSize));
+            }
+        };
+    }
+}
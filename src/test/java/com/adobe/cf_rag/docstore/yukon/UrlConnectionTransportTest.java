@@ -0,0 +1,77 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link UrlConnectionTransport} against a local HTTP server.
+ */
+class UrlConnectionTransportTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Integer> receivedBodies = new CopyOnWriteArrayList<>();
+    private final CountDownLatch uploadHandled = new CountDownLatch(1);
+    private HttpServer server;
+    private UrlConnectionTransport transport;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/upload", exchange -> {
+            try {
+                receivedBodies.add(exchange.getRequestBody().readAllBytes().length);
+                exchange.sendResponseHeaders(204, -1);
+            } catch (IOException e) {
+                // the client broke the request off
+            } finally {
+                exchange.close();
+                uploadHandled.countDown();
+            }
+        });
+        server.start();
+        transport = new UrlConnectionTransport(YukonConfig.builder()
+                .clientId("client")
+                .clientSecret("secret")
+                .authorizationCode("code")
+                .build());
+    }
+
+    @AfterEach
+    void stopServer() {
+        transport.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void neverCompletesARequestWhoseBodyWriterFails() throws Exception {
+        YukonRequest request = YukonRequest.builder("POST",
+                        "http://127.0.0.1:" + server.getAddress().getPort() + "/upload")
+                .body(HttpClientTransportTest.failingBody(100 * 1024))
+                .readTimeout(5000)
+                .build();
+
+        assertThrows(IOException.class, () -> transport.execute(request));
+
+        assertTrue(uploadHandled.await(5, TimeUnit.SECONDS), "server still reading the request");
+        assertTrue(receivedBodies.isEmpty(), "server received a complete body of " + receivedBodies);
+        assertEquals(1, transport.getMetrics().getFailures());
+        assertEquals(0, transport.getMetrics().getInFlight());
+    }
+}
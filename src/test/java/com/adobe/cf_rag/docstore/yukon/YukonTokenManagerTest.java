@@ -0,0 +1,107 @@
+package com.adobe.cf_rag.docstore.yukon;
+
+import com.adobe.cf_rag.docstore.metrics.DocumentStoreMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link YukonTokenManager} against a stub IMS that issues numbered tokens.
+ */
+class YukonTokenManagerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger exchanges = new AtomicInteger();
+    private volatile CountDownLatch exchangeGate = new CountDownLatch(0);
+    private volatile CountDownLatch exchangeStarted = new CountDownLatch(1);
+    private final YukonTokenManager manager = new YukonTokenManager(YukonConfig.builder()
+            .imsHost("http://ims.invalid")
+            .clientId("client")
+            .clientSecret("secret")
+            .authorizationCode("code")
+            .build(), new StubIms(), new ObjectMapper(), new DocumentStoreMetrics());
+
+    @AfterEach
+    void close() {
+        manager.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void keepsOneBackgroundRefreshWhateverTheNumberOfRejections() throws IOException {
+        String token = manager.getAccessToken();
+        for (int i = 0; i < 5; i++) {
+            token = manager.refreshRejected(token);
+        }
+
+        assertEquals("token-6", token);
+        assertEquals(6, exchanges.get());
+        assertEquals(1, manager.getScheduledRefreshCount());
+        assertEquals(token, manager.getAccessToken());
+        assertEquals(6, exchanges.get());
+    }
+
+    @Test
+    void concurrentRejectionsShareOneExchange() throws Exception {
+        String rejected = manager.getAccessToken();
+        exchangeGate = new CountDownLatch(1);
+        exchangeStarted = new CountDownLatch(1);
+
+        List<Future<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(executor.submit(() -> manager.refreshRejected(rejected)));
+        }
+        assertTrue(exchangeStarted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        exchangeGate.countDown();
+
+        for (Future<String> caller : callers) {
+            assertEquals("token-2", caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(2, exchanges.get());
+        assertEquals(1, manager.getScheduledRefreshCount());
+    }
+
+    private final class StubIms implements YukonTransport {
+        private final TransportMetrics metrics = new TransportMetrics();
+
+        @Override
+        public YukonResponse execute(YukonRequest request) throws IOException {
+            int number = exchanges.incrementAndGet();
+            exchangeStarted.countDown();
+            try {
+                exchangeGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted", e);
+            }
+            byte[] body = ("{\"access_token\":\"token-" + number + "\",\"expires_in\":3600}")
+                    .getBytes(StandardCharsets.UTF_8);
+            return new YukonResponse(200, name -> null, new ByteArrayInputStream(body), () -> { }, () -> { });
+        }
+
+        @Override
+        public TransportMetrics getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
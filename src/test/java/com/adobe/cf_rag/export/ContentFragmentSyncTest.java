@@ -0,0 +1,241 @@
+package com.adobe.cf_rag.export;
+
+import com.adobe.cf_rag.docstore.api.DocumentStoreService;
+import com.adobe.cf_rag.docstore.api.model.UploadResult;
+import com.adobe.cq.dam.cfm.ContentFragment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feeds resource changes to {@link ContentFragmentSync} and checks what it uploads to a stub
+ * document store, reading fragments through a stub resolver.
+ */
+class ContentFragmentSyncTest {
+
+    private static final String CF = "/content/dam/site/cf";
+
+    private final List<String> uploaded = new CopyOnWriteArrayList<>();
+    private final List<Long> uploadTimes = new CopyOnWriteArrayList<>();
+    private final AtomicInteger variationLookups = new AtomicInteger();
+    private ContentFragmentSync sync;
+
+    @AfterEach
+    void close() {
+        if (sync != null) {
+            sync.close();
+        }
+    }
+
+    @Test
+    void uploadsABurstOfChangesOncePerFragmentAndVariation() throws InterruptedException {
+        sync = newSync("all", 50);
+
+        List<ResourceChange> changes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            changes.add(change(CF + "/jcr:content/data/master/field" + i));
+            changes.add(change("/content/dam/site/other/jcr:content/data/master"));
+        }
+        changes.add(change(CF + "/jcr:content/data/master"));
+        sync.onChange(changes.subList(0, 10));
+        sync.onChange(changes.subList(10, changes.size()));
+
+        awaitUploads(2);
+        Thread.sleep(200);
+
+        assertEquals(sorted("content_dam_site_cf__master.json", "content_dam_site_other__master.json"),
+                sorted(uploaded.toArray(new String[0])));
+        assertEquals(21, sync.getChanges());
+        assertEquals(0, sync.getPending());
+    }
+
+    @Test
+    void uploadsOnlyTheChangedVariations() throws InterruptedException {
+        sync = newSync("all", 50);
+
+        sync.onChange(Arrays.asList(
+                change(CF + "/jcr:content/data/v1/title"),
+                change(CF + "/jcr:content/data/v2")));
+
+        awaitUploads(2);
+        assertEquals(sorted("content_dam_site_cf__v1.json", "content_dam_site_cf__v2.json"),
+                sorted(uploaded.toArray(new String[0])));
+        assertEquals(0, variationLookups.get());
+    }
+
+    @Test
+    void uploadsEveryVariationForAChangeNotTiedToOne() throws InterruptedException {
+        sync = newSync("all", 50);
+
+        sync.onChange(Arrays.asList(
+                change(CF + "/jcr:content/data/v1/title"),
+                change(CF + "/jcr:content/metadata")));
+
+        awaitUploads(3);
+        assertEquals(sorted("content_dam_site_cf__master.json", "content_dam_site_cf__v1.json",
+                "content_dam_site_cf__v2.json"), sorted(uploaded.toArray(new String[0])));
+        assertEquals(1, variationLookups.get());
+    }
+
+    @Test
+    void ignoresVariationsThatAreNotSynced() throws InterruptedException {
+        sync = newSync("master", 50);
+
+        sync.onChange(Collections.singletonList(change(CF + "/jcr:content/data/v1/title")));
+        Thread.sleep(200);
+
+        assertTrue(uploaded.isEmpty(), String.valueOf(uploaded));
+        assertEquals(0, sync.getChanges());
+        assertEquals(0, sync.getPending());
+    }
+
+    @Test
+    void ignoresRenditions() throws InterruptedException {
+        sync = newSync("all", 50);
+
+        sync.onChange(Arrays.asList(
+                change(CF + "/jcr:content/renditions/original"),
+                change(CF + "/jcr:content/renditions/cq5dam.thumbnail.48.48.png/jcr:content")));
+        Thread.sleep(200);
+
+        assertTrue(uploaded.isEmpty(), String.valueOf(uploaded));
+        assertEquals(0, sync.getChanges());
+    }
+
+    @Test
+    void uploadsAFragmentThatKeepsChangingAfterTheMaximumDelay() throws InterruptedException {
+        // a debounce of 50 ms caps the delay at 500 ms
+        sync = newSync("master", 50);
+
+        long start = System.currentTimeMillis();
+        long end = start + 1500;
+        while (System.currentTimeMillis() < end) {
+            sync.onChange(Collections.singletonList(change(CF + "/jcr:content/data/master")));
+            Thread.sleep(10);
+        }
+
+        assertTrue(uploaded.size() >= 2, "uploads while changing: " + uploaded);
+        long first = uploadTimes.get(0) - start;
+        assertTrue(first >= 450 && first < 1000, "first upload after " + first + " ms");
+    }
+
+    private ContentFragmentSync newSync(String variation, long debounceMs) {
+        return new ContentFragmentSync(store(), new StubSerializer(), resolverFactory(), "c1", variation,
+                debounceMs);
+    }
+
+    private void awaitUploads(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (uploaded.size() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("uploaded only " + uploaded);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static ResourceChange change(String path) {
+        return new ResourceChange(ResourceChange.ChangeType.CHANGED, path, false);
+    }
+
+    private static List<String> sorted(String... fileNames) {
+        List<String> list = new ArrayList<>(Arrays.asList(fileNames));
+        Collections.sort(list);
+        return list;
+    }
+
+    private DocumentStoreService store() {
+        return proxy(DocumentStoreService.class, (method, args) -> {
+            if (method.equals("uploadDocument")) {
+                uploadTimes.add(System.currentTimeMillis());
+                uploaded.add((String) args[1]);
+                return UploadResult.success("id-" + args[1], (String) args[1]);
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static ResourceResolverFactory resolverFactory() {
+        ResourceResolver resolver = proxy(ResourceResolver.class, (method, args) -> {
+            switch (method) {
+                case "getResource":
+                    return fragmentResource((String) args[0]);
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        return proxy(ResourceResolverFactory.class, (method, args) -> resolver);
+    }
+
+    private static Resource fragmentResource(String path) {
+        ContentFragment fragment = proxy(ContentFragment.class, (method, args) -> {
+            throw new UnsupportedOperationException(method);
+        });
+        return proxy(Resource.class, (method, args) -> {
+            switch (method) {
+                case "getPath":
+                    return path;
+                case "adaptTo":
+                    return args[0] == ContentFragment.class ? fragment : null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    /**
+     * Gives every fragment the variations master, v1 and v2, and serializes nothing.
+     */
+    private final class StubSerializer extends ContentFragmentSerializer {
+
+        private StubSerializer() {
+            super(new ObjectMapper());
+        }
+
+        @Override
+        public List<String> getVariationsToExport(ContentFragment cf, String variationParam) {
+            variationLookups.incrementAndGet();
+            return "all".equals(variationParam)
+                    ? Arrays.asList("master", "v1", "v2")
+                    : Collections.singletonList(variationParam);
+        }
+
+        @Override
+        public String buildJsonContent(ContentFragment cf, String variation) {
+            return "{}";
+        }
+    }
+
+    interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("equals") ? proxy == args[0]
+                                : method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                                : type.getSimpleName();
+                    }
+                    return handler.invoke(method.getName(), args);
+                }));
+    }
+}
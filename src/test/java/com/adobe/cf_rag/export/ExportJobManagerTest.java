@@ -0,0 +1,158 @@
+package com.adobe.cf_rag.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks whose identity {@link ExportJobManager} runs jobs as, whose jobs it reports, and that a
+ * job never runs twice at once.
+ */
+class ExportJobManagerTest {
+
+    private final List<Map<String, Object>> logins = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch loginGate = new CountDownLatch(0);
+    private Path directory;
+    private ResourceResolverFactory factory;
+    private ExportJobManager manager;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("export-jobs");
+        factory = (ResourceResolverFactory) Proxy.newProxyInstance(
+                ResourceResolverFactory.class.getClassLoader(), new Class<?>[]{ResourceResolverFactory.class},
+                (proxy, method, args) -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> authenticationInfo = (Map<String, Object>) args[0];
+                    logins.add(authenticationInfo);
+                    awaitUninterruptibly(loginGate);
+                    throw new LoginException("impersonation denied");
+                });
+        manager = newManager();
+    }
+
+    private ExportJobManager newManager() {
+        return new ExportJobManager(null, null, factory, directory.resolve("jobs").toFile(),
+                directory.resolve("manifests").toFile(), new ObjectMapper(), 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        manager.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    void runsAJobAsItsSubmitter() throws InterruptedException {
+        ExportJob job = manager.submit("c1", "/content/dam/site", "master", false, "alice");
+
+        awaitFinished(job);
+
+        assertEquals(1, logins.size());
+        assertEquals(ExportJobManager.SUBSERVICE, logins.get(0).get(ResourceResolverFactory.SUBSERVICE));
+        assertEquals("alice", logins.get(0).get(ResourceResolverFactory.USER_IMPERSONATION));
+        assertEquals(ExportJob.State.FAILED, job.getState());
+        assertTrue(job.getErrorMessage().contains("alice"), job.getErrorMessage());
+    }
+
+    @Test
+    void listsOnlyTheJobsOfTheGivenUser() throws InterruptedException {
+        ExportJob alice = manager.submit("c1", "/content/dam/a", "master", false, "alice");
+        ExportJob bob = manager.submit("c1", "/content/dam/b", "master", false, "bob");
+        awaitFinished(alice);
+        awaitFinished(bob);
+
+        assertEquals(List.of(alice), manager.getJobs("alice"));
+        assertEquals(List.of(bob), manager.getJobs("bob"));
+        assertTrue(manager.getJobs(null).isEmpty());
+    }
+
+    @Test
+    void failsAResumedJobWithoutASubmitterWithoutLoggingIn() throws IOException, InterruptedException {
+        Path jobs = Files.createDirectories(directory.resolve("jobs"));
+        Files.write(jobs.resolve("old.json"), ("{\"id\":\"old\",\"collectionId\":\"c1\",\"rootPath\":\"/content/dam\","
+                + "\"variation\":\"master\",\"incremental\":false,\"createdAt\":1,\"state\":\"RUNNING\","
+                + "\"checkpoint\":{}}").getBytes(StandardCharsets.UTF_8));
+
+        manager.resumeJobs();
+        ExportJob job = manager.getJob("old");
+        awaitFinished(job);
+
+        assertEquals(ExportJob.State.FAILED, job.getState());
+        assertTrue(logins.isEmpty());
+    }
+
+    @Test
+    void resumesAJobOnlyOnceTheRunThatDidNotStopHasEnded() throws InterruptedException {
+        loginGate = new CountDownLatch(1);
+        ExportJob job = manager.submit("c1", "/content/dam/site", "master", false, "alice");
+        while (logins.isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        // the first manager stands for one whose close() gave up waiting for its job
+        ExportJobManager next = newManager();
+        try {
+            next.resumeJobs();
+            ExportJob resumed = next.getJob(job.getId());
+            Thread.sleep(1500);
+            assertEquals(1, logins.size());
+            assertEquals(ExportJob.State.QUEUED, resumed.getState());
+
+            loginGate.countDown();
+            awaitFinished(resumed);
+
+            assertEquals(ExportJob.State.FAILED, resumed.getState());
+            assertEquals(job.getErrorMessage(), resumed.getErrorMessage());
+            assertEquals(1, logins.size());
+        } finally {
+            next.close();
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void awaitFinished(ExportJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (job.getState() != ExportJob.State.FAILED && job.getState() != ExportJob.State.SUCCEEDED) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("job " + job.getId() + " still " + job.getState());
+            }
+            Thread.sleep(10);
+        }
+    }
+}
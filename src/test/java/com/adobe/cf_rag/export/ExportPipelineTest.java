@@ -0,0 +1,220 @@
+package com.adobe.cf_rag.export;
+
+import com.adobe.cf_rag.docstore.api.DocumentStoreException;
+import com.adobe.cf_rag.docstore.api.DocumentStoreService;
+import com.adobe.cf_rag.docstore.api.model.Document;
+import com.adobe.cf_rag.docstore.api.model.UploadResult;
+import com.adobe.cq.dam.cfm.ContentFragment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link ExportPipeline} against an in-memory repository and document store.
+ */
+class ExportPipelineTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final ContentFragmentSerializer serializer = new ContentFragmentSerializer(new ObjectMapper());
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void exportsEveryFragment() throws Exception {
+        AtomicInteger uploads = new AtomicInteger();
+        DocumentStoreService store = store(uploads, () -> { });
+        ExportPipeline pipeline = new ExportPipeline(store, serializer, 2, 2, 4, 5);
+
+        ExportStats stats = pipeline.run(resolver(), paths(50), "c1", "master", null);
+
+        assertEquals(50, stats.getDiscovered());
+        assertEquals(50, stats.getFragmentsRead());
+        assertEquals(50, stats.getUploadsSucceeded());
+        assertEquals(50, uploads.get());
+    }
+
+    @Test
+    void countsEveryDocumentOfAFailedBatchAsFailed() throws Exception {
+        AtomicInteger thrownBatchSize = new AtomicInteger();
+        DocumentStoreService store = proxy(DocumentStoreService.class, (method, args) -> {
+            List<UploadResult> results = new ArrayList<>();
+            for (Object document : (List<?>) args[1]) {
+                String fileName = ((Document) document).getFileName();
+                if (fileName.equals("content_dam_cf-13__master.json")) {
+                    thrownBatchSize.set(((List<?>) args[1]).size());
+                    throw new DocumentStoreException("batch rejected");
+                }
+                results.add(fileName.equals("content_dam_cf-7__master.json")
+                        ? UploadResult.failure(fileName, "rejected")
+                        : UploadResult.success("id-" + fileName, fileName));
+            }
+            return results;
+        });
+        ExportPipeline pipeline = new ExportPipeline(store, serializer, 1, 1, 20, 5);
+
+        ExportStats stats = pipeline.run(resolver(), paths(20), "c1", "master", null);
+
+        assertTrue(thrownBatchSize.get() > 0);
+        assertEquals(1 + thrownBatchSize.get(), stats.getUploadsFailed());
+        assertEquals(20 - 1 - thrownBatchSize.get(), stats.getUploadsSucceeded());
+    }
+
+    @Test
+    void abortsWhenTheUploadWorkersDie() throws Exception {
+        DocumentStoreService store = store(new AtomicInteger(), () -> {
+            throw new WorkerKilled();
+        });
+        ExportPipeline pipeline = new ExportPipeline(store, serializer, 2, 1, 1, 1);
+
+        Future<ExportStats> run = executor.submit(() -> pipeline.run(resolver(), paths(100), "c1", "master", null));
+
+        ExecutionException e = assertThrowsExecution(run);
+        assertTrue(e.getCause() instanceof IllegalStateException, String.valueOf(e.getCause()));
+    }
+
+    @Test
+    void stopsTheWorkersWhenCancelled() throws Exception {
+        CountDownLatch uploading = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        DocumentStoreService store = store(new AtomicInteger(), () -> {
+            uploading.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExportPipeline pipeline = new ExportPipeline(store, serializer, 1, 1, 2, 1);
+
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                pipeline.run(resolver(), paths(100), "c1", "master", null);
+            } catch (Throwable t) {
+                outcome.set(t);
+            }
+        });
+        runner.start();
+        assertTrue(uploading.await(5, TimeUnit.SECONDS));
+        runner.interrupt();
+
+        runner.join(5000);
+        assertFalse(runner.isAlive(), "export did not stop");
+        assertTrue(outcome.get() instanceof InterruptedException, String.valueOf(outcome.get()));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "upload worker was not interrupted");
+    }
+
+    private static ExecutionException assertThrowsExecution(Future<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e;
+        }
+        throw new AssertionError("export did not fail");
+    }
+
+    private static Iterator<String> paths(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "/content/dam/cf-" + i).iterator();
+    }
+
+    private static DocumentStoreService store(AtomicInteger uploads, Runnable onUpload) {
+        return proxy(DocumentStoreService.class, (method, args) -> {
+            if (method.equals("uploadDocuments")) {
+                onUpload.run();
+                List<UploadResult> results = new ArrayList<>();
+                for (Object document : (List<?>) args[1]) {
+                    String fileName = ((Document) document).getFileName();
+                    uploads.incrementAndGet();
+                    results.add(UploadResult.success("id-" + fileName, fileName));
+                }
+                return results;
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private static ResourceResolver resolver() {
+        return proxy(ResourceResolver.class, (method, args) -> {
+            switch (method) {
+                case "clone":
+                    return resolver();
+                case "getResource":
+                    return fragmentResource((String) args[0]);
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private static Resource fragmentResource(String path) {
+        ContentFragment fragment = proxy(ContentFragment.class, (method, args) -> {
+            switch (method) {
+                case "getTitle":
+                case "getName":
+                    return path.substring(path.lastIndexOf('/') + 1);
+                case "getElements":
+                case "listAllVariations":
+                    return Collections.emptyIterator();
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+        return proxy(Resource.class, (method, args) -> {
+            switch (method) {
+                case "getPath":
+                    return path;
+                case "adaptTo":
+                    return args[0] == ContentFragment.class ? fragment : null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return method.getName().equals("equals") ? proxy == args[0]
+                                : method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                                : type.getSimpleName();
+                    }
+                    return handler.invoke(method.getName(), args);
+                }));
+    }
+
+    private static final class WorkerKilled extends Error {
+        private static final long serialVersionUID = 1L;
+    }
+}
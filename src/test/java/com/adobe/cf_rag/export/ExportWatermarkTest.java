@@ -0,0 +1,100 @@
+package com.adobe.cf_rag.export;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ExportWatermarkTest {
+
+    @Test
+    void advancesOnlyOverAContiguousPrefix() {
+        ExportWatermark watermark = discovered("/a", "/b", "/c", "/d");
+
+        watermark.read("/c", 0);
+        watermark.read("/b", 0);
+        assertEquals(0, watermark.getCompleted());
+        assertNull(watermark.getCompletedPath());
+
+        watermark.read("/a", 0);
+        assertEquals(3, watermark.getCompleted());
+        assertEquals("/c", watermark.getCompletedPath());
+
+        watermark.read("/d", 0);
+        assertEquals(4, watermark.getCompleted());
+        assertEquals("/d", watermark.getCompletedPath());
+    }
+
+    @Test
+    void waitsForEveryDocumentOfAPath() {
+        ExportWatermark watermark = discovered("/a", "/b");
+        watermark.read("/a", 3);
+        watermark.read("/b", 1);
+
+        watermark.uploaded("/b");
+        watermark.uploaded("/a");
+        watermark.uploaded("/a");
+        assertEquals(0, watermark.getCompleted());
+
+        watermark.uploaded("/a");
+        assertEquals(2, watermark.getCompleted());
+        assertEquals("/b", watermark.getCompletedPath());
+    }
+
+    @Test
+    void handlesUploadsCompletingInReverseOrder() {
+        String[] paths = new String[50];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = "/fragment-" + i;
+        }
+        ExportWatermark watermark = discovered(paths);
+        for (String path : paths) {
+            watermark.read(path, 2);
+        }
+
+        for (int i = paths.length - 1; i > 0; i--) {
+            watermark.uploaded(paths[i]);
+            watermark.uploaded(paths[i]);
+        }
+        assertEquals(0, watermark.getCompleted());
+
+        watermark.uploaded(paths[0]);
+        assertEquals(0, watermark.getCompleted());
+        watermark.uploaded(paths[0]);
+        assertEquals(50, watermark.getCompleted());
+        assertEquals("/fragment-49", watermark.getCompletedPath());
+    }
+
+    @Test
+    void ignoresUnknownPaths() {
+        ExportWatermark watermark = discovered("/a");
+
+        watermark.read("/unknown", 0);
+        watermark.uploaded("/unknown");
+
+        assertEquals(0, watermark.getCompleted());
+    }
+
+    @Test
+    void stopFreezesTheWatermark() {
+        ExportWatermark watermark = discovered("/a", "/b");
+        watermark.read("/a", 0);
+        watermark.read("/b", 1);
+
+        watermark.stop();
+        watermark.uploaded("/b");
+        watermark.discovered("/c");
+        watermark.read("/c", 0);
+
+        assertEquals(1, watermark.getCompleted());
+        assertEquals("/a", watermark.getCompletedPath());
+    }
+
+    private static ExportWatermark discovered(String... paths) {
+        ExportWatermark watermark = new ExportWatermark();
+        for (String path : paths) {
+            watermark.discovered(path);
+        }
+        return watermark;
+    }
+}
@@ -0,0 +1,167 @@
+package com.adobe.cf_rag.export;
+
+import org.junit.jupiter.api.Test;
+
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.Workspace;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.jcr.query.QueryResult;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs {@link FragmentDiscovery} against a stub query manager holding a sorted list of fragment
+ * paths.
+ */
+class FragmentDiscoveryTest {
+
+    private final List<String> statements = new ArrayList<>();
+    private final Map<String, String> bindings = new HashMap<>();
+    private final AtomicInteger rowsRead = new AtomicInteger();
+
+    @Test
+    void readsEveryFragmentOnceOverSeveralWindowsOfOneQuery() {
+        List<String> fragments = fragments(10);
+        FragmentDiscovery.FragmentPaths paths = new FragmentDiscovery(3).find(session(fragments), "/content/dam");
+
+        assertEquals("/content/dam/f00", paths.next());
+        assertEquals(3, rowsRead.get());
+        assertEquals(-1, paths.getTotal());
+
+        List<String> found = new ArrayList<>(List.of("/content/dam/f00"));
+        paths.forEachRemaining(found::add);
+
+        assertEquals(fragments, found);
+        assertEquals(10, paths.getTotal());
+        assertEquals(1, statements.size());
+        assertFalse(statements.get(0).contains("$after"), statements.get(0));
+    }
+
+    @Test
+    void endsOnAFullWindowWhenThePageSizeDividesTheFragments() {
+        List<String> fragments = fragments(9);
+        FragmentDiscovery.FragmentPaths paths = new FragmentDiscovery(3).find(session(fragments), "/content/dam");
+
+        List<String> found = new ArrayList<>();
+        paths.forEachRemaining(found::add);
+
+        assertEquals(fragments, found);
+        assertEquals(9, paths.getTotal());
+        assertEquals(1, statements.size());
+    }
+
+    @Test
+    void resumesAfterThePathWithOneBoundQuery() {
+        List<String> fragments = fragments(10);
+        FragmentDiscovery.FragmentPaths paths = new FragmentDiscovery(4)
+                .find(session(fragments), "/content/dam", "/content/dam/f02", 3);
+
+        List<String> found = new ArrayList<>();
+        paths.forEachRemaining(found::add);
+
+        assertEquals(fragments.subList(3, 10), found);
+        assertEquals(10, paths.getTotal());
+        assertEquals(1, statements.size());
+        assertTrue(statements.get(0).contains("a.[jcr:path] > $after"), statements.get(0));
+        assertEquals("/content/dam/f02", bindings.get("after"));
+    }
+
+    @Test
+    void findsNothingUnderAnEmptyTree() {
+        FragmentDiscovery.FragmentPaths paths = new FragmentDiscovery(3).find(session(List.of()), "/content/dam");
+
+        assertFalse(paths.hasNext());
+        assertEquals(0, paths.getTotal());
+    }
+
+    private static List<String> fragments(int count) {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            paths.add(String.format("/content/dam/f%02d", i));
+        }
+        return paths;
+    }
+
+    /**
+     * Returns a session whose queries list the given paths, after the bound {@code after} path
+     * if there is one.
+     */
+    private Session session(List<String> fragments) {
+        ValueFactory values = stub(ValueFactory.class, (method, args) -> stub(Value.class, (m, a) -> {
+            if (m.equals("getString")) {
+                return args[0];
+            }
+            throw new UnsupportedOperationException(m);
+        }));
+        QueryManager queryManager = stub(QueryManager.class, (method, args) -> {
+            statements.add((String) args[0]);
+            return stub(Query.class, (m, a) -> {
+                switch (m) {
+                    case "bindValue":
+                        bindings.put((String) a[0], ((Value) a[1]).getString());
+                        return null;
+                    case "execute":
+                        String after = bindings.get("after");
+                        List<String> matches = new ArrayList<>();
+                        for (String path : fragments) {
+                            if (after == null || path.compareTo(after) > 0) {
+                                matches.add(path);
+                            }
+                        }
+                        return stub(QueryResult.class, (m2, a2) -> rows(matches.iterator()));
+                    default:
+                        throw new UnsupportedOperationException(m);
+                }
+            });
+        });
+        Workspace workspace = stub(Workspace.class, (method, args) -> queryManager);
+        return stub(Session.class, (method, args) -> {
+            switch (method) {
+                case "getWorkspace":
+                    return workspace;
+                case "getValueFactory":
+                    return values;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private RowIterator rows(Iterator<String> paths) {
+        return stub(RowIterator.class, (method, args) -> {
+            switch (method) {
+                case "hasNext":
+                    return paths.hasNext();
+                case "nextRow":
+                    String path = paths.next();
+                    rowsRead.incrementAndGet();
+                    return stub(Row.class, (m, a) -> path);
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args) throws Exception;
+    }
+
+    private static <T> T stub(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+}